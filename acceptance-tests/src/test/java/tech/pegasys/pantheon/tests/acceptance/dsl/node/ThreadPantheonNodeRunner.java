@@ -20,6 +20,10 @@ import tech.pegasys.pantheon.cli.EthNetworkConfig;
 import tech.pegasys.pantheon.cli.PantheonControllerBuilder;
 import tech.pegasys.pantheon.controller.PantheonController;
 import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration.Builder;
+import tech.pegasys.pantheon.ethereum.mainnet.EthHasher;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateConfiguration;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+import tech.pegasys.pantheon.metrics.prometheus.MetricsConfiguration;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -55,11 +59,15 @@ public class ThreadPantheonNodeRunner implements PantheonNodeRunner {
       pantheonController =
           builder.build(
               new Builder().build(),
+              WorldStateConfiguration.builder().build(),
               node.homeDirectory(),
               ethNetworkConfig,
               false,
               node.getMiningParameters(),
-              true);
+              true,
+              new EthHasher.Light(),
+              true,
+              new NoOpMetricsSystem());
     } catch (final IOException e) {
       throw new RuntimeException("Error building PantheonController", e);
     }
@@ -76,6 +84,7 @@ public class ThreadPantheonNodeRunner implements PantheonNodeRunner {
                 25,
                 node.jsonRpcConfiguration(),
                 node.webSocketConfiguration(),
+                MetricsConfiguration.createDefault(),
                 node.homeDirectory());
 
     nodeExecutor.submit(runner::execute);
@@ -16,6 +16,7 @@ import tech.pegasys.pantheon.crypto.SECP256K1.KeyPair;
 import tech.pegasys.pantheon.ethereum.core.Util;
 import tech.pegasys.pantheon.ethereum.mainnet.MutableProtocolSchedule;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
+import tech.pegasys.pantheon.ethereum.vm.CodeCache;
 
 import java.util.Optional;
 
@@ -28,8 +29,19 @@ public class CliqueProtocolSchedule extends MutableProtocolSchedule<CliqueContex
   private static final int DEFAULT_BLOCK_PERIOD_SECONDS = 1;
   private static final int DEFAULT_CHAIN_ID = 4;
 
+  public CliqueProtocolSchedule() {}
+
+  private CliqueProtocolSchedule(final CodeCache codeCache) {
+    super(codeCache);
+  }
+
   public static ProtocolSchedule<CliqueContext> create(
       final JsonObject config, final KeyPair nodeKeys) {
+    return create(config, nodeKeys, new CodeCache(CodeCache.DEFAULT_MAXIMUM_SIZE));
+  }
+
+  public static ProtocolSchedule<CliqueContext> create(
+      final JsonObject config, final KeyPair nodeKeys, final CodeCache codeCache) {
 
     // Get Config Data
     final Optional<JsonObject> cliqueConfig = Optional.ofNullable(config.getJsonObject("clique"));
@@ -41,7 +53,8 @@ public class CliqueProtocolSchedule extends MutableProtocolSchedule<CliqueContex
             .orElse(DEFAULT_BLOCK_PERIOD_SECONDS);
     final int chainId = config.getInteger("chainId", DEFAULT_CHAIN_ID);
 
-    final MutableProtocolSchedule<CliqueContext> protocolSchedule = new CliqueProtocolSchedule();
+    final MutableProtocolSchedule<CliqueContext> protocolSchedule =
+        new CliqueProtocolSchedule(codeCache);
 
     // TODO(tmm) replace address with passed in node data (coming later)
     final CliqueProtocolSpecs specs =
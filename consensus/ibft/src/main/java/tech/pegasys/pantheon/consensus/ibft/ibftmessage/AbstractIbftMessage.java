@@ -33,7 +33,7 @@ public abstract class AbstractIbftMessage extends AbstractMessageData {
     ibftSignedMessageData.writeTo(rlpEncode);
 
     final ByteBuf data = NetworkMemoryPool.allocate(rlpEncode.encodedSize());
-    data.writeBytes(rlpEncode.encoded().extractArray());
+    rlpEncode.appendEncoded(data);
 
     return data;
   }
@@ -15,6 +15,7 @@ package tech.pegasys.pantheon.consensus.ibftlegacy;
 import tech.pegasys.pantheon.consensus.ibft.IbftContext;
 import tech.pegasys.pantheon.ethereum.mainnet.MutableProtocolSchedule;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
+import tech.pegasys.pantheon.ethereum.vm.CodeCache;
 
 import java.util.Optional;
 
@@ -27,6 +28,11 @@ public class IbftProtocolSchedule {
   private static final int DEFAULT_BLOCK_PERIOD_SECONDS = 1;
 
   public static ProtocolSchedule<IbftContext> create(final JsonObject config) {
+    return create(config, new CodeCache(CodeCache.DEFAULT_MAXIMUM_SIZE));
+  }
+
+  public static ProtocolSchedule<IbftContext> create(
+      final JsonObject config, final CodeCache codeCache) {
     final long spuriousDragonBlock = config.getLong("spuriousDragonBlock", 0L);
     final Optional<JsonObject> ibftConfig = Optional.ofNullable(config.getJsonObject("ibft"));
     final int chainId = config.getInteger("chainId", 1);
@@ -36,7 +42,8 @@ public class IbftProtocolSchedule {
             .map(iC -> iC.getInteger("blockPeriodSeconds"))
             .orElse(DEFAULT_BLOCK_PERIOD_SECONDS);
 
-    final MutableProtocolSchedule<IbftContext> protocolSchedule = new MutableProtocolSchedule<>();
+    final MutableProtocolSchedule<IbftContext> protocolSchedule =
+        new MutableProtocolSchedule<>(codeCache);
     protocolSchedule.putMilestone(
         spuriousDragonBlock,
         IbftProtocolSpecs.spuriousDragon(blockPeriod, epochLength, chainId, protocolSchedule));
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.crypto;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.math.BigInteger;
+import java.util.Optional;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class SECP256K1Bench {
+
+  volatile SECP256K1.KeyPair keyPair;
+  volatile Bytes32 dataHash;
+  volatile SECP256K1.Signature signature;
+
+  @Setup(Level.Trial)
+  public void prepare() {
+    keyPair = SECP256K1.KeyPair.create(SECP256K1.PrivateKey.create(BigInteger.valueOf(42)));
+    dataHash = Hash.keccak256(BytesValue.wrap("pantheon".getBytes(UTF_8)));
+    signature = SECP256K1.sign(dataHash, keyPair);
+  }
+
+  /** The per-transaction cost of recovering a sender. */
+  @Benchmark
+  public Optional<SECP256K1.PublicKey> recoverFromSignature() {
+    return SECP256K1.PublicKey.recoverFromSignature(dataHash, signature);
+  }
+
+  @Benchmark
+  public SECP256K1.Signature sign() {
+    return SECP256K1.sign(dataHash, keyPair);
+  }
+
+  @Benchmark
+  public boolean verify() {
+    return SECP256K1.verify(dataHash, signature, keyPair.getPublicKey());
+  }
+}
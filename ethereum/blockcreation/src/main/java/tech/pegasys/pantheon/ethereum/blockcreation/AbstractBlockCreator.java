@@ -21,6 +21,7 @@ import tech.pegasys.pantheon.ethereum.core.BlockHeaderBuilder;
 import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.ethereum.core.MutableAccount;
 import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.ethereum.core.PendingTransactionListener;
 import tech.pegasys.pantheon.ethereum.core.PendingTransactions;
 import tech.pegasys.pantheon.ethereum.core.ProcessableBlockHeader;
 import tech.pegasys.pantheon.ethereum.core.SealableBlockHeader;
@@ -37,6 +38,8 @@ import tech.pegasys.pantheon.util.uint.UInt256;
 import java.math.BigInteger;
 import java.util.List;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 
@@ -52,6 +55,9 @@ public abstract class AbstractBlockCreator<C> implements AsyncBlockCreator {
   }
 
   private static final Logger LOG = LogManager.getLogger();
+  private static final long MAX_WAIT_BETWEEN_SELECTIONS_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+  // Each selection copies the ready transactions of the pool, so arrivals are batched.
+  private static final long MIN_TIME_BETWEEN_SELECTIONS_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
 
   protected final Address coinbase;
 
@@ -107,6 +113,20 @@ public abstract class AbstractBlockCreator<C> implements AsyncBlockCreator {
    */
   @Override
   public Block createBlock(final long timestamp) {
+    return createBlock(timestamp, 0);
+  }
+
+  /**
+   * Creates a block as {@link #createBlock(long)} does, but keeps adding the transactions that
+   * arrive in the PendingTransactions for the given time before the block is sealed. This lets a
+   * block which can't be sealed until its timestamp is reached include the transactions received
+   * while it waits, without selecting all of them at the last moment.
+   *
+   * @param timestamp the timestamp of the block to create.
+   * @param millisecondsUntilSealing how long transactions may be added for.
+   * @return a block with appropriately selected transactions, seals and ommers.
+   */
+  public Block createBlock(final long timestamp, final long millisecondsUntilSealing) {
     try {
       final ProcessableBlockHeader processableBlockHeader = createPendingBlockHeader(timestamp);
 
@@ -120,8 +140,11 @@ public abstract class AbstractBlockCreator<C> implements AsyncBlockCreator {
 
       throwIfStopped();
 
+      final BlockTransactionSelector selector =
+          createTransactionSelector(processableBlockHeader, disposableWorldState);
+      selectArrivingTransactions(selector, millisecondsUntilSealing);
       final BlockTransactionSelector.TransactionSelectionResults transactionResults =
-          selectTransactions(processableBlockHeader, disposableWorldState);
+          selector.buildTransactionListForBlock();
 
       throwIfStopped();
 
@@ -168,10 +191,9 @@ public abstract class AbstractBlockCreator<C> implements AsyncBlockCreator {
     }
   }
 
-  private BlockTransactionSelector.TransactionSelectionResults selectTransactions(
+  private BlockTransactionSelector createTransactionSelector(
       final ProcessableBlockHeader processableBlockHeader,
-      final MutableWorldState disposableWorldState)
-      throws RuntimeException {
+      final MutableWorldState disposableWorldState) {
     final long blockNumber = processableBlockHeader.getNumber();
 
     final TransactionProcessor transactionProcessor =
@@ -180,19 +202,54 @@ public abstract class AbstractBlockCreator<C> implements AsyncBlockCreator {
     final TransactionReceiptFactory transactionReceiptFactory =
         protocolSchedule.getByBlockNumber(blockNumber).getTransactionReceiptFactory();
 
-    final BlockTransactionSelector selector =
-        new BlockTransactionSelector(
-            transactionProcessor,
-            protocolContext.getBlockchain(),
-            disposableWorldState,
-            pendingTransactions,
-            processableBlockHeader,
-            transactionReceiptFactory,
-            minTransactionGasPrice,
-            isCancelled::get,
-            miningBeneficiary);
-
-    return selector.buildTransactionListForBlock();
+    return new BlockTransactionSelector(
+        transactionProcessor,
+        protocolContext.getBlockchain(),
+        disposableWorldState,
+        pendingTransactions,
+        processableBlockHeader,
+        transactionReceiptFactory,
+        minTransactionGasPrice,
+        isCancelled::get,
+        miningBeneficiary);
+  }
+
+  /*
+   * Selects the pending transactions, then again once transactions have been added to the pool,
+   * at most once per MIN_TIME_BETWEEN_SELECTIONS_NANOS, until the time to seal the block has come.
+   */
+  private void selectArrivingTransactions(
+      final BlockTransactionSelector selector, final long millisecondsUntilSealing) {
+    final Semaphore transactionsAdded = new Semaphore(0);
+    final PendingTransactionListener listener = transaction -> transactionsAdded.release();
+    pendingTransactions.addTransactionListener(listener);
+    try {
+      selector.buildTransactionListForBlock();
+      long lastSelectionTime = System.nanoTime();
+      final long sealingTime =
+          lastSelectionTime + TimeUnit.MILLISECONDS.toNanos(millisecondsUntilSealing);
+      long remainingNanos;
+      while ((remainingNanos = sealingTime - System.nanoTime()) > 0) {
+        // Wake up regularly so cancellation isn't delayed until the block is sealed.
+        final long maxWaitNanos = Math.min(remainingNanos, MAX_WAIT_BETWEEN_SELECTIONS_NANOS);
+        final long nanosUntilNextSelection =
+            lastSelectionTime + MIN_TIME_BETWEEN_SELECTIONS_NANOS - System.nanoTime();
+        if (nanosUntilNextSelection > 0) {
+          TimeUnit.NANOSECONDS.sleep(Math.min(nanosUntilNextSelection, maxWaitNanos));
+        } else if (transactionsAdded.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+          transactionsAdded.drainPermits();
+          throwIfStopped();
+          selector.buildTransactionListForBlock();
+          lastSelectionTime = System.nanoTime();
+        }
+        throwIfStopped();
+      }
+    } catch (final InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new CancellationException("Interrupted while waiting for transactions.");
+    } finally {
+      pendingTransactions.removeTransactionListener(listener);
+    }
   }
 
   private MutableWorldState duplicateWorldStateAtParent() {
@@ -13,6 +13,7 @@
 package tech.pegasys.pantheon.ethereum.blockcreation;
 
 import tech.pegasys.pantheon.ethereum.ProtocolContext;
+import tech.pegasys.pantheon.ethereum.blockcreation.AbstractBlockScheduler.BlockCreationTimeResult;
 import tech.pegasys.pantheon.ethereum.chain.MinedBlockObserver;
 import tech.pegasys.pantheon.ethereum.core.Block;
 import tech.pegasys.pantheon.ethereum.core.BlockHeader;
@@ -84,10 +85,13 @@ public class BlockMiner<C, M extends AbstractBlockCreator<C>> implements Runnabl
     // Ensure the block is allowed to be mined - i.e. the timestamp on the new block is sufficiently
     // ahead of the parent, and still within allowable clock tolerance.
     LOG.trace("Started a mining operation.");
-    final long newBlockTimestamp = scheduler.waitUntilNextBlockCanBeMined(parentHeader);
+    final BlockCreationTimeResult creationTime = scheduler.getNextTimestamp(parentHeader);
 
-    LOG.trace("Mining a new block with timestamp {}", newBlockTimestamp);
-    final Block block = blockCreator.createBlock(newBlockTimestamp);
+    LOG.trace("Mining a new block with timestamp {}", creationTime.getTimestampForHeader());
+    // Rather than sleeping until the block may be mined, keep adding transactions as they arrive.
+    final Block block =
+        blockCreator.createBlock(
+            creationTime.getTimestampForHeader(), creationTime.getMillisecondsUntilValid());
     LOG.info(
         "Block created, importing to local chain, block includes {} transactions",
         block.getBody().getTransactions().size());
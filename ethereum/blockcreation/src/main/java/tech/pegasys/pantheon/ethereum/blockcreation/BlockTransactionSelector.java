@@ -14,6 +14,7 @@ package tech.pegasys.pantheon.ethereum.blockcreation;
 
 import tech.pegasys.pantheon.ethereum.chain.Blockchain;
 import tech.pegasys.pantheon.ethereum.core.Address;
+import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
 import tech.pegasys.pantheon.ethereum.core.PendingTransactions;
 import tech.pegasys.pantheon.ethereum.core.PendingTransactions.TransactionSelectionResult;
@@ -26,7 +27,9 @@ import tech.pegasys.pantheon.ethereum.mainnet.MainnetBlockProcessor.TransactionR
 import tech.pegasys.pantheon.ethereum.mainnet.TransactionProcessor;
 import tech.pegasys.pantheon.ethereum.vm.BlockHashLookup;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CancellationException;
 import java.util.function.Supplier;
 
@@ -51,8 +54,10 @@ import org.apache.logging.log4j.Logger;
  *   <li>The amount of gas consumed when executing all transactions.
  * </ul>
  *
- * Once "used" this class must be discarded and another created. This class contains state which is
- * not cleared between executions of buildTransactionListForBlock().
+ * This class contains state which is not cleared between executions of
+ * buildTransactionListForBlock(): each execution only considers the transactions that were not
+ * considered by a previous one, adding them to the same block. Once the block has been created
+ * this class must be discarded and another created.
  */
 public class BlockTransactionSelector {
 
@@ -97,6 +102,8 @@ public class BlockTransactionSelector {
 
   private final TransactionSelectionResults transactionSelectionResult =
       new TransactionSelectionResults();
+  private final Set<Hash> evaluatedTransactions = new HashSet<>();
+  private boolean blockFull = false;
 
   public BlockTransactionSelector(
       final TransactionProcessor transactionProcessor,
@@ -124,12 +131,24 @@ public class BlockTransactionSelector {
   long running process.
   If running in a thread, it can be cancelled via the isCancelled supplier (which will result
   in this throwing an CancellationException).
+  Calling it again adds the transactions that arrived since to the same block, until it is full.
    */
   public TransactionSelectionResults buildTransactionListForBlock() {
-    pendingTransactions.selectTransactions(this::evaluateTransaction);
+    if (!blockFull) {
+      pendingTransactions.selectTransactions(this::evaluateNewTransaction);
+    }
     return transactionSelectionResult;
   }
 
+  private TransactionSelectionResult evaluateNewTransaction(final Transaction transaction) {
+    if (!evaluatedTransactions.add(transaction.hash())) {
+      return TransactionSelectionResult.CONTINUE;
+    }
+    final TransactionSelectionResult result = evaluateTransaction(transaction);
+    blockFull = result == TransactionSelectionResult.COMPLETE_OPERATION;
+    return result;
+  }
+
   /*
    * Passed into the PendingTransactions, and is called on each transaction until sufficient
    * transactions are found which fill a block worth of gas.
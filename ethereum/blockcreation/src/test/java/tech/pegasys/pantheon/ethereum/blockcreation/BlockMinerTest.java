@@ -20,6 +20,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import tech.pegasys.pantheon.ethereum.ProtocolContext;
+import tech.pegasys.pantheon.ethereum.blockcreation.AbstractBlockScheduler.BlockCreationTimeResult;
 import tech.pegasys.pantheon.ethereum.chain.MinedBlockObserver;
 import tech.pegasys.pantheon.ethereum.core.Block;
 import tech.pegasys.pantheon.ethereum.core.BlockBody;
@@ -48,7 +49,7 @@ public class BlockMinerTest {
     final ProtocolContext<Void> protocolContext = new ProtocolContext<>(null, null, null);
 
     final EthHashBlockCreator blockCreator = mock(EthHashBlockCreator.class);
-    when(blockCreator.createBlock(anyLong())).thenReturn(blockToCreate);
+    when(blockCreator.createBlock(anyLong(), anyLong())).thenReturn(blockToCreate);
 
     final BlockImporter<Void> blockImporter = mock(BlockImporter.class);
     final ProtocolSpec<Void> protocolSpec = mock(ProtocolSpec.class);
@@ -60,7 +61,7 @@ public class BlockMinerTest {
 
     final MinedBlockObserver observer = mock(MinedBlockObserver.class);
     final DefaultBlockScheduler scheduler = mock(DefaultBlockScheduler.class);
-    when(scheduler.waitUntilNextBlockCanBeMined(any())).thenReturn(5L);
+    when(scheduler.getNextTimestamp(any())).thenReturn(new BlockCreationTimeResult(5L, 0L));
     final BlockMiner<Void, EthHashBlockCreator> miner =
         new EthHashBlockMiner(
             blockCreator,
@@ -87,7 +88,7 @@ public class BlockMinerTest {
     final ProtocolContext<Void> protocolContext = new ProtocolContext<>(null, null, null);
 
     final EthHashBlockCreator blockCreator = mock(EthHashBlockCreator.class);
-    when(blockCreator.createBlock(anyLong())).thenReturn(blockToCreate);
+    when(blockCreator.createBlock(anyLong(), anyLong())).thenReturn(blockToCreate);
 
     final BlockImporter<Void> blockImporter = mock(BlockImporter.class);
     final ProtocolSpec<Void> protocolSpec = mock(ProtocolSpec.class);
@@ -98,7 +99,7 @@ public class BlockMinerTest {
 
     final MinedBlockObserver observer = mock(MinedBlockObserver.class);
     final DefaultBlockScheduler scheduler = mock(DefaultBlockScheduler.class);
-    when(scheduler.waitUntilNextBlockCanBeMined(any())).thenReturn(5L);
+    when(scheduler.getNextTimestamp(any())).thenReturn(new BlockCreationTimeResult(5L, 0L));
     final BlockMiner<Void, EthHashBlockCreator> miner =
         new EthHashBlockMiner(
             blockCreator,
@@ -281,6 +281,56 @@ public class BlockTransactionSelectorTest {
     assertThat(results.getReceipts().get(2).getCumulativeGasUsed()).isEqualTo(300);
   }
 
+  @Test
+  public void transactionsAddedAfterSelectionAreAddedToTheSameBlock() {
+    final PendingTransactions pendingTransactions = new PendingTransactions(5);
+    final Transaction firstTransaction = createTransaction(0);
+    final Transaction secondTransaction = createTransaction(1);
+    pendingTransactions.addRemoteTransaction(firstTransaction);
+
+    final TransactionProcessor transactionProcessor = mock(TransactionProcessor.class);
+    when(transactionProcessor.processTransaction(any(), any(), any(), any(), any(), any()))
+        .thenReturn(
+            MainnetTransactionProcessor.Result.successful(
+                new LogSeries(Lists.newArrayList()),
+                0,
+                BytesValue.EMPTY,
+                ValidationResult.valid()));
+
+    final ProcessableBlockHeader blockHeader =
+        BlockHeaderBuilder.create()
+            .parentHash(Hash.EMPTY)
+            .coinbase(Address.fromHexString(String.format("%020x", 1)))
+            .difficulty(UInt256.ONE)
+            .number(1)
+            .gasLimit(5000)
+            .timestamp(Instant.now().toEpochMilli())
+            .buildProcessableBlockHeader();
+
+    final BlockTransactionSelector selector =
+        new BlockTransactionSelector(
+            transactionProcessor,
+            new TestBlockchain(),
+            inMemoryWorldState(),
+            pendingTransactions,
+            blockHeader,
+            this::createReceipt,
+            Wei.ZERO,
+            () -> false,
+            AddressHelpers.ofValue(1));
+
+    assertThat(selector.buildTransactionListForBlock().getTransactions())
+        .containsExactly(firstTransaction);
+
+    pendingTransactions.addRemoteTransaction(secondTransaction);
+    final BlockTransactionSelector.TransactionSelectionResults results =
+        selector.buildTransactionListForBlock();
+
+    assertThat(results.getTransactions()).containsExactly(firstTransaction, secondTransaction);
+    assertThat(results.getCumulativeGasUsed()).isEqualTo(200);
+    assertThat(results.getReceipts().get(1).getCumulativeGasUsed()).isEqualTo(200);
+  }
+
   @Test
   public void transactionOfferingGasPriceLessThanMinimumIsIdentifiedAndRemovedFromPending() {
     final PendingTransactions pendingTransactions = new PendingTransactions(5);
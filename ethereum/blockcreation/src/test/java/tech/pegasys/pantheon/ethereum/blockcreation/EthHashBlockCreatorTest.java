@@ -67,4 +67,24 @@ public class EthHashBlockCreatorTest {
     Assertions.assertThat(actualBlock).isEqualTo(expectedBlock);
     Assertions.assertThat(blockCreator.getHashesPerSecond().isPresent()).isTrue();
   }
+
+  @Test
+  public void createMainnetBlock1AfterWaitingForTransactions() throws IOException {
+    final EthHashSolver solver = new EthHashSolver(Lists.newArrayList(BLOCK_1_NONCE), new Light());
+    final EthHashBlockCreator blockCreator =
+        new EthHashBlockCreator(
+            BLOCK_1_COINBASE,
+            parent -> BLOCK_1_EXTRA_DATA,
+            new PendingTransactions(1),
+            executionContextTestFixture.getProtocolContext(),
+            executionContextTestFixture.getProtocolSchedule(),
+            gasLimit -> gasLimit,
+            solver,
+            Wei.ZERO,
+            executionContextTestFixture.getBlockchain().getChainHeadHeader());
+
+    final Block actualBlock = blockCreator.createBlock(BLOCK_1_TIMESTAMP, 50);
+
+    Assertions.assertThat(actualBlock).isEqualTo(ValidationTestUtils.readBlock(1));
+  }
 }
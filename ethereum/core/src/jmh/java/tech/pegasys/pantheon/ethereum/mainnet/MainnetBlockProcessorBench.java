@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.mainnet;
+
+import static tech.pegasys.pantheon.ethereum.core.InMemoryWorldState.createInMemoryWorldStateArchive;
+
+import tech.pegasys.pantheon.ethereum.ProtocolContext;
+import tech.pegasys.pantheon.ethereum.chain.GenesisConfig;
+import tech.pegasys.pantheon.ethereum.chain.MutableBlockchain;
+import tech.pegasys.pantheon.ethereum.core.Block;
+import tech.pegasys.pantheon.ethereum.core.BlockHashFunction;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.BlockImporter;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.ethereum.db.DefaultMutableBlockchain;
+import tech.pegasys.pantheon.ethereum.db.WorldStateArchive;
+import tech.pegasys.pantheon.ethereum.util.RawBlockIterator;
+import tech.pegasys.pantheon.services.kvstore.InMemoryKeyValueStorage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Processes a recorded chain of blocks, which contains contract creations, calls and plain
+ * transfers, on top of its genesis state.
+ */
+@State(Scope.Benchmark)
+public class MainnetBlockProcessorBench {
+
+  private ProtocolSchedule<Void> protocolSchedule;
+  private MutableBlockchain blockchain;
+  private WorldStateArchive worldStateArchive;
+  private BlockHeader genesisHeader;
+  private List<Block> blocks;
+
+  @Setup(Level.Trial)
+  public void prepare() throws IOException {
+    protocolSchedule = MainnetProtocolSchedule.create();
+    final GenesisConfig<Void> genesisConfig =
+        GenesisConfig.fromJson(
+            Resources.toString(Resources.getResource("testGenesis.json"), Charsets.UTF_8),
+            protocolSchedule);
+    genesisHeader = genesisConfig.getBlock().getHeader();
+    blockchain =
+        new DefaultMutableBlockchain(
+            genesisConfig.getBlock(),
+            new InMemoryKeyValueStorage(),
+            MainnetBlockHashFunction::createHash);
+    worldStateArchive = createInMemoryWorldStateArchive();
+    genesisConfig.writeStateTo(worldStateArchive.getMutable());
+
+    blocks = readBlocks();
+
+    // Import the chain once so that BLOCKHASH lookups see the recorded ancestors
+    final ProtocolContext<Void> protocolContext =
+        new ProtocolContext<>(blockchain, worldStateArchive, null);
+    for (final Block block : blocks) {
+      final BlockImporter<Void> blockImporter =
+          protocolSchedule.getByBlockNumber(block.getHeader().getNumber()).getBlockImporter();
+      if (!blockImporter.importBlock(protocolContext, block, HeaderValidationMode.NONE)) {
+        throw new IllegalStateException("Unable to import block " + block.getHeader().getNumber());
+      }
+    }
+  }
+
+  private List<Block> readBlocks() throws IOException {
+    final Path blocksPath = Files.createTempFile("blocks", ".blocks");
+    try {
+      Files.write(
+          blocksPath, Resources.toByteArray(Resources.getResource("testBlockchain.blocks")));
+      final BlockHashFunction blockHashFunction =
+          ScheduleBasedBlockHashFunction.create(protocolSchedule);
+      final List<Block> result = new ArrayList<>();
+      try (final RawBlockIterator iterator =
+          new RawBlockIterator(blocksPath, rlp -> BlockHeader.readFrom(rlp, blockHashFunction))) {
+        while (iterator.hasNext()) {
+          final Block block = iterator.next();
+          if (block.getHeader().getNumber() != BlockHeader.GENESIS_BLOCK_NUMBER) {
+            result.add(block);
+          }
+        }
+      }
+      return result;
+    } finally {
+      Files.delete(blocksPath);
+    }
+  }
+
+  /** Processes every recorded block in order, starting again from the genesis state. */
+  @Benchmark
+  public MutableWorldState processBlocks() {
+    final MutableWorldState worldState = worldStateArchive.getMutable(genesisHeader.getStateRoot());
+    for (final Block block : blocks) {
+      final BlockProcessor blockProcessor =
+          protocolSchedule.getByBlockNumber(block.getHeader().getNumber()).getBlockProcessor();
+      if (!blockProcessor.processBlock(blockchain, worldState, block).isSuccessful()) {
+        throw new IllegalStateException("Unable to process block " + block.getHeader().getNumber());
+      }
+    }
+    return worldState;
+  }
+}
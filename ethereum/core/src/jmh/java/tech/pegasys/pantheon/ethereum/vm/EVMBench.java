@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.vm;
+
+import tech.pegasys.pantheon.ethereum.chain.Blockchain;
+import tech.pegasys.pantheon.ethereum.core.Address;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.ExecutionContextTestFixture;
+import tech.pegasys.pantheon.ethereum.core.Gas;
+import tech.pegasys.pantheon.ethereum.core.MessageFrameTestFixture;
+import tech.pegasys.pantheon.ethereum.core.WorldUpdater;
+import tech.pegasys.pantheon.ethereum.mainnet.ConstantinopleGasCalculator;
+import tech.pegasys.pantheon.ethereum.mainnet.MainnetEvmRegistries;
+import tech.pegasys.pantheon.ethereum.vm.ehalt.ExceptionalHaltException;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Runs small reference contracts through {@link EVM#runToHalt(MessageFrame, OperationTracer)}.
+ * Each contract is a loop of {@link #ITERATIONS} iterations around a body exercising one kind of
+ * operation, so results are reported per loop iteration.
+ */
+@State(Scope.Benchmark)
+public class EVMBench {
+  private static final int ITERATIONS = 1000;
+  private static final Address CONTRACT_ADDRESS =
+      Address.fromHexString("0x0000000000000000000000000000000000001000");
+
+  // PUSH2 ITERATIONS, JUMPDEST
+  private static final String LOOP_START = "0x6103e85b";
+  // PUSH1 1, SWAP1, SUB, DUP1, PUSH1 3, JUMPI, STOP
+  private static final String LOOP_END = "600190038060035700";
+
+  @Param({"empty", "arithmetic", "memory", "keccak", "storage"})
+  public String contract;
+
+  private final EVM evm = MainnetEvmRegistries.constantinople(new ConstantinopleGasCalculator());
+
+  private Code code;
+  private Blockchain blockchain;
+  private BlockHeader blockHeader;
+  private WorldUpdater worldUpdater;
+
+  private static String loopBody(final String contract) {
+    switch (contract) {
+      case "empty":
+        return "";
+      case "arithmetic":
+        // DUP1, DUP1, MUL, PUSH1 7, SWAP1, MOD, DUP2, ADD, DUP2, SWAP1, DIV, POP
+        return "80800260079006810181900450";
+      case "memory":
+        // DUP1, PUSH1 0, MSTORE, PUSH1 0, MLOAD, POP
+        return "8060005260005150";
+      case "keccak":
+        // PUSH1 32, PUSH1 0, SHA3, POP
+        return "602060002050";
+      case "storage":
+        // DUP1, DUP1, SSTORE, DUP1, SLOAD, POP
+        return "808055805450";
+      default:
+        throw new IllegalArgumentException("Unknown contract " + contract);
+    }
+  }
+
+  @Setup(Level.Trial)
+  public void prepare() {
+    code = new Code(BytesValue.fromHexString(LOOP_START + loopBody(contract) + LOOP_END));
+    final ExecutionContextTestFixture executionContext = new ExecutionContextTestFixture();
+    blockchain = executionContext.getBlockchain();
+    blockHeader = executionContext.getGenesis().getHeader();
+    worldUpdater = executionContext.getStateArchive().getMutable().updater();
+    // SSTORE writes to the account the code runs as, so it has to exist
+    worldUpdater.createAccount(CONTRACT_ADDRESS);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ITERATIONS)
+  public MessageFrame runToHalt() {
+    final MessageFrame frame =
+        new MessageFrameTestFixture()
+            .blockchain(blockchain)
+            .blockHeader(blockHeader)
+            .worldState(worldUpdater)
+            .address(CONTRACT_ADDRESS)
+            .contract(CONTRACT_ADDRESS)
+            .code(code)
+            .initialGas(Gas.of(100_000_000))
+            .build();
+    frame.setState(MessageFrame.State.CODE_EXECUTING);
+    try {
+      evm.runToHalt(frame, OperationTracer.NO_TRACING);
+    } catch (final ExceptionalHaltException e) {
+      throw new IllegalStateException("Reference contract halted exceptionally", e);
+    }
+    return frame;
+  }
+}
@@ -14,11 +14,13 @@ package tech.pegasys.pantheon.ethereum;
 
 import tech.pegasys.pantheon.ethereum.chain.MutableBlockchain;
 import tech.pegasys.pantheon.ethereum.db.WorldStateArchive;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
 
 /**
  * Holds the mutable state used to track the current context of the protocol. This is primarily the
  * blockchain and world state archive, but can also hold arbitrary context required by a particular
- * consensus algorithm.
+ * consensus algorithm, and the metrics system protocol components report to.
  *
  * @param <C> the type of the consensus algorithm context
  */
@@ -26,14 +28,24 @@ public class ProtocolContext<C> {
   private final MutableBlockchain blockchain;
   private final WorldStateArchive worldStateArchive;
   private final C consensusState;
+  private final MetricsSystem metricsSystem;
 
   public ProtocolContext(
       final MutableBlockchain blockchain,
       final WorldStateArchive worldStateArchive,
       final C consensusState) {
+    this(blockchain, worldStateArchive, consensusState, new NoOpMetricsSystem());
+  }
+
+  public ProtocolContext(
+      final MutableBlockchain blockchain,
+      final WorldStateArchive worldStateArchive,
+      final C consensusState,
+      final MetricsSystem metricsSystem) {
     this.blockchain = blockchain;
     this.worldStateArchive = worldStateArchive;
     this.consensusState = consensusState;
+    this.metricsSystem = metricsSystem;
   }
 
   public MutableBlockchain getBlockchain() {
@@ -47,4 +59,8 @@ public class ProtocolContext<C> {
   public C getConsensusState() {
     return consensusState;
   }
+
+  public MetricsSystem getMetricsSystem() {
+    return metricsSystem;
+  }
 }
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.chain;
+
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.LogsBloomFilter;
+import tech.pegasys.pantheon.services.kvstore.KeyValueStorage;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.bytes.BytesValues;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.primitives.Longs;
+import com.google.common.primitives.Shorts;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A persisted index of the header logs blooms of the canonical chain, rotated so that the blocks of
+ * a section that may contain some logger or topic can be found without reading their headers.
+ *
+ * <p>The chain is split into sections of {@link #SECTION_SIZE} blocks. For each section and each
+ * of the 2048 bloom bits, the index holds one bit per block of the section, set if the bloom of
+ * that block has the bit set. A section is indexed once its last block is {@link #CONFIRMATIONS}
+ * blocks deep, and is ignored if a reorganisation later replaces that block.
+ */
+public class BloomBitsIndex {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  public static final int SECTION_SIZE = 4096;
+  static final long CONFIRMATIONS = 256;
+  private static final int BLOOM_BITS = LogsBloomFilter.BYTE_SIZE * 8;
+
+  private static final BytesValue INDEXED_SECTIONS_KEY = BytesValue.of(0);
+  private static final byte SECTION_HEAD_PREFIX = 1;
+  private static final byte BIT_VECTOR_PREFIX = 2;
+
+  private final Blockchain blockchain;
+  private final KeyValueStorage storage;
+  private final ExecutorService executor;
+  private final AtomicBoolean indexing = new AtomicBoolean(false);
+  private Optional<Long> blockAddedObserverId = Optional.empty();
+
+  public BloomBitsIndex(final Blockchain blockchain, final KeyValueStorage storage) {
+    this(
+        blockchain,
+        storage,
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat(BloomBitsIndex.class.getSimpleName())
+                .build()));
+  }
+
+  BloomBitsIndex(
+      final Blockchain blockchain, final KeyValueStorage storage, final ExecutorService executor) {
+    this.blockchain = blockchain;
+    this.storage = storage;
+    this.executor = executor;
+  }
+
+  /** Indexes the sections the chain already has, then every section as the chain grows. */
+  public void start() {
+    blockAddedObserverId =
+        Optional.of(
+            blockchain.observeBlockAdded(
+                (event, chain) -> {
+                  if (event.isNewCanonicalHead()) {
+                    scheduleIndexing();
+                  }
+                }));
+    scheduleIndexing();
+  }
+
+  public void stop() {
+    blockAddedObserverId.ifPresent(blockchain::removeObserver);
+    blockAddedObserverId = Optional.empty();
+    executor.shutdownNow();
+    try {
+      if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+        LOG.warn("Bloom bits indexing did not stop in time");
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** @return The number of sections, from the genesis block, that have been indexed. */
+  public long indexedSections() {
+    return storage.get(INDEXED_SECTIONS_KEY).map(value -> value.getLong(0)).orElse(0L);
+  }
+
+  /**
+   * Finds the blocks of a section whose bloom matches a set of conditions. Each condition is
+   * matched if the bloom could contain any of its alternatives, and a block matches if all the
+   * conditions are matched.
+   *
+   * @param section The section to search.
+   * @param conditions The conditions to match. A block always matches an empty list of conditions.
+   * @return The offsets, within the section, of the blocks that may match, or empty if the section
+   *     is not indexed or has been replaced by a reorganisation since it was indexed.
+   */
+  public Optional<BitSet> matchingBlocks(
+      final long section, final List<List<LogsBloomFilter>> conditions) {
+    if (section >= indexedSections() || !isCanonical(section)) {
+      return Optional.empty();
+    }
+    final Map<Integer, BitSet> vectors = new HashMap<>();
+    final BitSet matching = new BitSet(SECTION_SIZE);
+    matching.set(0, SECTION_SIZE);
+    for (final List<LogsBloomFilter> condition : conditions) {
+      final BitSet anyAlternative = new BitSet(SECTION_SIZE);
+      for (final LogsBloomFilter alternative : condition) {
+        final BitSet alternativeMatches = new BitSet(SECTION_SIZE);
+        alternativeMatches.set(0, SECTION_SIZE);
+        final BytesValue bloom = alternative.getBytes();
+        for (int bit = nextSetBit(bloom, 0); bit >= 0; bit = nextSetBit(bloom, bit + 1)) {
+          alternativeMatches.and(vectors.computeIfAbsent(bit, b -> readBitVector(section, b)));
+        }
+        anyAlternative.or(alternativeMatches);
+      }
+      matching.and(anyAlternative);
+    }
+    return Optional.of(matching);
+  }
+
+  private void scheduleIndexing() {
+    if (!indexing.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executor.execute(this::indexSections);
+    } catch (final RejectedExecutionException e) {
+      indexing.set(false);
+    }
+  }
+
+  private void indexSections() {
+    try {
+      long sections = indexedSections();
+      while (sections > 0 && !isCanonical(sections - 1)) {
+        sections--;
+        LOG.info("Section {} of the bloom bits index was reorganised, indexing it again", sections);
+      }
+      final long head = blockchain.getChainHeadBlockNumber();
+      while ((sections + 1) * SECTION_SIZE - 1 + CONFIRMATIONS <= head
+          && !Thread.currentThread().isInterrupted()) {
+        indexSection(sections);
+        sections++;
+      }
+    } catch (final Exception e) {
+      LOG.error("Bloom bits indexing failed", e);
+    } finally {
+      indexing.set(false);
+    }
+  }
+
+  private void indexSection(final long section) {
+    final BitSet[] vectors = new BitSet[BLOOM_BITS];
+    final long firstBlock = section * SECTION_SIZE;
+    BlockHeader header = null;
+    for (int offset = 0; offset < SECTION_SIZE; offset++) {
+      final long number = firstBlock + offset;
+      header =
+          blockchain
+              .getBlockHeader(number)
+              .orElseThrow(() -> new IllegalStateException("Missing canonical block " + number));
+      final BytesValue bloom = header.getLogsBloom().getBytes();
+      for (int bit = nextSetBit(bloom, 0); bit >= 0; bit = nextSetBit(bloom, bit + 1)) {
+        if (vectors[bit] == null) {
+          vectors[bit] = new BitSet(SECTION_SIZE);
+        }
+        vectors[bit].set(offset);
+      }
+    }
+
+    final KeyValueStorage.Transaction batch = storage.getStartBatch();
+    for (int bit = 0; bit < BLOOM_BITS; bit++) {
+      // Most bits are never set within a section, so only the non-empty vectors are stored.
+      if (vectors[bit] == null) {
+        batch.remove(bitVectorKey(section, bit));
+      } else {
+        batch.put(bitVectorKey(section, bit), BytesValue.wrap(vectors[bit].toByteArray()));
+      }
+    }
+    batch.put(sectionHeadKey(section), header.getHash());
+    batch.put(INDEXED_SECTIONS_KEY, BytesValue.wrap(Longs.toByteArray(section + 1)));
+    batch.commit();
+    LOG.debug("Indexed bloom bits of blocks {} to {}", firstBlock, header.getNumber());
+  }
+
+  private boolean isCanonical(final long section) {
+    final long lastBlock = (section + 1) * SECTION_SIZE - 1;
+    final Optional<BytesValue> indexedHead = storage.get(sectionHeadKey(section));
+    final Optional<Hash> canonicalHead = blockchain.getBlockHashByNumber(lastBlock);
+    return indexedHead.isPresent()
+        && canonicalHead.isPresent()
+        && indexedHead.get().equals(canonicalHead.get());
+  }
+
+  private BitSet readBitVector(final long section, final int bit) {
+    return storage
+        .get(bitVectorKey(section, bit))
+        .map(vector -> BitSet.valueOf(vector.extractArray()))
+        .orElseGet(BitSet::new);
+  }
+
+  // Bits are numbered by their position in the bloom bytes, which is all the index relies on.
+  private static int nextSetBit(final BytesValue bloom, final int from) {
+    for (int bit = from; bit < BLOOM_BITS; bit++) {
+      if ((bloom.get(bit / 8) & (1 << (bit % 8))) != 0) {
+        return bit;
+      }
+    }
+    return -1;
+  }
+
+  private static BytesValue sectionHeadKey(final long section) {
+    return BytesValues.concatenate(
+        BytesValue.of(SECTION_HEAD_PREFIX), BytesValue.wrap(Longs.toByteArray(section)));
+  }
+
+  private static BytesValue bitVectorKey(final long section, final int bit) {
+    return BytesValues.concatenate(
+        BytesValue.of(BIT_VECTOR_PREFIX),
+        BytesValue.wrap(Longs.toByteArray(section)),
+        BytesValue.wrap(Shorts.toByteArray((short) bit)));
+  }
+}
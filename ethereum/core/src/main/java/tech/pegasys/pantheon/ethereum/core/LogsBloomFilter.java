@@ -126,13 +126,39 @@ public class LogsBloomFilter {
   }
 
   public void insertLog(final Log log) {
-    setBits(keccak256(log.getLogger()));
+    insertValue(log.getLogger());
 
     for (final LogTopic topic : log.getTopics()) {
-      setBits(keccak256(topic));
+      insertValue(topic);
     }
   }
 
+  /**
+   * Sets the bits of a single logger address or topic.
+   *
+   * @param value The address or topic to insert.
+   */
+  public void insertValue(final BytesValue value) {
+    setBits(keccak256(value));
+  }
+
+  /**
+   * Whether every bit set in another filter is also set in this one, that is whether the values
+   * inserted in {@code other} may have been inserted in this filter.
+   *
+   * @param other The filter to check against this one.
+   * @return false if some value inserted in {@code other} was definitely not inserted in this one.
+   */
+  public boolean couldContain(final LogsBloomFilter other) {
+    for (int i = 0; i < BYTE_SIZE; ++i) {
+      final byte otherByte = other.data.get(i);
+      if ((data.get(i) & otherByte) != otherByte) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private void setBit(final int index) {
     final int byteIndex = BYTE_SIZE - 1 - index / 8;
     final int bitIndex = index % 8;
@@ -17,35 +17,55 @@ import static java.util.Comparator.comparing;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
 import java.util.Optional;
 import java.util.OptionalLong;
-import java.util.SortedMap;
-import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Holds the current set of pending transactions with the ability to iterate them based on priority
  * for mining or look-up by hash.
  *
- * <p>This class is safe for use across multiple threads.
+ * <p>Transactions are prioritized by gas price, then local before remote and then newest first.
+ * The transactions of each sender are kept in nonce order and split in two tiers: those with
+ * nonces following on from the sender's account nonce are ready to be mined, while those after a
+ * nonce gap are queued until the gap is filled. When the pool is full the cheapest transaction is
+ * dropped, preferring queued transactions and a sender's highest nonce when prices are equal.
+ *
+ * <p>This class is safe for use across multiple threads. Look-ups by hash don't take a lock, other
+ * reads only exclude writers and transaction selection runs on a snapshot of the pool.
  */
 public class PendingTransactions {
   public static final int MAX_PENDING_TRANSACTIONS = 30_000;
-
-  private final Map<Hash, TransactionInfo> pendingTransactions = new HashMap<>();
-  private final SortedSet<TransactionInfo> prioritizedTransactions =
-      new TreeSet<>(
-          comparing(TransactionInfo::isReceivedFromLocalSource)
-              .thenComparing(TransactionInfo::getSequence)
-              .reversed());
-  private final Map<Address, SortedMap<Long, TransactionInfo>> transactionsBySender =
+  // A replacement must pay at least this much more for gas, as a fraction of the existing price.
+  private static final long REPLACEMENT_PRICE_BUMP_DIVISOR = 10;
+
+  private static final Comparator<TransactionInfo> PRIORITY_ORDER =
+      comparing(TransactionInfo::getGasPrice)
+          .thenComparing(TransactionInfo::isReceivedFromLocalSource)
+          .thenComparing(TransactionInfo::getSequence)
+          .reversed();
+
+  private final Map<Hash, TransactionInfo> pendingTransactions = new ConcurrentHashMap<>();
+  private final NavigableSet<TransactionInfo> readyTransactions = new TreeSet<>(PRIORITY_ORDER);
+  private final NavigableSet<TransactionInfo> queuedTransactions = new TreeSet<>(PRIORITY_ORDER);
+  private final Map<Address, NavigableMap<Long, TransactionInfo>> transactionsBySender =
       new HashMap<>();
+  // The nonce each sender's next transaction must have, as of the chain head or the last
+  // confirmed transaction. Only tracked while the sender has pending transactions.
+  private final Map<Address, Long> nextNonceBySender = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
   private final Collection<PendingTransactionListener> listeners =
       newSetFromMap(new ConcurrentHashMap<>());
@@ -58,114 +78,253 @@ public class PendingTransactions {
 
   public boolean addRemoteTransaction(final Transaction transaction) {
     final TransactionInfo transactionInfo = new TransactionInfo(transaction, false);
-    return addTransaction(transactionInfo);
+    return addTransaction(transactionInfo, OptionalLong.empty());
+  }
+
+  boolean addRemoteTransaction(final Transaction transaction, final long accountNonce) {
+    final TransactionInfo transactionInfo = new TransactionInfo(transaction, false);
+    return addTransaction(transactionInfo, OptionalLong.of(accountNonce));
   }
 
   boolean addLocalTransaction(final Transaction transaction) {
-    return addTransaction(new TransactionInfo(transaction, true));
+    return addTransaction(new TransactionInfo(transaction, true), OptionalLong.empty());
+  }
+
+  boolean addLocalTransaction(final Transaction transaction, final long accountNonce) {
+    return addTransaction(new TransactionInfo(transaction, true), OptionalLong.of(accountNonce));
+  }
+
+  /**
+   * Removes a transaction that has been included in a block, making the sender's transactions that
+   * follow on from its nonce ready to be mined.
+   *
+   * @param transaction the confirmed transaction, which need not be pending.
+   */
+  void confirmTransaction(final Transaction transaction) {
+    lock.writeLock().lock();
+    try {
+      doRemoveTransaction(transaction);
+      final Address sender = transaction.getSender();
+      final NavigableMap<Long, TransactionInfo> transactionsForSender =
+          transactionsBySender.get(sender);
+      if (transactionsForSender != null) {
+        nextNonceBySender.merge(sender, transaction.getNonce() + 1, Math::max);
+        updateTiers(sender, transactionsForSender);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   public void removeTransaction(final Transaction transaction) {
-    synchronized (pendingTransactions) {
-      final TransactionInfo removedTransactionInfo = pendingTransactions.remove(transaction.hash());
-      if (removedTransactionInfo != null) {
-        prioritizedTransactions.remove(removedTransactionInfo);
-        Optional.ofNullable(transactionsBySender.get(transaction.getSender()))
-            .ifPresent(
-                transactionsForSender -> {
-                  transactionsForSender.remove(transaction.getNonce());
-                  if (transactionsForSender.isEmpty()) {
-                    transactionsBySender.remove(transaction.getSender());
-                  }
-                });
+    lock.writeLock().lock();
+    try {
+      doRemoveTransaction(transaction);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void doRemoveTransaction(final Transaction transaction) {
+    final TransactionInfo removedTransactionInfo = pendingTransactions.remove(transaction.hash());
+    if (removedTransactionInfo == null) {
+      return;
+    }
+    tierOf(removedTransactionInfo).remove(removedTransactionInfo);
+    final Address sender = removedTransactionInfo.getSender();
+    final NavigableMap<Long, TransactionInfo> transactionsForSender =
+        transactionsBySender.get(sender);
+    if (transactionsForSender != null) {
+      // The removed nonce still has to be used, so it mustn't advance where readiness starts.
+      nextNonceBySender.putIfAbsent(sender, transactionsForSender.firstKey());
+      transactionsForSender.remove(removedTransactionInfo.getNonce());
+      if (transactionsForSender.isEmpty()) {
+        transactionsBySender.remove(sender);
+        nextNonceBySender.remove(sender);
+      } else {
+        updateTiers(sender, transactionsForSender);
       }
     }
   }
 
   /*
-   * The BlockTransaction selection process (part of block mining) requires synchronised access to
-   * all pendingTransactions - this allows it to iterate over the available transactions without
-   * releasing the lock in between items.
-   *
+   * The BlockTransaction selection process (part of block mining) works from a snapshot of the
+   * transactions that are ready to be mined, so no lock is held while the selector executes them
+   * and transactions can keep arriving. Transactions the selector rejects are removed in a batch
+   * once the selection is done.
    */
   public void selectTransactions(final TransactionSelector selector) {
-    synchronized (pendingTransactions) {
+    final List<Transaction> transactionsToRemove = new ArrayList<>();
+    selectFromSnapshot(selector, transactionsToRemove);
+    removeTransactions(transactionsToRemove);
+  }
+
+  private void selectFromSnapshot(
+      final TransactionSelector selector, final List<Transaction> transactionsToRemove) {
+    for (final Transaction transaction : selectionSnapshot()) {
+      final TransactionSelectionResult result = selector.evaluateTransaction(transaction);
+      switch (result) {
+        case DELETE_TRANSACTION_AND_CONTINUE:
+          transactionsToRemove.add(transaction);
+          break;
+        case CONTINUE:
+          break;
+        case COMPLETE_OPERATION:
+          return;
+        default:
+          throw new RuntimeException("Illegal value for TransactionSelectionResult.");
+      }
+    }
+  }
+
+  /**
+   * Returns the transactions that are ready to be mined, in the order they should be considered
+   * for a block: by priority, except that transactions are deferred until those from the same
+   * sender with lower nonces have been reached.
+   *
+   * @return an immutable snapshot of the transactions to select from.
+   */
+  public List<Transaction> selectionSnapshot() {
+    lock.readLock().lock();
+    try {
+      final List<Transaction> snapshot = new ArrayList<>(readyTransactions.size());
       final Map<Address, AccountTransactionOrder> accountTransactions = new HashMap<>();
-      final List<Transaction> transactionsToRemove = new ArrayList<>();
-      for (final TransactionInfo transactionInfo : prioritizedTransactions) {
+      for (final TransactionInfo transactionInfo : readyTransactions) {
         final AccountTransactionOrder accountTransactionOrder =
             accountTransactions.computeIfAbsent(
                 transactionInfo.getSender(), this::createSenderTransactionOrder);
-
-        for (final Transaction transactionToProcess :
-            accountTransactionOrder.transactionsToProcess(transactionInfo.getTransaction())) {
-          final TransactionSelectionResult result =
-              selector.evaluateTransaction(transactionToProcess);
-          switch (result) {
-            case DELETE_TRANSACTION_AND_CONTINUE:
-              transactionsToRemove.add(transactionToProcess);
-              break;
-            case CONTINUE:
-              break;
-            case COMPLETE_OPERATION:
-              return;
-            default:
-              throw new RuntimeException("Illegal value for TransactionSelectionResult.");
-          }
-        }
+        accountTransactionOrder
+            .transactionsToProcess(transactionInfo.getTransaction())
+            .forEach(snapshot::add);
       }
-      transactionsToRemove.forEach(this::removeTransaction);
+      return Collections.unmodifiableList(snapshot);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  public void removeTransactions(final Collection<Transaction> transactions) {
+    if (transactions.isEmpty()) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      transactions.forEach(this::doRemoveTransaction);
+    } finally {
+      lock.writeLock().unlock();
     }
   }
 
   private AccountTransactionOrder createSenderTransactionOrder(final Address address) {
     return new AccountTransactionOrder(
-        transactionsBySender.get(address).values().stream().map(TransactionInfo::getTransaction));
+        transactionsBySender
+            .get(address)
+            .values()
+            .stream()
+            .filter(TransactionInfo::isReady)
+            .map(TransactionInfo::getTransaction));
   }
 
-  private boolean addTransaction(final TransactionInfo transactionInfo) {
-    synchronized (pendingTransactions) {
+  private boolean addTransaction(
+      final TransactionInfo transactionInfo, final OptionalLong accountNonce) {
+    lock.writeLock().lock();
+    try {
       if (pendingTransactions.containsKey(transactionInfo.getHash())) {
         return false;
       }
 
-      if (!addTransactionForSenderAndNonce(transactionInfo)) {
+      if (!addTransactionForSenderAndNonce(transactionInfo, accountNonce)) {
         return false;
       }
-      prioritizedTransactions.add(transactionInfo);
       pendingTransactions.put(transactionInfo.getHash(), transactionInfo);
 
-      notifyTransactionAdded(transactionInfo.getTransaction());
       if (pendingTransactions.size() > maxPendingTransactions) {
-        final TransactionInfo toRemove = prioritizedTransactions.last();
-        removeTransaction(toRemove.getTransaction());
+        doRemoveTransaction(lowestPriorityTransaction().getTransaction());
       }
-      return true;
+    } finally {
+      lock.writeLock().unlock();
     }
+    // Listeners only hear about the transaction once the pool has settled, and not at all if it
+    // was evicted straight away.
+    if (!pendingTransactions.containsKey(transactionInfo.getHash())) {
+      return false;
+    }
+    notifyTransactionAdded(transactionInfo.getTransaction());
+    return true;
   }
 
-  private boolean addTransactionForSenderAndNonce(final TransactionInfo transactionInfo) {
-    final Map<Long, TransactionInfo> transactionsForSender =
-        transactionsBySender.computeIfAbsent(transactionInfo.getSender(), key -> new TreeMap<>());
+  private boolean addTransactionForSenderAndNonce(
+      final TransactionInfo transactionInfo, final OptionalLong accountNonce) {
+    final Address sender = transactionInfo.getSender();
+    final NavigableMap<Long, TransactionInfo> transactionsForSender =
+        transactionsBySender.computeIfAbsent(sender, key -> new TreeMap<>());
     final TransactionInfo existingTransaction =
         transactionsForSender.get(transactionInfo.getNonce());
     if (existingTransaction != null) {
       if (!shouldReplace(existingTransaction, transactionInfo)) {
         return false;
       }
-      removeTransaction(existingTransaction.getTransaction());
+      doRemoveTransaction(existingTransaction.getTransaction());
+      // Removing the only transaction of the sender also removes the sender's queue.
+      transactionsBySender.putIfAbsent(sender, transactionsForSender);
     }
     transactionsForSender.put(transactionInfo.getNonce(), transactionInfo);
+    queuedTransactions.add(transactionInfo);
+    accountNonce.ifPresent(nonce -> nextNonceBySender.put(sender, nonce));
+    updateTiers(sender, transactionsForSender);
     return true;
   }
 
+  /*
+   * Transactions whose nonces follow on from the sender's next nonce are ready. After a gap,
+   * everything is queued until the missing nonces arrive, and nonces that are already used stay
+   * queued until they are evicted. When the next nonce isn't known, it's the lowest one pooled.
+   */
+  private void updateTiers(
+      final Address sender, final NavigableMap<Long, TransactionInfo> transactionsForSender) {
+    long expectedNonce = nextNonceBySender.getOrDefault(sender, transactionsForSender.firstKey());
+    for (final TransactionInfo transactionInfo : transactionsForSender.values()) {
+      final boolean ready = transactionInfo.getNonce() == expectedNonce;
+      if (ready) {
+        expectedNonce++;
+      }
+      if (transactionInfo.isReady() != ready) {
+        tierOf(transactionInfo).remove(transactionInfo);
+        transactionInfo.setReady(ready);
+        tierOf(transactionInfo).add(transactionInfo);
+      }
+    }
+  }
+
+  private NavigableSet<TransactionInfo> tierOf(final TransactionInfo transactionInfo) {
+    return transactionInfo.isReady() ? readyTransactions : queuedTransactions;
+  }
+
+  /*
+   * Queued transactions go first when they are no more expensive than the cheapest ready one, as
+   * they can't be mined until their gap is filled anyway. Otherwise the sender of the cheapest
+   * ready transaction loses their highest nonce, so their remaining transactions stay minable.
+   */
+  private TransactionInfo lowestPriorityTransaction() {
+    if (!queuedTransactions.isEmpty()
+        && (readyTransactions.isEmpty()
+            || queuedTransactions
+                    .last()
+                    .getGasPrice()
+                    .compareTo(readyTransactions.last().getGasPrice())
+                <= 0)) {
+      return queuedTransactions.last();
+    }
+    return transactionsBySender.get(readyTransactions.last().getSender()).lastEntry().getValue();
+  }
+
   private boolean shouldReplace(
       final TransactionInfo existingTransaction, final TransactionInfo newTransaction) {
-    return newTransaction
-            .getTransaction()
-            .getGasPrice()
-            .compareTo(existingTransaction.getTransaction().getGasPrice())
-        > 0;
+    final Wei existingGasPrice = existingTransaction.getGasPrice();
+    final Wei minimumGasPrice =
+        existingGasPrice.plus(existingGasPrice.dividedBy(REPLACEMENT_PRICE_BUMP_DIVISOR));
+    return newTransaction.getGasPrice().compareTo(existingGasPrice) > 0
+        && newTransaction.getGasPrice().compareTo(minimumGasPrice) >= 0;
   }
 
   private void notifyTransactionAdded(final Transaction transaction) {
@@ -173,30 +332,33 @@ public class PendingTransactions {
   }
 
   public int size() {
-    synchronized (pendingTransactions) {
-      return pendingTransactions.size();
-    }
+    return pendingTransactions.size();
   }
 
   public Optional<Transaction> getTransactionByHash(final Hash transactionHash) {
-    synchronized (pendingTransactions) {
-      return Optional.ofNullable(pendingTransactions.get(transactionHash))
-          .map(TransactionInfo::getTransaction);
-    }
+    return Optional.ofNullable(pendingTransactions.get(transactionHash))
+        .map(TransactionInfo::getTransaction);
   }
 
   public void addTransactionListener(final PendingTransactionListener listener) {
     listeners.add(listener);
   }
 
+  public void removeTransactionListener(final PendingTransactionListener listener) {
+    listeners.remove(listener);
+  }
+
   public OptionalLong getNextNonceForSender(final Address sender) {
-    synchronized (pendingTransactions) {
-      final SortedMap<Long, TransactionInfo> transactionsForSender =
+    lock.readLock().lock();
+    try {
+      final NavigableMap<Long, TransactionInfo> transactionsForSender =
           transactionsBySender.get(sender);
       if (transactionsForSender == null) {
         return OptionalLong.empty();
       }
       return OptionalLong.of(transactionsForSender.lastKey() + 1);
+    } finally {
+      lock.readLock().unlock();
     }
   }
 
@@ -210,6 +372,7 @@ public class PendingTransactions {
     private final Transaction transaction;
     private final boolean receivedFromLocalSource;
     private final long sequence; // Allows prioritization based on order transactions are added
+    private boolean ready; // Guarded by the pool's lock
 
     private TransactionInfo(final Transaction transaction, final boolean receivedFromLocalSource) {
       this.transaction = transaction;
@@ -229,6 +392,10 @@ public class PendingTransactions {
       return transaction.getNonce();
     }
 
+    public Wei getGasPrice() {
+      return transaction.getGasPrice();
+    }
+
     public Address getSender() {
       return transaction.getSender();
     }
@@ -240,6 +407,14 @@ public class PendingTransactions {
     public Hash getHash() {
       return transaction.hash();
     }
+
+    public boolean isReady() {
+      return ready;
+    }
+
+    public void setReady(final boolean ready) {
+      this.ready = ready;
+    }
   }
 
   public enum TransactionSelectionResult {
@@ -66,7 +66,8 @@ public class TransactionPool implements BlockAddedObserver {
 
     validationResult.ifValid(
         () -> {
-          final boolean added = pendingTransactions.addLocalTransaction(transaction);
+          final boolean added =
+              pendingTransactions.addLocalTransaction(transaction, getAccountNonce(transaction));
           if (added) {
             transactionBatchAddedListener.onTransactionsAdded(singletonList(transaction));
           }
@@ -75,12 +76,15 @@ public class TransactionPool implements BlockAddedObserver {
   }
 
   public void addRemoteTransactions(final Collection<Transaction> transactions) {
+    // Validation needs every sender, so recover them up front rather than one at a time.
+    TransactionSenderRecovery.getDefault().recoverSenders(transactions);
     final Set<Transaction> addedTransactions = new HashSet<>();
     for (final Transaction transaction : sortByNonce(transactions)) {
       final ValidationResult<TransactionInvalidReason> validationResult =
           validateTransaction(transaction);
       if (validationResult.isValid()) {
-        final boolean added = pendingTransactions.addRemoteTransaction(transaction);
+        final boolean added =
+            pendingTransactions.addRemoteTransaction(transaction, getAccountNonce(transaction));
         if (added) {
           addedTransactions.add(transaction);
         }
@@ -109,7 +113,7 @@ public class TransactionPool implements BlockAddedObserver {
 
   @Override
   public void onBlockAdded(final BlockAddedEvent event, final Blockchain blockchain) {
-    event.getAddedTransactions().forEach(pendingTransactions::removeTransaction);
+    event.getAddedTransactions().forEach(pendingTransactions::confirmTransaction);
     addRemoteTransactions(event.getRemovedTransactions());
   }
 
@@ -154,6 +158,11 @@ public class TransactionPool implements BlockAddedObserver {
     return worldState.get(transaction.getSender());
   }
 
+  private long getAccountNonce(final Transaction transaction) {
+    final Account sender = getSenderAccount(transaction, getChainHeadBlockHeader());
+    return sender == null ? 0 : sender.getNonce();
+  }
+
   private BlockHeader getChainHeadBlockHeader() {
     final MutableBlockchain blockchain = protocolContext.getBlockchain();
     return blockchain.getBlockHeader(blockchain.getChainHeadHash()).get();
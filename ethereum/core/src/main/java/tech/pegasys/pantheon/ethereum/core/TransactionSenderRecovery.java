@@ -0,0 +1,138 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Recovers the senders of batches of transactions in parallel.
+ *
+ * <p>Recovering a sender from its signature is by far the most expensive part of handling a
+ * transaction outside of executing it. {@link Transaction#getSender()} caches the recovered sender,
+ * so running a batch through this class before it is processed serially means the serial code only
+ * reads the cached values.
+ *
+ * <p>Work runs on a dedicated fork-join pool so it is bounded independently of the common pool.
+ */
+public class TransactionSenderRecovery {
+
+  // Recovering one sender takes roughly 100µs, so smaller batches aren't worth splitting further.
+  private static final int SEQUENTIAL_THRESHOLD = 8;
+
+  private final ForkJoinPool pool;
+
+  public TransactionSenderRecovery(final int parallelism) {
+    this.pool = new ForkJoinPool(parallelism, new RecoveryThreadFactory(), null, false);
+  }
+
+  /**
+   * Returns the instance shared by the node, which uses one thread per available processor.
+   *
+   * @return the shared sender recovery.
+   */
+  public static TransactionSenderRecovery getDefault() {
+    return DefaultHolder.INSTANCE;
+  }
+
+  /**
+   * Recovers the sender of every transaction in the given blocks.
+   *
+   * @param blocks the blocks whose transaction senders should be recovered.
+   */
+  public void recoverSendersForBlocks(final Collection<Block> blocks) {
+    final List<Transaction> transactions = new ArrayList<>();
+    for (final Block block : blocks) {
+      transactions.addAll(block.getBody().getTransactions());
+    }
+    recoverSenders(transactions);
+  }
+
+  /**
+   * Recovers the sender of every transaction in the batch, returning once all are done.
+   *
+   * <p>Transactions whose sender cannot be recovered are left untouched so the error is reported
+   * by the code that later processes them.
+   *
+   * @param transactions the transactions whose senders should be recovered.
+   */
+  public void recoverSenders(final Collection<Transaction> transactions) {
+    final List<Transaction> transactionList =
+        transactions instanceof List
+            ? (List<Transaction>) transactions
+            : new ArrayList<>(transactions);
+    if (transactionList.size() <= SEQUENTIAL_THRESHOLD) {
+      recoverSenders(transactionList, 0, transactionList.size());
+      return;
+    }
+    pool.invoke(new RecoverSendersAction(transactionList, 0, transactionList.size()));
+  }
+
+  private static void recoverSenders(
+      final List<Transaction> transactions, final int from, final int to) {
+    for (int i = from; i < to; i++) {
+      try {
+        transactions.get(i).getSender();
+      } catch (final IllegalStateException e) {
+        // Invalid signature, left for validation to reject.
+      }
+    }
+  }
+
+  private static class RecoverSendersAction extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final List<Transaction> transactions;
+    private final int from;
+    private final int to;
+
+    RecoverSendersAction(final List<Transaction> transactions, final int from, final int to) {
+      this.transactions = transactions;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= SEQUENTIAL_THRESHOLD) {
+        recoverSenders(transactions, from, to);
+        return;
+      }
+      final int middle = (from + to) >>> 1;
+      invokeAll(
+          new RecoverSendersAction(transactions, from, middle),
+          new RecoverSendersAction(transactions, middle, to));
+    }
+  }
+
+  private static class RecoveryThreadFactory implements ForkJoinWorkerThreadFactory {
+
+    @Override
+    public ForkJoinWorkerThread newThread(final ForkJoinPool pool) {
+      final ForkJoinWorkerThread thread =
+          ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+      thread.setName(TransactionSenderRecovery.class.getSimpleName() + "-" + thread.getPoolIndex());
+      return thread;
+    }
+  }
+
+  private static class DefaultHolder {
+    private static final TransactionSenderRecovery INSTANCE =
+        new TransactionSenderRecovery(Runtime.getRuntime().availableProcessors());
+  }
+}
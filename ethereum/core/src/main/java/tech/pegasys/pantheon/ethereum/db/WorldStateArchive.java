@@ -12,19 +12,95 @@
  */
 package tech.pegasys.pantheon.ethereum.db;
 
+import tech.pegasys.pantheon.ethereum.core.Address;
 import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
 import tech.pegasys.pantheon.ethereum.core.WorldState;
+import tech.pegasys.pantheon.ethereum.rlp.RLP;
 import tech.pegasys.pantheon.ethereum.trie.MerklePatriciaTrie;
+import tech.pegasys.pantheon.ethereum.trie.NodeLoader;
+import tech.pegasys.pantheon.ethereum.trie.Proof;
+import tech.pegasys.pantheon.ethereum.trie.StoredMerklePatriciaTrie;
+import tech.pegasys.pantheon.ethereum.trie.TrieNodeCache;
 import tech.pegasys.pantheon.ethereum.worldstate.DefaultMutableWorldState;
+import tech.pegasys.pantheon.ethereum.worldstate.OverlayWorldStateStorage;
+import tech.pegasys.pantheon.ethereum.worldstate.StateTrieAccountValue;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateConfiguration;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateProof;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateSnapshot;
 import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.services.kvstore.KeyValueStorage;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 public class WorldStateArchive {
   private final WorldStateStorage storage;
+  private final Optional<TrieNodeCache<BytesValue>> nodeCache;
+  private final Optional<WorldStateSnapshot> snapshot;
   private static final Hash EMPTY_ROOT_HASH = Hash.wrap(MerklePatriciaTrie.EMPTY_TRIE_ROOT_HASH);
 
   public WorldStateArchive(final WorldStateStorage storage) {
     this.storage = storage;
+    this.nodeCache = Optional.empty();
+    this.snapshot = Optional.empty();
+  }
+
+  /**
+   * @param storage The storage holding the world state tries.
+   * @param snapshotStorage The storage holding the flat snapshot of the latest persisted state.
+   *     Only used if the snapshot is enabled in {@code configuration}.
+   * @param configuration The world state configuration.
+   * @param metricsSystem The metrics system the trie node cache hits and misses are registered
+   *     with.
+   */
+  public WorldStateArchive(
+      final WorldStateStorage storage,
+      final KeyValueStorage snapshotStorage,
+      final WorldStateConfiguration configuration,
+      final MetricsSystem metricsSystem) {
+    this.storage = storage;
+    this.nodeCache =
+        configuration.trieNodeCacheSize() > 0
+            ? Optional.of(new TrieNodeCache<>(configuration.trieNodeCacheSize()))
+            : Optional.empty();
+    nodeCache.ifPresent(cache -> registerCacheMetrics(cache, metricsSystem));
+    this.snapshot =
+        configuration.isStateSnapshotEnabled()
+            ? Optional.of(new WorldStateSnapshot(snapshotStorage))
+            : Optional.empty();
+  }
+
+  private WorldStateArchive(
+      final WorldStateStorage storage,
+      final Optional<TrieNodeCache<BytesValue>> nodeCache,
+      final Optional<WorldStateSnapshot> snapshot) {
+    this.storage = storage;
+    this.nodeCache = nodeCache;
+    this.snapshot = snapshot;
+  }
+
+  /**
+   * Creates an archive whose world states read the tries of this archive, but persist their changes
+   * in memory only. Intermediate states, such as the state between two transactions of a block, can
+   * then be persisted and reopened from their root hash without touching storage.
+   *
+   * <p>The overlay has neither a trie node cache, so that short-lived nodes never evict the live
+   * ones from this archive's cache, nor a flat snapshot, which only indexes the latest persisted
+   * state.
+   *
+   * @return An archive backed by an in-memory overlay of this archive's storage.
+   */
+  public WorldStateArchive createOverlay() {
+    return new WorldStateArchive(
+        new OverlayWorldStateStorage(storage), Optional.empty(), Optional.empty());
   }
 
   public WorldState get(final Hash rootHash) {
@@ -32,7 +108,7 @@ public class WorldStateArchive {
   }
 
   public MutableWorldState getMutable(final Hash rootHash) {
-    return new DefaultMutableWorldState(rootHash, storage);
+    return new DefaultMutableWorldState(rootHash, storage, nodeCache, snapshot);
   }
 
   public WorldState get() {
@@ -42,4 +118,62 @@ public class WorldStateArchive {
   public MutableWorldState getMutable() {
     return getMutable(EMPTY_ROOT_HASH);
   }
+
+  /**
+   * Builds the proof of an account, and of some of the entries of its storage, in a persisted world
+   * state.
+   *
+   * @param worldStateRoot The root hash of the world state.
+   * @param accountAddress The address of the account to prove.
+   * @param accountStorageKeys The storage keys of the account to prove.
+   * @return The proof, or empty if the world state is not held in storage.
+   */
+  public Optional<WorldStateProof> getAccountProof(
+      final Hash worldStateRoot,
+      final Address accountAddress,
+      final List<UInt256> accountStorageKeys) {
+    if (!worldStateRoot.equals(EMPTY_ROOT_HASH)
+        && !storage.getAccountStateTrieNode(worldStateRoot).isPresent()) {
+      return Optional.empty();
+    }
+
+    final Proof<BytesValue> accountProof =
+        newTrie(storage::getAccountStateTrieNode, worldStateRoot)
+            .getValueWithProof(Hash.hash(accountAddress));
+    final Optional<StateTrieAccountValue> accountValue =
+        accountProof.getValue().map(value -> StateTrieAccountValue.readFrom(RLP.input(value)));
+
+    final MerklePatriciaTrie<Bytes32, BytesValue> storageTrie =
+        newTrie(
+            storage::getAccountStorageTrieNode,
+            accountValue.map(StateTrieAccountValue::getStorageRoot).orElse(EMPTY_ROOT_HASH));
+    final Map<UInt256, Proof<BytesValue>> storageProofs = new LinkedHashMap<>();
+    for (final UInt256 key : accountStorageKeys) {
+      storageProofs.computeIfAbsent(
+          key, k -> storageTrie.getValueWithProof(Hash.hash(k.getBytes())));
+    }
+    return Optional.of(new WorldStateProof(accountValue, accountProof, storageProofs));
+  }
+
+  private MerklePatriciaTrie<Bytes32, BytesValue> newTrie(
+      final NodeLoader nodeLoader, final Bytes32 rootHash) {
+    return nodeCache
+        .<MerklePatriciaTrie<Bytes32, BytesValue>>map(
+            cache -> new StoredMerklePatriciaTrie<>(nodeLoader, cache, rootHash, b -> b, b -> b))
+        .orElseGet(() -> new StoredMerklePatriciaTrie<>(nodeLoader, rootHash, b -> b, b -> b));
+  }
+
+  private static void registerCacheMetrics(
+      final TrieNodeCache<BytesValue> cache, final MetricsSystem metricsSystem) {
+    metricsSystem.createGauge(
+        MetricCategory.BLOCKCHAIN,
+        "trie_node_cache_hits",
+        "Number of world state trie node lookups served from the node cache",
+        cache::hitCount);
+    metricsSystem.createGauge(
+        MetricCategory.BLOCKCHAIN,
+        "trie_node_cache_misses",
+        "Number of world state trie node lookups that read from storage",
+        cache::missCount);
+  }
 }
@@ -73,6 +73,21 @@ public final class EthHash {
     return hashimoto(header, size, nonce, (target, ind) -> calcDatasetItem(target, cache, ind));
   }
 
+  /**
+   * Hashimoto Full Implementation.
+   *
+   * @param size Dataset size for the given header hash
+   * @param dataset EthHash DataSet
+   * @param header Truncated BlockHeader hash
+   * @param nonce Nonce to use for hashing
+   * @return A byte array holding MixHash in its first 32 bytes and the EthHash result in the in
+   *     bytes 32 to 63
+   */
+  public static byte[] hashimotoFull(
+      final long size, final EthHashDataset dataset, final byte[] header, final long nonce) {
+    return hashimoto(header, size, nonce, dataset::readItem);
+  }
+
   public static byte[] hashimoto(
       final byte[] header,
       final long size,
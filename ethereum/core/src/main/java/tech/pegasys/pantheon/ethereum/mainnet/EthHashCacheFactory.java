@@ -12,21 +12,46 @@
  */
 package tech.pegasys.pantheon.ethereum.mainnet;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.primitives.Ints;
+import com.google.common.primitives.Longs;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-public class EthHashCacheFactory {
+/**
+ * Hands out the data needed to compute EthHash for a block.
+ *
+ * <p>By default only the light cache of each epoch is kept, and every dataset item hashimoto
+ * accesses is recomputed from it. When created with a dataset directory, the full dataset of each
+ * requested epoch, and of the epoch after it, is generated in the background and memory-mapped
+ * from that directory. Descriptors use the full dataset as soon as it is available.
+ */
+public class EthHashCacheFactory implements Closeable {
 
   private static final Logger LOG = LogManager.getLogger();
 
+  private static final String DATASET_FILE_PREFIX = "full-R23-";
+
   public static class EthHashDescriptor {
     private final long datasetSize;
     private final int[] cache;
+    private volatile EthHashDataset dataset;
 
     public EthHashDescriptor(final long datasetSize, final int[] cache) {
       this.datasetSize = datasetSize;
@@ -40,22 +65,181 @@ public class EthHashCacheFactory {
     public int[] getCache() {
       return cache;
     }
+
+    public Optional<EthHashDataset> getDataset() {
+      return Optional.ofNullable(dataset);
+    }
+
+    /**
+     * Runs hashimoto against the full dataset if it is available, or the light cache otherwise.
+     *
+     * @param headerHash Truncated BlockHeader hash
+     * @param nonce Nonce to use for hashing
+     * @return A byte array holding MixHash in its first 32 bytes and the EthHash result in the in
+     *     bytes 32 to 63
+     */
+    public byte[] hashimoto(final byte[] headerHash, final long nonce) {
+      final EthHashDataset fullDataset = dataset;
+      return fullDataset != null
+          ? EthHash.hashimotoFull(datasetSize, fullDataset, headerHash, nonce)
+          : EthHash.hashimotoLight(datasetSize, cache, headerHash, nonce);
+    }
+
+    private void setDataset(final EthHashDataset dataset) {
+      this.dataset = dataset;
+    }
   }
 
   Cache<Long, EthHashDescriptor> descriptorCache = CacheBuilder.newBuilder().maximumSize(5).build();
 
+  private final Optional<Path> datasetDirectory;
+  private final Map<Long, EthHashDataset> datasets = new ConcurrentHashMap<>();
+  private final Set<Long> requestedDatasets = ConcurrentHashMap.newKeySet();
+  private final AtomicLong latestRequestedEpoch = new AtomicLong(-1L);
+  private final ExecutorService datasetScheduler;
+  private final ExecutorService datasetGenerators;
+
+  public EthHashCacheFactory() {
+    this.datasetDirectory = Optional.empty();
+    this.datasetScheduler = null;
+    this.datasetGenerators = null;
+  }
+
+  /**
+   * Creates a factory that keeps full datasets in the given directory.
+   *
+   * @param datasetDirectory the directory to store datasets in
+   */
+  public EthHashCacheFactory(final Path datasetDirectory) {
+    this.datasetDirectory = Optional.of(datasetDirectory);
+    // Epochs are generated one after another, each split across all processors.
+    this.datasetScheduler =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat(EthHashCacheFactory.class.getSimpleName() + "-Datasets")
+                .build());
+    this.datasetGenerators =
+        Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat(EthHashCacheFactory.class.getSimpleName() + "-Generator-%d")
+                .build());
+  }
+
   public EthHashDescriptor ethHashCacheFor(final long blockNumber) {
-    final Long epochIndex = EthHash.epoch(blockNumber);
+    final long epochIndex = EthHash.epoch(blockNumber);
+    final EthHashDescriptor descriptor = descriptorFor(epochIndex);
+    if (datasetDirectory.isPresent()) {
+      latestRequestedEpoch.accumulateAndGet(epochIndex, Math::max);
+      requestDataset(datasetDirectory.get(), epochIndex);
+      requestDataset(datasetDirectory.get(), epochIndex + 1);
+    }
+    return descriptor;
+  }
+
+  @Override
+  public void close() {
+    if (datasetScheduler != null) {
+      datasetScheduler.shutdownNow();
+      datasetGenerators.shutdownNow();
+    }
+  }
+
+  private EthHashDescriptor descriptorFor(final long epochIndex) {
     try {
-      return descriptorCache.get(epochIndex, () -> createHashCache(epochIndex, blockNumber));
+      return descriptorCache.get(epochIndex, () -> createHashCache(epochIndex));
     } catch (final ExecutionException ex) {
       throw new RuntimeException("Failed to create a suitable cache for EthHash calculations.", ex);
     }
   }
 
-  private EthHashDescriptor createHashCache(final long epochIndex, final long blockNumber) {
+  private EthHashDescriptor createHashCache(final long epochIndex) {
     final int[] cache =
-        EthHash.mkCache(Ints.checkedCast(EthHash.cacheSize(epochIndex)), blockNumber);
-    return new EthHashDescriptor(EthHash.datasetSize(epochIndex), cache);
+        EthHash.mkCache(
+            Ints.checkedCast(EthHash.cacheSize(epochIndex)), epochIndex * EthHash.EPOCH_LENGTH);
+    final EthHashDescriptor descriptor =
+        new EthHashDescriptor(EthHash.datasetSize(epochIndex), cache);
+    descriptor.setDataset(datasets.get(epochIndex));
+    return descriptor;
+  }
+
+  private void requestDataset(final Path directory, final long epochIndex) {
+    if (requestedDatasets.add(epochIndex)) {
+      datasetScheduler.execute(() -> prepareDataset(directory, epochIndex));
+    }
+  }
+
+  private void prepareDataset(final Path directory, final long epochIndex) {
+    if (epochIndex < latestRequestedEpoch.get()) {
+      // Blocks moved past this epoch while it was queued, don't spend minutes on a dataset that
+      // will not be used.
+      requestedDatasets.remove(epochIndex);
+      return;
+    }
+    final Path file = directory.resolve(DATASET_FILE_PREFIX + epochIndex);
+    try {
+      final EthHashDescriptor descriptor = descriptorFor(epochIndex);
+      final Optional<EthHashDataset> existing =
+          EthHashDataset.load(file, descriptor.getDatasetSize());
+      final EthHashDataset dataset;
+      if (existing.isPresent()) {
+        dataset = existing.get();
+      } else {
+        LOG.info("Generating EthHash dataset for epoch {} in {}", epochIndex, file);
+        Files.createDirectories(directory);
+        dataset =
+            EthHashDataset.generate(
+                file,
+                descriptor.getDatasetSize(),
+                descriptor.getCache(),
+                datasetGenerators,
+                Runtime.getRuntime().availableProcessors());
+        LOG.info("Generated EthHash dataset for epoch {}", epochIndex);
+      }
+      datasets.put(epochIndex, dataset);
+      descriptor.setDataset(dataset);
+      removeStaleDatasets(directory, epochIndex);
+    } catch (final IOException | RuntimeException ex) {
+      LOG.error("Failed to prepare EthHash dataset for epoch {}, using light mode", epochIndex, ex);
+    }
+  }
+
+  // Keeps the datasets from the epoch before the given one onwards, in case of a reorg.
+  private void removeStaleDatasets(final Path directory, final long epochIndex) {
+    for (final Long epoch : datasets.keySet()) {
+      if (epoch < epochIndex - 1) {
+        datasets.remove(epoch);
+        requestedDatasets.remove(epoch);
+        final EthHashDescriptor descriptor = descriptorCache.getIfPresent(epoch);
+        if (descriptor != null) {
+          descriptor.setDataset(null);
+        }
+      }
+    }
+    try (final Stream<Path> files = Files.list(directory)) {
+      files
+          .filter(file -> isDatasetFileBefore(file, epochIndex - 1))
+          .forEach(
+              file -> {
+                try {
+                  Files.deleteIfExists(file);
+                } catch (final IOException ex) {
+                  LOG.warn("Failed to remove EthHash dataset {}", file, ex);
+                }
+              });
+    } catch (final IOException ex) {
+      LOG.warn("Failed to list EthHash datasets in {}", directory, ex);
+    }
+  }
+
+  private static boolean isDatasetFileBefore(final Path file, final long epochIndex) {
+    final String name = file.getFileName().toString();
+    if (!name.startsWith(DATASET_FILE_PREFIX)) {
+      return false;
+    }
+    final Long epoch = Longs.tryParse(name.substring(DATASET_FILE_PREFIX.length()));
+    return epoch != null && epoch < epochIndex;
   }
 }
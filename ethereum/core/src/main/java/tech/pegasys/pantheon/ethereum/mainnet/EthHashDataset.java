@@ -0,0 +1,176 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.mainnet;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import com.google.common.primitives.Ints;
+
+/**
+ * The full EthHash dataset of one epoch, memory-mapped from a file so that it stays off the heap
+ * and is shared with the page cache.
+ */
+public final class EthHashDataset {
+
+  // A single mapping is limited to 2GB, so the file is mapped in segments of whole items.
+  private static final int DEFAULT_SEGMENT_BYTES = 1 << 30;
+
+  private final long size;
+  private final int segmentBytes;
+  private final MappedByteBuffer[] segments;
+
+  private EthHashDataset(
+      final long size, final int segmentBytes, final MappedByteBuffer[] segments) {
+    this.size = size;
+    this.segmentBytes = segmentBytes;
+    this.segments = segments;
+  }
+
+  /**
+   * Maps an existing dataset file.
+   *
+   * @param file the dataset file
+   * @param size the expected size of the dataset in bytes
+   * @return the dataset, or empty if the file does not exist or is incomplete
+   * @throws IOException if the file cannot be mapped
+   */
+  public static Optional<EthHashDataset> load(final Path file, final long size)
+      throws IOException {
+    return load(file, size, DEFAULT_SEGMENT_BYTES);
+  }
+
+  static Optional<EthHashDataset> load(final Path file, final long size, final int segmentBytes)
+      throws IOException {
+    if (!Files.isRegularFile(file) || Files.size(file) != size) {
+      return Optional.empty();
+    }
+    try (final FileChannel channel = FileChannel.open(file, READ)) {
+      final MappedByteBuffer[] segments = map(channel, MapMode.READ_ONLY, size, segmentBytes);
+      return Optional.of(new EthHashDataset(size, segmentBytes, segments));
+    }
+  }
+
+  /**
+   * Generates a dataset from the EthHash cache and writes it to a file.
+   *
+   * <p>Items are computed in {@code partitions} independent ranges on the given executor. The
+   * dataset is written to a temporary file which is only moved into place once complete, so an
+   * interrupted generation is never mistaken for a usable dataset.
+   *
+   * @param file the file to write the dataset to
+   * @param size the size of the dataset in bytes
+   * @param cache the EthHash cache of the same epoch
+   * @param executor the executor to compute items on
+   * @param partitions the number of ranges to split the work into
+   * @return the generated dataset
+   * @throws IOException if the file cannot be written
+   */
+  public static EthHashDataset generate(
+      final Path file,
+      final long size,
+      final int[] cache,
+      final Executor executor,
+      final int partitions)
+      throws IOException {
+    return generate(file, size, cache, executor, partitions, DEFAULT_SEGMENT_BYTES);
+  }
+
+  static EthHashDataset generate(
+      final Path file,
+      final long size,
+      final int[] cache,
+      final Executor executor,
+      final int partitions,
+      final int segmentBytes)
+      throws IOException {
+    final Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+    final EthHashDataset dataset;
+    try (final FileChannel channel =
+        FileChannel.open(tempFile, CREATE, TRUNCATE_EXISTING, READ, WRITE)) {
+      final MappedByteBuffer[] segments = map(channel, MapMode.READ_WRITE, size, segmentBytes);
+      dataset = new EthHashDataset(size, segmentBytes, segments);
+      final int items = Ints.checkedCast(size / EthHash.HASH_BYTES);
+      final int partitionSize = (items + partitions - 1) / partitions;
+      final CompletableFuture<?>[] tasks = new CompletableFuture<?>[partitions];
+      for (int partition = 0; partition < partitions; ++partition) {
+        final int start = Math.min(items, partition * partitionSize);
+        final int end = Math.min(items, start + partitionSize);
+        tasks[partition] =
+            CompletableFuture.runAsync(() -> dataset.fill(cache, start, end), executor);
+      }
+      CompletableFuture.allOf(tasks).join();
+      for (final MappedByteBuffer segment : dataset.segments) {
+        segment.force();
+      }
+    }
+    Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    return dataset;
+  }
+
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Reads a dataset item.
+   *
+   * @param buffer Buffer to store dataset item in
+   * @param index Index of the dataset item to read
+   */
+  public void readItem(final byte[] buffer, final int index) {
+    itemBuffer(index).get(buffer, 0, EthHash.HASH_BYTES);
+  }
+
+  private void fill(final int[] cache, final int start, final int end) {
+    final byte[] item = new byte[EthHash.HASH_BYTES];
+    for (int i = start; i < end; ++i) {
+      EthHash.calcDatasetItem(item, cache, i);
+      itemBuffer(i).put(item);
+    }
+  }
+
+  private ByteBuffer itemBuffer(final int index) {
+    final long offset = (long) index * EthHash.HASH_BYTES;
+    // Duplicates share the mapping but have their own position, so concurrent reads are safe.
+    final ByteBuffer segment = segments[(int) (offset / segmentBytes)].duplicate();
+    segment.position((int) (offset % segmentBytes));
+    return segment;
+  }
+
+  private static MappedByteBuffer[] map(
+      final FileChannel channel, final MapMode mode, final long size, final int segmentBytes)
+      throws IOException {
+    final MappedByteBuffer[] segments =
+        new MappedByteBuffer[Ints.checkedCast((size + segmentBytes - 1) / segmentBytes)];
+    for (int i = 0; i < segments.length; ++i) {
+      final long position = (long) i * segmentBytes;
+      segments[i] = channel.map(mode, position, Math.min(segmentBytes, size - position));
+    }
+    return segments;
+  }
+}
@@ -21,6 +21,12 @@ import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.core.BlockImporter;
 import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
 import tech.pegasys.pantheon.ethereum.core.TransactionReceipt;
+import tech.pegasys.pantheon.metrics.Counter;
+import tech.pegasys.pantheon.metrics.LabelledMetric;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.metrics.OperationTimer;
+import tech.pegasys.pantheon.metrics.OperationTimer.TimingContext;
 
 import java.util.List;
 import java.util.Optional;
@@ -36,6 +42,8 @@ public class MainnetBlockImporter<C> implements BlockImporter<C> {
 
   private final BlockProcessor blockProcessor;
 
+  private volatile ImportMetrics metrics;
+
   public MainnetBlockImporter(
       final BlockHeaderValidator<C> blockHeaderValidator,
       final BlockBodyValidator<C> blockBodyValidator,
@@ -64,26 +72,40 @@ public class MainnetBlockImporter<C> implements BlockImporter<C> {
       return false;
     }
     final BlockHeader parentHeader = maybeParentHeader.get();
+    final ImportMetrics metrics = metrics(context.getMetricsSystem());
 
-    if (!blockHeaderValidator.validateHeader(header, parentHeader, context, headerValidationMode)) {
+    TimingContext timing = metrics.headerValidationTimer.startTimer();
+    final boolean validHeader =
+        blockHeaderValidator.validateHeader(header, parentHeader, context, headerValidationMode);
+    timing.stopTimer();
+    if (!validHeader) {
       return false;
     }
 
     final MutableBlockchain blockchain = context.getBlockchain();
+    timing = metrics.processingTimer.startTimer();
     final MutableWorldState worldState =
         context.getWorldStateArchive().getMutable(parentHeader.getStateRoot());
     final BlockProcessor.Result result = blockProcessor.processBlock(blockchain, worldState, block);
+    timing.stopTimer();
     if (!result.isSuccessful()) {
       return false;
     }
 
     final List<TransactionReceipt> receipts = result.getReceipts();
-    if (!blockBodyValidator.validateBody(
-        context, block, receipts, worldState.rootHash(), ommerValidationMode)) {
+    timing = metrics.bodyValidationTimer.startTimer();
+    final boolean validBody =
+        blockBodyValidator.validateBody(
+            context, block, receipts, worldState.rootHash(), ommerValidationMode);
+    timing.stopTimer();
+    if (!validBody) {
       return false;
     }
 
+    timing = metrics.persistingTimer.startTimer();
     blockchain.appendBlock(block, receipts);
+    timing.stopTimer();
+    metrics.blocksImported.inc();
 
     return true;
   }
@@ -106,7 +128,48 @@ public class MainnetBlockImporter<C> implements BlockImporter<C> {
     }
 
     context.getBlockchain().appendBlock(block, receipts);
+    metrics(context.getMetricsSystem()).blocksImported.inc();
 
     return true;
   }
+
+  /*
+   * The metrics system comes with the context of each import, so the metrics are created the first
+   * time an import sees it and reused until a context with a different one arrives.
+   */
+  private ImportMetrics metrics(final MetricsSystem metricsSystem) {
+    final ImportMetrics current = metrics;
+    if (current != null && current.metricsSystem == metricsSystem) {
+      return current;
+    }
+    final ImportMetrics created = new ImportMetrics(metricsSystem);
+    metrics = created;
+    return created;
+  }
+
+  private static class ImportMetrics {
+    private final MetricsSystem metricsSystem;
+    private final OperationTimer headerValidationTimer;
+    private final OperationTimer processingTimer;
+    private final OperationTimer bodyValidationTimer;
+    private final OperationTimer persistingTimer;
+    private final Counter blocksImported;
+
+    private ImportMetrics(final MetricsSystem metricsSystem) {
+      this.metricsSystem = metricsSystem;
+      final LabelledMetric<OperationTimer> phaseTimer =
+          metricsSystem.createLabelledTimer(
+              MetricCategory.BLOCKCHAIN,
+              "block_import_phase_seconds",
+              "Time spent in each phase of importing a block",
+              "phase");
+      headerValidationTimer = phaseTimer.labels("header_validation");
+      processingTimer = phaseTimer.labels("processing");
+      bodyValidationTimer = phaseTimer.labels("body_validation");
+      persistingTimer = phaseTimer.labels("persisting");
+      blocksImported =
+          metricsSystem.createCounter(
+              MetricCategory.BLOCKCHAIN, "blocks_imported_total", "Number of blocks imported");
+    }
+  }
 }
@@ -12,6 +12,8 @@
  */
 package tech.pegasys.pantheon.ethereum.mainnet;
 
+import tech.pegasys.pantheon.ethereum.vm.CodeCache;
+
 import io.vertx.core.json.JsonObject;
 
 /** Provides {@link ProtocolSpec} lookups for mainnet hard forks. */
@@ -46,29 +48,71 @@ public class MainnetProtocolSchedule {
       final long byzantiumBlockNumber,
       final long constantinopleBlockNumber,
       final int chainId) {
+    return create(
+        homesteadBlockNumber,
+        daoBlockNumber,
+        tangerineWhistleBlockNumber,
+        spuriousDragonBlockNumber,
+        byzantiumBlockNumber,
+        constantinopleBlockNumber,
+        chainId,
+        new EthHasher.Light(),
+        new CodeCache(CodeCache.DEFAULT_MAXIMUM_SIZE));
+  }
+
+  /**
+   * Creates a mainnet protocol schedule whose header validators compute proof of work with the
+   * given hasher, and whose message calls load contract code through the given cache.
+   *
+   * @param homesteadBlockNumber Block number at which to start the homestead fork
+   * @param daoBlockNumber Block number at which to start the dao fork
+   * @param tangerineWhistleBlockNumber Block number at which to start the tangerine whistle fork
+   * @param spuriousDragonBlockNumber Block number at which to start the spurious dragon fork
+   * @param byzantiumBlockNumber Block number at which to start the byzantium fork
+   * @param constantinopleBlockNumber Block number at which to start the constantinople fork
+   * @param chainId ID of the blockchain
+   * @param ethHasher Computes the EthHash of the headers to validate
+   * @param codeCache Caches the analyzed code of called contracts
+   * @return MainnetProtocolSchedule return newly instantiated protocol schedule
+   */
+  public static ProtocolSchedule<Void> create(
+      final long homesteadBlockNumber,
+      final long daoBlockNumber,
+      final long tangerineWhistleBlockNumber,
+      final long spuriousDragonBlockNumber,
+      final long byzantiumBlockNumber,
+      final long constantinopleBlockNumber,
+      final int chainId,
+      final EthHasher ethHasher,
+      final CodeCache codeCache) {
 
-    final MutableProtocolSchedule<Void> protocolSchedule = new MutableProtocolSchedule<>();
-    protocolSchedule.putMilestone(0, MainnetProtocolSpecs.frontier(protocolSchedule));
-    final ProtocolSpec<Void> homestead = MainnetProtocolSpecs.homestead(protocolSchedule);
+    final MutableProtocolSchedule<Void> protocolSchedule =
+        new MutableProtocolSchedule<>(codeCache);
+    protocolSchedule.putMilestone(0, MainnetProtocolSpecs.frontier(protocolSchedule, ethHasher));
+    final ProtocolSpec<Void> homestead =
+        MainnetProtocolSpecs.homestead(protocolSchedule, ethHasher);
     protocolSchedule.putMilestone(homesteadBlockNumber, homestead);
     if (daoBlockNumber != 0) {
       protocolSchedule.putMilestone(
-          daoBlockNumber, MainnetProtocolSpecs.daoRecoveryInit(protocolSchedule));
+          daoBlockNumber, MainnetProtocolSpecs.daoRecoveryInit(protocolSchedule, ethHasher));
       protocolSchedule.putMilestone(
-          daoBlockNumber + 1, MainnetProtocolSpecs.daoRecoveryTransition(protocolSchedule));
+          daoBlockNumber + 1,
+          MainnetProtocolSpecs.daoRecoveryTransition(protocolSchedule, ethHasher));
       protocolSchedule.putMilestone(daoBlockNumber + 10, homestead);
     }
     protocolSchedule.putMilestone(
-        tangerineWhistleBlockNumber, MainnetProtocolSpecs.tangerineWhistle(protocolSchedule));
+        tangerineWhistleBlockNumber,
+        MainnetProtocolSpecs.tangerineWhistle(protocolSchedule, ethHasher));
     protocolSchedule.putMilestone(
-        spuriousDragonBlockNumber, MainnetProtocolSpecs.spuriousDragon(chainId, protocolSchedule));
+        spuriousDragonBlockNumber,
+        MainnetProtocolSpecs.spuriousDragon(chainId, protocolSchedule, ethHasher));
     protocolSchedule.putMilestone(
-        byzantiumBlockNumber, MainnetProtocolSpecs.byzantium(chainId, protocolSchedule));
+        byzantiumBlockNumber, MainnetProtocolSpecs.byzantium(chainId, protocolSchedule, ethHasher));
 
     if (constantinopleBlockNumber >= 0) {
       protocolSchedule.putMilestone(
           constantinopleBlockNumber,
-          MainnetProtocolSpecs.constantinople(chainId, protocolSchedule));
+          MainnetProtocolSpecs.constantinople(chainId, protocolSchedule, ethHasher));
     }
 
     return protocolSchedule;
@@ -93,6 +137,22 @@ public class MainnetProtocolSchedule {
    * @return A configured mainnet protocol schedule
    */
   public static ProtocolSchedule<Void> fromConfig(final JsonObject config) {
+    return fromConfig(
+        config, new EthHasher.Light(), new CodeCache(CodeCache.DEFAULT_MAXIMUM_SIZE));
+  }
+
+  /**
+   * Create a Mainnet protocol schedule from a config object, validating proof of work with the
+   * given hasher and loading contract code through the given cache.
+   *
+   * @param config {@link JsonObject} containing the config options for the milestone starting
+   *     points
+   * @param ethHasher Computes the EthHash of the headers to validate
+   * @param codeCache Caches the analyzed code of called contracts
+   * @return A configured mainnet protocol schedule
+   */
+  public static ProtocolSchedule<Void> fromConfig(
+      final JsonObject config, final EthHasher ethHasher, final CodeCache codeCache) {
     final long homesteadBlockNumber =
         config.getLong("homesteadBlock", DEFAULT_HOMESTEAD_BLOCK_NUMBER);
     final long daoBlockNumber = config.getLong("daoForkBlock", DEFAULT_DAO_BLOCK_NUMBER);
@@ -112,6 +172,8 @@ public class MainnetProtocolSchedule {
         spuriousDragonBlockNumber,
         byzantiumBlockNumber,
         constantinopleBlockNumber,
-        chainId);
+        chainId,
+        ethHasher,
+        codeCache);
   }
 }
@@ -73,13 +73,15 @@ public abstract class MainnetProtocolSpecs {
             (gasCalculator,
                 transactionValidator,
                 contractCreationProcessor,
-                messageCallProcessor) ->
+                messageCallProcessor,
+                codeCache) ->
                 new MainnetTransactionProcessor(
                     gasCalculator,
                     transactionValidator,
                     contractCreationProcessor,
                     messageCallProcessor,
-                    false))
+                    false,
+                    codeCache))
         .difficultyCalculator(MainnetDifficultyCalculators.FRONTIER)
         .blockHeaderValidatorBuilder(MainnetBlockHeaderValidator::create)
         .ommerHeaderValidatorBuilder(MainnetBlockHeaderValidator::createOmmerValidator)
@@ -104,6 +106,11 @@ public abstract class MainnetProtocolSpecs {
     return frontierDefinition().build(protocolSchedule);
   }
 
+  static ProtocolSpec<Void> frontier(
+      final ProtocolSchedule<Void> protocolSchedule, final EthHasher ethHasher) {
+    return validatingProofOfWorkWith(frontierDefinition(), ethHasher).build(protocolSchedule);
+  }
+
   /**
    * Returns the Homestead milestone protocol spec.
    *
@@ -114,6 +121,11 @@ public abstract class MainnetProtocolSpecs {
     return homesteadDefinition().build(protocolSchedule);
   }
 
+  static ProtocolSpec<Void> homestead(
+      final ProtocolSchedule<Void> protocolSchedule, final EthHasher ethHasher) {
+    return validatingProofOfWorkWith(homesteadDefinition(), ethHasher).build(protocolSchedule);
+  }
+
   public static ProtocolSpecBuilder<Void> homesteadDefinition() {
     return frontierDefinition()
         .gasCalculator(HomesteadGasCalculator::new)
@@ -138,6 +150,12 @@ public abstract class MainnetProtocolSpecs {
     return daoRecoveryInitDefinition().build(protocolSchedule);
   }
 
+  static ProtocolSpec<Void> daoRecoveryInit(
+      final ProtocolSchedule<Void> protocolSchedule, final EthHasher ethHasher) {
+    return validatingDaoProofOfWorkWith(daoRecoveryInitDefinition(), ethHasher)
+        .build(protocolSchedule);
+  }
+
   private static ProtocolSpecBuilder<Void> daoRecoveryInitDefinition() {
     return homesteadDefinition()
         .blockHeaderValidatorBuilder(MainnetBlockHeaderValidator::createDaoValidator)
@@ -163,10 +181,19 @@ public abstract class MainnetProtocolSpecs {
    */
   public static ProtocolSpec<Void> daoRecoveryTransition(
       final ProtocolSchedule<Void> protocolSchedule) {
+    return daoRecoveryTransitionDefinition().build(protocolSchedule);
+  }
+
+  static ProtocolSpec<Void> daoRecoveryTransition(
+      final ProtocolSchedule<Void> protocolSchedule, final EthHasher ethHasher) {
+    return validatingDaoProofOfWorkWith(daoRecoveryTransitionDefinition(), ethHasher)
+        .build(protocolSchedule);
+  }
+
+  private static ProtocolSpecBuilder<Void> daoRecoveryTransitionDefinition() {
     return daoRecoveryInitDefinition()
         .blockProcessorBuilder(MainnetBlockProcessor::new)
-        .name("DaoRecoveryTransition")
-        .build(protocolSchedule);
+        .name("DaoRecoveryTransition");
   }
 
   /**
@@ -179,6 +206,12 @@ public abstract class MainnetProtocolSpecs {
     return tangerineWhistleDefinition().build(protocolSchedule);
   }
 
+  static ProtocolSpec<Void> tangerineWhistle(
+      final ProtocolSchedule<Void> protocolSchedule, final EthHasher ethHasher) {
+    return validatingProofOfWorkWith(tangerineWhistleDefinition(), ethHasher)
+        .build(protocolSchedule);
+  }
+
   public static ProtocolSpecBuilder<Void> tangerineWhistleDefinition() {
     return homesteadDefinition()
         .gasCalculator(TangerineWhistleGasCalculator::new)
@@ -197,6 +230,12 @@ public abstract class MainnetProtocolSpecs {
     return spuriousDragonDefinition(chainId).build(protocolSchedule);
   }
 
+  static ProtocolSpec<Void> spuriousDragon(
+      final int chainId, final ProtocolSchedule<Void> protocolSchedule, final EthHasher ethHasher) {
+    return validatingProofOfWorkWith(spuriousDragonDefinition(chainId), ethHasher)
+        .build(protocolSchedule);
+  }
+
   public static ProtocolSpecBuilder<Void> spuriousDragonDefinition(final int chainId) {
     return tangerineWhistleDefinition()
         .gasCalculator(SpuriousDragonGasCalculator::new)
@@ -221,13 +260,15 @@ public abstract class MainnetProtocolSpecs {
             (gasCalculator,
                 transactionValidator,
                 contractCreationProcessor,
-                messageCallProcessor) ->
+                messageCallProcessor,
+                codeCache) ->
                 new MainnetTransactionProcessor(
                     gasCalculator,
                     transactionValidator,
                     contractCreationProcessor,
                     messageCallProcessor,
-                    true))
+                    true,
+                    codeCache))
         .name("SpuriousDragon");
   }
 
@@ -243,6 +284,12 @@ public abstract class MainnetProtocolSpecs {
     return byzantiumDefinition(chainId).build(protocolSchedule);
   }
 
+  static ProtocolSpec<Void> byzantium(
+      final int chainId, final ProtocolSchedule<Void> protocolSchedule, final EthHasher ethHasher) {
+    return validatingProofOfWorkWith(byzantiumDefinition(chainId), ethHasher)
+        .build(protocolSchedule);
+  }
+
   public static ProtocolSpecBuilder<Void> byzantiumDefinition(final int chainId) {
     return spuriousDragonDefinition(chainId)
         .evmBuilder(MainnetEvmRegistries::byzantium)
@@ -263,13 +310,45 @@ public abstract class MainnetProtocolSpecs {
    */
   public static ProtocolSpec<Void> constantinople(
       final int chainId, final ProtocolSchedule<Void> protocolSchedule) {
+    return constantinopleDefinition(chainId).build(protocolSchedule);
+  }
+
+  static ProtocolSpec<Void> constantinople(
+      final int chainId, final ProtocolSchedule<Void> protocolSchedule, final EthHasher ethHasher) {
+    return validatingProofOfWorkWith(constantinopleDefinition(chainId), ethHasher)
+        .build(protocolSchedule);
+  }
+
+  private static ProtocolSpecBuilder<Void> constantinopleDefinition(final int chainId) {
     return byzantiumDefinition(chainId)
         .difficultyCalculator(MainnetDifficultyCalculators.CONSTANTINOPLE)
         .gasCalculator(ConstantinopleGasCalculator::new)
         .evmBuilder(MainnetEvmRegistries::constantinople)
         .blockReward(CONSTANTINOPLE_BLOCK_REWARD)
-        .name("Constantinople")
-        .build(protocolSchedule);
+        .name("Constantinople");
+  }
+
+  /*
+   * The definitions validate proof of work in light mode. A schedule given its own hasher, for
+   * instance one backed by full datasets, replaces their header validators with ones using it.
+   */
+  private static ProtocolSpecBuilder<Void> validatingProofOfWorkWith(
+      final ProtocolSpecBuilder<Void> definition, final EthHasher ethHasher) {
+    return definition
+        .blockHeaderValidatorBuilder(
+            difficultyCalculator ->
+                MainnetBlockHeaderValidator.create(difficultyCalculator, ethHasher))
+        .ommerHeaderValidatorBuilder(
+            difficultyCalculator ->
+                MainnetBlockHeaderValidator.createOmmerValidator(difficultyCalculator, ethHasher));
+  }
+
+  private static ProtocolSpecBuilder<Void> validatingDaoProofOfWorkWith(
+      final ProtocolSpecBuilder<Void> definition, final EthHasher ethHasher) {
+    return validatingProofOfWorkWith(definition, ethHasher)
+        .blockHeaderValidatorBuilder(
+            difficultyCalculator ->
+                MainnetBlockHeaderValidator.createDaoValidator(difficultyCalculator, ethHasher));
   }
 
   private static TransactionReceipt frontierTransactionReceiptFactory(
@@ -25,6 +25,7 @@ import tech.pegasys.pantheon.ethereum.core.WorldUpdater;
 import tech.pegasys.pantheon.ethereum.mainnet.TransactionValidator.TransactionInvalidReason;
 import tech.pegasys.pantheon.ethereum.vm.BlockHashLookup;
 import tech.pegasys.pantheon.ethereum.vm.Code;
+import tech.pegasys.pantheon.ethereum.vm.CodeCache;
 import tech.pegasys.pantheon.ethereum.vm.GasCalculator;
 import tech.pegasys.pantheon.ethereum.vm.MessageFrame;
 import tech.pegasys.pantheon.ethereum.vm.OperationTracer;
@@ -122,17 +123,21 @@ public class MainnetTransactionProcessor implements TransactionProcessor {
 
   private final boolean clearEmptyAccounts;
 
+  private final CodeCache codeCache;
+
   public MainnetTransactionProcessor(
       final GasCalculator gasCalculator,
       final TransactionValidator transactionValidator,
       final AbstractMessageProcessor contractCreationProcessor,
       final AbstractMessageProcessor messageCallProcessor,
-      final boolean clearEmptyAccounts) {
+      final boolean clearEmptyAccounts,
+      final CodeCache codeCache) {
     this.gasCalculator = gasCalculator;
     this.transactionValidator = transactionValidator;
     this.contractCreationProcessor = contractCreationProcessor;
     this.messageCallProcessor = messageCallProcessor;
     this.clearEmptyAccounts = clearEmptyAccounts;
+    this.codeCache = codeCache;
   }
 
   @Override
@@ -214,6 +219,7 @@ public class MainnetTransactionProcessor implements TransactionProcessor {
               .completer(c -> {})
               .miningBeneficiary(miningBenficiary)
               .blockHashLookup(blockHashLookup)
+              .codeCache(codeCache)
               .build();
 
     } else {
@@ -235,12 +241,13 @@ public class MainnetTransactionProcessor implements TransactionProcessor {
               .sender(senderAddress)
               .value(transaction.getValue())
               .apparentValue(transaction.getValue())
-              .code(new Code(contract != null ? contract.getCode() : BytesValue.EMPTY))
+              .code(codeCache.getOrLoad(contract))
               .blockHeader(blockHeader)
               .depth(0)
               .completer(c -> {})
               .miningBeneficiary(miningBenficiary)
               .blockHashLookup(blockHashLookup)
+              .codeCache(codeCache)
               .build();
     }
 
@@ -14,6 +14,8 @@ package tech.pegasys.pantheon.ethereum.mainnet;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import tech.pegasys.pantheon.ethereum.vm.CodeCache;
+
 import java.util.Comparator;
 import java.util.NavigableSet;
 import java.util.TreeSet;
@@ -25,6 +27,16 @@ public class MutableProtocolSchedule<C> implements ProtocolSchedule<C> {
           Comparator.<ScheduledProtocolSpec<C>, Long>comparing(ScheduledProtocolSpec::getBlock)
               .reversed());
 
+  private final CodeCache codeCache;
+
+  public MutableProtocolSchedule() {
+    this(new CodeCache(CodeCache.DEFAULT_MAXIMUM_SIZE));
+  }
+
+  public MutableProtocolSchedule(final CodeCache codeCache) {
+    this.codeCache = codeCache;
+  }
+
   public void putMilestone(final long blockNumber, final ProtocolSpec<C> protocolSpec) {
     final ScheduledProtocolSpec<C> scheduledProtocolSpec =
         new ScheduledProtocolSpec<>(blockNumber, protocolSpec);
@@ -49,4 +61,9 @@ public class MutableProtocolSchedule<C> implements ProtocolSchedule<C> {
     }
     return null;
   }
+
+  @Override
+  public CodeCache getCodeCache() {
+    return codeCache;
+  }
 }
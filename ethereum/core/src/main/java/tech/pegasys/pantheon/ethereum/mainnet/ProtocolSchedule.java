@@ -12,7 +12,16 @@
  */
 package tech.pegasys.pantheon.ethereum.mainnet;
 
+import tech.pegasys.pantheon.ethereum.vm.CodeCache;
+
 public interface ProtocolSchedule<C> {
 
   ProtocolSpec<C> getByBlockNumber(long number);
+
+  /**
+   * Returns the cache of analyzed contract code shared by the specs of every milestone.
+   *
+   * @return the code cache
+   */
+  CodeCache getCodeCache();
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.vm;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import tech.pegasys.pantheon.ethereum.core.Account;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * A size-bounded, thread-safe cache of analyzed {@link Code}, keyed by code hash.
+ *
+ * <p>A cached {@link Code} keeps its jump destinations once they have been computed, so contracts
+ * that are called repeatedly are analyzed once and their code is not read from the world state
+ * again. Code is content-addressed and its analysis does not depend on the fork, so a protocol
+ * schedule shares one cache between the message calls of every block.
+ */
+public class CodeCache {
+
+  /** The default maximum total size, in bytes, of the cached code. */
+  public static final long DEFAULT_MAXIMUM_SIZE = 64 * 1024 * 1024;
+
+  private final Cache<Hash, Code> codes;
+
+  /**
+   * Create a cache.
+   *
+   * @param maximumSize The maximum total size, in bytes, of the cached code.
+   */
+  public CodeCache(final long maximumSize) {
+    this(maximumSize, new NoOpMetricsSystem());
+  }
+
+  /**
+   * Create a cache that reports its hits and misses.
+   *
+   * @param maximumSize The maximum total size, in bytes, of the cached code.
+   * @param metricsSystem The metrics system the hit and miss counts are registered with.
+   */
+  public CodeCache(final long maximumSize, final MetricsSystem metricsSystem) {
+    checkArgument(maximumSize > 0, "Cache size must be positive");
+    this.codes =
+        CacheBuilder.newBuilder()
+            .maximumWeight(maximumSize)
+            .<Hash, Code>weigher((hash, code) -> code.getSize())
+            .concurrencyLevel(4)
+            .recordStats()
+            .build();
+    metricsSystem.createGauge(
+        MetricCategory.BLOCKCHAIN,
+        "code_cache_hits",
+        "Number of contract code lookups that found the analyzed code cached",
+        this::hitCount);
+    metricsSystem.createGauge(
+        MetricCategory.BLOCKCHAIN,
+        "code_cache_misses",
+        "Number of contract code lookups that read and analyzed the code",
+        this::missCount);
+  }
+
+  /**
+   * Returns the code of an account, only reading it from the account if it is not cached.
+   *
+   * @param account The account whose code to return, or null for an account that doesn't exist.
+   * @return The code of the account.
+   */
+  public Code getOrLoad(final Account account) {
+    if (account == null) {
+      return new Code(BytesValue.EMPTY);
+    }
+    final Hash codeHash = account.getCodeHash();
+    final Code cached = codes.getIfPresent(codeHash);
+    if (cached != null) {
+      return cached;
+    }
+    final Code code = new Code(account.getCode());
+    codes.put(codeHash, code);
+    return code;
+  }
+
+  /** @return The number of lookups that found the code cached. */
+  public long hitCount() {
+    return stats().hitCount();
+  }
+
+  /** @return The number of lookups that had to read the code from the account. */
+  public long missCount() {
+    return stats().missCount();
+  }
+
+  /** @return The number of codes currently cached. */
+  public long size() {
+    return codes.size();
+  }
+
+  private CacheStats stats() {
+    return codes.stats();
+  }
+}
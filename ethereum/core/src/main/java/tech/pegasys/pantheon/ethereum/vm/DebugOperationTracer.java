@@ -22,17 +22,52 @@ import tech.pegasys.pantheon.util.bytes.Bytes32;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.TreeMap;
 
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Records a {@link TraceFrame} for every executed operation.
+ *
+ * <p>Memory and storage rarely change from one operation to the next, so a captured snapshot is
+ * shared by the following frames of the same message until an operation that may modify it is
+ * executed, rather than being copied at every step. Stack snapshots reuse the items of the previous
+ * one that its operation didn't consume, so only the top of the stack is read again.
+ */
 public class DebugOperationTracer implements OperationTracer {
 
+  // Operations that can write to the memory of the frame executing them. Message calls write their
+  // output to memory when the called frame completes.
+  private static final Set<String> MEMORY_WRITING_OPERATIONS =
+      ImmutableSet.of(
+          "MSTORE",
+          "MSTORE8",
+          "CALLDATACOPY",
+          "CODECOPY",
+          "EXTCODECOPY",
+          "RETURNDATACOPY",
+          "CALL",
+          "CALLCODE",
+          "DELEGATECALL",
+          "STATICCALL");
+  private static final String STORAGE_WRITING_OPERATION = "SSTORE";
+
   private final TraceOptions options;
   private final List<TraceFrame> traceFrames = new ArrayList<>();
 
+  private MessageFrame lastFrame;
+  private Optional<Bytes32[]> lastStack = Optional.empty();
+  private int lastStackItemsConsumed;
+  private Optional<Bytes32[]> lastMemory = Optional.empty();
+  private boolean memoryModified;
+  private Optional<Map<UInt256, UInt256>> lastStorage = Optional.empty();
+
   public DebugOperationTracer(final TraceOptions options) {
     this.options = options;
   }
@@ -44,18 +79,24 @@ public class DebugOperationTracer implements OperationTracer {
       final ExecuteOperation executeOperation)
       throws ExceptionalHaltException {
     final int depth = frame.getMessageStackDepth();
-    final String opcode = frame.getCurrentOperation().getName();
+    final Operation operation = frame.getCurrentOperation();
+    final String opcode = operation.getName();
     final int pc = frame.getPC();
     final Gas gasRemaining = frame.getRemainingGas();
     final EnumSet<ExceptionalHaltReason> exceptionalHaltReasons =
         EnumSet.copyOf(frame.getExceptionalHaltReasons());
-    final Optional<Bytes32[]> stack = captureStack(frame);
-    final Optional<Bytes32[]> memory = captureMemory(frame);
+    final boolean sameFrame = frame == lastFrame;
+    lastFrame = frame;
+    final Optional<Bytes32[]> stack = captureStack(frame, sameFrame);
+    final Optional<Bytes32[]> memory = captureMemory(frame, sameFrame);
 
     try {
       executeOperation.execute();
     } finally {
-      final Optional<Map<UInt256, UInt256>> storage = captureStorage(frame);
+      memoryModified = MEMORY_WRITING_OPERATIONS.contains(opcode);
+      lastStackItemsConsumed = operation.getStackItemsConsumed();
+      final Optional<Map<UInt256, UInt256>> storage =
+          captureStorage(frame, sameFrame && !STORAGE_WRITING_OPERATION.equals(opcode));
 
       traceFrames.add(
           new TraceFrame(
@@ -71,37 +112,65 @@ public class DebugOperationTracer implements OperationTracer {
     }
   }
 
-  private Optional<Map<UInt256, UInt256>> captureStorage(final MessageFrame frame) {
+  private Optional<Map<UInt256, UInt256>> captureStorage(
+      final MessageFrame frame, final boolean unchanged) {
     if (!options.isStorageEnabled()) {
       return Optional.empty();
     }
+    if (unchanged && lastStorage.isPresent()) {
+      return lastStorage;
+    }
     final Map<UInt256, UInt256> storageContents =
         new TreeMap<>(
             frame.getWorldState().getMutable(frame.getRecipientAddress()).getUpdatedStorage());
-    return Optional.of(storageContents);
+    lastStorage = Optional.of(Collections.unmodifiableMap(storageContents));
+    return lastStorage;
   }
 
-  private Optional<Bytes32[]> captureMemory(final MessageFrame frame) {
+  private Optional<Bytes32[]> captureMemory(final MessageFrame frame, final boolean sameFrame) {
     if (!options.isMemoryEnabled()) {
       return Optional.empty();
     }
-    final Bytes32[] memoryContents = new Bytes32[frame.memoryWordSize().toInt()];
+    final int memoryWordSize = frame.memoryWordSize().toInt();
+    // Memory that only grew was zero-extended by a read, but is copied again for simplicity
+    if (sameFrame
+        && !memoryModified
+        && lastMemory.isPresent()
+        && lastMemory.get().length == memoryWordSize) {
+      return lastMemory;
+    }
+    final Bytes32[] memoryContents = new Bytes32[memoryWordSize];
     for (int i = 0; i < memoryContents.length; i++) {
       memoryContents[i] = Bytes32.wrap(frame.readMemory(UInt256.of(i).times(U_32), U_32), 0);
     }
-    return Optional.of(memoryContents);
+    lastMemory = Optional.of(memoryContents);
+    return lastMemory;
   }
 
-  private Optional<Bytes32[]> captureStack(final MessageFrame frame) {
+  private Optional<Bytes32[]> captureStack(final MessageFrame frame, final boolean sameFrame) {
     if (!options.isStackEnabled()) {
       return Optional.empty();
     }
-    final Bytes32[] stackContents = new Bytes32[frame.stackSize()];
-    for (int i = 0; i < stackContents.length; i++) {
+    final int stackSize = frame.stackSize();
+    int unchangedItems = 0;
+    if (sameFrame && lastStack.isPresent()) {
+      final Bytes32[] previousStack = lastStack.get();
+      unchangedItems =
+          Math.max(0, Math.min(previousStack.length - lastStackItemsConsumed, stackSize));
+      if (unchangedItems == stackSize && previousStack.length == stackSize) {
+        return lastStack;
+      }
+    }
+    final Bytes32[] stackContents = new Bytes32[stackSize];
+    if (unchangedItems > 0) {
+      System.arraycopy(lastStack.get(), 0, stackContents, 0, unchangedItems);
+    }
+    for (int i = unchangedItems; i < stackContents.length; i++) {
       // Record stack contents in reverse
       stackContents[i] = frame.getStackItem(stackContents.length - i - 1);
     }
-    return Optional.of(stackContents);
+    lastStack = Optional.of(stackContents);
+    return lastStack;
   }
 
   public List<TraceFrame> getTraceFrames() {
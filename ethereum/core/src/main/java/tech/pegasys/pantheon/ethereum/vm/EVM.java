@@ -31,6 +31,9 @@ public class EVM {
   private static final Logger LOG = getLogger();
 
   private static final int STOP_OPCODE = 0x00;
+  private static final EnumSet<ExceptionalHaltReason> NO_HALT_REASONS =
+      EnumSet.noneOf(ExceptionalHaltReason.class);
+
   private final OperationRegistry operations;
   private final Operation invalidOperation;
 
@@ -41,11 +44,61 @@ public class EVM {
 
   public void runToHalt(final MessageFrame frame, final OperationTracer operationTracer)
       throws ExceptionalHaltException {
+    if (operationTracer == OperationTracer.NO_TRACING && !LOG.isTraceEnabled()) {
+      runToHaltUntraced(frame);
+      return;
+    }
     while (frame.getState() == MessageFrame.State.CODE_EXECUTING) {
       executeNextOperation(frame, operationTracer);
     }
   }
 
+  /**
+   * Runs the frame without tracing or logging. Each operation is checked against the stack bounds
+   * of the registry, its own halt condition and the remaining gas as a long, so no halt reason set
+   * or optional gas cost is built per operation. The cost itself still comes from {@link
+   * Operation#cost}: fixed costs are shared constants, but operations whose cost depends on the
+   * frame, such as memory expansion, allocate a new {@link Gas}. An operation that fails any check
+   * goes through {@link #executeNextOperation}, which reports every halt reason exactly as the
+   * traced path does.
+   */
+  private void runToHaltUntraced(final MessageFrame frame) throws ExceptionalHaltException {
+    final BytesValue bytecode = frame.getCode().getBytes();
+    final int codeSize = bytecode.size();
+    while (frame.getState() == MessageFrame.State.CODE_EXECUTING) {
+      final int pc = frame.getPC();
+      final int opcode = pc < codeSize ? bytecode.get(pc) & 0xff : STOP_OPCODE;
+      final Operation operation = operations.get(opcode);
+      if (operation == null || !operations.fitsStack(opcode, frame.stackSize())) {
+        executeNextOperation(frame, OperationTracer.NO_TRACING);
+        continue;
+      }
+      frame.setCurrentOperation(operation);
+
+      final Gas cost;
+      try {
+        cost =
+            operation.exceptionalHaltCondition(frame, NO_HALT_REASONS, this).isPresent()
+                ? null
+                : operation.cost(frame);
+      } catch (final IllegalArgumentException e) {
+        executeNextOperation(frame, OperationTracer.NO_TRACING);
+        continue;
+      }
+      // The invalid operation has no cost either.
+      if (cost == null || cost.toLong() > frame.getRemainingGasAsLong()) {
+        executeNextOperation(frame, OperationTracer.NO_TRACING);
+        continue;
+      }
+
+      frame.decrementRemainingGas(cost.toLong());
+      operation.execute(frame);
+      if (frame.getState() == State.CODE_EXECUTING && !operation.getUpdatesProgramCounter()) {
+        frame.setPC(pc + operation.getOpSize());
+      }
+    }
+  }
+
   public void forEachOperation(
       final Code code, final BiConsumer<Operation, Integer> operationDelegate) {
     int pc = 0;
@@ -186,7 +186,7 @@ public class MessageFrame {
   private State state;
 
   // Machine state fields.
-  private Gas gasRemaining;
+  private long gasRemaining;
   private final BlockHashLookup blockHashLookup;
   private int pc;
   private final Memory memory;
@@ -214,6 +214,7 @@ public class MessageFrame {
   private final int depth;
   private final Deque<MessageFrame> messageFrameStack;
   private final Address miningBeneficiary;
+  private final CodeCache codeCache;
 
   // Miscellaneous fields.
   private final EnumSet<ExceptionalHaltReason> exceptionalHaltReasons =
@@ -245,12 +246,13 @@ public class MessageFrame {
       final boolean isStatic,
       final Consumer<MessageFrame> completer,
       final Address miningBeneficiary,
-      final BlockHashLookup blockHashLookup) {
+      final BlockHashLookup blockHashLookup,
+      final CodeCache codeCache) {
     this.type = type;
     this.blockchain = blockchain;
     this.messageFrameStack = messageFrameStack;
     this.worldState = worldState;
-    this.gasRemaining = initialGas;
+    this.gasRemaining = initialGas.toLong();
     this.blockHashLookup = blockHashLookup;
     this.pc = 0;
     this.memory = new Memory();
@@ -275,6 +277,7 @@ public class MessageFrame {
     this.isStatic = isStatic;
     this.completer = completer;
     this.miningBeneficiary = miningBeneficiary;
+    this.codeCache = codeCache;
   }
 
   /**
@@ -297,7 +300,7 @@ public class MessageFrame {
 
   /** Deducts the remainging gas. */
   public void clearGasRemaining() {
-    this.gasRemaining = Gas.ZERO;
+    this.gasRemaining = 0;
   }
 
   /**
@@ -306,7 +309,16 @@ public class MessageFrame {
    * @param amount The amount of gas to deduct
    */
   public void decrementRemainingGas(final Gas amount) {
-    this.gasRemaining = gasRemaining.minus(amount);
+    decrementRemainingGas(amount.toLong());
+  }
+
+  /**
+   * Decrement the amount of remaining gas.
+   *
+   * @param amount The amount of gas to deduct
+   */
+  public void decrementRemainingGas(final long amount) {
+    this.gasRemaining -= amount;
   }
 
   /**
@@ -315,6 +327,15 @@ public class MessageFrame {
    * @return the amount of remaining gas
    */
   public Gas getRemainingGas() {
+    return Gas.of(gasRemaining);
+  }
+
+  /**
+   * Return the amount of remaining gas without wrapping it in a {@link Gas}.
+   *
+   * @return the amount of remaining gas
+   */
+  public long getRemainingGasAsLong() {
     return gasRemaining;
   }
 
@@ -324,7 +345,7 @@ public class MessageFrame {
    * @param amount The amount of gas to increment
    */
   public void incrementRemainingGas(final Gas amount) {
-    this.gasRemaining = gasRemaining.plus(amount);
+    this.gasRemaining = Gas.of(gasRemaining).plus(amount).toLong();
   }
 
   /**
@@ -333,7 +354,7 @@ public class MessageFrame {
    * @param amount The amount of remainging gas
    */
   public void setGasRemaining(final Gas amount) {
-    this.gasRemaining = amount;
+    this.gasRemaining = amount.toLong();
   }
 
   /**
@@ -802,6 +823,15 @@ public class MessageFrame {
     return blockHashLookup;
   }
 
+  /**
+   * Returns the cache the code of called contracts is loaded through.
+   *
+   * @return the code cache
+   */
+  public CodeCache getCodeCache() {
+    return codeCache;
+  }
+
   public Operation getCurrentOperation() {
     return currentOperation;
   }
@@ -832,6 +862,7 @@ public class MessageFrame {
     private Consumer<MessageFrame> completer;
     private Address miningBeneficiary;
     private BlockHashLookup blockHashLookup;
+    private CodeCache codeCache;
 
     public Builder type(final Type type) {
       this.type = type;
@@ -933,6 +964,11 @@ public class MessageFrame {
       return this;
     }
 
+    public Builder codeCache(final CodeCache codeCache) {
+      this.codeCache = codeCache;
+      return this;
+    }
+
     private void validate() {
       checkState(type != null, "Missing message frame type");
       checkState(blockchain != null, "Missing message frame blockchain");
@@ -953,6 +989,7 @@ public class MessageFrame {
       checkState(completer != null, "Missing message frame completer");
       checkState(miningBeneficiary != null, "Missing mining beneficiary");
       checkState(blockHashLookup != null, "Missing block hash lookup");
+      checkState(codeCache != null, "Missing code cache");
     }
 
     public MessageFrame build() {
@@ -978,7 +1015,8 @@ public class MessageFrame {
           isStatic,
           completer,
           miningBeneficiary,
-          blockHashLookup);
+          blockHashLookup,
+          codeCache);
     }
   }
 }
@@ -12,15 +12,31 @@
  */
 package tech.pegasys.pantheon.ethereum.vm;
 
-/** Encapsulates a group of {@link Operation}s used together. */
+import tech.pegasys.pantheon.ethereum.vm.ehalt.StackOverflowExceptionalHaltPredicate;
+
+import java.util.Arrays;
+
+/**
+ * Encapsulates a group of {@link Operation}s used together.
+ *
+ * <p>The stack bounds of each registered operation are also kept in flat tables, so that the
+ * interpreter can check them without calling into the operation.
+ */
 public class OperationRegistry {
 
   private static final int NUM_OPERATIONS = 256;
 
   private final Operation[] operations;
+  private final int[] minStackSizes;
+  private final int[] maxStackSizes;
 
   public OperationRegistry() {
     this.operations = new Operation[NUM_OPERATIONS];
+    this.minStackSizes = new int[NUM_OPERATIONS];
+    this.maxStackSizes = new int[NUM_OPERATIONS];
+    // No stack size is valid for an opcode without an operation.
+    Arrays.fill(minStackSizes, Integer.MAX_VALUE);
+    Arrays.fill(maxStackSizes, -1);
   }
 
   public Operation get(final byte opcode) {
@@ -33,6 +49,20 @@ public class OperationRegistry {
 
   public void put(final int opcode, final Operation operation) {
     operations[opcode] = operation;
+    minStackSizes[opcode] = operation.getStackItemsConsumed();
+    maxStackSizes[opcode] =
+        StackOverflowExceptionalHaltPredicate.MAX_STACK_SIZE - operation.getStackSizeChange();
+  }
+
+  /**
+   * Whether the operation registered for an opcode neither underflows nor overflows the stack.
+   *
+   * @param opcode the opcode, between 0 and 255
+   * @param stackSize the number of items on the stack before the operation executes
+   * @return true if an operation is registered for the opcode and fits the stack
+   */
+  boolean fitsStack(final int opcode, final int stackSize) {
+    return stackSize >= minStackSizes[opcode] && stackSize <= maxStackSizes[opcode];
   }
 
   public Operation getOrDefault(final byte opcode, final Operation defaultOperation) {
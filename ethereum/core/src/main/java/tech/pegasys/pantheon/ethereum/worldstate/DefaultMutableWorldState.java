@@ -24,18 +24,23 @@ import tech.pegasys.pantheon.ethereum.rlp.RLP;
 import tech.pegasys.pantheon.ethereum.rlp.RLPException;
 import tech.pegasys.pantheon.ethereum.rlp.RLPInput;
 import tech.pegasys.pantheon.ethereum.trie.MerklePatriciaTrie;
+import tech.pegasys.pantheon.ethereum.trie.NodeLoader;
 import tech.pegasys.pantheon.ethereum.trie.StoredMerklePatriciaTrie;
+import tech.pegasys.pantheon.ethereum.trie.TrieNodeCache;
 import tech.pegasys.pantheon.util.bytes.Bytes32;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.stream.Stream;
@@ -47,6 +52,14 @@ public class DefaultMutableWorldState implements MutableWorldState {
       new HashMap<>();
   private final Map<Address, BytesValue> updatedAccountCode = new HashMap<>();
   private final WorldStateStorage worldStateStorage;
+  private final Optional<TrieNodeCache<BytesValue>> nodeCache;
+  private final Optional<WorldStateSnapshot> snapshot;
+  // The persisted state this one was loaded from, and what changed since, so that reads of
+  // untouched accounts and slots can be served by the snapshot.
+  private Hash persistedRoot;
+  private final Set<Address> touchedAccounts = new HashSet<>();
+  private final Set<Address> clearedStorage = new HashSet<>();
+  private final Map<Address, Set<Hash>> touchedStorageSlots = new HashMap<>();
 
   public DefaultMutableWorldState(final WorldStateStorage storage) {
     this(MerklePatriciaTrie.EMPTY_TRIE_ROOT_HASH, storage);
@@ -54,8 +67,27 @@ public class DefaultMutableWorldState implements MutableWorldState {
 
   public DefaultMutableWorldState(
       final Bytes32 rootHash, final WorldStateStorage worldStateStorage) {
+    this(rootHash, worldStateStorage, Optional.empty(), Optional.empty());
+  }
+
+  /**
+   * @param rootHash The root hash of the world state.
+   * @param worldStateStorage The storage the trie nodes are read from and written to.
+   * @param nodeCache A cache of decoded trie nodes shared by every world state backed by {@code
+   *     worldStateStorage}.
+   * @param snapshot A flat index of the latest persisted state, kept up to date by {@link
+   *     #persist()}.
+   */
+  public DefaultMutableWorldState(
+      final Bytes32 rootHash,
+      final WorldStateStorage worldStateStorage,
+      final Optional<TrieNodeCache<BytesValue>> nodeCache,
+      final Optional<WorldStateSnapshot> snapshot) {
     this.worldStateStorage = worldStateStorage;
+    this.nodeCache = nodeCache;
+    this.snapshot = snapshot;
     this.accountStateTrie = newAccountStateTrie(rootHash);
+    this.persistedRoot = Hash.wrap(rootHash);
   }
 
   public DefaultMutableWorldState(final WorldState worldState) {
@@ -68,17 +100,26 @@ public class DefaultMutableWorldState implements MutableWorldState {
 
     final DefaultMutableWorldState other = (DefaultMutableWorldState) worldState;
     this.worldStateStorage = other.worldStateStorage;
+    this.nodeCache = other.nodeCache;
+    this.snapshot = other.snapshot;
     this.accountStateTrie = newAccountStateTrie(other.accountStateTrie.getRootHash());
+    this.persistedRoot = Hash.wrap(accountStateTrie.getRootHash());
   }
 
   private MerklePatriciaTrie<Bytes32, BytesValue> newAccountStateTrie(final Bytes32 rootHash) {
-    return new StoredMerklePatriciaTrie<>(
-        worldStateStorage::getAccountStateTrieNode, rootHash, b -> b, b -> b);
+    return newTrie(worldStateStorage::getAccountStateTrieNode, rootHash);
   }
 
   private MerklePatriciaTrie<Bytes32, BytesValue> newAccountStorageTrie(final Bytes32 rootHash) {
-    return new StoredMerklePatriciaTrie<>(
-        worldStateStorage::getAccountStorageTrieNode, rootHash, b -> b, b -> b);
+    return newTrie(worldStateStorage::getAccountStorageTrieNode, rootHash);
+  }
+
+  private MerklePatriciaTrie<Bytes32, BytesValue> newTrie(
+      final NodeLoader nodeLoader, final Bytes32 rootHash) {
+    return nodeCache
+        .<MerklePatriciaTrie<Bytes32, BytesValue>>map(
+            cache -> new StoredMerklePatriciaTrie<>(nodeLoader, cache, rootHash, b -> b, b -> b))
+        .orElseGet(() -> new StoredMerklePatriciaTrie<>(nodeLoader, rootHash, b -> b, b -> b));
   }
 
   @Override
@@ -88,31 +129,36 @@ public class DefaultMutableWorldState implements MutableWorldState {
 
   @Override
   public MutableWorldState copy() {
-    return new DefaultMutableWorldState(rootHash(), worldStateStorage);
+    return new DefaultMutableWorldState(rootHash(), worldStateStorage, nodeCache, snapshot);
   }
 
   @Override
   public Account get(final Address address) {
     final Hash addressHash = Hash.hash(address);
-    return accountStateTrie
-        .get(Hash.hash(address))
+    return getAccount(address, addressHash)
         .map(bytes -> deserializeAccount(address, addressHash, bytes))
         .orElse(null);
   }
 
+  private Optional<BytesValue> getAccount(final Address address, final Hash addressHash) {
+    if (snapshot.isPresent() && !touchedAccounts.contains(address)) {
+      return snapshot
+          .get()
+          .getAccount(persistedRoot, addressHash, () -> accountStateTrie.get(addressHash));
+    }
+    return accountStateTrie.get(addressHash);
+  }
+
   private AccountState deserializeAccount(
       final Address address, final Hash addressHash, final BytesValue encoded) throws RLPException {
-    final RLPInput in = RLP.input(encoded);
-    in.enterList();
-
-    final long nonce = in.readLongScalar();
-    final Wei balance = in.readUInt256Scalar(Wei::wrap);
-    final Hash storageRoot = Hash.wrap(in.readBytes32());
-    final Hash codeHash = Hash.wrap(in.readBytes32());
-
-    in.leaveList();
-
-    return new AccountState(address, addressHash, nonce, balance, storageRoot, codeHash);
+    final StateTrieAccountValue accountValue = StateTrieAccountValue.readFrom(RLP.input(encoded));
+    return new AccountState(
+        address,
+        addressHash,
+        accountValue.getNonce(),
+        accountValue.getBalance(),
+        accountValue.getStorageRoot(),
+        accountValue.getCodeHash());
   }
 
   private static BytesValue serializeAccount(
@@ -159,6 +205,8 @@ public class DefaultMutableWorldState implements MutableWorldState {
 
   @Override
   public void persist() {
+    final Optional<WorldStateSnapshot.Changes> snapshotChanges =
+        snapshot.map(this::collectSnapshotChanges);
     final WorldStateStorage.Updater updater = worldStateStorage.updater();
     // Store updated code
     for (final BytesValue code : updatedAccountCode.values()) {
@@ -178,6 +226,56 @@ public class DefaultMutableWorldState implements MutableWorldState {
 
     // Push changes to underlying storage
     updater.commit();
+
+    // Then bring the flat snapshot in line with the tries it indexes
+    final Hash newRoot = rootHash();
+    snapshotChanges.ifPresent(
+        changes -> snapshot.get().applyTransition(persistedRoot, newRoot, changes));
+    persistedRoot = newRoot;
+    touchedAccounts.clear();
+    clearedStorage.clear();
+    touchedStorageSlots.clear();
+  }
+
+  private WorldStateSnapshot.Changes collectSnapshotChanges(final WorldStateSnapshot flatState) {
+    final WorldStateSnapshot.Changes changes = new WorldStateSnapshot.Changes();
+    final MerklePatriciaTrie<Bytes32, BytesValue> persistedAccounts =
+        newAccountStateTrie(persistedRoot);
+    for (final Address address : touchedAccounts) {
+      final Hash addressHash = Hash.hash(address);
+      final Optional<BytesValue> previous =
+          flatState.getAccount(
+              persistedRoot, addressHash, () -> persistedAccounts.get(addressHash));
+      final Optional<BytesValue> updated = accountStateTrie.get(addressHash);
+      changes.account(addressHash, previous, updated);
+
+      final MerklePatriciaTrie<Bytes32, BytesValue> previousStorage =
+          newAccountStorageTrie(
+              previous
+                  .map(bytes -> deserializeAccount(address, addressHash, bytes).storageRoot)
+                  .orElse(Hash.EMPTY_TRIE_HASH));
+      if (clearedStorage.contains(address)) {
+        previousStorage
+            .entriesFrom(Bytes32.ZERO, Integer.MAX_VALUE)
+            .forEach(
+                (slotHash, value) ->
+                    changes.storageValue(
+                        addressHash, Hash.wrap(slotHash), Optional.of(value), Optional.empty()));
+      }
+      // Storage tries are dropped from updatedStorageTries when the account is deleted or cleared.
+      final MerklePatriciaTrie<Bytes32, BytesValue> updatedStorage =
+          updated.isPresent() ? updatedStorageTries.get(address) : null;
+      for (final Hash slotHash :
+          touchedStorageSlots.getOrDefault(address, Collections.emptySet())) {
+        changes.storageValue(
+            addressHash,
+            slotHash,
+            flatState.getStorageValue(
+                persistedRoot, addressHash, slotHash, () -> previousStorage.get(slotHash)),
+            updatedStorage == null ? Optional.empty() : updatedStorage.get(slotHash));
+      }
+    }
+    return changes;
   }
 
   // An immutable class that represents an individual account as stored in
@@ -267,13 +365,27 @@ public class DefaultMutableWorldState implements MutableWorldState {
 
     @Override
     public UInt256 getStorageValue(final UInt256 key) {
-      final Optional<BytesValue> val = storageTrie().get(Hash.hash(key.getBytes()));
+      final Optional<BytesValue> val = getStorageSlot(Hash.hash(key.getBytes()));
       if (!val.isPresent()) {
         return UInt256.ZERO;
       }
       return convertToUInt256(val.get());
     }
 
+    private Optional<BytesValue> getStorageSlot(final Hash slotHash) {
+      final Set<Hash> touchedSlots =
+          touchedStorageSlots.getOrDefault(address, Collections.emptySet());
+      if (snapshot.isPresent()
+          && !clearedStorage.contains(address)
+          && !touchedSlots.contains(slotHash)) {
+        return snapshot
+            .get()
+            .getStorageValue(
+                persistedRoot, addressHash, slotHash, () -> storageTrie().get(slotHash));
+      }
+      return storageTrie().get(slotHash);
+    }
+
     @Override
     public UInt256 getOriginalStorageValue(final UInt256 key) {
       return getStorageValue(key);
@@ -321,8 +433,7 @@ public class DefaultMutableWorldState implements MutableWorldState {
       final DefaultMutableWorldState wrapped = wrappedWorldView();
       final Hash addressHash = Hash.hash(address);
       return wrapped
-          .accountStateTrie
-          .get(addressHash)
+          .getAccount(address, addressHash)
           .map(bytes -> wrapped.deserializeAccount(address, addressHash, bytes))
           .orElse(null);
     }
@@ -347,10 +458,13 @@ public class DefaultMutableWorldState implements MutableWorldState {
         wrapped.accountStateTrie.remove(addressHash);
         wrapped.updatedStorageTries.remove(address);
         wrapped.updatedAccountCode.remove(address);
+        wrapped.touchedAccounts.add(address);
+        wrapped.clearedStorage.add(address);
       }
 
       for (final UpdateTrackingAccount<AccountState> updated : updatedAccounts()) {
         final AccountState origin = updated.getWrappedAccount();
+        wrapped.touchedAccounts.add(updated.getAddress());
 
         // Save the code in key-value storage ...
         Hash codeHash = origin == null ? Hash.EMPTY : origin.codeHash;
@@ -363,6 +477,7 @@ public class DefaultMutableWorldState implements MutableWorldState {
         Hash storageRoot = freshState ? Hash.EMPTY_TRIE_HASH : origin.storageRoot;
         if (freshState) {
           wrapped.updatedStorageTries.remove(updated.getAddress());
+          wrapped.clearedStorage.add(updated.getAddress());
         }
         final SortedMap<UInt256, UInt256> updatedStorage = updated.getUpdatedStorage();
         if (!updatedStorage.isEmpty()) {
@@ -372,9 +487,13 @@ public class DefaultMutableWorldState implements MutableWorldState {
                   ? wrapped.newAccountStorageTrie(Hash.EMPTY_TRIE_HASH)
                   : origin.storageTrie();
           wrapped.updatedStorageTries.put(updated.getAddress(), storageTrie);
+          final Set<Hash> touchedSlots =
+              wrapped.touchedStorageSlots.computeIfAbsent(
+                  updated.getAddress(), address -> new HashSet<>());
           for (final Map.Entry<UInt256, UInt256> entry : updatedStorage.entrySet()) {
             final UInt256 value = entry.getValue();
             final Hash keyHash = Hash.hash(entry.getKey().getBytes());
+            touchedSlots.add(keyHash);
             if (value.isZero()) {
               storageTrie.remove(keyHash);
             } else {
@@ -14,22 +14,47 @@ package tech.pegasys.pantheon.ethereum.worldstate;
 
 import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.services.kvstore.KeyValueStorage;
+import tech.pegasys.pantheon.util.Subscribers;
 import tech.pegasys.pantheon.util.bytes.Bytes32;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
-public class KeyValueStorageWorldStateStorage implements WorldStateStorage {
+public class KeyValueStorageWorldStateStorage implements PrunableWorldStateStorage {
+
+  private static final int PRUNE_BATCH_SIZE = 1000;
 
   private final KeyValueStorage keyValueStorage;
+  private final KeyValueStorage codeStorage;
+  private final Subscribers<NodesAddedListener> nodeAddedListeners = new Subscribers<>();
+  // Held while pruning a batch and while committing an updater, so that a node re-written by an
+  // updater cannot be removed between its in-use check and its deletion.
+  private final ReentrantLock pruneLock = new ReentrantLock();
 
   public KeyValueStorageWorldStateStorage(final KeyValueStorage keyValueStorage) {
+    this(keyValueStorage, keyValueStorage);
+  }
+
+  /**
+   * @param keyValueStorage Storage for account and storage trie nodes.
+   * @param codeStorage Storage for contract code, keyed by code hash.
+   */
+  public KeyValueStorageWorldStateStorage(
+      final KeyValueStorage keyValueStorage, final KeyValueStorage codeStorage) {
     this.keyValueStorage = keyValueStorage;
+    this.codeStorage = codeStorage;
   }
 
   @Override
   public Optional<BytesValue> getCode(final Hash codeHash) {
-    return keyValueStorage.get(codeHash);
+    return codeStorage.get(codeHash);
   }
 
   @Override
@@ -44,39 +69,135 @@ public class KeyValueStorageWorldStateStorage implements WorldStateStorage {
 
   @Override
   public Updater updater() {
-    return new Updater(keyValueStorage.getStartTransaction());
+    final KeyValueStorage.Transaction transaction = keyValueStorage.getStartBatch();
+    final KeyValueStorage.Transaction codeTransaction =
+        codeStorage == keyValueStorage ? transaction : codeStorage.getStartBatch();
+    return new Updater(transaction, codeTransaction, pruneLock, nodeAddedListeners);
+  }
+
+  @Override
+  public long prune(final Predicate<BytesValue> inUseCheck) {
+    long prunedCount = prune(keyValueStorage, inUseCheck);
+    if (codeStorage != keyValueStorage) {
+      prunedCount += prune(codeStorage, inUseCheck);
+    }
+    return prunedCount;
+  }
+
+  private long prune(final KeyValueStorage storage, final Predicate<BytesValue> inUseCheck) {
+    final List<BytesValue> candidates = new ArrayList<>(PRUNE_BATCH_SIZE);
+    long prunedCount = 0;
+    try (final Stream<KeyValueStorage.Entry> entries = storage.entries()) {
+      final Iterator<KeyValueStorage.Entry> iterator = entries.iterator();
+      while (iterator.hasNext()) {
+        final BytesValue key = iterator.next().getKey();
+        if (!inUseCheck.test(key)) {
+          candidates.add(key);
+        }
+        if (candidates.size() >= PRUNE_BATCH_SIZE || !iterator.hasNext()) {
+          prunedCount += removeUnused(storage, candidates, inUseCheck);
+          candidates.clear();
+        }
+      }
+    }
+    return prunedCount;
+  }
+
+  private long removeUnused(
+      final KeyValueStorage storage,
+      final List<BytesValue> candidates,
+      final Predicate<BytesValue> inUseCheck) {
+    pruneLock.lock();
+    try {
+      // Check again, nodes may have been written since the first check
+      final KeyValueStorage.Transaction transaction = storage.getStartBatch();
+      long removedCount = 0;
+      for (final BytesValue key : candidates) {
+        if (!inUseCheck.test(key)) {
+          transaction.remove(key);
+          removedCount++;
+        }
+      }
+      transaction.commit();
+      return removedCount;
+    } finally {
+      pruneLock.unlock();
+    }
+  }
+
+  @Override
+  public long addNodeAddedListener(final NodesAddedListener listener) {
+    return nodeAddedListeners.subscribe(listener);
+  }
+
+  @Override
+  public void removeNodeAddedListener(final long id) {
+    nodeAddedListeners.unsubscribe(id);
   }
 
   public static class Updater implements WorldStateStorage.Updater {
 
     private final KeyValueStorage.Transaction transaction;
+    private final KeyValueStorage.Transaction codeTransaction;
+    private final Lock commitLock;
+    private final Subscribers<NodesAddedListener> nodeAddedListeners;
+    private final List<Bytes32> addedNodes = new ArrayList<>();
 
     public Updater(final KeyValueStorage.Transaction transaction) {
+      this(transaction, transaction, new ReentrantLock(), new Subscribers<>());
+    }
+
+    public Updater(
+        final KeyValueStorage.Transaction transaction,
+        final KeyValueStorage.Transaction codeTransaction,
+        final Lock commitLock,
+        final Subscribers<NodesAddedListener> nodeAddedListeners) {
       this.transaction = transaction;
+      this.codeTransaction = codeTransaction;
+      this.commitLock = commitLock;
+      this.nodeAddedListeners = nodeAddedListeners;
     }
 
     @Override
     public void putCode(final BytesValue code) {
-      transaction.put(Hash.hash(code), code);
+      final Hash codeHash = Hash.hash(code);
+      addedNodes.add(codeHash);
+      codeTransaction.put(codeHash, code);
     }
 
     @Override
     public void putAccountStateTrieNode(final Bytes32 nodeHash, final BytesValue node) {
+      addedNodes.add(nodeHash);
       transaction.put(nodeHash, node);
     }
 
     @Override
     public void putAccountStorageTrieNode(final Bytes32 nodeHash, final BytesValue node) {
+      addedNodes.add(nodeHash);
       transaction.put(nodeHash, node);
     }
 
     @Override
     public void commit() {
-      transaction.commit();
+      commitLock.lock();
+      try {
+        nodeAddedListeners.forEach(listener -> listener.onNodesAdded(addedNodes));
+        // Code is content-addressed, so committing it first never leaves a trie node pointing at
+        // code that is missing from storage.
+        if (codeTransaction != transaction) {
+          codeTransaction.commit();
+        }
+        transaction.commit();
+      } finally {
+        commitLock.unlock();
+      }
     }
 
     @Override
     public void rollback() {
+      if (codeTransaction != transaction) {
+        codeTransaction.rollback();
+      }
       transaction.rollback();
     }
   }
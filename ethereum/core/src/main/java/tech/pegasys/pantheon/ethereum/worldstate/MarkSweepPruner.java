@@ -0,0 +1,189 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.worldstate;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.rlp.RLP;
+import tech.pegasys.pantheon.ethereum.rlp.RLPInput;
+import tech.pegasys.pantheon.ethereum.trie.NodeLoader;
+import tech.pegasys.pantheon.ethereum.trie.StoredMerklePatriciaTrie;
+import tech.pegasys.pantheon.services.kvstore.KeyValueStorage;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Removes the world state nodes that are not reachable from a chosen set of state roots.
+ *
+ * <p>A pruning cycle is {@link #prepare()}, then {@link #mark(Hash)} for each root to keep, then
+ * {@link #sweep()}. From {@code prepare} until the end of the sweep, every node written to the
+ * world state storage is marked as it is committed, so states persisted while the cycle is running
+ * are never pruned.
+ *
+ * <p>Marks are held in their own storage. A node marked while walking a state is known to have its
+ * whole subtree marked, so later walks stop there; a node marked because it was written says
+ * nothing about its children, which may be older nodes that only it still references.
+ */
+public class MarkSweepPruner {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final BytesValue WRITTEN_MARK = BytesValue.of(0);
+  private static final BytesValue SUBTREE_MARK = BytesValue.of(1);
+  private static final int MARK_BATCH_SIZE = 10_000;
+
+  private final PrunableWorldStateStorage worldStateStorage;
+  private final KeyValueStorage markStorage;
+  private final Set<Bytes32> pendingMarks = new HashSet<>();
+  private Optional<Long> nodeAddedListenerId = Optional.empty();
+
+  public MarkSweepPruner(
+      final PrunableWorldStateStorage worldStateStorage, final KeyValueStorage markStorage) {
+    this.worldStateStorage = worldStateStorage;
+    this.markStorage = markStorage;
+  }
+
+  /**
+   * Starts a pruning cycle. Must be called before any of the roots to keep could be persisted, or
+   * the nodes only they reference may be swept.
+   */
+  public void prepare() {
+    // Marks may be left over from a cycle that was interrupted.
+    clearMarks();
+    nodeAddedListenerId =
+        Optional.of(worldStateStorage.addNodeAddedListener(this::markWrittenNodes));
+  }
+
+  /**
+   * Checks whether the root node of a world state is stored, as it can only be marked if it is.
+   *
+   * @param rootHash The root of the world state.
+   * @return true if the root node is available.
+   */
+  public boolean isStateAvailable(final Hash rootHash) {
+    return rootHash.equals(Hash.EMPTY_TRIE_HASH)
+        || worldStateStorage.getAccountStateTrieNode(rootHash).isPresent();
+  }
+
+  /**
+   * Marks every node and every piece of code reachable from a world state.
+   *
+   * @param rootHash The root of the world state to keep.
+   */
+  public void mark(final Hash rootHash) {
+    walk(worldStateStorage::getAccountStateTrieNode, rootHash, this::markAccount);
+    flushMarks();
+  }
+
+  /**
+   * Removes every node that was not marked since {@link #prepare()}, and ends the pruning cycle.
+   *
+   * @return The number of nodes and pieces of code removed.
+   */
+  public long sweep() {
+    flushMarks();
+    final long prunedCount =
+        worldStateStorage.prune(key -> markStorage.get(key).isPresent());
+    LOG.debug("Pruned {} world state nodes", prunedCount);
+    cleanup();
+    return prunedCount;
+  }
+
+  /** Ends the pruning cycle without removing anything. */
+  public void cleanup() {
+    nodeAddedListenerId.ifPresent(worldStateStorage::removeNodeAddedListener);
+    nodeAddedListenerId = Optional.empty();
+    pendingMarks.clear();
+    clearMarks();
+  }
+
+  private void markAccount(final BytesValue encodedAccount) {
+    final RLPInput in = RLP.input(encodedAccount);
+    in.enterList();
+    in.skipNext(); // nonce
+    in.skipNext(); // balance
+    final Hash storageRoot = Hash.wrap(in.readBytes32());
+    final Hash codeHash = Hash.wrap(in.readBytes32());
+    in.leaveList();
+
+    walk(worldStateStorage::getAccountStorageTrieNode, storageRoot, value -> {});
+    if (!codeHash.equals(Hash.EMPTY)) {
+      markSubtree(codeHash);
+    }
+  }
+
+  private void walk(
+      final NodeLoader nodeLoader,
+      final Bytes32 rootHash,
+      final Consumer<BytesValue> valueHandler) {
+    new StoredMerklePatriciaTrie<BytesValue, BytesValue>(nodeLoader, rootHash, b -> b, b -> b)
+        .visitStoredNodes(this::markIfUnvisited, valueHandler);
+  }
+
+  private boolean markIfUnvisited(final Bytes32 nodeHash) {
+    if (pendingMarks.contains(nodeHash)
+        || markStorage.get(nodeHash).filter(SUBTREE_MARK::equals).isPresent()) {
+      return false;
+    }
+    markSubtree(nodeHash);
+    return true;
+  }
+
+  private void markSubtree(final Bytes32 hash) {
+    pendingMarks.add(hash);
+    if (pendingMarks.size() >= MARK_BATCH_SIZE) {
+      flushMarks();
+    }
+  }
+
+  private void flushMarks() {
+    final KeyValueStorage.Transaction transaction = markStorage.getStartBatch();
+    pendingMarks.forEach(hash -> transaction.put(hash, SUBTREE_MARK));
+    transaction.commit();
+    pendingMarks.clear();
+  }
+
+  private void markWrittenNodes(final Collection<Bytes32> nodeHashes) {
+    final KeyValueStorage.Transaction transaction = markStorage.getStartBatch();
+    nodeHashes.forEach(hash -> transaction.put(hash, WRITTEN_MARK));
+    transaction.commit();
+  }
+
+  private void clearMarks() {
+    final List<BytesValue> keys = new ArrayList<>(MARK_BATCH_SIZE);
+    try (final Stream<KeyValueStorage.Entry> entries = markStorage.entries()) {
+      final Iterator<KeyValueStorage.Entry> iterator = entries.iterator();
+      while (iterator.hasNext()) {
+        keys.add(iterator.next().getKey());
+        if (keys.size() >= MARK_BATCH_SIZE || !iterator.hasNext()) {
+          final KeyValueStorage.Transaction transaction = markStorage.getStartBatch();
+          keys.forEach(transaction::remove);
+          transaction.commit();
+          keys.clear();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.worldstate;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link WorldStateStorage} that reads through to another storage but keeps everything written to
+ * it in memory.
+ *
+ * <p>World states backed by an overlay can be persisted, and so copied or reopened from their root
+ * hash, without writing anything to the underlying storage. Nodes are content-addressed, so the
+ * overlay never shadows a node of the underlying storage with different data.
+ */
+public class OverlayWorldStateStorage implements WorldStateStorage {
+
+  private final WorldStateStorage parent;
+  private final Map<Bytes32, BytesValue> trieNodes = new ConcurrentHashMap<>();
+  private final Map<Bytes32, BytesValue> codes = new ConcurrentHashMap<>();
+
+  public OverlayWorldStateStorage(final WorldStateStorage parent) {
+    this.parent = parent;
+  }
+
+  @Override
+  public Optional<BytesValue> getCode(final Hash codeHash) {
+    final BytesValue code = codes.get(codeHash);
+    return code != null ? Optional.of(code) : parent.getCode(codeHash);
+  }
+
+  @Override
+  public Optional<BytesValue> getAccountStateTrieNode(final Bytes32 nodeHash) {
+    final BytesValue node = trieNodes.get(nodeHash);
+    return node != null ? Optional.of(node) : parent.getAccountStateTrieNode(nodeHash);
+  }
+
+  @Override
+  public Optional<BytesValue> getAccountStorageTrieNode(final Bytes32 nodeHash) {
+    final BytesValue node = trieNodes.get(nodeHash);
+    return node != null ? Optional.of(node) : parent.getAccountStorageTrieNode(nodeHash);
+  }
+
+  @Override
+  public WorldStateStorage.Updater updater() {
+    return new Updater();
+  }
+
+  private class Updater implements WorldStateStorage.Updater {
+
+    private final Map<Bytes32, BytesValue> pendingTrieNodes = new HashMap<>();
+    private final Map<Bytes32, BytesValue> pendingCodes = new HashMap<>();
+
+    @Override
+    public void putCode(final BytesValue code) {
+      pendingCodes.put(Hash.hash(code), code);
+    }
+
+    @Override
+    public void putAccountStateTrieNode(final Bytes32 nodeHash, final BytesValue node) {
+      pendingTrieNodes.put(nodeHash, node);
+    }
+
+    @Override
+    public void putAccountStorageTrieNode(final Bytes32 nodeHash, final BytesValue node) {
+      pendingTrieNodes.put(nodeHash, node);
+    }
+
+    @Override
+    public void commit() {
+      codes.putAll(pendingCodes);
+      trieNodes.putAll(pendingTrieNodes);
+      rollback();
+    }
+
+    @Override
+    public void rollback() {
+      pendingCodes.clear();
+      pendingTrieNodes.clear();
+    }
+  }
+}
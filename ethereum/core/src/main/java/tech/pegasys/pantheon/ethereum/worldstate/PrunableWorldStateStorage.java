@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.worldstate;
+
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.Collection;
+import java.util.function.Predicate;
+
+/** A {@link WorldStateStorage} that unused nodes and code can be removed from. */
+public interface PrunableWorldStateStorage extends WorldStateStorage {
+
+  /**
+   * Removes the trie nodes and code that are not in use, in batches that never interleave with the
+   * commit of an {@link Updater}.
+   *
+   * @param inUseCheck Tells whether a node or piece of code, given its key, must be kept.
+   * @return The number of entries removed.
+   */
+  long prune(Predicate<BytesValue> inUseCheck);
+
+  /**
+   * Adds a listener that is told about the nodes and code written by each {@link Updater}, before
+   * they are committed.
+   *
+   * @param listener The listener to add.
+   * @return The id of the listener, used to remove it.
+   */
+  long addNodeAddedListener(NodesAddedListener listener);
+
+  void removeNodeAddedListener(long id);
+
+  interface NodesAddedListener {
+    void onNodesAdded(Collection<Bytes32> nodeHashes);
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.worldstate;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import tech.pegasys.pantheon.ethereum.chain.BlockAddedEvent;
+import tech.pegasys.pantheon.ethereum.chain.Blockchain;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.trie.MerkleStorageException;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Runs a {@link MarkSweepPruner} cycle every time the chain head has advanced by the number of
+ * retained blocks, keeping the world states of the most recent blocks and of the checkpoint blocks.
+ *
+ * <p>The cycle is started from the block added observer, so that every state persisted afterwards
+ * is protected, and then runs on its own thread while blocks keep being imported. States of blocks
+ * that are neither retained nor checkpoints, including recent forks that are not canonical when the
+ * cycle starts, are removed.
+ */
+public class Pruner {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final MarkSweepPruner markSweepPruner;
+  private final Blockchain blockchain;
+  private final ExecutorService executor;
+  private final long blocksRetained;
+  private final long checkpointInterval;
+  private final AtomicBoolean cycleRunning = new AtomicBoolean(false);
+  private volatile boolean stopped = false;
+  private long lastCycleHead = 0;
+  private Optional<Long> blockAddedObserverId = Optional.empty();
+
+  public Pruner(
+      final MarkSweepPruner markSweepPruner,
+      final Blockchain blockchain,
+      final WorldStateConfiguration configuration) {
+    this(
+        markSweepPruner,
+        blockchain,
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat(Pruner.class.getSimpleName())
+                .build()),
+        configuration.pruningBlocksRetained(),
+        configuration.pruningCheckpointInterval());
+  }
+
+  Pruner(
+      final MarkSweepPruner markSweepPruner,
+      final Blockchain blockchain,
+      final ExecutorService executor,
+      final long blocksRetained,
+      final long checkpointInterval) {
+    checkArgument(blocksRetained > 0, "Pruning must retain at least one block");
+    checkArgument(checkpointInterval >= 0, "Pruning checkpoint interval must not be negative");
+    this.markSweepPruner = markSweepPruner;
+    this.blockchain = blockchain;
+    this.executor = executor;
+    this.blocksRetained = blocksRetained;
+    this.checkpointInterval = checkpointInterval;
+  }
+
+  public void start() {
+    LOG.info(
+        "Pruning world state, retaining {} blocks and checkpoints every {} blocks",
+        blocksRetained,
+        checkpointInterval);
+    blockAddedObserverId =
+        Optional.of(blockchain.observeBlockAdded((event, chain) -> handleBlockAdded(event)));
+  }
+
+  public void stop() {
+    stopped = true;
+    blockAddedObserverId.ifPresent(blockchain::removeObserver);
+    blockAddedObserverId = Optional.empty();
+    executor.shutdownNow();
+    try {
+      if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+        LOG.warn("Pruning did not stop in time");
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void handleBlockAdded(final BlockAddedEvent event) {
+    if (!event.isNewCanonicalHead()) {
+      return;
+    }
+    final long head = event.getBlock().getHeader().getNumber();
+    if (head < lastCycleHead + blocksRetained || !cycleRunning.compareAndSet(false, true)) {
+      return;
+    }
+    lastCycleHead = head;
+    // Prepared before returning, so that the states of the next blocks are marked as they are
+    // persisted.
+    markSweepPruner.prepare();
+    executor.execute(() -> prune(head));
+  }
+
+  private void prune(final long head) {
+    try {
+      final long firstRetained = Math.max(0, head - blocksRetained + 1);
+      // Retained states can be missing just after a fast sync, so wait for a later head instead.
+      for (long number = firstRetained; number <= head; number++) {
+        if (!markSweepPruner.isStateAvailable(stateRoot(number))) {
+          LOG.debug("Skipping world state pruning, state of retained block {} is missing", number);
+          markSweepPruner.cleanup();
+          return;
+        }
+      }
+      LOG.debug("Pruning world state, keeping blocks {} to {}", firstRetained, head);
+      for (long number = firstRetained; number <= head; number++) {
+        markSweepPruner.mark(stateRoot(number));
+      }
+      if (checkpointInterval > 0) {
+        for (long number = 0; number < firstRetained; number += checkpointInterval) {
+          final Hash stateRoot = stateRoot(number);
+          if (!markSweepPruner.isStateAvailable(stateRoot)) {
+            LOG.debug("World state of checkpoint block {} is missing", number);
+            continue;
+          }
+          try {
+            markSweepPruner.mark(stateRoot);
+          } catch (final MerkleStorageException e) {
+            LOG.warn(
+                "World state of checkpoint block {} is incomplete: {}", number, e.getMessage());
+          }
+        }
+      }
+      checkStopped();
+      markSweepPruner.sweep();
+    } catch (final Exception e) {
+      // Once stopped, the storage is being closed and stale marks are cleared by the next cycle.
+      if (!stopped) {
+        LOG.error("World state pruning failed", e);
+        markSweepPruner.cleanup();
+      }
+    } finally {
+      cycleRunning.set(false);
+    }
+  }
+
+  private Hash stateRoot(final long number) {
+    checkStopped();
+    return blockchain
+        .getBlockHeader(number)
+        .map(BlockHeader::getStateRoot)
+        .orElseThrow(() -> new IllegalStateException("Missing canonical block " + number));
+  }
+
+  private void checkStopped() {
+    if (stopped) {
+      throw new IllegalStateException("Pruner was stopped");
+    }
+  }
+}
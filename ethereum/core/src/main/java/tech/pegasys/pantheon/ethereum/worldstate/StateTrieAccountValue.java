@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.worldstate;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.Wei;
+import tech.pegasys.pantheon.ethereum.rlp.RLPInput;
+
+/** Represents the raw values associated with an account in the world state trie. */
+public class StateTrieAccountValue {
+
+  private final long nonce;
+  private final Wei balance;
+  private final Hash storageRoot;
+  private final Hash codeHash;
+
+  public StateTrieAccountValue(
+      final long nonce, final Wei balance, final Hash storageRoot, final Hash codeHash) {
+    this.nonce = nonce;
+    this.balance = balance;
+    this.storageRoot = storageRoot;
+    this.codeHash = codeHash;
+  }
+
+  public static StateTrieAccountValue readFrom(final RLPInput in) {
+    in.enterList();
+
+    final long nonce = in.readLongScalar();
+    final Wei balance = in.readUInt256Scalar(Wei::wrap);
+    final Hash storageRoot = Hash.wrap(in.readBytes32());
+    final Hash codeHash = Hash.wrap(in.readBytes32());
+
+    in.leaveList();
+
+    return new StateTrieAccountValue(nonce, balance, storageRoot, codeHash);
+  }
+
+  public long getNonce() {
+    return nonce;
+  }
+
+  public Wei getBalance() {
+    return balance;
+  }
+
+  public Hash getStorageRoot() {
+    return storageRoot;
+  }
+
+  public Hash getCodeHash() {
+    return codeHash;
+  }
+}
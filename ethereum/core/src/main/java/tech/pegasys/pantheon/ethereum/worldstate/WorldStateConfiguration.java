@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.worldstate;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import tech.pegasys.pantheon.ethereum.vm.CodeCache;
+
+public class WorldStateConfiguration {
+
+  public static final long DEFAULT_TRIE_NODE_CACHE_SIZE = 100_000;
+  public static final long DEFAULT_CODE_CACHE_SIZE = CodeCache.DEFAULT_MAXIMUM_SIZE;
+  public static final long DEFAULT_PRUNING_BLOCKS_RETAINED = 1024;
+  public static final long DEFAULT_PRUNING_CHECKPOINT_INTERVAL = 0;
+
+  private final long trieNodeCacheSize;
+  private final long codeCacheSize;
+  private final boolean stateSnapshotEnabled;
+  private final boolean pruningEnabled;
+  private final long pruningBlocksRetained;
+  private final long pruningCheckpointInterval;
+
+  private WorldStateConfiguration(
+      final long trieNodeCacheSize,
+      final long codeCacheSize,
+      final boolean stateSnapshotEnabled,
+      final boolean pruningEnabled,
+      final long pruningBlocksRetained,
+      final long pruningCheckpointInterval) {
+    this.trieNodeCacheSize = trieNodeCacheSize;
+    this.codeCacheSize = codeCacheSize;
+    this.stateSnapshotEnabled = stateSnapshotEnabled;
+    this.pruningEnabled = pruningEnabled;
+    this.pruningBlocksRetained = pruningBlocksRetained;
+    this.pruningCheckpointInterval = pruningCheckpointInterval;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * The maximum number of decoded trie nodes kept in memory, shared by all world states.
+   *
+   * @return the cache size in nodes, or 0 if the cache is disabled
+   */
+  public long trieNodeCacheSize() {
+    return trieNodeCacheSize;
+  }
+
+  /**
+   * The maximum total size of the analyzed contract code kept in memory.
+   *
+   * @return the cache size in bytes
+   */
+  public long codeCacheSize() {
+    return codeCacheSize;
+  }
+
+  /**
+   * Whether a flat index of the latest persisted world state is maintained to serve account and
+   * storage reads without walking the trie. The index starts from the empty state, so it only
+   * follows the chain head on databases that have been synchronised with it enabled.
+   *
+   * @return true if the flat state snapshot is enabled
+   */
+  public boolean isStateSnapshotEnabled() {
+    return stateSnapshotEnabled;
+  }
+
+  /**
+   * Whether the world state nodes that are no longer reachable from a retained block are
+   * periodically removed from storage.
+   *
+   * @return true if world state pruning is enabled
+   */
+  public boolean isPruningEnabled() {
+    return pruningEnabled;
+  }
+
+  /**
+   * The number of most recent blocks whose world state is kept when pruning.
+   *
+   * @return the number of retained blocks
+   */
+  public long pruningBlocksRetained() {
+    return pruningBlocksRetained;
+  }
+
+  /**
+   * The interval between blocks whose world state is kept forever when pruning.
+   *
+   * @return the checkpoint interval in blocks, or 0 if no checkpoint is kept
+   */
+  public long pruningCheckpointInterval() {
+    return pruningCheckpointInterval;
+  }
+
+  public static class Builder {
+    private long trieNodeCacheSize = DEFAULT_TRIE_NODE_CACHE_SIZE;
+    private long codeCacheSize = DEFAULT_CODE_CACHE_SIZE;
+    private boolean stateSnapshotEnabled = false;
+    private boolean pruningEnabled = false;
+    private long pruningBlocksRetained = DEFAULT_PRUNING_BLOCKS_RETAINED;
+    private long pruningCheckpointInterval = DEFAULT_PRUNING_CHECKPOINT_INTERVAL;
+
+    public Builder trieNodeCacheSize(final long trieNodeCacheSize) {
+      checkArgument(trieNodeCacheSize >= 0, "Trie node cache size must not be negative");
+      this.trieNodeCacheSize = trieNodeCacheSize;
+      return this;
+    }
+
+    public Builder codeCacheSize(final long codeCacheSize) {
+      checkArgument(codeCacheSize > 0, "Code cache size must be positive");
+      this.codeCacheSize = codeCacheSize;
+      return this;
+    }
+
+    public Builder stateSnapshotEnabled(final boolean stateSnapshotEnabled) {
+      this.stateSnapshotEnabled = stateSnapshotEnabled;
+      return this;
+    }
+
+    public Builder pruningEnabled(final boolean pruningEnabled) {
+      this.pruningEnabled = pruningEnabled;
+      return this;
+    }
+
+    public Builder pruningBlocksRetained(final long pruningBlocksRetained) {
+      checkArgument(pruningBlocksRetained > 0, "Pruning must retain at least one block");
+      this.pruningBlocksRetained = pruningBlocksRetained;
+      return this;
+    }
+
+    public Builder pruningCheckpointInterval(final long pruningCheckpointInterval) {
+      checkArgument(
+          pruningCheckpointInterval >= 0, "Pruning checkpoint interval must not be negative");
+      this.pruningCheckpointInterval = pruningCheckpointInterval;
+      return this;
+    }
+
+    public WorldStateConfiguration build() {
+      return new WorldStateConfiguration(
+          trieNodeCacheSize,
+          codeCacheSize,
+          stateSnapshotEnabled,
+          pruningEnabled,
+          pruningBlocksRetained,
+          pruningCheckpointInterval);
+    }
+  }
+}
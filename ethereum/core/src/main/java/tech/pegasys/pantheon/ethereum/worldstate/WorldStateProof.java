@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.worldstate;
+
+import tech.pegasys.pantheon.ethereum.rlp.RLP;
+import tech.pegasys.pantheon.ethereum.trie.Proof;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.google.common.collect.ImmutableList;
+
+/** The proof of an account in a world state, and of some of the entries of its storage. */
+public class WorldStateProof {
+
+  private final Optional<StateTrieAccountValue> stateTrieAccountValue;
+  private final Proof<BytesValue> accountProof;
+  private final Map<UInt256, Proof<BytesValue>> storageProofs;
+
+  /**
+   * @param stateTrieAccountValue The account held in the account state trie, if any.
+   * @param accountProof The proof of the account in the account state trie.
+   * @param storageProofs The proofs of the storage entries, keyed by storage key in the order they
+   *     were requested.
+   */
+  public WorldStateProof(
+      final Optional<StateTrieAccountValue> stateTrieAccountValue,
+      final Proof<BytesValue> accountProof,
+      final Map<UInt256, Proof<BytesValue>> storageProofs) {
+    this.stateTrieAccountValue = stateTrieAccountValue;
+    this.accountProof = accountProof;
+    this.storageProofs = storageProofs;
+  }
+
+  /** @return The account, or empty if the proof is one of its absence from the world state. */
+  public Optional<StateTrieAccountValue> getStateTrieAccountValue() {
+    return stateTrieAccountValue;
+  }
+
+  /** @return The RLP encoded account trie nodes on the path to the account. */
+  public List<BytesValue> getAccountProof() {
+    return accountProof.getProofRelatedNodes();
+  }
+
+  /** @return The storage keys, in the order they were requested. */
+  public List<UInt256> getStorageKeys() {
+    return ImmutableList.copyOf(storageProofs.keySet());
+  }
+
+  /**
+   * Returns the value stored under the key, which is zero if the key is not set.
+   *
+   * @param key A storage key given when the proof was requested.
+   * @return The storage value.
+   */
+  public UInt256 getStorageValue(final UInt256 key) {
+    return storageProofs
+        .get(key)
+        .getValue()
+        .map(value -> RLP.input(value).readUInt256Scalar())
+        .orElse(UInt256.ZERO);
+  }
+
+  /**
+   * Returns the storage trie nodes on the path to the key.
+   *
+   * @param key A storage key given when the proof was requested.
+   * @return The RLP encoded storage trie nodes.
+   */
+  public List<BytesValue> getStorageProof(final UInt256 key) {
+    return storageProofs.get(key).getProofRelatedNodes();
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.worldstate;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.services.kvstore.KeyValueStorage;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.bytes.BytesValues;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A flat index of the accounts and storage of a single world state, keyed by account hash and by
+ * account hash followed by storage slot hash.
+ *
+ * <p>The index answers reads for the world state it currently reflects with a single key-value
+ * lookup; reads for any other root are served by the supplied fallback, normally the trie. The
+ * index is moved along with persisted world states: a transition from the reflected root is applied
+ * directly, and the most recent transitions are retained in memory so the index can be rolled back
+ * and forward across a chain reorganisation.
+ */
+public class WorldStateSnapshot {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final BytesValue ROOT_KEY =
+      BytesValue.wrap("snapshotRoot".getBytes(StandardCharsets.UTF_8));
+  private static final int MAX_RETAINED_TRANSITIONS = 32;
+
+  private final KeyValueStorage storage;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private final Map<Hash, Transition> transitions =
+      new LinkedHashMap<Hash, Transition>() {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<Hash, Transition> eldest) {
+          return size() > MAX_RETAINED_TRANSITIONS;
+        }
+      };
+  private Hash root;
+
+  public WorldStateSnapshot(final KeyValueStorage storage) {
+    this.storage = storage;
+    final Optional<BytesValue> storedRoot = storage.get(ROOT_KEY);
+    if (storedRoot.isPresent()) {
+      this.root = Hash.wrap(Bytes32.wrap(storedRoot.get(), 0));
+    } else {
+      // A new index is empty, which is exactly the empty world state.
+      this.root = Hash.EMPTY_TRIE_HASH;
+      storage.put(ROOT_KEY, root);
+    }
+  }
+
+  /** @return The root hash of the world state currently held by the index. */
+  public Hash getRoot() {
+    lock.readLock().lock();
+    try {
+      return root;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * Reads an encoded account.
+   *
+   * @param stateRoot The root of the world state to read from.
+   * @param accountHash The hash of the account address.
+   * @param fallback Reads the account when the index does not hold {@code stateRoot}.
+   * @return The RLP encoded account, if it exists.
+   */
+  public Optional<BytesValue> getAccount(
+      final Hash stateRoot,
+      final Hash accountHash,
+      final Supplier<Optional<BytesValue>> fallback) {
+    return get(stateRoot, accountHash, fallback);
+  }
+
+  /**
+   * Reads an encoded storage value.
+   *
+   * @param stateRoot The root of the world state to read from.
+   * @param accountHash The hash of the account address.
+   * @param slotHash The hash of the storage slot.
+   * @param fallback Reads the value when the index does not hold {@code stateRoot}.
+   * @return The RLP encoded storage value, if the slot is not empty.
+   */
+  public Optional<BytesValue> getStorageValue(
+      final Hash stateRoot,
+      final Hash accountHash,
+      final Hash slotHash,
+      final Supplier<Optional<BytesValue>> fallback) {
+    return get(stateRoot, storageKey(accountHash, slotHash), fallback);
+  }
+
+  private Optional<BytesValue> get(
+      final Hash stateRoot, final BytesValue key, final Supplier<Optional<BytesValue>> fallback) {
+    lock.readLock().lock();
+    try {
+      if (stateRoot.equals(root)) {
+        return storage.get(key);
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    return fallback.get();
+  }
+
+  /**
+   * Records that the world state at {@code parentRoot} was persisted as {@code newRoot}, and moves
+   * the index to {@code newRoot} if {@code parentRoot} is reachable from the state it holds.
+   * Otherwise the index is left untouched and keeps serving its current root.
+   *
+   * @param parentRoot The root the changes were applied to.
+   * @param newRoot The root of the persisted world state.
+   * @param changes The accounts and storage values that differ between the two states.
+   */
+  public void applyTransition(final Hash parentRoot, final Hash newRoot, final Changes changes) {
+    lock.writeLock().lock();
+    try {
+      if (!parentRoot.equals(newRoot)) {
+        transitions.put(newRoot, new Transition(parentRoot, changes));
+      }
+      if (root.equals(newRoot)) {
+        return;
+      }
+      final Optional<Map<BytesValue, BytesValue>> path = pathTo(newRoot);
+      if (!path.isPresent()) {
+        LOG.debug("World state {} is not reachable from snapshot {}", newRoot, root);
+        return;
+      }
+      final KeyValueStorage.Transaction transaction = storage.getStartBatch();
+      path.get()
+          .forEach(
+              (key, value) -> {
+                if (value.isEmpty()) {
+                  transaction.remove(key);
+                } else {
+                  transaction.put(key, value);
+                }
+              });
+      transaction.put(ROOT_KEY, newRoot);
+      transaction.commit();
+      root = newRoot;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Combines the retained transitions leading from the current root back to a common ancestor and
+   * forward to {@code target} into one set of writes, where an empty value marks a removal.
+   */
+  private Optional<Map<BytesValue, BytesValue>> pathTo(final Hash target) {
+    // The target followed by its retained ancestors, nearest first.
+    final List<Hash> lineage = new ArrayList<>();
+    lineage.add(target);
+    while (lineage.size() <= MAX_RETAINED_TRANSITIONS) {
+      final Transition transition = transitions.get(lineage.get(lineage.size() - 1));
+      if (transition == null) {
+        break;
+      }
+      lineage.add(transition.parentRoot);
+    }
+
+    // Undo transitions from the current root until one of those ancestors is reached...
+    final Map<BytesValue, BytesValue> writes = new LinkedHashMap<>();
+    Hash ancestor = root;
+    for (int undone = 0; !lineage.contains(ancestor); undone++) {
+      final Transition transition = transitions.get(ancestor);
+      if (transition == null || undone >= MAX_RETAINED_TRANSITIONS) {
+        return Optional.empty();
+      }
+      writes.putAll(transition.changes.reverts);
+      ancestor = transition.parentRoot;
+    }
+
+    // ...then redo the transitions leading from it to the target.
+    for (int i = lineage.indexOf(ancestor) - 1; i >= 0; i--) {
+      writes.putAll(transitions.get(lineage.get(i)).changes.updates);
+    }
+    return Optional.of(writes);
+  }
+
+  private static BytesValue storageKey(final Hash accountHash, final Hash slotHash) {
+    return BytesValues.concatenate(accountHash, slotHash);
+  }
+
+  private static class Transition {
+    private final Hash parentRoot;
+    private final Changes changes;
+
+    private Transition(final Hash parentRoot, final Changes changes) {
+      this.parentRoot = parentRoot;
+      this.changes = changes;
+    }
+  }
+
+  /** The accounts and storage values changed by persisting a world state. */
+  public static class Changes {
+    private final Map<BytesValue, BytesValue> updates = new LinkedHashMap<>();
+    private final Map<BytesValue, BytesValue> reverts = new LinkedHashMap<>();
+
+    public void account(
+        final Hash accountHash,
+        final Optional<BytesValue> previous,
+        final Optional<BytesValue> updated) {
+      record(accountHash, previous, updated);
+    }
+
+    public void storageValue(
+        final Hash accountHash,
+        final Hash slotHash,
+        final Optional<BytesValue> previous,
+        final Optional<BytesValue> updated) {
+      record(storageKey(accountHash, slotHash), previous, updated);
+    }
+
+    private void record(
+        final BytesValue key,
+        final Optional<BytesValue> previous,
+        final Optional<BytesValue> updated) {
+      // The first recorded value is the one before the transition, the last is the one after it.
+      reverts.putIfAbsent(key, previous.orElse(BytesValue.EMPTY));
+      updates.put(key, updated.orElse(BytesValue.EMPTY));
+    }
+  }
+}
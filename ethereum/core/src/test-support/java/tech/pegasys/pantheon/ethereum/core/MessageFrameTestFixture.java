@@ -15,6 +15,7 @@ package tech.pegasys.pantheon.ethereum.core;
 import tech.pegasys.pantheon.ethereum.chain.Blockchain;
 import tech.pegasys.pantheon.ethereum.vm.BlockHashLookup;
 import tech.pegasys.pantheon.ethereum.vm.Code;
+import tech.pegasys.pantheon.ethereum.vm.CodeCache;
 import tech.pegasys.pantheon.ethereum.vm.MessageFrame;
 import tech.pegasys.pantheon.ethereum.vm.MessageFrame.Type;
 import tech.pegasys.pantheon.util.bytes.Bytes32;
@@ -165,6 +166,7 @@ public class MessageFrameTestFixture {
             .miningBeneficiary(blockHeader.getCoinbase())
             .blockHashLookup(
                 blockHashLookup.orElseGet(() -> new BlockHashLookup(blockHeader, blockchain)))
+            .codeCache(new CodeCache(CodeCache.DEFAULT_MAXIMUM_SIZE))
             .build();
     stackItems.forEach(frame::pushStackItem);
     return frame;
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.chain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.pantheon.ethereum.core.Address;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.BlockHeaderTestFixture;
+import tech.pegasys.pantheon.ethereum.core.LogsBloomFilter;
+import tech.pegasys.pantheon.services.kvstore.InMemoryKeyValueStorage;
+import tech.pegasys.pantheon.services.kvstore.KeyValueStorage;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import org.junit.Test;
+
+public class BloomBitsIndexTest {
+
+  private static final Address ADDRESS1 =
+      Address.fromHexString("0xa94f5374fce5edbc8e2a8697c15331677e6ebf0b");
+  private static final Address ADDRESS2 =
+      Address.fromHexString("0x1000000000000000000000000000000000000001");
+  private static final long CONFIRMED_HEAD =
+      BloomBitsIndex.SECTION_SIZE - 1 + BloomBitsIndex.CONFIRMATIONS;
+
+  private final KeyValueStorage storage = new InMemoryKeyValueStorage();
+  private final Blockchain blockchain = mock(Blockchain.class);
+  private final Map<Long, BlockHeader> headers = new HashMap<>();
+
+  private static LogsBloomFilter bloomOf(final Address... addresses) {
+    final LogsBloomFilter bloom = new LogsBloomFilter();
+    for (final Address address : addresses) {
+      bloom.insertValue(address);
+    }
+    return bloom;
+  }
+
+  private static List<List<LogsBloomFilter>> condition(final Address... alternatives) {
+    final List<LogsBloomFilter> blooms = new ArrayList<>();
+    for (final Address alternative : alternatives) {
+      blooms.add(bloomOf(alternative));
+    }
+    return Collections.singletonList(blooms);
+  }
+
+  private void setupChain(final long head, final Map<Long, LogsBloomFilter> blooms) {
+    setupChain(head, blooms, 0);
+  }
+
+  private void setupChain(
+      final long head, final Map<Long, LogsBloomFilter> blooms, final long timestamp) {
+    for (long number = 0; number <= head; number++) {
+      headers.put(
+          number,
+          new BlockHeaderTestFixture()
+              .number(number)
+              .timestamp(timestamp)
+              .logsBloom(blooms.getOrDefault(number, LogsBloomFilter.empty()))
+              .buildHeader());
+    }
+    when(blockchain.getChainHeadBlockNumber()).thenReturn(head);
+    when(blockchain.getBlockHeader(anyLong()))
+        .thenAnswer(invocation -> Optional.ofNullable(headers.get(invocation.getArgument(0))));
+    when(blockchain.getBlockHashByNumber(anyLong()))
+        .thenAnswer(
+            invocation ->
+                Optional.ofNullable(headers.get(invocation.getArgument(0)))
+                    .map(BlockHeader::getHash));
+  }
+
+  private BloomBitsIndex startIndex() {
+    final BloomBitsIndex index =
+        new BloomBitsIndex(blockchain, storage, MoreExecutors.newDirectExecutorService());
+    index.start();
+    return index;
+  }
+
+  @Test
+  public void findsTheBlocksWhoseBloomMayMatch() {
+    final Map<Long, LogsBloomFilter> blooms = new HashMap<>();
+    blooms.put(5L, bloomOf(ADDRESS1));
+    blooms.put(100L, bloomOf(ADDRESS2));
+    blooms.put(4000L, bloomOf(ADDRESS1, ADDRESS2));
+    setupChain(CONFIRMED_HEAD, blooms);
+
+    final BloomBitsIndex index = startIndex();
+
+    assertThat(index.indexedSections()).isEqualTo(1);
+    assertThat(index.matchingBlocks(0, condition(ADDRESS1))).contains(bits(5, 4000));
+    assertThat(index.matchingBlocks(0, condition(ADDRESS1, ADDRESS2)))
+        .contains(bits(5, 100, 4000));
+    final List<List<LogsBloomFilter>> both = new ArrayList<>(condition(ADDRESS1));
+    both.addAll(condition(ADDRESS2));
+    assertThat(index.matchingBlocks(0, both)).contains(bits(4000));
+    assertThat(index.matchingBlocks(1, condition(ADDRESS1))).isEmpty();
+  }
+
+  @Test
+  public void onlyIndexesConfirmedSections() {
+    setupChain(CONFIRMED_HEAD - 1, Collections.emptyMap());
+
+    final BloomBitsIndex index = startIndex();
+
+    assertThat(index.indexedSections()).isZero();
+    assertThat(index.matchingBlocks(0, condition(ADDRESS1))).isEmpty();
+  }
+
+  @Test
+  public void indexesReorganisedSectionsAgain() {
+    setupChain(CONFIRMED_HEAD, Collections.singletonMap(5L, bloomOf(ADDRESS1)));
+    final BloomBitsIndex index = startIndex();
+    assertThat(index.matchingBlocks(0, condition(ADDRESS1))).contains(bits(5));
+
+    headers.clear();
+    setupChain(CONFIRMED_HEAD, Collections.singletonMap(6L, bloomOf(ADDRESS1)), 1);
+    assertThat(index.matchingBlocks(0, condition(ADDRESS1))).isEmpty();
+
+    startIndex();
+    assertThat(index.indexedSections()).isEqualTo(1);
+    assertThat(index.matchingBlocks(0, condition(ADDRESS1))).contains(bits(6));
+  }
+
+  private static BitSet bits(final int... offsets) {
+    final BitSet bits = new BitSet();
+    for (final int offset : offsets) {
+      bits.set(offset);
+    }
+    return bits;
+  }
+}
@@ -61,7 +61,7 @@ public class PendingTransactionsTest {
   }
 
   @Test
-  public void shouldDropOldestTransactionWhenLimitExceeded() {
+  public void shouldDropQueuedTransactionBeforeReadyTransactionsWhenLimitExceeded() {
     final Transaction oldestTransaction = createTransaction(0);
     transactions.addRemoteTransaction(oldestTransaction);
     for (int i = 1; i < MAX_TRANSACTIONS; i++) {
@@ -69,9 +69,27 @@ public class PendingTransactionsTest {
     }
     assertThat(transactions.size()).isEqualTo(MAX_TRANSACTIONS);
 
-    transactions.addRemoteTransaction(createTransaction(MAX_TRANSACTIONS + 1));
+    final Transaction queuedTransaction = createTransaction(MAX_TRANSACTIONS + 1);
+    assertThat(transactions.addRemoteTransaction(queuedTransaction)).isFalse();
     assertThat(transactions.size()).isEqualTo(MAX_TRANSACTIONS);
-    assertTransactionNotPending(oldestTransaction);
+    assertTransactionPending(oldestTransaction);
+    assertTransactionNotPending(queuedTransaction);
+  }
+
+  @Test
+  public void shouldDropHighestNonceOfCheapestSenderWhenLimitExceeded() {
+    final Transaction lowestNonce = transactionWithNonceSenderAndGasPrice(0, KEYS2, 1);
+    final Transaction highestNonce = transactionWithNonceSenderAndGasPrice(1, KEYS2, 2);
+    transactions.addRemoteTransaction(lowestNonce);
+    transactions.addRemoteTransaction(highestNonce);
+    for (int i = 0; i < MAX_TRANSACTIONS - 1; i++) {
+      transactions.addRemoteTransaction(transactionWithNonceSenderAndGasPrice(i, KEYS1, 5));
+    }
+
+    assertThat(transactions.size()).isEqualTo(MAX_TRANSACTIONS);
+    assertTransactionPending(lowestNonce);
+    assertTransactionNotPending(highestNonce);
+    assertThat(selectAll()).contains(lowestNonce);
   }
 
   @Test
@@ -106,11 +124,14 @@ public class PendingTransactionsTest {
     final Transaction firstLocalTransaction = createTransaction(0);
     transactions.addLocalTransaction(firstLocalTransaction);
 
-    for (int i = 1; i <= MAX_TRANSACTIONS; i++) {
+    for (int i = 1; i < MAX_TRANSACTIONS; i++) {
       transactions.addLocalTransaction(createTransaction(i));
     }
+    final Transaction lastLocalTransaction = createTransaction(MAX_TRANSACTIONS);
+    transactions.addLocalTransaction(lastLocalTransaction);
     assertThat(transactions.size()).isEqualTo(MAX_TRANSACTIONS);
-    assertTransactionNotPending(firstLocalTransaction);
+    assertTransactionPending(firstLocalTransaction);
+    assertTransactionNotPending(lastLocalTransaction);
   }
 
   @Test
@@ -131,6 +152,18 @@ public class PendingTransactionsTest {
     verify(listener).onTransactionAdded(transaction1);
   }
 
+  @Test
+  public void shouldNotNotifyListenerWhenAddedTransactionIsEvicted() {
+    for (int i = 0; i < MAX_TRANSACTIONS; i++) {
+      transactions.addRemoteTransaction(createTransaction(i));
+    }
+    transactions.addTransactionListener(listener);
+
+    transactions.addRemoteTransaction(createTransaction(MAX_TRANSACTIONS + 1));
+
+    verifyZeroInteractions(listener);
+  }
+
   @Test
   public void selectTransactionsUntilSelectorRequestsNoMore() {
     transactions.addRemoteTransaction(transaction1);
@@ -316,6 +349,152 @@ public class PendingTransactionsTest {
         .containsExactly(transaction4, transaction1, transaction2, transaction3);
   }
 
+  @Test
+  public void shouldSelectTransactionsWithHighestGasPriceFirst() {
+    final Transaction cheapTransaction = transactionWithNonceSenderAndGasPrice(0, KEYS1, 1);
+    final Transaction expensiveTransaction = transactionWithNonceSenderAndGasPrice(0, KEYS2, 10);
+
+    transactions.addLocalTransaction(cheapTransaction);
+    transactions.addRemoteTransaction(expensiveTransaction);
+
+    assertThat(selectAll()).containsExactly(expensiveTransaction, cheapTransaction);
+  }
+
+  @Test
+  public void shouldDropCheapestTransactionWhenLimitExceeded() {
+    final Transaction cheapestTransaction = transactionWithNonceSenderAndGasPrice(0, KEYS2, 1);
+    transactions.addRemoteTransaction(transactionWithNonceSenderAndGasPrice(0, KEYS1, 5));
+    transactions.addRemoteTransaction(cheapestTransaction);
+    for (int i = 1; i <= MAX_TRANSACTIONS - 1; i++) {
+      transactions.addRemoteTransaction(transactionWithNonceSenderAndGasPrice(i, KEYS1, 5));
+    }
+
+    assertThat(transactions.size()).isEqualTo(MAX_TRANSACTIONS);
+    assertTransactionNotPending(cheapestTransaction);
+  }
+
+  @Test
+  public void shouldNotSelectTransactionsAfterNonceGapUntilGapIsFilled() {
+    final Transaction transaction0 = transactionWithNonceAndSender(0, KEYS1);
+    final Transaction transaction1 = transactionWithNonceAndSender(1, KEYS1);
+    final Transaction transaction2 = transactionWithNonceAndSender(2, KEYS1);
+    final Transaction transaction3 = transactionWithNonceAndSender(3, KEYS1);
+
+    transactions.addRemoteTransaction(transaction0);
+    transactions.addRemoteTransaction(transaction2);
+    transactions.addRemoteTransaction(transaction3);
+    assertThat(selectAll()).containsExactly(transaction0);
+    assertTransactionPending(transaction2);
+    assertMaximumNonceForSender(SENDER1, 4);
+
+    transactions.addRemoteTransaction(transaction1);
+    assertThat(selectAll()).containsExactly(transaction0, transaction1, transaction2, transaction3);
+  }
+
+  @Test
+  public void shouldQueueTransactionsAfterRemovedNonce() {
+    final Transaction transaction0 = transactionWithNonceAndSender(0, KEYS1);
+    final Transaction transaction1 = transactionWithNonceAndSender(1, KEYS1);
+    final Transaction transaction2 = transactionWithNonceAndSender(2, KEYS1);
+    transactions.addRemoteTransaction(transaction0);
+    transactions.addRemoteTransaction(transaction1);
+    transactions.addRemoteTransaction(transaction2);
+
+    transactions.removeTransaction(transaction1);
+    assertThat(selectAll()).containsExactly(transaction0);
+
+    transactions.removeTransaction(transaction0);
+    assertThat(selectAll()).isEmpty();
+    assertTransactionPending(transaction2);
+  }
+
+  @Test
+  public void shouldSelectTransactionsFollowingOnFromConfirmedNonce() {
+    final Transaction transaction0 = transactionWithNonceAndSender(0, KEYS1);
+    final Transaction transaction1 = transactionWithNonceAndSender(1, KEYS1);
+    final Transaction transaction2 = transactionWithNonceAndSender(2, KEYS1);
+    transactions.addRemoteTransaction(transaction0);
+    transactions.addRemoteTransaction(transaction2);
+
+    transactions.confirmTransaction(transaction0);
+    assertThat(selectAll()).isEmpty();
+
+    transactions.addRemoteTransaction(transaction1);
+    assertThat(selectAll()).containsExactly(transaction1, transaction2);
+  }
+
+  @Test
+  public void shouldOnlySelectTransactionsFollowingOnFromAccountNonce() {
+    final Transaction transaction1 = transactionWithNonceAndSender(1, KEYS1);
+    final Transaction transaction2 = transactionWithNonceAndSender(2, KEYS1);
+    transactions.addRemoteTransaction(transaction1, 0);
+    transactions.addRemoteTransaction(transaction2, 0);
+    assertThat(selectAll()).isEmpty();
+
+    transactions.confirmTransaction(transactionWithNonceAndSender(0, KEYS1));
+    assertThat(selectAll()).containsExactly(transaction1, transaction2);
+  }
+
+  @Test
+  public void shouldNotReplaceTransactionWithoutMinimumGasPriceBump() {
+    final Transaction transaction = transactionWithNonceSenderAndGasPrice(1, KEYS1, 100);
+    final Transaction underpricedReplacement =
+        transactionWithNonceSenderAndGasPrice(1, KEYS1, 109);
+    final Transaction replacement = transactionWithNonceSenderAndGasPrice(1, KEYS1, 110);
+    transactions.addRemoteTransaction(transaction);
+
+    assertThat(transactions.addRemoteTransaction(underpricedReplacement)).isFalse();
+    assertTransactionPending(transaction);
+
+    assertThat(transactions.addRemoteTransaction(replacement)).isTrue();
+    assertTransactionNotPending(transaction);
+    assertTransactionPending(replacement);
+  }
+
+  @Test
+  public void shouldRemoveRejectedTransactionsWhenSelectionCompletes() {
+    transactions.addRemoteTransaction(transaction1);
+    transactions.addRemoteTransaction(transaction2);
+
+    transactions.selectTransactions(
+        transaction ->
+            transaction.equals(transaction2)
+                ? TransactionSelectionResult.DELETE_TRANSACTION_AND_CONTINUE
+                : TransactionSelectionResult.COMPLETE_OPERATION);
+
+    assertTransactionNotPending(transaction2);
+    assertTransactionPending(transaction1);
+  }
+
+  @Test
+  public void shouldAcceptTransactionsWhileSelectingFromSnapshot() {
+    final Transaction transaction = transactionWithNonceAndSender(0, KEYS1);
+    final Transaction arrivingTransaction = transactionWithNonceAndSender(0, KEYS2);
+    transactions.addRemoteTransaction(transaction);
+
+    final List<Transaction> selected = new ArrayList<>();
+    transactions.selectTransactions(
+        selectedTransaction -> {
+          selected.add(selectedTransaction);
+          assertThat(transactions.addRemoteTransaction(arrivingTransaction)).isTrue();
+          return TransactionSelectionResult.CONTINUE;
+        });
+
+    assertThat(selected).containsExactly(transaction);
+    assertTransactionPending(arrivingTransaction);
+    assertThat(transactions.selectionSnapshot()).containsExactly(arrivingTransaction, transaction);
+  }
+
+  private List<Transaction> selectAll() {
+    final List<Transaction> selected = new ArrayList<>();
+    transactions.selectTransactions(
+        transaction -> {
+          selected.add(transaction);
+          return TransactionSelectionResult.CONTINUE;
+        });
+    return selected;
+  }
+
   private void assertMaximumNonceForSender(final Address sender1, final int i) {
     assertThat(transactions.getNextNonceForSender(sender1)).isEqualTo(OptionalLong.of(i));
   }
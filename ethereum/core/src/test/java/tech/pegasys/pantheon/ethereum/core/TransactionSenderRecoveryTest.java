@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.core;
+
+import static java.util.Collections.singleton;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.ethereum.rlp.RLP;
+import tech.pegasys.pantheon.ethereum.testutil.BlockDataGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class TransactionSenderRecoveryTest {
+
+  private final BlockDataGenerator gen = new BlockDataGenerator();
+  private final TransactionSenderRecovery senderRecovery = new TransactionSenderRecovery(4);
+
+  @Test
+  public void shouldRecoverSenderOfEveryTransaction() {
+    final List<Address> expectedSenders = new ArrayList<>();
+    final List<Transaction> transactions = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      final Transaction signed = gen.transaction();
+      expectedSenders.add(signed.getSender());
+      transactions.add(withoutCachedSender(signed));
+    }
+
+    senderRecovery.recoverSenders(transactions);
+
+    for (int i = 0; i < transactions.size(); i++) {
+      assertThat(transactions.get(i).sender).isEqualTo(expectedSenders.get(i));
+    }
+  }
+
+  @Test
+  public void shouldRecoverSendersOfSmallBatches() {
+    final Transaction signed = gen.transaction();
+    final Transaction transaction = withoutCachedSender(signed);
+
+    senderRecovery.recoverSenders(singleton(transaction));
+
+    assertThat(transaction.sender).isEqualTo(signed.getSender());
+  }
+
+  private Transaction withoutCachedSender(final Transaction transaction) {
+    final Transaction decoded = Transaction.readFrom(RLP.input(RLP.encode(transaction::writeTo)));
+    assertThat(decoded.sender).isNull();
+    return decoded;
+  }
+}
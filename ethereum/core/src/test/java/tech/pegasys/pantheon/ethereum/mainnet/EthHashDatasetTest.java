@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.mainnet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EthHashDatasetTest {
+
+  private static final int ITEMS = 4096;
+  private static final long SIZE = (long) ITEMS * EthHash.HASH_BYTES;
+  // Small segments so that items are read across several mappings.
+  private static final int SEGMENT_BYTES = 1000 * EthHash.HASH_BYTES;
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(3);
+  private final int[] cache = EthHash.mkCache(1024 * EthHash.HASH_BYTES, 0);
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void generatedItemsMatchItemsComputedFromCache() throws Exception {
+    final Path file = folder.getRoot().toPath().resolve("dataset");
+    final EthHashDataset dataset =
+        EthHashDataset.generate(file, SIZE, cache, executor, 3, SEGMENT_BYTES);
+
+    final byte[] expected = new byte[EthHash.HASH_BYTES];
+    final byte[] actual = new byte[EthHash.HASH_BYTES];
+    for (int i = 0; i < ITEMS; ++i) {
+      EthHash.calcDatasetItem(expected, cache, i);
+      dataset.readItem(actual, i);
+      assertThat(actual).isEqualTo(expected);
+    }
+    assertThat(Files.size(file)).isEqualTo(SIZE);
+    assertThat(file.resolveSibling("dataset.tmp")).doesNotExist();
+  }
+
+  @Test
+  public void hashimotoFullMatchesHashimotoLight() throws Exception {
+    final Path file = folder.getRoot().toPath().resolve("dataset");
+    final EthHashDataset dataset =
+        EthHashDataset.generate(file, SIZE, cache, executor, 3, SEGMENT_BYTES);
+    final byte[] header = new byte[32];
+    header[0] = 1;
+
+    for (long nonce = 0; nonce < 10; ++nonce) {
+      assertThat(EthHash.hashimotoFull(SIZE, dataset, header, nonce))
+          .isEqualTo(EthHash.hashimotoLight(SIZE, cache, header, nonce));
+    }
+  }
+
+  @Test
+  public void loadsPreviouslyGeneratedDataset() throws Exception {
+    final Path file = folder.getRoot().toPath().resolve("dataset");
+    EthHashDataset.generate(file, SIZE, cache, executor, 3, SEGMENT_BYTES);
+
+    final Optional<EthHashDataset> loaded = EthHashDataset.load(file, SIZE, SEGMENT_BYTES);
+
+    assertThat(loaded).isPresent();
+    final byte[] expected = new byte[EthHash.HASH_BYTES];
+    final byte[] actual = new byte[EthHash.HASH_BYTES];
+    EthHash.calcDatasetItem(expected, cache, ITEMS - 1);
+    loaded.get().readItem(actual, ITEMS - 1);
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  public void doesNotLoadMissingOrIncompleteDataset() throws Exception {
+    final Path file = folder.getRoot().toPath().resolve("dataset");
+    assertThat(EthHashDataset.load(file, SIZE)).isEmpty();
+
+    Files.write(file, new byte[EthHash.HASH_BYTES]);
+    assertThat(EthHashDataset.load(file, SIZE)).isEmpty();
+  }
+}
@@ -34,7 +34,7 @@ public final class EthHasherTest {
   @Test
   @Ignore
   public void hashimotoFull() throws Exception {
-    try (final EthHasher.Full hasher = new EthHasher.Full(folder.newFile().toPath())) {
+    try (final EthHasher.Full hasher = new EthHasher.Full(folder.newFolder().toPath())) {
       final RLPInput input =
           new BytesValueRLPInput(
               BytesValue.wrap(
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.vm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.pantheon.ethereum.core.Account;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import org.junit.Test;
+
+public class CodeCacheTest {
+
+  private static final BytesValue CODE = BytesValue.fromHexString("0x6001600055");
+
+  private final CodeCache codeCache = new CodeCache(CodeCache.DEFAULT_MAXIMUM_SIZE);
+
+  private static Account account(final BytesValue code) {
+    final Account account = mock(Account.class);
+    when(account.getCodeHash()).thenReturn(Hash.hash(code));
+    when(account.getCode()).thenReturn(code);
+    return account;
+  }
+
+  @Test
+  public void readsTheCodeOfAnAccountOnce() {
+    final Account account = account(CODE);
+
+    final Code first = codeCache.getOrLoad(account);
+    final Code second = codeCache.getOrLoad(account);
+
+    assertThat(first.getBytes()).isEqualTo(CODE);
+    assertThat(second).isSameAs(first);
+    verify(account, times(1)).getCode();
+    assertThat(codeCache.missCount()).isEqualTo(1);
+    assertThat(codeCache.hitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void sharesCodeBetweenAccountsWithTheSameCodeHash() {
+    final Code first = codeCache.getOrLoad(account(CODE));
+    final Account other = account(CODE);
+
+    assertThat(codeCache.getOrLoad(other)).isSameAs(first);
+    verify(other, times(0)).getCode();
+  }
+
+  @Test
+  public void returnsEmptyCodeForMissingAccounts() {
+    assertThat(codeCache.getOrLoad(null).getSize()).isZero();
+    assertThat(codeCache.size()).isZero();
+  }
+
+  @Test
+  public void boundsTheTotalSizeOfTheCachedCode() {
+    final CodeCache smallCache = new CodeCache(CODE.size());
+    smallCache.getOrLoad(account(CODE));
+    smallCache.getOrLoad(account(BytesValue.fromHexString("0x6002600055")));
+
+    assertThat(smallCache.size()).isEqualTo(1);
+  }
+}
@@ -34,6 +34,7 @@ import tech.pegasys.pantheon.util.bytes.Bytes32;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
@@ -172,6 +173,82 @@ public class DebugOperationTracerTest {
     assertThat(traceFrame.getStorage()).contains(updatedStorage);
   }
 
+  @Test
+  public void shouldShareMemoryUntilAnOperationWritesIt() throws Exception {
+    final MessageFrame frame = validMessageFrame();
+    final Bytes32 word1 = Bytes32.fromHexString("0x01");
+    final Bytes32 word2 = Bytes32.fromHexString("0x02");
+    frame.writeMemory(UInt256.ZERO, UInt256.of(32), word1);
+    final DebugOperationTracer tracer =
+        new DebugOperationTracer(new TraceOptions(false, true, false));
+
+    tracer.traceExecution(frame, Optional.of(Gas.ZERO), executeOperationAction);
+    frame.setCurrentOperation(operation("MSTORE"));
+    tracer.traceExecution(frame, Optional.of(Gas.ZERO), executeOperationAction);
+    frame.writeMemory(UInt256.ZERO, UInt256.of(32), word2);
+    frame.setCurrentOperation(anOperation);
+    tracer.traceExecution(frame, Optional.of(Gas.ZERO), executeOperationAction);
+
+    final List<TraceFrame> traceFrames = tracer.getTraceFrames();
+    assertThat(traceFrames.get(1).getMemory().get())
+        .isSameAs(traceFrames.get(0).getMemory().get());
+    assertThat(traceFrames.get(2).getMemory().get()).containsExactly(word2);
+  }
+
+  @Test
+  public void shouldOnlyReadStackItemsThePreviousOperationMayHaveChanged() throws Exception {
+    final MessageFrame frame = validMessageFrame();
+    final Bytes32 stackItem1 = Bytes32.fromHexString("0x01");
+    final Bytes32 product = Bytes32.fromHexString("0x06");
+    frame.pushStackItem(stackItem1);
+    frame.pushStackItem(Bytes32.fromHexString("0x02"));
+    frame.pushStackItem(Bytes32.fromHexString("0x03"));
+    final DebugOperationTracer tracer =
+        new DebugOperationTracer(new TraceOptions(false, false, true));
+
+    tracer.traceExecution(frame, Optional.of(Gas.ZERO), executeOperationAction);
+    frame.popStackItems(2);
+    frame.pushStackItem(product);
+    frame.setCurrentOperation(operation("JUMPDEST"));
+    tracer.traceExecution(frame, Optional.of(Gas.ZERO), executeOperationAction);
+    tracer.traceExecution(frame, Optional.of(Gas.ZERO), executeOperationAction);
+
+    final List<TraceFrame> traceFrames = tracer.getTraceFrames();
+    assertThat(traceFrames.get(1).getStack().get()).containsExactly(stackItem1, product);
+    assertThat(traceFrames.get(2).getStack().get())
+        .isSameAs(traceFrames.get(1).getStack().get());
+  }
+
+  @Test
+  public void shouldCaptureStorageAgainAfterSStore() throws Exception {
+    final MessageFrame frame = validMessageFrame();
+    final Map<UInt256, UInt256> updatedStorage = setupStorageForCapture(frame);
+    final DebugOperationTracer tracer =
+        new DebugOperationTracer(new TraceOptions(true, false, false));
+
+    tracer.traceExecution(frame, Optional.of(Gas.ZERO), executeOperationAction);
+    updatedStorage.put(UInt256.of(2), UInt256.of(3));
+    tracer.traceExecution(frame, Optional.of(Gas.ZERO), executeOperationAction);
+    frame.setCurrentOperation(operation("SSTORE"));
+    tracer.traceExecution(frame, Optional.of(Gas.ZERO), executeOperationAction);
+
+    final List<TraceFrame> traceFrames = tracer.getTraceFrames();
+    assertThat(traceFrames.get(1).getStorage()).isSameAs(traceFrames.get(0).getStorage());
+    assertThat(traceFrames.get(2).getStorage().get()).isEqualTo(updatedStorage);
+  }
+
+  private static Operation operation(final String name) {
+    return new AbstractOperation(0x00, name, 0, 0, false, 1, null) {
+      @Override
+      public Gas cost(final MessageFrame frame) {
+        return Gas.ZERO;
+      }
+
+      @Override
+      public void execute(final MessageFrame frame) {}
+    };
+  }
+
   private TraceFrame traceFrame(final MessageFrame frame, final Gas currentGasCost)
       throws Exception {
     return traceFrame(frame, currentGasCost, new TraceOptions(false, false, false));
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.vm;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.ethereum.core.Gas;
+import tech.pegasys.pantheon.ethereum.core.MessageFrameTestFixture;
+import tech.pegasys.pantheon.ethereum.mainnet.ConstantinopleGasCalculator;
+import tech.pegasys.pantheon.ethereum.mainnet.MainnetEvmRegistries;
+import tech.pegasys.pantheon.ethereum.vm.ehalt.ExceptionalHaltException;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.EnumSet;
+
+import org.junit.Test;
+
+public class EVMTest {
+
+  private static final OperationTracer PASS_THROUGH_TRACER =
+      (frame, currentGasCost, executeOperation) -> executeOperation.execute();
+
+  private final EVM evm = MainnetEvmRegistries.constantinople(new ConstantinopleGasCalculator());
+
+  @Test
+  public void returnsTheSameOutputAsTheTracedPath() {
+    // (2 + 3) stored in memory and returned.
+    assertUntracedMatchesTraced("0x600260030160005260206000f3", Gas.of(100));
+  }
+
+  @Test
+  public void haltsOnStackUnderflow() {
+    assertThat(assertUntracedMatchesTraced("0x600101", Gas.of(100)))
+        .containsExactly(ExceptionalHaltReason.INSUFFICIENT_STACK_ITEMS);
+  }
+
+  @Test
+  public void haltsOnInvalidOperation() {
+    assertThat(assertUntracedMatchesTraced("0x6001fe", Gas.of(100)))
+        .containsExactly(ExceptionalHaltReason.INVALID_OPERATION);
+  }
+
+  @Test
+  public void haltsOnUnassignedOpcode() {
+    assertThat(assertUntracedMatchesTraced("0x60010c", Gas.of(100)))
+        .containsExactly(ExceptionalHaltReason.INVALID_OPERATION);
+  }
+
+  @Test
+  public void haltsOnInvalidJumpDestination() {
+    assertThat(assertUntracedMatchesTraced("0x600556", Gas.of(100)))
+        .containsExactly(ExceptionalHaltReason.INVALID_JUMP_DESTINATION);
+  }
+
+  @Test
+  public void haltsWhenOutOfGas() {
+    // An endless loop.
+    assertThat(assertUntracedMatchesTraced("0x5b600056", Gas.of(100)))
+        .containsExactly(ExceptionalHaltReason.INSUFFICIENT_GAS);
+  }
+
+  @Test
+  public void haltsOnStackOverflow() {
+    // Pushes until the stack is full.
+    assertThat(assertUntracedMatchesTraced("0x5b6001600056", Gas.of(100_000)))
+        .containsExactly(ExceptionalHaltReason.TOO_MANY_STACK_ITEMS);
+  }
+
+  private EnumSet<ExceptionalHaltReason> assertUntracedMatchesTraced(
+      final String code, final Gas initialGas) {
+    final MessageFrame traced = run(code, initialGas, PASS_THROUGH_TRACER);
+    final MessageFrame untraced = run(code, initialGas, OperationTracer.NO_TRACING);
+
+    assertThat(untraced.getState()).isEqualTo(traced.getState());
+    assertThat(untraced.getPC()).isEqualTo(traced.getPC());
+    assertThat(untraced.getRemainingGas()).isEqualTo(traced.getRemainingGas());
+    assertThat(untraced.getOutputData()).isEqualTo(traced.getOutputData());
+    assertThat(untraced.getExceptionalHaltReasons()).isEqualTo(traced.getExceptionalHaltReasons());
+    assertThat(untraced.stackSize()).isEqualTo(traced.stackSize());
+    for (int i = 0; i < traced.stackSize(); i++) {
+      assertThat(untraced.getStackItem(i)).isEqualTo(traced.getStackItem(i));
+    }
+    return untraced.getExceptionalHaltReasons();
+  }
+
+  private MessageFrame run(
+      final String code, final Gas initialGas, final OperationTracer operationTracer) {
+    final MessageFrame frame =
+        new MessageFrameTestFixture()
+            .code(new Code(BytesValue.fromHexString(code)))
+            .initialGas(initialGas)
+            .build();
+    frame.setState(MessageFrame.State.CODE_EXECUTING);
+    try {
+      evm.runToHalt(frame, operationTracer);
+    } catch (final ExceptionalHaltException e) {
+      assertThat(frame.getState()).isEqualTo(MessageFrame.State.EXCEPTIONAL_HALT);
+      assertThat(e.getReasons()).isEqualTo(frame.getExceptionalHaltReasons());
+    }
+    return frame;
+  }
+}
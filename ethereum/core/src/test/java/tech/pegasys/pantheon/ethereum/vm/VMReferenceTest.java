@@ -113,8 +113,8 @@ public class VMReferenceTest extends AbstractRetryingTest {
     final MutableWorldState worldState = new DefaultMutableWorldState(spec.getInitialWorldState());
     final EnvironmentInformation execEnv = spec.getExec();
 
-    final ProtocolSpec<Void> protocolSpec =
-        MainnetProtocolSpecs.frontier(new MutableProtocolSchedule<>());
+    final MutableProtocolSchedule<Void> protocolSchedule = new MutableProtocolSchedule<>();
+    final ProtocolSpec<Void> protocolSpec = MainnetProtocolSpecs.frontier(protocolSchedule);
 
     final TestBlockchain blockchain = new TestBlockchain(execEnv.getBlockHeader().getNumber());
     final MessageFrame frame =
@@ -138,6 +138,7 @@ public class VMReferenceTest extends AbstractRetryingTest {
             .completer(c -> {})
             .miningBeneficiary(execEnv.getBlockHeader().getCoinbase())
             .blockHashLookup(new BlockHashLookup(execEnv.getBlockHeader(), blockchain))
+            .codeCache(protocolSchedule.getCodeCache())
             .build();
 
     // This is normally set inside the containing message executing the code.
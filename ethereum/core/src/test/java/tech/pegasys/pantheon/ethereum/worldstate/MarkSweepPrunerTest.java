@@ -0,0 +1,164 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.worldstate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import tech.pegasys.pantheon.ethereum.core.Account;
+import tech.pegasys.pantheon.ethereum.core.Address;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.MutableAccount;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.ethereum.core.Wei;
+import tech.pegasys.pantheon.ethereum.core.WorldUpdater;
+import tech.pegasys.pantheon.ethereum.trie.MerkleStorageException;
+import tech.pegasys.pantheon.services.kvstore.InMemoryKeyValueStorage;
+import tech.pegasys.pantheon.services.kvstore.KeyValueStorage;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import org.junit.Test;
+
+public class MarkSweepPrunerTest {
+
+  private static final Address ADDRESS1 =
+      Address.fromHexString("0xa94f5374fce5edbc8e2a8697c15331677e6ebf0b");
+  private static final Address ADDRESS2 =
+      Address.fromHexString("0x1000000000000000000000000000000000000001");
+  private static final BytesValue CODE = BytesValue.fromHexString("0x6001600055");
+  private static final BytesValue OTHER_CODE = BytesValue.fromHexString("0x6002600055");
+
+  private final KeyValueStorage nodeStorage = new InMemoryKeyValueStorage();
+  private final KeyValueStorage markStorage = new InMemoryKeyValueStorage();
+  private final PrunableWorldStateStorage worldStateStorage =
+      new KeyValueStorageWorldStateStorage(nodeStorage);
+  private final MarkSweepPruner pruner = new MarkSweepPruner(worldStateStorage, markStorage);
+
+  private Hash persist(final Hash parentRoot, final long value) {
+    final MutableWorldState worldState =
+        new DefaultMutableWorldState(parentRoot, worldStateStorage);
+    final WorldUpdater updater = worldState.updater();
+    final MutableAccount account1 = updater.getOrCreate(ADDRESS1);
+    account1.setBalance(Wei.of(value));
+    account1.setStorageValue(UInt256.of(value), UInt256.of(value));
+    updater.getOrCreate(ADDRESS2).setCode(CODE);
+    updater.commit();
+    worldState.persist();
+    return worldState.rootHash();
+  }
+
+  private Hash persistCode(
+      final WorldStateStorage storage, final Hash parentRoot, final BytesValue code) {
+    final MutableWorldState worldState = new DefaultMutableWorldState(parentRoot, storage);
+    final WorldUpdater updater = worldState.updater();
+    updater.getOrCreate(ADDRESS2).setCode(code);
+    updater.commit();
+    worldState.persist();
+    return worldState.rootHash();
+  }
+
+  private Account account(final Hash root, final Address address) {
+    return new DefaultMutableWorldState(root, worldStateStorage).get(address);
+  }
+
+  private void assertStateIsComplete(final Hash root, final long value) {
+    assertThat(account(root, ADDRESS1).getBalance()).isEqualTo(Wei.of(value));
+    for (long slot = 1; slot <= value; slot++) {
+      assertThat(account(root, ADDRESS1).getStorageValue(UInt256.of(slot)))
+          .isEqualTo(UInt256.of(slot));
+    }
+    assertThat(account(root, ADDRESS2).getCode()).isEqualTo(CODE);
+  }
+
+  @Test
+  public void removesNodesOnlyReachableFromUnmarkedStates() {
+    final Hash root1 = persist(Hash.EMPTY_TRIE_HASH, 1);
+    final Hash root2 = persist(root1, 2);
+    final Hash root3 = persist(root2, 3);
+    final long nodeCount = nodeStorage.entries().count();
+
+    pruner.prepare();
+    pruner.mark(root2);
+    pruner.mark(root3);
+    assertThat(pruner.sweep()).isGreaterThan(0);
+
+    assertThat(nodeStorage.entries().count()).isLessThan(nodeCount);
+    assertStateIsComplete(root2, 2);
+    assertStateIsComplete(root3, 3);
+    assertThatThrownBy(() -> account(root1, ADDRESS1)).isInstanceOf(MerkleStorageException.class);
+    assertThat(markStorage.entries().count()).isZero();
+  }
+
+  @Test
+  public void keepsStatesPersistedDuringThePruningCycle() {
+    final Hash root1 = persist(Hash.EMPTY_TRIE_HASH, 1);
+    final Hash root2 = persist(root1, 2);
+
+    pruner.prepare();
+    final Hash root3 = persist(root2, 3);
+    pruner.mark(root2);
+    final Hash root4 = persist(root3, 4);
+    pruner.sweep();
+
+    assertStateIsComplete(root2, 2);
+    assertStateIsComplete(root3, 3);
+    assertStateIsComplete(root4, 4);
+    assertThatThrownBy(() -> account(root1, ADDRESS1)).isInstanceOf(MerkleStorageException.class);
+  }
+
+  @Test
+  public void removesCodeOnlyReachableFromUnmarkedStates() {
+    final KeyValueStorage codeStorage = new InMemoryKeyValueStorage();
+    final PrunableWorldStateStorage storage =
+        new KeyValueStorageWorldStateStorage(nodeStorage, codeStorage);
+    final MarkSweepPruner codePruner = new MarkSweepPruner(storage, markStorage);
+    final Hash root1 = persistCode(storage, Hash.EMPTY_TRIE_HASH, CODE);
+    final Hash root2 = persistCode(storage, root1, OTHER_CODE);
+
+    codePruner.prepare();
+    codePruner.mark(root2);
+    codePruner.sweep();
+
+    assertThat(storage.getCode(Hash.hash(CODE))).isEmpty();
+    assertThat(storage.getCode(Hash.hash(OTHER_CODE))).contains(OTHER_CODE);
+  }
+
+  @Test
+  public void onlyStoredStatesAreAvailable() {
+    final Hash root1 = persist(Hash.EMPTY_TRIE_HASH, 1);
+    final Hash root2 = persist(root1, 2);
+
+    pruner.prepare();
+    pruner.mark(root2);
+    pruner.sweep();
+
+    assertThat(pruner.isStateAvailable(Hash.EMPTY_TRIE_HASH)).isTrue();
+    assertThat(pruner.isStateAvailable(root2)).isTrue();
+    assertThat(pruner.isStateAvailable(root1)).isFalse();
+  }
+
+  @Test
+  public void cleanupRemovesNothing() {
+    final Hash root1 = persist(Hash.EMPTY_TRIE_HASH, 1);
+    persist(root1, 2);
+    final long nodeCount = nodeStorage.entries().count();
+
+    pruner.prepare();
+    pruner.mark(root1);
+    pruner.cleanup();
+
+    assertThat(nodeStorage.entries().count()).isEqualTo(nodeCount);
+    assertThat(markStorage.entries().count()).isZero();
+  }
+}
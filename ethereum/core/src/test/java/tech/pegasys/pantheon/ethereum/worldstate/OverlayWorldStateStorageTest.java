@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.worldstate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.ethereum.core.Address;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.ethereum.core.Wei;
+import tech.pegasys.pantheon.ethereum.core.WorldUpdater;
+import tech.pegasys.pantheon.services.kvstore.InMemoryKeyValueStorage;
+import tech.pegasys.pantheon.services.kvstore.KeyValueStorage;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import org.junit.Test;
+
+public class OverlayWorldStateStorageTest {
+
+  private static final Address ADDRESS =
+      Address.fromHexString("0xa94f5374fce5edbc8e2a8697c15331677e6ebf0b");
+  private static final Address CONTRACT =
+      Address.fromHexString("0x0000000000000000000000000000000000000001");
+
+  private final KeyValueStorage keyValueStorage = new InMemoryKeyValueStorage();
+  private final WorldStateStorage storage = new KeyValueStorageWorldStateStorage(keyValueStorage);
+
+  @Test
+  public void readsStateOfUnderlyingStorage() {
+    final MutableWorldState worldState = new DefaultMutableWorldState(storage);
+    setBalance(worldState, Wei.of(100));
+    worldState.persist();
+
+    final MutableWorldState overlaid =
+        new DefaultMutableWorldState(worldState.rootHash(), new OverlayWorldStateStorage(storage));
+    assertThat(overlaid.get(ADDRESS).getBalance()).isEqualTo(Wei.of(100));
+  }
+
+  @Test
+  public void persistsIntoMemoryOnly() {
+    final MutableWorldState worldState = new DefaultMutableWorldState(storage);
+    setBalance(worldState, Wei.of(100));
+    worldState.persist();
+    final long storedEntries = keyValueStorage.entries().count();
+
+    final OverlayWorldStateStorage overlay = new OverlayWorldStateStorage(storage);
+    final MutableWorldState overlaid = new DefaultMutableWorldState(worldState.rootHash(), overlay);
+    setBalance(overlaid, Wei.of(200));
+    final WorldUpdater updater = overlaid.updater();
+    updater.createAccount(CONTRACT).setCode(BytesValue.of(1));
+    updater.commit();
+    overlaid.persist();
+
+    assertThat(keyValueStorage.entries().count()).isEqualTo(storedEntries);
+    assertThat(storage.getAccountStateTrieNode(overlaid.rootHash())).isEmpty();
+
+    // The persisted state can be reopened from its root hash, independently of the first one
+    final MutableWorldState reopened = new DefaultMutableWorldState(overlaid.rootHash(), overlay);
+    assertThat(reopened.get(ADDRESS).getBalance()).isEqualTo(Wei.of(200));
+    assertThat(overlay.getCode(Hash.hash(BytesValue.of(1)))).contains(BytesValue.of(1));
+  }
+
+  @Test
+  public void discardsRolledBackUpdates() {
+    final OverlayWorldStateStorage overlay = new OverlayWorldStateStorage(storage);
+    final WorldStateStorage.Updater updater = overlay.updater();
+    updater.putAccountStateTrieNode(Hash.ZERO, BytesValue.of(1));
+    updater.rollback();
+    updater.commit();
+
+    assertThat(overlay.getAccountStateTrieNode(Hash.ZERO)).isEmpty();
+  }
+
+  private static void setBalance(final MutableWorldState worldState, final Wei balance) {
+    final WorldUpdater updater = worldState.updater();
+    updater.getOrCreate(ADDRESS).setBalance(balance);
+    updater.commit();
+  }
+}
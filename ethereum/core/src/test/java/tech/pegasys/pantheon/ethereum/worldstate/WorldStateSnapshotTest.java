@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.worldstate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.ethereum.core.Address;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.MutableAccount;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.ethereum.core.Wei;
+import tech.pegasys.pantheon.ethereum.core.WorldUpdater;
+import tech.pegasys.pantheon.services.kvstore.InMemoryKeyValueStorage;
+import tech.pegasys.pantheon.services.kvstore.KeyValueStorage;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+public class WorldStateSnapshotTest {
+
+  private static final Address ADDRESS1 =
+      Address.fromHexString("0xa94f5374fce5edbc8e2a8697c15331677e6ebf0b");
+  private static final Address ADDRESS2 =
+      Address.fromHexString("0x1000000000000000000000000000000000000001");
+  private static final UInt256 SLOT = UInt256.of(7);
+
+  private final WorldStateStorage worldStateStorage =
+      new KeyValueStorageWorldStateStorage(new InMemoryKeyValueStorage());
+  private final KeyValueStorage snapshotStorage = new InMemoryKeyValueStorage();
+  private final WorldStateSnapshot snapshot = new WorldStateSnapshot(snapshotStorage);
+
+  private MutableWorldState worldState(final Hash rootHash) {
+    return new DefaultMutableWorldState(
+        rootHash, worldStateStorage, Optional.empty(), Optional.of(snapshot));
+  }
+
+  private Hash persist(final Hash parentRoot, final long balance, final UInt256 slotValue) {
+    final MutableWorldState worldState = worldState(parentRoot);
+    final WorldUpdater updater = worldState.updater();
+    final MutableAccount account = updater.getOrCreate(ADDRESS1);
+    account.setBalance(Wei.of(balance));
+    account.setStorageValue(SLOT, slotValue);
+    updater.commit();
+    worldState.persist();
+    return worldState.rootHash();
+  }
+
+  private static <T> Supplier<T> noFallback() {
+    return () -> {
+      throw new AssertionError("Read should have been served by the snapshot");
+    };
+  }
+
+  private Optional<BytesValue> snapshotAccount(final Hash root, final Address address) {
+    return snapshot.getAccount(root, Hash.hash(address), noFallback());
+  }
+
+  private Optional<BytesValue> snapshotSlot(final Hash root, final Address address) {
+    return snapshot.getStorageValue(
+        root, Hash.hash(address), Hash.hash(SLOT.getBytes()), noFallback());
+  }
+
+  @Test
+  public void startsAtEmptyState() {
+    assertThat(snapshot.getRoot()).isEqualTo(Hash.EMPTY_TRIE_HASH);
+    assertThat(snapshotAccount(Hash.EMPTY_TRIE_HASH, ADDRESS1)).isEmpty();
+  }
+
+  @Test
+  public void followsPersistedStates() {
+    final Hash root1 = persist(Hash.EMPTY_TRIE_HASH, 100, UInt256.of(1));
+    assertThat(snapshot.getRoot()).isEqualTo(root1);
+    assertThat(snapshotAccount(root1, ADDRESS1)).isPresent();
+    assertThat(snapshotSlot(root1, ADDRESS1)).isPresent();
+
+    final Hash root2 = persist(root1, 200, UInt256.of(2));
+    assertThat(snapshot.getRoot()).isEqualTo(root2);
+    assertThat(worldState(root2).get(ADDRESS1).getBalance()).isEqualTo(Wei.of(200));
+    assertThat(worldState(root2).get(ADDRESS1).getStorageValue(SLOT)).isEqualTo(UInt256.of(2));
+
+    // Older states are still read from the trie
+    assertThat(worldState(root1).get(ADDRESS1).getBalance()).isEqualTo(Wei.of(100));
+    assertThat(worldState(root1).get(ADDRESS1).getStorageValue(SLOT)).isEqualTo(UInt256.of(1));
+  }
+
+  @Test
+  public void removesClearedStorageAndDeletedAccounts() {
+    final Hash root1 = persist(Hash.EMPTY_TRIE_HASH, 100, UInt256.of(1));
+
+    final MutableWorldState worldState = worldState(root1);
+    WorldUpdater updater = worldState.updater();
+    updater.getMutable(ADDRESS1).clearStorage();
+    updater.createAccount(ADDRESS2).setBalance(Wei.of(5));
+    updater.commit();
+    worldState.persist();
+    final Hash root2 = worldState.rootHash();
+    assertThat(snapshotSlot(root2, ADDRESS1)).isEmpty();
+    assertThat(snapshotAccount(root2, ADDRESS2)).isPresent();
+
+    updater = worldState.updater();
+    updater.deleteAccount(ADDRESS1);
+    updater.commit();
+    worldState.persist();
+    final Hash root3 = worldState.rootHash();
+    assertThat(snapshotAccount(root3, ADDRESS1)).isEmpty();
+    assertThat(snapshotAccount(root3, ADDRESS2)).isPresent();
+  }
+
+  @Test
+  public void readsUntouchedAccountsWhileStateIsModified() {
+    final Hash root1 = persist(Hash.EMPTY_TRIE_HASH, 100, UInt256.of(1));
+    final MutableWorldState worldState = worldState(root1);
+    final WorldUpdater updater = worldState.updater();
+    updater.getMutable(ADDRESS1).setBalance(Wei.of(300));
+    updater.createAccount(ADDRESS2).setBalance(Wei.of(5));
+    updater.commit();
+
+    assertThat(worldState.get(ADDRESS1).getBalance()).isEqualTo(Wei.of(300));
+    assertThat(worldState.get(ADDRESS1).getStorageValue(SLOT)).isEqualTo(UInt256.of(1));
+    assertThat(worldState.get(ADDRESS2).getBalance()).isEqualTo(Wei.of(5));
+  }
+
+  @Test
+  public void followsChainReorganisation() {
+    final Hash root1 = persist(Hash.EMPTY_TRIE_HASH, 100, UInt256.of(1));
+    final Hash root2 = persist(root1, 200, UInt256.of(2));
+    final Hash root3 = persist(root2, 300, UInt256.of(3));
+
+    // Fork from root1
+    final Hash forkRoot = persist(root1, 150, UInt256.ZERO);
+    assertThat(snapshot.getRoot()).isEqualTo(forkRoot);
+    assertThat(snapshotSlot(forkRoot, ADDRESS1)).isEmpty();
+    assertThat(worldState(forkRoot).get(ADDRESS1).getBalance()).isEqualTo(Wei.of(150));
+
+    // And back to the original chain
+    final Hash root4 = persist(root3, 400, UInt256.of(4));
+    assertThat(snapshot.getRoot()).isEqualTo(root4);
+    assertThat(worldState(root4).get(ADDRESS1).getBalance()).isEqualTo(Wei.of(400));
+    assertThat(worldState(root4).get(ADDRESS1).getStorageValue(SLOT)).isEqualTo(UInt256.of(4));
+  }
+
+  @Test
+  public void staysAtCurrentRootWhenTransitionIsUnreachable() {
+    final Hash root1 = persist(Hash.EMPTY_TRIE_HASH, 100, UInt256.of(1));
+
+    final WorldStateSnapshot reopened = new WorldStateSnapshot(snapshotStorage);
+    assertThat(reopened.getRoot()).isEqualTo(root1);
+    reopened.applyTransition(
+        Hash.hash(BytesValue.of(1)), Hash.hash(BytesValue.of(2)), new WorldStateSnapshot.Changes());
+    assertThat(reopened.getRoot()).isEqualTo(root1);
+  }
+}
@@ -30,6 +30,9 @@ import tech.pegasys.pantheon.ethereum.p2p.api.ProtocolManager;
 import tech.pegasys.pantheon.ethereum.p2p.wire.Capability;
 import tech.pegasys.pantheon.ethereum.p2p.wire.messages.DisconnectMessage.DisconnectReason;
 import tech.pegasys.pantheon.ethereum.rlp.RLPException;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.util.Arrays;
@@ -69,6 +72,16 @@ public class EthProtocolManager implements ProtocolManager, MinedBlockObserver {
       final boolean fastSyncEnabled,
       final int requestLimit,
       final EthScheduler scheduler) {
+    this(blockchain, Optional.empty(), networkId, fastSyncEnabled, requestLimit, scheduler);
+  }
+
+  EthProtocolManager(
+      final Blockchain blockchain,
+      final Optional<WorldStateStorage> worldStateStorage,
+      final int networkId,
+      final boolean fastSyncEnabled,
+      final int requestLimit,
+      final EthScheduler scheduler) {
     this.networkId = networkId;
 
     this.scheduler = scheduler;
@@ -83,7 +96,7 @@ public class EthProtocolManager implements ProtocolManager, MinedBlockObserver {
     ethContext = new EthContext(getSupportedProtocol(), ethPeers, ethMessages, scheduler);
 
     // Set up request handlers
-    new EthServer(blockchain, ethMessages, requestLimit);
+    new EthServer(blockchain, worldStateStorage, ethMessages, requestLimit);
   }
 
   EthProtocolManager(
@@ -103,6 +116,51 @@ public class EthProtocolManager implements ProtocolManager, MinedBlockObserver {
     this(blockchain, networkId, fastSyncEnabled, workers, DEFAULT_REQUEST_LIMIT);
   }
 
+  public EthProtocolManager(
+      final Blockchain blockchain,
+      final int networkId,
+      final boolean fastSyncEnabled,
+      final int workers,
+      final MetricsSystem metricsSystem) {
+    this(
+        blockchain,
+        Optional.empty(),
+        networkId,
+        fastSyncEnabled,
+        DEFAULT_REQUEST_LIMIT,
+        new EthScheduler(workers, metricsSystem));
+    registerPeerCountGauge(metricsSystem);
+  }
+
+  /**
+   * Creates a protocol manager that also serves world state trie nodes and code to peers that are
+   * fast syncing.
+   */
+  public EthProtocolManager(
+      final Blockchain blockchain,
+      final WorldStateStorage worldStateStorage,
+      final int networkId,
+      final boolean fastSyncEnabled,
+      final int workers,
+      final MetricsSystem metricsSystem) {
+    this(
+        blockchain,
+        Optional.of(worldStateStorage),
+        networkId,
+        fastSyncEnabled,
+        DEFAULT_REQUEST_LIMIT,
+        new EthScheduler(workers, metricsSystem));
+    registerPeerCountGauge(metricsSystem);
+  }
+
+  private void registerPeerCountGauge(final MetricsSystem metricsSystem) {
+    metricsSystem.createGauge(
+        MetricCategory.PEERS,
+        "peer_count",
+        "Number of peers connected with the eth protocol",
+        ethPeers::peerCount);
+  }
+
   public EthContext ethContext() {
     return ethContext;
   }
@@ -12,6 +12,9 @@
  */
 package tech.pegasys.pantheon.ethereum.eth.manager;
 
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
 import tech.pegasys.pantheon.util.ExceptionUtils;
 
 import java.time.Duration;
@@ -23,6 +26,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -45,6 +49,10 @@ public class EthScheduler {
   protected final ScheduledExecutorService scheduler;
 
   EthScheduler(final int workerCount) {
+    this(workerCount, new NoOpMetricsSystem());
+  }
+
+  EthScheduler(final int workerCount, final MetricsSystem metricsSystem) {
     this(
         Executors.newFixedThreadPool(
             workerCount,
@@ -57,6 +65,20 @@ public class EthScheduler {
                 .setDaemon(true)
                 .setNameFormat(EthScheduler.class.getSimpleName() + "Timer")
                 .build()));
+    registerQueueLengthGauge(metricsSystem, "eth_workers", workerExecutor);
+    registerQueueLengthGauge(metricsSystem, "eth_scheduled", scheduler);
+  }
+
+  private static void registerQueueLengthGauge(
+      final MetricsSystem metricsSystem, final String name, final ExecutorService executor) {
+    if (executor instanceof ThreadPoolExecutor) {
+      final ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) executor;
+      metricsSystem.createGauge(
+          MetricCategory.EXECUTORS,
+          name + "_queue_length",
+          "Number of tasks waiting to run on the " + name + " executor",
+          () -> threadPoolExecutor.getQueue().size());
+    }
   }
 
   protected EthScheduler(
@@ -31,6 +31,7 @@ import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
 import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection.PeerNotConnected;
 import tech.pegasys.pantheon.ethereum.p2p.wire.messages.DisconnectMessage.DisconnectReason;
 import tech.pegasys.pantheon.ethereum.rlp.RLPException;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import java.util.ArrayList;
@@ -47,11 +48,17 @@ class EthServer {
   private static final Logger LOG = LogManager.getLogger();
 
   private final Blockchain blockchain;
+  private final Optional<WorldStateStorage> worldStateStorage;
   private final EthMessages ethMessages;
   private final int requestLimit;
 
-  EthServer(final Blockchain blockchain, final EthMessages ethMessages, final int requestLimit) {
+  EthServer(
+      final Blockchain blockchain,
+      final Optional<WorldStateStorage> worldStateStorage,
+      final EthMessages ethMessages,
+      final int requestLimit) {
     this.blockchain = blockchain;
+    this.worldStateStorage = worldStateStorage;
     this.ethMessages = ethMessages;
     this.requestLimit = requestLimit;
     this.setupListeners();
@@ -106,7 +113,8 @@ class EthServer {
   private void handleGetNodeData(final EthMessage message) {
     LOG.trace("Responding to GET_NODE_DATA request");
     try {
-      final MessageData response = constructGetNodeDataResponse(message.getData(), requestLimit);
+      final MessageData response =
+          constructGetNodeDataResponse(worldStateStorage, message.getData(), requestLimit);
       message.getPeer().send(response);
     } catch (final RLPException e) {
       message.getPeer().disconnect(DisconnectReason.BREACH_OF_PROTOCOL);
@@ -207,7 +215,9 @@ class EthServer {
   }
 
   static MessageData constructGetNodeDataResponse(
-      final MessageData message, final int requestLimit) {
+      final Optional<WorldStateStorage> worldStateStorage,
+      final MessageData message,
+      final int requestLimit) {
     final GetNodeDataMessage getNodeDataMessage = GetNodeDataMessage.readFrom(message);
     try {
       final Iterable<Hash> hashes = getNodeDataMessage.hashes();
@@ -219,11 +229,27 @@ class EthServer {
           break;
         }
         count++;
-        // TODO: Lookup node data and add it to the list
+        worldStateStorage
+            .flatMap(storage -> lookupNodeData(storage, hash))
+            .ifPresent(nodeData::add);
       }
       return NodeDataMessage.create(nodeData);
     } finally {
       getNodeDataMessage.release();
     }
   }
+
+  private static Optional<BytesValue> lookupNodeData(
+      final WorldStateStorage worldStateStorage, final Hash hash) {
+    // Trie nodes and code are all keyed by hash, so a request does not say which one it wants
+    final Optional<BytesValue> trieNode = worldStateStorage.getAccountStateTrieNode(hash);
+    if (trieNode.isPresent()) {
+      return trieNode;
+    }
+    final Optional<BytesValue> storageNode = worldStateStorage.getAccountStorageTrieNode(hash);
+    if (storageNode.isPresent()) {
+      return storageNode;
+    }
+    return worldStateStorage.getCode(hash);
+  }
 }
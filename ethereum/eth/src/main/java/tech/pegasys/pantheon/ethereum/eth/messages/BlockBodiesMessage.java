@@ -48,7 +48,7 @@ public final class BlockBodiesMessage extends AbstractMessageData {
     bodies.forEach(body -> body.writeTo(tmp));
     tmp.endList();
     final ByteBuf data = NetworkMemoryPool.allocate(tmp.encodedSize());
-    data.writeBytes(tmp.encoded().extractArray());
+    tmp.appendEncoded(data);
     return new BlockBodiesMessage(data);
   }
 
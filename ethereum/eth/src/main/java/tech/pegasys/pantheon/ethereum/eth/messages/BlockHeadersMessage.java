@@ -52,7 +52,7 @@ public final class BlockHeadersMessage extends AbstractMessageData {
     }
     tmp.endList();
     final ByteBuf data = NetworkMemoryPool.allocate(tmp.encodedSize());
-    data.writeBytes(tmp.encoded().extractArray());
+    tmp.appendEncoded(data);
     return new BlockHeadersMessage(data);
   }
 
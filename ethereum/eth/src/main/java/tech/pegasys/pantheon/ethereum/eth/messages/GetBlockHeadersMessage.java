@@ -55,7 +55,7 @@ public final class GetBlockHeadersMessage extends AbstractMessageData {
     final BytesValueRLPOutput tmp = new BytesValueRLPOutput();
     getBlockHeadersData.writeTo(tmp);
     final ByteBuf data = NetworkMemoryPool.allocate(tmp.encodedSize());
-    data.writeBytes(tmp.encoded().extractArray());
+    tmp.appendEncoded(data);
     return new GetBlockHeadersMessage(data);
   }
 
@@ -66,7 +66,7 @@ public final class GetBlockHeadersMessage extends AbstractMessageData {
     final BytesValueRLPOutput tmp = new BytesValueRLPOutput();
     getBlockHeadersData.writeTo(tmp);
     final ByteBuf data = NetworkMemoryPool.allocate(tmp.encodedSize());
-    data.writeBytes(tmp.encoded().extractArray());
+    tmp.appendEncoded(data);
     return new GetBlockHeadersMessage(data);
   }
 
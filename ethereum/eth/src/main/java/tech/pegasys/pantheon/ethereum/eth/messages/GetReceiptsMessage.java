@@ -49,7 +49,7 @@ public final class GetReceiptsMessage extends AbstractMessageData {
     hashes.forEach(tmp::writeBytesValue);
     tmp.endList();
     final ByteBuf data = NetworkMemoryPool.allocate(tmp.encodedSize());
-    data.writeBytes(tmp.encoded().extractArray());
+    tmp.appendEncoded(data);
     return new GetReceiptsMessage(data);
   }
 
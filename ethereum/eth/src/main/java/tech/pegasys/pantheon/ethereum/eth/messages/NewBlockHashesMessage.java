@@ -55,7 +55,7 @@ public final class NewBlockHashesMessage extends AbstractMessageData {
     }
     tmp.endList();
     final ByteBuf data = NetworkMemoryPool.allocate(tmp.encodedSize());
-    data.writeBytes(tmp.encoded().extractArray());
+    tmp.appendEncoded(data);
     return new NewBlockHashesMessage(data);
   }
 
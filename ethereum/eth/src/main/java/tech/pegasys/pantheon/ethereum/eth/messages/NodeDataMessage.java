@@ -48,7 +48,7 @@ public final class NodeDataMessage extends AbstractMessageData {
     nodeData.forEach(tmp::writeBytesValue);
     tmp.endList();
     final ByteBuf data = NetworkMemoryPool.allocate(tmp.encodedSize());
-    data.writeBytes(tmp.encoded().extractArray());
+    tmp.appendEncoded(data);
     return new NodeDataMessage(data);
   }
 
@@ -54,7 +54,7 @@ public final class ReceiptsMessage extends AbstractMessageData {
         });
     tmp.endList();
     final ByteBuf data = NetworkMemoryPool.allocate(tmp.encodedSize());
-    data.writeBytes(tmp.encoded().extractArray());
+    tmp.appendEncoded(data);
     return new ReceiptsMessage(data);
   }
 
@@ -51,7 +51,7 @@ public class TransactionsMessage extends AbstractMessageData {
     }
     tmp.endList();
     final ByteBuf data = NetworkMemoryPool.allocate(tmp.encodedSize());
-    data.writeBytes(tmp.encoded().extractArray());
+    tmp.appendEncoded(data);
     return new TransactionsMessage(data);
   }
 
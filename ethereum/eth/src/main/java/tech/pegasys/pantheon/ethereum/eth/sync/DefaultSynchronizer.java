@@ -13,14 +13,25 @@
 package tech.pegasys.pantheon.ethereum.eth.sync;
 
 import tech.pegasys.pantheon.ethereum.ProtocolContext;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.core.SyncStatus;
 import tech.pegasys.pantheon.ethereum.core.Synchronizer;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.sync.fastsync.FastSyncDownloader;
+import tech.pegasys.pantheon.ethereum.eth.sync.fastsync.FastSyncStateStorage;
+import tech.pegasys.pantheon.ethereum.eth.sync.fastsync.NodeDataRequestQueue;
+import tech.pegasys.pantheon.ethereum.eth.sync.fastsync.WorldStateDownloader;
 import tech.pegasys.pantheon.ethereum.eth.sync.state.PendingBlocks;
 import tech.pegasys.pantheon.ethereum.eth.sync.state.SyncState;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.services.kvstore.KeyValueStorage;
+import tech.pegasys.pantheon.util.ExceptionUtils;
 
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.logging.log4j.LogManager;
@@ -29,11 +40,14 @@ import org.apache.logging.log4j.Logger;
 public class DefaultSynchronizer<C> implements Synchronizer {
 
   private static final Logger LOG = LogManager.getLogger();
+  private static final Duration FAST_SYNC_RETRY_DELAY = Duration.ofSeconds(5);
 
+  private final EthContext ethContext;
   private final SyncState syncState;
   private final AtomicBoolean started = new AtomicBoolean(false);
   private final BlockPropagationManager<C> blockPropagationManager;
   private final Downloader<C> downloader;
+  private final Optional<FastSyncDownloader<C>> fastSyncDownloader;
 
   public DefaultSynchronizer(
       final SynchronizerConfiguration syncConfig,
@@ -41,7 +55,54 @@ public class DefaultSynchronizer<C> implements Synchronizer {
       final ProtocolContext<C> protocolContext,
       final EthContext ethContext,
       final SyncState syncState) {
+    this(syncConfig, protocolSchedule, protocolContext, ethContext, syncState, Optional.empty());
+  }
+
+  /**
+   * Creates a synchronizer that fast syncs before switching to full sync, when fast sync is the
+   * sync mode or when a fast sync was interrupted before it finished.
+   *
+   * @param syncConfig The sync configuration.
+   * @param protocolSchedule The protocol schedule.
+   * @param protocolContext The protocol context.
+   * @param worldStateStorage The storage that downloaded world state is written to.
+   * @param fastSyncStorage The storage that keeps the progress of a fast sync.
+   * @param ethContext The eth protocol context.
+   * @param syncState The sync state.
+   */
+  public DefaultSynchronizer(
+      final SynchronizerConfiguration syncConfig,
+      final ProtocolSchedule<C> protocolSchedule,
+      final ProtocolContext<C> protocolContext,
+      final WorldStateStorage worldStateStorage,
+      final KeyValueStorage fastSyncStorage,
+      final EthContext ethContext,
+      final SyncState syncState) {
+    this(
+        syncConfig,
+        protocolSchedule,
+        protocolContext,
+        ethContext,
+        syncState,
+        createFastSyncDownloader(
+            syncConfig,
+            protocolSchedule,
+            protocolContext,
+            worldStateStorage,
+            fastSyncStorage,
+            ethContext));
+  }
+
+  private DefaultSynchronizer(
+      final SynchronizerConfiguration syncConfig,
+      final ProtocolSchedule<C> protocolSchedule,
+      final ProtocolContext<C> protocolContext,
+      final EthContext ethContext,
+      final SyncState syncState,
+      final Optional<FastSyncDownloader<C>> fastSyncDownloader) {
+    this.ethContext = ethContext;
     this.syncState = syncState;
+    this.fastSyncDownloader = fastSyncDownloader;
     this.blockPropagationManager =
         new BlockPropagationManager<>(
             syncConfig,
@@ -55,22 +116,96 @@ public class DefaultSynchronizer<C> implements Synchronizer {
 
     ChainHeadTracker.trackChainHeadForPeers(
         ethContext, protocolSchedule, protocolContext.getBlockchain(), syncConfig);
-    if (syncConfig.syncMode().equals(SyncMode.FAST)) {
+    if (fastSyncDownloader.isPresent()) {
       LOG.info("Fast sync enabled.");
     }
+
+    protocolContext
+        .getMetricsSystem()
+        .createGauge(
+            MetricCategory.BLOCKCHAIN,
+            "height",
+            "Number of the canonical chain head block",
+            protocolContext.getBlockchain()::getChainHeadBlockNumber);
+  }
+
+  private static <C> Optional<FastSyncDownloader<C>> createFastSyncDownloader(
+      final SynchronizerConfiguration syncConfig,
+      final ProtocolSchedule<C> protocolSchedule,
+      final ProtocolContext<C> protocolContext,
+      final WorldStateStorage worldStateStorage,
+      final KeyValueStorage fastSyncStorage,
+      final EthContext ethContext) {
+    final FastSyncStateStorage fastSyncStateStorage =
+        new FastSyncStateStorage(fastSyncStorage, protocolSchedule);
+    if (!syncConfig.syncMode().equals(SyncMode.FAST)
+        && !fastSyncStateStorage.isFastSyncInProgress()) {
+      return Optional.empty();
+    }
+    final WorldStateDownloader worldStateDownloader =
+        new WorldStateDownloader(
+            ethContext,
+            worldStateStorage,
+            new NodeDataRequestQueue(fastSyncStorage),
+            syncConfig.worldStateHashCountPerRequest(),
+            syncConfig.worldStateRequestParallelism());
+    return Optional.of(
+        new FastSyncDownloader<>(
+            syncConfig,
+            protocolSchedule,
+            protocolContext,
+            ethContext,
+            worldStateDownloader,
+            fastSyncStateStorage));
   }
 
   @Override
   public void start() {
     if (started.compareAndSet(false, true)) {
       LOG.info("Starting synchronizer.");
-      blockPropagationManager.start();
-      downloader.start();
+      if (fastSyncDownloader.isPresent()) {
+        startFastSync(fastSyncDownloader.get());
+      } else {
+        startFullSync();
+      }
     } else {
       throw new IllegalStateException("Attempt to start an already started synchronizer.");
     }
   }
 
+  private void startFastSync(final FastSyncDownloader<C> fastSyncDownloader) {
+    fastSyncDownloader
+        .start()
+        .whenComplete(
+            (pivotBlockHeader, error) ->
+                handleFastSyncResult(fastSyncDownloader, pivotBlockHeader, error));
+  }
+
+  private void handleFastSyncResult(
+      final FastSyncDownloader<C> fastSyncDownloader,
+      final BlockHeader pivotBlockHeader,
+      final Throwable error) {
+    if (error != null) {
+      if (ExceptionUtils.rootCause(error) instanceof CancellationException) {
+        LOG.info("Fast sync cancelled.");
+        return;
+      }
+      // The pivot block is kept in storage, so the retry resumes where this attempt stopped
+      LOG.warn("Fast sync failed, retrying.", error);
+      ethContext
+          .getScheduler()
+          .scheduleFutureTask(() -> startFastSync(fastSyncDownloader), FAST_SYNC_RETRY_DELAY);
+      return;
+    }
+    LOG.info("Switching to full sync from block {}.", pivotBlockHeader.getNumber());
+    startFullSync();
+  }
+
+  private void startFullSync() {
+    blockPropagationManager.start();
+    downloader.start();
+  }
+
   @Override
   public Optional<SyncStatus> getSyncStatus() {
     if (!started.get()) {
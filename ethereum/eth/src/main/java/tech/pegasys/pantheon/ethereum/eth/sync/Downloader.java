@@ -347,7 +347,7 @@ public class Downloader<C> {
               config.downloaderChainSegmentSize());
       importedBlocks = importTask.run().thenApply(PeerTaskResult::getResult);
     } else {
-      final PipelinedImportChainSegmentTask<C> importTask =
+      final PipelinedImportChainSegmentTask<C, Block> importTask =
           PipelinedImportChainSegmentTask.forCheckpoints(
               protocolSchedule,
               protocolContext,
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync;
+
+import tech.pegasys.pantheon.ethereum.ProtocolContext;
+import tech.pegasys.pantheon.ethereum.core.Block;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.TransactionSenderRecovery;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.sync.tasks.CompleteBlocksTask;
+import tech.pegasys.pantheon.ethereum.eth.sync.tasks.PersistBlockTask;
+import tech.pegasys.pantheon.ethereum.mainnet.HeaderValidationMode;
+import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Downloads block bodies and imports the blocks by executing their transactions.
+ *
+ * @param <C> the consensus algorithm context
+ */
+public class FullSyncBlockHandler<C> implements BlockHandler<Block> {
+
+  private final ProtocolSchedule<C> protocolSchedule;
+  private final ProtocolContext<C> protocolContext;
+  private final EthContext ethContext;
+
+  public FullSyncBlockHandler(
+      final ProtocolSchedule<C> protocolSchedule,
+      final ProtocolContext<C> protocolContext,
+      final EthContext ethContext) {
+    this.protocolSchedule = protocolSchedule;
+    this.protocolContext = protocolContext;
+    this.ethContext = ethContext;
+  }
+
+  @Override
+  public CompletableFuture<List<Block>> downloadBlocks(final List<BlockHeader> headers) {
+    return CompleteBlocksTask.forHeaders(protocolSchedule, ethContext, headers).run();
+  }
+
+  @Override
+  public CompletableFuture<List<Block>> prepareBlocks(final List<Block> blocks) {
+    TransactionSenderRecovery.getDefault().recoverSendersForBlocks(blocks);
+    return CompletableFuture.completedFuture(blocks);
+  }
+
+  @Override
+  public CompletableFuture<List<Block>> validateAndImportBlocks(final List<Block> blocks) {
+    return PersistBlockTask.forSequentialBlocks(
+            protocolSchedule, protocolContext, blocks, HeaderValidationMode.SKIP_DETACHED)
+        .get();
+  }
+
+  @Override
+  public long extractBlockNumber(final Block block) {
+    return block.getHeader().getNumber();
+  }
+}
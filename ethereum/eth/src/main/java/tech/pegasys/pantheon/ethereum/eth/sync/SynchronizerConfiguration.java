@@ -28,12 +28,14 @@ public class SynchronizerConfiguration {
   private static final Logger LOG = LogManager.getLogger();
 
   // TODO: Determine reasonable defaults here
-  public static int DEFAULT_PIVOT_DISTANCE_FROM_HEAD = 500;
+  public static int DEFAULT_PIVOT_DISTANCE_FROM_HEAD = 50;
   public static float DEFAULT_FULL_VALIDATION_RATE = .1f;
 
   // Fast sync config
   private final int fastSyncPivotDistance;
   private final float fastSyncFullValidationRate;
+  private final int worldStateHashCountPerRequest;
+  private final int worldStateRequestParallelism;
 
   // Block propagation config
   private final Range<Long> blockPropagationRange;
@@ -57,6 +59,8 @@ public class SynchronizerConfiguration {
       final SyncMode requestedSyncMode,
       final int fastSyncPivotDistance,
       final float fastSyncFullValidationRate,
+      final int worldStateHashCountPerRequest,
+      final int worldStateRequestParallelism,
       final Range<Long> blockPropagationRange,
       final Optional<SyncMode> syncMode,
       final long downloaderChangeTargetThresholdByHeight,
@@ -71,6 +75,8 @@ public class SynchronizerConfiguration {
     this.requestedSyncMode = requestedSyncMode;
     this.fastSyncPivotDistance = fastSyncPivotDistance;
     this.fastSyncFullValidationRate = fastSyncFullValidationRate;
+    this.worldStateHashCountPerRequest = worldStateHashCountPerRequest;
+    this.worldStateRequestParallelism = worldStateRequestParallelism;
     this.blockPropagationRange = blockPropagationRange;
     this.syncMode = syncMode;
     this.downloaderChangeTargetThresholdByHeight = downloaderChangeTargetThresholdByHeight;
@@ -112,6 +118,8 @@ public class SynchronizerConfiguration {
         requestedSyncMode,
         fastSyncPivotDistance,
         fastSyncFullValidationRate,
+        worldStateHashCountPerRequest,
+        worldStateRequestParallelism,
         blockPropagationRange,
         Optional.of(actualSyncMode),
         downloaderChangeTargetThresholdByHeight,
@@ -162,6 +170,26 @@ public class SynchronizerConfiguration {
     return fastSyncPivotDistance;
   }
 
+  /**
+   * The number of world state trie nodes and code entries to ask a peer for in one request during
+   * fast sync.
+   *
+   * @return the number of hashes in each node data request.
+   */
+  public int worldStateHashCountPerRequest() {
+    return worldStateHashCountPerRequest;
+  }
+
+  /**
+   * The number of node data requests that may be outstanding at once while downloading the world
+   * state during fast sync.
+   *
+   * @return the maximum number of outstanding node data requests.
+   */
+  public int worldStateRequestParallelism() {
+    return worldStateRequestParallelism;
+  }
+
   public long downloaderChangeTargetThresholdByHeight() {
     return downloaderChangeTargetThresholdByHeight;
   }
@@ -217,6 +245,8 @@ public class SynchronizerConfiguration {
   public static class Builder {
     private int fastSyncPivotDistance = DEFAULT_PIVOT_DISTANCE_FROM_HEAD;
     private float fastSyncFullValidationRate = DEFAULT_FULL_VALIDATION_RATE;
+    private int worldStateHashCountPerRequest = 384;
+    private int worldStateRequestParallelism = 10;
     private SyncMode syncMode = SyncMode.FULL;
     private Range<Long> blockPropagationRange = Range.closed(-10L, 30L);
     private long downloaderChangeTargetThresholdByHeight = 20L;
@@ -239,6 +269,16 @@ public class SynchronizerConfiguration {
       return this;
     }
 
+    public Builder worldStateHashCountPerRequest(final int worldStateHashCountPerRequest) {
+      this.worldStateHashCountPerRequest = worldStateHashCountPerRequest;
+      return this;
+    }
+
+    public Builder worldStateRequestParallelism(final int worldStateRequestParallelism) {
+      this.worldStateRequestParallelism = worldStateRequestParallelism;
+      return this;
+    }
+
     public Builder syncMode(final SyncMode mode) {
       this.syncMode = mode;
       return this;
@@ -304,6 +344,8 @@ public class SynchronizerConfiguration {
           syncMode,
           fastSyncPivotDistance,
           fastSyncFullValidationRate,
+          worldStateHashCountPerRequest,
+          worldStateRequestParallelism,
           blockPropagationRange,
           Optional.empty(),
           downloaderChangeTargetThresholdByHeight,
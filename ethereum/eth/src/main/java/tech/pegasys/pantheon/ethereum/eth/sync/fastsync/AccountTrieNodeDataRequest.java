@@ -0,0 +1,62 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.rlp.RLP;
+import tech.pegasys.pantheon.ethereum.trie.TrieNodeDecoder;
+import tech.pegasys.pantheon.ethereum.worldstate.StateTrieAccountValue;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage.Updater;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+class AccountTrieNodeDataRequest extends NodeDataRequest {
+
+  AccountTrieNodeDataRequest(final Hash hash) {
+    super(RequestType.ACCOUNT_TRIE_NODE, hash);
+  }
+
+  @Override
+  public Optional<BytesValue> getExistingData(final WorldStateStorage worldStateStorage) {
+    return worldStateStorage.getAccountStateTrieNode(getHash());
+  }
+
+  @Override
+  public void persist(final Updater updater, final BytesValue data) {
+    updater.putAccountStateTrieNode(getHash(), data);
+  }
+
+  @Override
+  public List<NodeDataRequest> getChildRequests(final BytesValue data) {
+    final List<NodeDataRequest> children = new ArrayList<>();
+    TrieNodeDecoder.decodeNode(
+        getHash(),
+        data,
+        childHash -> children.add(createAccountDataRequest(Hash.wrap(childHash))),
+        accountRlp -> {
+          final StateTrieAccountValue account =
+              StateTrieAccountValue.readFrom(RLP.input(accountRlp));
+          if (!account.getStorageRoot().equals(Hash.EMPTY_TRIE_HASH)) {
+            children.add(createStorageDataRequest(account.getStorageRoot()));
+          }
+          if (!account.getCodeHash().equals(Hash.EMPTY)) {
+            children.add(createCodeRequest(account.getCodeHash()));
+          }
+        });
+    return children;
+  }
+}
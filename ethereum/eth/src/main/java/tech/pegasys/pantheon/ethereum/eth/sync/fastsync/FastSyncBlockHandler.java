@@ -0,0 +1,112 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
+
+import tech.pegasys.pantheon.ethereum.ProtocolContext;
+import tech.pegasys.pantheon.ethereum.core.Block;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.BlockImporter;
+import tech.pegasys.pantheon.ethereum.core.TransactionReceipt;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.sync.BlockHandler;
+import tech.pegasys.pantheon.ethereum.eth.sync.tasks.CompleteBlocksTask;
+import tech.pegasys.pantheon.ethereum.eth.sync.tasks.GetReceiptsForHeadersTask;
+import tech.pegasys.pantheon.ethereum.eth.sync.tasks.exceptions.InvalidBlockException;
+import tech.pegasys.pantheon.ethereum.mainnet.HeaderValidationMode;
+import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Downloads block bodies together with their receipts and imports the blocks without executing
+ * their transactions, checking the receipts against the receipts root instead. Headers are fully
+ * validated, proof of work included, for a random sample of the blocks only.
+ *
+ * @param <C> the consensus algorithm context
+ */
+public class FastSyncBlockHandler<C> implements BlockHandler<BlockWithReceipts> {
+
+  private final ProtocolSchedule<C> protocolSchedule;
+  private final ProtocolContext<C> protocolContext;
+  private final EthContext ethContext;
+  private final float fullValidationRate;
+
+  public FastSyncBlockHandler(
+      final ProtocolSchedule<C> protocolSchedule,
+      final ProtocolContext<C> protocolContext,
+      final EthContext ethContext,
+      final float fullValidationRate) {
+    this.protocolSchedule = protocolSchedule;
+    this.protocolContext = protocolContext;
+    this.ethContext = ethContext;
+    this.fullValidationRate = fullValidationRate;
+  }
+
+  @Override
+  public CompletableFuture<List<BlockWithReceipts>> downloadBlocks(
+      final List<BlockHeader> headers) {
+    final CompletableFuture<List<Block>> blocks =
+        CompleteBlocksTask.forHeaders(protocolSchedule, ethContext, headers).run();
+    final CompletableFuture<Map<BlockHeader, List<TransactionReceipt>>> receipts =
+        GetReceiptsForHeadersTask.forHeaders(ethContext, headers).run();
+    return blocks.thenCombine(receipts, this::combineBlocksAndReceipts);
+  }
+
+  private List<BlockWithReceipts> combineBlocksAndReceipts(
+      final List<Block> blocks, final Map<BlockHeader, List<TransactionReceipt>> receipts) {
+    return blocks
+        .stream()
+        .map(block -> new BlockWithReceipts(block, receipts.get(block.getHeader())))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public CompletableFuture<List<BlockWithReceipts>> prepareBlocks(
+      final List<BlockWithReceipts> blocks) {
+    // Transactions are not executed, so their senders are not needed
+    return CompletableFuture.completedFuture(blocks);
+  }
+
+  @Override
+  public CompletableFuture<List<BlockWithReceipts>> validateAndImportBlocks(
+      final List<BlockWithReceipts> blocks) {
+    for (final BlockWithReceipts block : blocks) {
+      final BlockImporter<C> blockImporter =
+          protocolSchedule.getByBlockNumber(block.getNumber()).getBlockImporter();
+      if (!blockImporter.fastImportBlock(
+          protocolContext, block.getBlock(), block.getReceipts(), headerValidationMode())) {
+        final CompletableFuture<List<BlockWithReceipts>> result = new CompletableFuture<>();
+        result.completeExceptionally(
+            new InvalidBlockException(
+                "Failed to import block", block.getNumber(), block.getHash()));
+        return result;
+      }
+    }
+    return CompletableFuture.completedFuture(blocks);
+  }
+
+  private HeaderValidationMode headerValidationMode() {
+    return ThreadLocalRandom.current().nextFloat() < fullValidationRate
+        ? HeaderValidationMode.FULL
+        : HeaderValidationMode.LIGHT;
+  }
+
+  @Override
+  public long extractBlockNumber(final BlockWithReceipts block) {
+    return block.getNumber();
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
+
+import tech.pegasys.pantheon.ethereum.ProtocolContext;
+import tech.pegasys.pantheon.ethereum.chain.Blockchain;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.eth.manager.AbstractPeerTask.PeerTaskResult;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
+import tech.pegasys.pantheon.ethereum.eth.sync.tasks.GetHeadersFromPeerByHashTask;
+import tech.pegasys.pantheon.ethereum.eth.sync.tasks.PipelinedImportChainSegmentTask;
+import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
+import tech.pegasys.pantheon.util.ExceptionUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Imports the chain from the local chain head up to the fast sync pivot block, downloading the
+ * receipts of each block rather than executing its transactions.
+ *
+ * @param <C> the consensus algorithm context
+ */
+public class FastSyncChainDownloader<C> {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final Duration RETRY_DELAY = Duration.ofSeconds(2);
+
+  private final SynchronizerConfiguration config;
+  private final ProtocolSchedule<C> protocolSchedule;
+  private final ProtocolContext<C> protocolContext;
+  private final EthContext ethContext;
+
+  public FastSyncChainDownloader(
+      final SynchronizerConfiguration config,
+      final ProtocolSchedule<C> protocolSchedule,
+      final ProtocolContext<C> protocolContext,
+      final EthContext ethContext) {
+    this.config = config;
+    this.protocolSchedule = protocolSchedule;
+    this.protocolContext = protocolContext;
+    this.ethContext = ethContext;
+  }
+
+  /**
+   * Imports the chain up to and including the pivot block.
+   *
+   * @param pivotBlockHeader The header of the pivot block.
+   * @return A future that completes once the pivot block is the local chain head.
+   */
+  public CompletableFuture<Void> downloadChain(final BlockHeader pivotBlockHeader) {
+    final Blockchain blockchain = protocolContext.getBlockchain();
+    final BlockHeader chainHead = blockchain.getChainHeadHeader();
+    if (chainHead.getNumber() >= pivotBlockHeader.getNumber()) {
+      if (!blockchain.contains(pivotBlockHeader.getHash())) {
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        result.completeExceptionally(
+            new IllegalStateException(
+                "Local chain has passed the fast sync pivot block without importing it"));
+        return result;
+      }
+      LOG.info("Finished importing chain to fast sync pivot block {}.", chainHead.getNumber());
+      return CompletableFuture.completedFuture(null);
+    }
+
+    return downloadCheckpointHeaders(chainHead, pivotBlockHeader)
+        .thenCompose(this::importChainSegment)
+        .handle((r, t) -> t)
+        .thenCompose(
+            error -> {
+              if (error == null) {
+                return downloadChain(pivotBlockHeader);
+              }
+              if (ExceptionUtils.rootCause(error) instanceof CancellationException) {
+                final CompletableFuture<Void> result = new CompletableFuture<>();
+                result.completeExceptionally(error);
+                return result;
+              }
+              LOG.debug("Failed to import chain segment, retrying.", error);
+              return ethContext
+                  .getScheduler()
+                  .scheduleFutureTask(() -> downloadChain(pivotBlockHeader), RETRY_DELAY);
+            });
+  }
+
+  private CompletableFuture<List<BlockHeader>> downloadCheckpointHeaders(
+      final BlockHeader chainHead, final BlockHeader pivotBlockHeader) {
+    final int segmentSize = config.downloaderChainSegmentSize();
+    return GetHeadersFromPeerByHashTask.startingAtHash(
+            protocolSchedule,
+            ethContext,
+            chainHead.getHash(),
+            pivotBlockHeader.getNumber(),
+            config.downloaderHeaderRequestSize() + 1,
+            segmentSize - 1)
+        .run()
+        .thenApply(PeerTaskResult::getResult)
+        .thenApply(
+            headers -> {
+              if (headers.isEmpty() || !headers.get(0).equals(chainHead)) {
+                throw new IllegalStateException("Checkpoint headers do not start at chain head");
+              }
+              final List<BlockHeader> checkpoints =
+                  headers
+                      .stream()
+                      .filter(header -> header.getNumber() < pivotBlockHeader.getNumber())
+                      .collect(Collectors.toList());
+              final BlockHeader lastCheckpoint = checkpoints.get(checkpoints.size() - 1);
+              if (pivotBlockHeader.getNumber() - lastCheckpoint.getNumber() <= segmentSize) {
+                // The pivot block is the last checkpoint, so that the import stops exactly there
+                checkpoints.add(pivotBlockHeader);
+              } else if (checkpoints.size() < 2) {
+                throw new IllegalStateException("Not enough checkpoint headers received");
+              }
+              return checkpoints;
+            });
+  }
+
+  private CompletableFuture<List<BlockWithReceipts>> importChainSegment(
+      final List<BlockHeader> checkpointHeaders) {
+    LOG.info(
+        "Fast syncing blocks {} to {}.",
+        checkpointHeaders.get(0).getNumber() + 1,
+        checkpointHeaders.get(checkpointHeaders.size() - 1).getNumber());
+    return PipelinedImportChainSegmentTask.forCheckpoints(
+            protocolSchedule,
+            protocolContext,
+            ethContext,
+            config.downloaderParallelism(),
+            checkpointHeaders,
+            new FastSyncBlockHandler<>(
+                protocolSchedule,
+                protocolContext,
+                ethContext,
+                config.fastSyncFullValidationRate()))
+        .run();
+  }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
+
+import tech.pegasys.pantheon.ethereum.ProtocolContext;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.eth.manager.AbstractPeerTask.PeerTaskResult;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer;
+import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
+import tech.pegasys.pantheon.ethereum.eth.sync.state.FastSyncState;
+import tech.pegasys.pantheon.ethereum.eth.sync.tasks.GetHeadersFromPeerByNumberTask;
+import tech.pegasys.pantheon.ethereum.eth.sync.tasks.WaitForPeersTask;
+import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
+import tech.pegasys.pantheon.util.ExceptionUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Fast syncs the node: chooses a pivot block a little behind the best peer, imports the chain up
+ * to it with receipts instead of executing transactions, and downloads its world state from
+ * peers. The chain and the world state are downloaded at the same time. If peers stop serving the
+ * world state of the pivot block, a more recent pivot block is chosen.
+ *
+ * @param <C> the consensus algorithm context
+ */
+public class FastSyncDownloader<C> {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final int PREFERRED_PEER_COUNT = 5;
+  private static final Duration WAIT_FOR_PEERS_TIMEOUT = Duration.ofSeconds(30);
+  private static final Duration RETRY_DELAY = Duration.ofSeconds(2);
+
+  private final SynchronizerConfiguration config;
+  private final ProtocolSchedule<C> protocolSchedule;
+  private final ProtocolContext<C> protocolContext;
+  private final EthContext ethContext;
+  private final WorldStateDownloader worldStateDownloader;
+  private final FastSyncChainDownloader<C> chainDownloader;
+  private final FastSyncStateStorage fastSyncStateStorage;
+
+  public FastSyncDownloader(
+      final SynchronizerConfiguration config,
+      final ProtocolSchedule<C> protocolSchedule,
+      final ProtocolContext<C> protocolContext,
+      final EthContext ethContext,
+      final WorldStateDownloader worldStateDownloader,
+      final FastSyncStateStorage fastSyncStateStorage) {
+    this.config = config;
+    this.protocolSchedule = protocolSchedule;
+    this.protocolContext = protocolContext;
+    this.ethContext = ethContext;
+    this.worldStateDownloader = worldStateDownloader;
+    this.chainDownloader =
+        new FastSyncChainDownloader<>(config, protocolSchedule, protocolContext, ethContext);
+    this.fastSyncStateStorage = fastSyncStateStorage;
+  }
+
+  /**
+   * Runs the fast sync, carrying on with the pivot block of an earlier run that did not finish.
+   *
+   * @return A future that completes with the pivot block header once its world state is stored
+   *     and it is the local chain head.
+   */
+  public CompletableFuture<BlockHeader> start() {
+    return choosePivotBlock()
+        .thenCompose(this::downloadChainAndWorldState)
+        .thenApply(
+            pivotBlockHeader -> {
+              fastSyncStateStorage.markFastSyncComplete();
+              LOG.info("Fast sync completed at block {}.", pivotBlockHeader.getNumber());
+              return pivotBlockHeader;
+            });
+  }
+
+  private CompletableFuture<BlockHeader> downloadChainAndWorldState(
+      final BlockHeader pivotBlockHeader) {
+    return chainDownloader
+        .downloadChain(pivotBlockHeader)
+        .thenCombine(worldStateDownloader.run(pivotBlockHeader), (r1, r2) -> pivotBlockHeader)
+        .handle((r, t) -> t)
+        .thenCompose(
+            error -> {
+              if (error == null) {
+                return CompletableFuture.completedFuture(pivotBlockHeader);
+              }
+              if (!(ExceptionUtils.rootCause(error) instanceof StalledDownloadException)) {
+                final CompletableFuture<BlockHeader> result = new CompletableFuture<>();
+                result.completeExceptionally(error);
+                return result;
+              }
+              // Peers only keep the state of recent blocks, so move on to a more recent pivot
+              LOG.warn(
+                  "World state for pivot block {} is no longer available from peers, "
+                      + "choosing a new pivot block.",
+                  pivotBlockHeader.getNumber());
+              // Cleared before the new pivot is stored, so a restart never mixes the two states.
+              // Only complete subtries are in the world state, so those are not downloaded again.
+              worldStateDownloader.clearPendingRequests();
+              return selectNewPivotBlock().thenCompose(this::downloadChainAndWorldState);
+            });
+  }
+
+  private CompletableFuture<BlockHeader> choosePivotBlock() {
+    final Optional<BlockHeader> storedPivotBlockHeader =
+        fastSyncStateStorage.loadPivotBlockHeader();
+    if (storedPivotBlockHeader.isPresent()) {
+      LOG.info(
+          "Resuming fast sync to pivot block {}.", storedPivotBlockHeader.get().getNumber());
+      return CompletableFuture.completedFuture(storedPivotBlockHeader.get());
+    }
+    return selectNewPivotBlock();
+  }
+
+  private CompletableFuture<BlockHeader> selectNewPivotBlock() {
+    return waitForPeers()
+        .thenCompose(r -> retryOnFailure(this::downloadPivotBlockHeader))
+        .thenApply(
+            pivotBlockHeader -> {
+              fastSyncStateStorage.storePivotBlockHeader(pivotBlockHeader);
+              LOG.info(
+                  "Fast syncing to pivot block {} ({}).",
+                  pivotBlockHeader.getNumber(),
+                  pivotBlockHeader.getHash());
+              return pivotBlockHeader;
+            });
+  }
+
+  private CompletableFuture<Void> waitForPeers() {
+    // Give a few peers the chance to connect, so the pivot block is not chosen from the first one
+    return ethContext
+        .getScheduler()
+        .timeout(WaitForPeersTask.create(ethContext, PREFERRED_PEER_COUNT), WAIT_FOR_PEERS_TIMEOUT)
+        .handle((r, t) -> r)
+        .thenCompose(r -> WaitForPeersTask.create(ethContext, 1).run());
+  }
+
+  private CompletableFuture<BlockHeader> downloadPivotBlockHeader() {
+    final Optional<EthPeer> maybeBestPeer = ethContext.getEthPeers().bestPeer();
+    final long bestPeerHeight =
+        maybeBestPeer.map(peer -> peer.chainState().getEstimatedHeight()).orElse(0L);
+    final FastSyncState fastSyncState = new FastSyncState(config);
+    fastSyncState.setFastSyncChainTarget(bestPeerHeight);
+    final long pivotBlockNumber = fastSyncState.pivot();
+    if (pivotBlockNumber <= protocolContext.getBlockchain().getChainHeadBlockNumber()) {
+      final CompletableFuture<BlockHeader> result = new CompletableFuture<>();
+      result.completeExceptionally(
+          new IllegalStateException("No peer is far enough ahead to fast sync from"));
+      return result;
+    }
+    return GetHeadersFromPeerByNumberTask.forSingleNumber(
+            protocolSchedule, ethContext, pivotBlockNumber)
+        .run()
+        .thenApply(PeerTaskResult::getResult)
+        .thenApply(
+            headers -> {
+              if (headers.size() != 1 || headers.get(0).getNumber() != pivotBlockNumber) {
+                throw new IllegalStateException("Peer did not return the pivot block header");
+              }
+              return headers.get(0);
+            });
+  }
+
+  private <T> CompletableFuture<T> retryOnFailure(final Supplier<CompletableFuture<T>> task) {
+    final CompletableFuture<T> attempt = task.get();
+    return attempt
+        .handle((r, t) -> t)
+        .thenCompose(
+            error -> {
+              if (error == null
+                  || ExceptionUtils.rootCause(error) instanceof CancellationException) {
+                return attempt;
+              }
+              LOG.debug("Failed to choose fast sync pivot block, retrying: {}", error.getMessage());
+              return ethContext
+                  .getScheduler()
+                  .scheduleFutureTask(() -> retryOnFailure(task), RETRY_DELAY);
+            });
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
+
+import tech.pegasys.pantheon.ethereum.core.BlockHashFunction;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
+import tech.pegasys.pantheon.ethereum.mainnet.ScheduleBasedBlockHashFunction;
+import tech.pegasys.pantheon.ethereum.rlp.RLP;
+import tech.pegasys.pantheon.services.kvstore.KeyValueStorage;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.Optional;
+
+/**
+ * Keeps the pivot block of a fast sync in storage from the time it is chosen until the sync has
+ * finished, so that a restarted node carries on with the same world state.
+ */
+public class FastSyncStateStorage {
+
+  // Distinct from the keys of the NodeDataRequestQueue that shares the storage
+  private static final BytesValue PIVOT_BLOCK_HEADER_KEY = BytesValue.of(0);
+
+  private final KeyValueStorage storage;
+  private final BlockHashFunction blockHashFunction;
+
+  public FastSyncStateStorage(
+      final KeyValueStorage storage, final ProtocolSchedule<?> protocolSchedule) {
+    this.storage = storage;
+    this.blockHashFunction = ScheduleBasedBlockHashFunction.create(protocolSchedule);
+  }
+
+  public boolean isFastSyncInProgress() {
+    return storage.get(PIVOT_BLOCK_HEADER_KEY).isPresent();
+  }
+
+  public Optional<BlockHeader> loadPivotBlockHeader() {
+    return storage
+        .get(PIVOT_BLOCK_HEADER_KEY)
+        .map(rlp -> BlockHeader.readFrom(RLP.input(rlp), blockHashFunction));
+  }
+
+  public void storePivotBlockHeader(final BlockHeader pivotBlockHeader) {
+    storage.put(PIVOT_BLOCK_HEADER_KEY, RLP.encode(pivotBlockHeader::writeTo));
+  }
+
+  public void markFastSyncComplete() {
+    storage.remove(PIVOT_BLOCK_HEADER_KEY);
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.rlp.RLP;
+import tech.pegasys.pantheon.ethereum.rlp.RLPInput;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A world state trie node or contract code that is still to be downloaded, identified by its hash.
+ */
+public abstract class NodeDataRequest {
+
+  enum RequestType {
+    ACCOUNT_TRIE_NODE,
+    STORAGE_TRIE_NODE,
+    CODE
+  }
+
+  private final RequestType requestType;
+  private final Hash hash;
+
+  NodeDataRequest(final RequestType requestType, final Hash hash) {
+    this.requestType = requestType;
+    this.hash = hash;
+  }
+
+  public static NodeDataRequest createAccountDataRequest(final Hash hash) {
+    return new AccountTrieNodeDataRequest(hash);
+  }
+
+  public static NodeDataRequest createStorageDataRequest(final Hash hash) {
+    return new StorageTrieNodeDataRequest(hash);
+  }
+
+  public static NodeDataRequest createCodeRequest(final Hash hash) {
+    return new CodeNodeDataRequest(hash);
+  }
+
+  public static NodeDataRequest deserialize(final BytesValue encoded) {
+    final RLPInput in = RLP.input(encoded);
+    in.enterList();
+    final RequestType requestType = RequestType.values()[in.readIntScalar()];
+    final Hash hash = Hash.wrap(in.readBytes32());
+    in.leaveList();
+    switch (requestType) {
+      case ACCOUNT_TRIE_NODE:
+        return createAccountDataRequest(hash);
+      case STORAGE_TRIE_NODE:
+        return createStorageDataRequest(hash);
+      case CODE:
+        return createCodeRequest(hash);
+      default:
+        throw new IllegalArgumentException("Unknown node data request type " + requestType);
+    }
+  }
+
+  public BytesValue serialize() {
+    return RLP.encode(
+        out -> {
+          out.startList();
+          out.writeIntScalar(requestType.ordinal());
+          out.writeBytesValue(hash);
+          out.endList();
+        });
+  }
+
+  public Hash getHash() {
+    return hash;
+  }
+
+  /**
+   * Reads the data for this request from local storage, if it is already there.
+   *
+   * @param worldStateStorage The storage to read from.
+   * @return The data, or empty if it has not been stored yet.
+   */
+  public abstract Optional<BytesValue> getExistingData(WorldStateStorage worldStateStorage);
+
+  /**
+   * Stages the downloaded data of this request for writing.
+   *
+   * @param updater The updater to write the data with.
+   * @param data The data, which must hash to the hash of this request.
+   */
+  public abstract void persist(WorldStateStorage.Updater updater, BytesValue data);
+
+  /**
+   * Decodes the downloaded data of this request to find the data it refers to.
+   *
+   * @param data The data, which must hash to the hash of this request.
+   * @return The requests for the trie nodes and code that the data refers to.
+   */
+  public abstract List<NodeDataRequest> getChildRequests(BytesValue data);
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (!(obj instanceof NodeDataRequest)) {
+      return false;
+    }
+    final NodeDataRequest other = (NodeDataRequest) obj;
+    return requestType == other.requestType && hash.equals(other.hash);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * requestType.hashCode() + hash.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return requestType + " " + hash;
+  }
+}
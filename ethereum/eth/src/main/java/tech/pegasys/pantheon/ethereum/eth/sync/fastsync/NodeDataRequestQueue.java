@@ -0,0 +1,184 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
+
+import tech.pegasys.pantheon.services.kvstore.KeyValueStorage;
+import tech.pegasys.pantheon.services.kvstore.KeyValueStorage.Entry;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.bytes.BytesValues;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * The world state data that is still to be downloaded.
+ *
+ * <p>Requests are kept in storage until their data has been downloaded, so a download that is
+ * stopped part way through carries on from where it stopped. Downloaded data whose children are
+ * not all in the world state yet is kept here too, rather than in the world state, so that the
+ * world state only ever holds complete subtries. Requests are handed out most recent first, which
+ * walks the tries depth first and keeps the number of pending requests small.
+ */
+public class NodeDataRequestQueue {
+
+  static final BytesValue KEY_PREFIX = BytesValue.of(1);
+  static final BytesValue AWAITING_CHILDREN_KEY_PREFIX = BytesValue.of(2);
+
+  private final KeyValueStorage storage;
+  private final Deque<NodeDataRequest> requests = new ArrayDeque<>();
+  private final Map<NodeDataRequest, BytesValue> awaitingChildren = new LinkedHashMap<>();
+
+  public NodeDataRequestQueue(final KeyValueStorage storage) {
+    this.storage = storage;
+    load();
+  }
+
+  private void load() {
+    requests.clear();
+    awaitingChildren.clear();
+    try (final Stream<Entry> entries = storage.entries()) {
+      final Iterator<Entry> iterator = entries.iterator();
+      while (iterator.hasNext()) {
+        final Entry entry = iterator.next();
+        final BytesValue key = entry.getKey();
+        if (key.size() == 0) {
+          continue;
+        }
+        if (key.get(0) == KEY_PREFIX.get(0)) {
+          requests.addLast(NodeDataRequest.deserialize(key.slice(1)));
+        } else if (key.get(0) == AWAITING_CHILDREN_KEY_PREFIX.get(0)) {
+          awaitingChildren.put(NodeDataRequest.deserialize(key.slice(1)), entry.getValue());
+        }
+      }
+    }
+  }
+
+  /**
+   * Reloads the requests from storage, which gives back the requests handed out to a download that
+   * stopped before completing them.
+   */
+  public synchronized void reload() {
+    load();
+  }
+
+  /** Removes every request, when the world state of another block is to be downloaded instead. */
+  public synchronized void clear() {
+    // Requests handed out to a stopped download are only in storage
+    load();
+    final KeyValueStorage.Transaction transaction = storage.getStartBatch();
+    requests.forEach(request -> transaction.remove(key(request)));
+    awaitingChildren.keySet().forEach(request -> transaction.remove(awaitingKey(request)));
+    transaction.commit();
+    requests.clear();
+    awaitingChildren.clear();
+  }
+
+  public synchronized boolean isEmpty() {
+    return requests.isEmpty() && awaitingChildren.isEmpty();
+  }
+
+  public synchronized int size() {
+    return requests.size();
+  }
+
+  /**
+   * Returns the downloaded data that is waiting for its children to be downloaded.
+   *
+   * @return The data by the request it was downloaded for.
+   */
+  public synchronized Map<NodeDataRequest, BytesValue> getAwaitingChildren() {
+    return Collections.unmodifiableMap(new LinkedHashMap<>(awaitingChildren));
+  }
+
+  /**
+   * Adds a request that is not in the queue yet.
+   *
+   * @param request The request to add.
+   */
+  public synchronized void add(final NodeDataRequest request) {
+    if (!storage.get(key(request)).isPresent()) {
+      storage.put(key(request), BytesValue.EMPTY);
+      requests.addLast(request);
+    }
+  }
+
+  /**
+   * Takes the next request to download. The request stays in storage until it is completed, and
+   * must be given back with {@link #retry} if its download fails.
+   *
+   * @return The next request, or empty if there are none left to hand out.
+   */
+  public synchronized Optional<NodeDataRequest> poll() {
+    return Optional.ofNullable(requests.pollLast());
+  }
+
+  public synchronized void retry(final NodeDataRequest request) {
+    requests.addLast(request);
+  }
+
+  /**
+   * Keeps the downloaded data of a request until its children are in the world state, and adds the
+   * requests for those children, in one write.
+   *
+   * @param request The downloaded request.
+   * @param data The downloaded data.
+   * @param childRequests The requests for children that are not in the queue yet.
+   */
+  public synchronized void awaitChildren(
+      final NodeDataRequest request,
+      final BytesValue data,
+      final List<NodeDataRequest> childRequests) {
+    final KeyValueStorage.Transaction transaction = storage.getStartBatch();
+    for (final NodeDataRequest childRequest : childRequests) {
+      transaction.put(key(childRequest), BytesValue.EMPTY);
+      requests.addLast(childRequest);
+    }
+    transaction.put(awaitingKey(request), data);
+    transaction.remove(key(request));
+    transaction.commit();
+    awaitingChildren.put(request, data);
+  }
+
+  /**
+   * Removes requests whose data has been written to the world state, along with the data that was
+   * kept for them.
+   *
+   * @param completedRequests The completed requests.
+   */
+  public synchronized void complete(final Collection<NodeDataRequest> completedRequests) {
+    final KeyValueStorage.Transaction transaction = storage.getStartBatch();
+    for (final NodeDataRequest request : completedRequests) {
+      transaction.remove(key(request));
+      if (awaitingChildren.remove(request) != null) {
+        transaction.remove(awaitingKey(request));
+      }
+    }
+    transaction.commit();
+  }
+
+  private static BytesValue key(final NodeDataRequest request) {
+    return BytesValues.concatenate(KEY_PREFIX, request.serialize());
+  }
+
+  private static BytesValue awaitingKey(final NodeDataRequest request) {
+    return BytesValues.concatenate(AWAITING_CHILDREN_KEY_PREFIX, request.serialize());
+  }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.eth.manager.AbstractPeerTask.PeerTaskResult;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.manager.exceptions.NoAvailablePeersException;
+import tech.pegasys.pantheon.ethereum.eth.sync.tasks.GetNodeDataFromPeerTask;
+import tech.pegasys.pantheon.ethereum.eth.sync.tasks.WaitForPeerTask;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
+import tech.pegasys.pantheon.util.ExceptionUtils;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Downloads the world state of a block by requesting its trie nodes and contract code by hash,
+ * starting from the state root. Several requests are sent to different peers at once.
+ *
+ * <p>A node is only written to the world state storage once all of its children are stored, as in
+ * the trie sync of other clients. Until then it is kept with the pending requests, along with the
+ * number of children it is still missing. A node found in the world state storage therefore always
+ * has its whole subtrie stored, which lets a download for another block skip it.
+ */
+public class WorldStateDownloader {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final Duration RETRY_DELAY = Duration.ofSeconds(1);
+  private static final Duration WAIT_FOR_PEER_TIMEOUT = Duration.ofSeconds(5);
+  public static final int DEFAULT_MAX_CONSECUTIVE_EMPTY_RESPONSES = 50;
+
+  private final EthContext ethContext;
+  private final WorldStateStorage worldStateStorage;
+  private final NodeDataRequestQueue pendingRequests;
+  private final int hashCountPerRequest;
+  private final int maxOutstandingRequests;
+  private final int maxConsecutiveEmptyResponses;
+
+  // Guarded by this
+  private final Map<NodeDataRequest, PendingNode> pendingNodes = new HashMap<>();
+  private int outstandingRequests = 0;
+  private int consecutiveEmptyResponses = 0;
+  private BlockHeader header;
+  private CompletableFuture<Void> future;
+
+  public WorldStateDownloader(
+      final EthContext ethContext,
+      final WorldStateStorage worldStateStorage,
+      final NodeDataRequestQueue pendingRequests,
+      final int hashCountPerRequest,
+      final int maxOutstandingRequests) {
+    this(
+        ethContext,
+        worldStateStorage,
+        pendingRequests,
+        hashCountPerRequest,
+        maxOutstandingRequests,
+        DEFAULT_MAX_CONSECUTIVE_EMPTY_RESPONSES);
+  }
+
+  /**
+   * @param ethContext The eth protocol context.
+   * @param worldStateStorage The storage that downloaded world state is written to.
+   * @param pendingRequests The requests still to be downloaded.
+   * @param hashCountPerRequest The number of hashes requested from a peer at once.
+   * @param maxOutstandingRequests The number of requests sent to peers at once.
+   * @param maxConsecutiveEmptyResponses The number of responses in a row without any data after
+   *     which the download is considered stalled, as peers have likely pruned the world state.
+   */
+  public WorldStateDownloader(
+      final EthContext ethContext,
+      final WorldStateStorage worldStateStorage,
+      final NodeDataRequestQueue pendingRequests,
+      final int hashCountPerRequest,
+      final int maxOutstandingRequests,
+      final int maxConsecutiveEmptyResponses) {
+    this.ethContext = ethContext;
+    this.worldStateStorage = worldStateStorage;
+    this.pendingRequests = pendingRequests;
+    this.hashCountPerRequest = hashCountPerRequest;
+    this.maxOutstandingRequests = maxOutstandingRequests;
+    this.maxConsecutiveEmptyResponses = maxConsecutiveEmptyResponses;
+  }
+
+  /**
+   * Downloads the world state of a block. Requests left over from an earlier run that was stopped
+   * are carried on with.
+   *
+   * <p>The returned future fails with a {@link StalledDownloadException} if peers keep responding
+   * without any of the requested data.
+   *
+   * @param header The header of the block.
+   * @return A future that completes once the whole world state is in storage.
+   */
+  public synchronized CompletableFuture<Void> run(final BlockHeader header) {
+    checkState(
+        future == null || future.isDone(), "World state download has already been started");
+    this.header = header;
+    this.future = new CompletableFuture<>();
+    this.outstandingRequests = 0;
+    this.consecutiveEmptyResponses = 0;
+    // Requests handed out to an earlier run are still in storage, along with the nodes it kept
+    pendingRequests.reload();
+    restorePendingNodes();
+    final Hash stateRoot = header.getStateRoot();
+    if (pendingRequests.isEmpty()) {
+      if (stateRoot.equals(Hash.EMPTY_TRIE_HASH)
+          || worldStateStorage.getAccountStateTrieNode(stateRoot).isPresent()) {
+        LOG.info("World state for block {} is already present.", header.getNumber());
+        future.complete(null);
+        return future;
+      }
+      final NodeDataRequest rootRequest = NodeDataRequest.createAccountDataRequest(stateRoot);
+      pendingNodes.put(rootRequest, new PendingNode(rootRequest));
+      pendingRequests.add(rootRequest);
+    }
+    LOG.info(
+        "Downloading world state for block {} ({}), {} requests pending.",
+        header.getNumber(),
+        header.getHash(),
+        pendingRequests.size());
+    requestNodeData();
+    return future;
+  }
+
+  /**
+   * Discards the requests still to be downloaded, and the nodes still missing children, so that the
+   * world state of another block can be downloaded instead. Subtries already in the world state
+   * storage are complete and are not downloaded again.
+   */
+  public synchronized void clearPendingRequests() {
+    checkState(
+        future == null || future.isDone(), "Cannot clear requests of a running download");
+    pendingNodes.clear();
+    pendingRequests.clear();
+  }
+
+  private void restorePendingNodes() {
+    pendingNodes.clear();
+    final List<NodeDataRequest> completed = new ArrayList<>();
+    final List<PendingNode> awaitingChildren = new ArrayList<>();
+    for (final Map.Entry<NodeDataRequest, BytesValue> entry :
+        pendingRequests.getAwaitingChildren().entrySet()) {
+      final NodeDataRequest request = entry.getKey();
+      if (request.getExistingData(worldStateStorage).isPresent()) {
+        // Written by an earlier run that stopped before it removed the node from the requests
+        completed.add(request);
+      } else {
+        final PendingNode node = new PendingNode(request);
+        node.data = entry.getValue();
+        pendingNodes.put(request, node);
+        awaitingChildren.add(node);
+      }
+    }
+    for (final PendingNode node : awaitingChildren) {
+      addMissingChildren(node).forEach(pendingRequests::add);
+    }
+    final WorldStateStorage.Updater updater = worldStateStorage.updater();
+    for (final PendingNode node : awaitingChildren) {
+      if (node.missingChildren == 0 && pendingNodes.containsKey(node.request)) {
+        commit(node, updater, completed);
+      }
+    }
+    updater.commit();
+    pendingRequests.complete(completed);
+  }
+
+  private synchronized void requestNodeData() {
+    while (!future.isDone() && outstandingRequests < maxOutstandingRequests) {
+      final List<NodeDataRequest> batch = nextBatch();
+      if (batch.isEmpty()) {
+        break;
+      }
+      outstandingRequests++;
+      final CompletableFuture<Void> runFuture = future;
+      final List<Hash> hashes =
+          batch.stream().map(NodeDataRequest::getHash).collect(Collectors.toList());
+      GetNodeDataFromPeerTask.forHashes(ethContext, hashes, header.getNumber())
+          .run()
+          .whenComplete(
+              (result, error) ->
+                  ethContext
+                      .getScheduler()
+                      .scheduleWorkerTask(() -> handleResponse(runFuture, batch, result, error)));
+    }
+    if (!future.isDone() && outstandingRequests == 0 && pendingRequests.isEmpty()) {
+      LOG.info("Finished downloading world state for block {}.", header.getNumber());
+      future.complete(null);
+    }
+  }
+
+  private List<NodeDataRequest> nextBatch() {
+    final List<NodeDataRequest> batch = new ArrayList<>(hashCountPerRequest);
+    final WorldStateStorage.Updater updater = worldStateStorage.updater();
+    final List<NodeDataRequest> completed = new ArrayList<>();
+    while (batch.size() < hashCountPerRequest) {
+      final Optional<NodeDataRequest> maybeRequest = pendingRequests.poll();
+      if (!maybeRequest.isPresent()) {
+        break;
+      }
+      final NodeDataRequest request = maybeRequest.get();
+      // Requests restored from storage only have a node once a restored parent refers to them
+      final PendingNode node = pendingNodes.computeIfAbsent(request, PendingNode::new);
+      // Data is already stored when an earlier run stopped before it removed the request
+      if (request.getExistingData(worldStateStorage).isPresent()) {
+        commit(node, updater, completed);
+      } else {
+        batch.add(request);
+      }
+    }
+    if (!completed.isEmpty()) {
+      updater.commit();
+      pendingRequests.complete(completed);
+    }
+    return batch;
+  }
+
+  private void handleResponse(
+      final CompletableFuture<Void> runFuture,
+      final List<NodeDataRequest> batch,
+      final PeerTaskResult<Map<Hash, BytesValue>> result,
+      final Throwable error) {
+    final Map<Hash, BytesValue> nodeData =
+        error == null ? result.getResult() : Collections.emptyMap();
+    final boolean noPeers =
+        error != null && ExceptionUtils.rootCause(error) instanceof NoAvailablePeersException;
+    final boolean received;
+    synchronized (this) {
+      if (runFuture != future || future.isDone()) {
+        // The run has stopped, its requests stay in storage for the next one
+        return;
+      }
+      outstandingRequests--;
+      final WorldStateStorage.Updater updater = worldStateStorage.updater();
+      final List<NodeDataRequest> completed = new ArrayList<>();
+      int receivedCount = 0;
+      for (final NodeDataRequest request : batch) {
+        final BytesValue data = nodeData.get(request.getHash());
+        if (data == null) {
+          pendingRequests.retry(request);
+          continue;
+        }
+        receivedCount++;
+        final PendingNode node = pendingNodes.get(request);
+        node.data = data;
+        final List<NodeDataRequest> childRequests = addMissingChildren(node);
+        if (node.missingChildren == 0) {
+          commit(node, updater, completed);
+        } else {
+          pendingRequests.awaitChildren(request, data, childRequests);
+        }
+      }
+      // Nodes have to be stored before their requests are removed, or a restart would lose them
+      updater.commit();
+      pendingRequests.complete(completed);
+      received = receivedCount > 0;
+      if (received) {
+        consecutiveEmptyResponses = 0;
+      } else if (!noPeers && ++consecutiveEmptyResponses >= maxConsecutiveEmptyResponses) {
+        future.completeExceptionally(
+            new StalledDownloadException(
+                "Peers did not return world state for block "
+                    + header.getNumber()
+                    + " in "
+                    + consecutiveEmptyResponses
+                    + " responses"));
+        return;
+      }
+    }
+
+    if (received) {
+      requestNodeData();
+    } else if (noPeers) {
+      LOG.debug("No peers available to download world state from, wait for peer.");
+      ethContext
+          .getScheduler()
+          .timeout(WaitForPeerTask.create(ethContext), WAIT_FOR_PEER_TIMEOUT)
+          .whenComplete((r, t) -> requestNodeData());
+    } else {
+      // Peers may no longer hold the state, back off rather than asking again straight away
+      ethContext.getScheduler().scheduleFutureTask(this::requestNodeData, RETRY_DELAY);
+    }
+  }
+
+  /*
+   * Registers the children of a downloaded node that are not stored yet, and returns the requests
+   * for the ones that are not pending already. Stored children have their whole subtrie stored.
+   */
+  private List<NodeDataRequest> addMissingChildren(final PendingNode node) {
+    final List<NodeDataRequest> newRequests = new ArrayList<>();
+    for (final NodeDataRequest childRequest : node.request.getChildRequests(node.data)) {
+      if (childRequest.getExistingData(worldStateStorage).isPresent()) {
+        continue;
+      }
+      PendingNode child = pendingNodes.get(childRequest);
+      if (child == null) {
+        child = new PendingNode(childRequest);
+        pendingNodes.put(childRequest, child);
+        newRequests.add(childRequest);
+      }
+      child.parents.add(node);
+      node.missingChildren++;
+    }
+    return newRequests;
+  }
+
+  /*
+   * Writes a node whose children are all stored, then every parent left with no missing children.
+   * A node without data was found in storage already.
+   */
+  private void commit(
+      final PendingNode node,
+      final WorldStateStorage.Updater updater,
+      final List<NodeDataRequest> completed) {
+    if (node.data != null) {
+      node.request.persist(updater, node.data);
+    }
+    pendingNodes.remove(node.request);
+    completed.add(node.request);
+    for (final PendingNode parent : node.parents) {
+      if (--parent.missingChildren == 0) {
+        commit(parent, updater, completed);
+      }
+    }
+  }
+
+  private static class PendingNode {
+    private final NodeDataRequest request;
+    private final List<PendingNode> parents = new ArrayList<>();
+    private BytesValue data;
+    private int missingChildren;
+
+    private PendingNode(final NodeDataRequest request) {
+      this.request = request;
+    }
+  }
+}
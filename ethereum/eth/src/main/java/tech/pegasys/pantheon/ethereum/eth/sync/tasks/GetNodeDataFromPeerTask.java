@@ -0,0 +1,110 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.tasks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.eth.manager.AbstractPeerRequestTask;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthPeer;
+import tech.pegasys.pantheon.ethereum.eth.manager.RequestManager.ResponseStream;
+import tech.pegasys.pantheon.ethereum.eth.messages.EthPV63;
+import tech.pegasys.pantheon.ethereum.eth.messages.NodeDataMessage;
+import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
+import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection.PeerNotConnected;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Requests world state trie nodes and contract code from a peer by hash. Only the data that hashes
+ * to one of the requested hashes is returned, keyed by its hash.
+ */
+public class GetNodeDataFromPeerTask extends AbstractPeerRequestTask<Map<Hash, BytesValue>> {
+  private static final Logger LOG = LogManager.getLogger();
+
+  private final Set<Hash> hashes;
+  private final long pivotBlockNumber;
+
+  private GetNodeDataFromPeerTask(
+      final EthContext ethContext, final Iterable<Hash> hashes, final long pivotBlockNumber) {
+    super(ethContext, EthPV63.GET_NODE_DATA);
+    this.hashes = new LinkedHashSet<>();
+    hashes.forEach(this.hashes::add);
+    checkArgument(this.hashes.size() > 0);
+    this.pivotBlockNumber = pivotBlockNumber;
+  }
+
+  /**
+   * @param ethContext The context to find peers in.
+   * @param hashes The hashes of the nodes to request.
+   * @param pivotBlockNumber The block whose state the nodes belong to. Only peers that have seen
+   *     it are asked.
+   * @return The task.
+   */
+  public static GetNodeDataFromPeerTask forHashes(
+      final EthContext ethContext, final Iterable<Hash> hashes, final long pivotBlockNumber) {
+    return new GetNodeDataFromPeerTask(ethContext, hashes, pivotBlockNumber);
+  }
+
+  @Override
+  protected ResponseStream sendRequest(final EthPeer peer) throws PeerNotConnected {
+    LOG.debug("Requesting {} node data entries from peer {}.", hashes.size(), peer);
+    return peer.getNodeData(hashes);
+  }
+
+  @Override
+  protected Optional<Map<Hash, BytesValue>> processResponse(
+      final boolean streamClosed, final MessageData message, final EthPeer peer) {
+    if (streamClosed) {
+      // All outstanding requests have been responded to and we still haven't found the response
+      // we wanted. It must have been empty or contain data that didn't match.
+      peer.recordUselessResponse();
+      return Optional.of(Collections.emptyMap());
+    }
+
+    final NodeDataMessage nodeDataMessage = NodeDataMessage.readFrom(message);
+    try {
+      final Map<Hash, BytesValue> nodeData = new HashMap<>();
+      for (final BytesValue data : nodeDataMessage.nodeData()) {
+        final Hash hash = Hash.hash(data);
+        if (!hashes.contains(hash)) {
+          // This message contains data we did not ask for - exit
+          return Optional.empty();
+        }
+        nodeData.put(hash, data);
+      }
+      if (nodeData.isEmpty()) {
+        // Message contains no data - nothing to do
+        return Optional.empty();
+      }
+      return Optional.of(nodeData);
+    } finally {
+      nodeDataMessage.release();
+    }
+  }
+
+  @Override
+  protected Optional<EthPeer> findSuitablePeer() {
+    return this.ethContext.getEthPeers().idlePeer(pivotBlockNumber);
+  }
+}
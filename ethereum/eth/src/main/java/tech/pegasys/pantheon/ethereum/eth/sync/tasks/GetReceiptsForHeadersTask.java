@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.tasks;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.TransactionReceipt;
+import tech.pegasys.pantheon.ethereum.eth.manager.AbstractPeerTask.PeerTaskResult;
+import tech.pegasys.pantheon.ethereum.eth.manager.AbstractRetryingPeerTask;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.manager.exceptions.NoAvailablePeersException;
+import tech.pegasys.pantheon.ethereum.eth.manager.exceptions.PeerBreachedProtocolException;
+import tech.pegasys.pantheon.ethereum.eth.manager.exceptions.PeerDisconnectedException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Repeatedly requests receipts from peers until the receipts for every one of the supplied headers
+ * have been received.
+ */
+public class GetReceiptsForHeadersTask
+    extends AbstractRetryingPeerTask<Map<BlockHeader, List<TransactionReceipt>>> {
+  private static final Logger LOG = LogManager.getLogger();
+  private static final int DEFAULT_RETRIES = 3;
+
+  private final EthContext ethContext;
+
+  private final List<BlockHeader> headers;
+  private final Map<BlockHeader, List<TransactionReceipt>> receipts;
+
+  private GetReceiptsForHeadersTask(
+      final EthContext ethContext, final List<BlockHeader> headers, final int maxRetries) {
+    super(ethContext, maxRetries);
+    checkArgument(headers.size() > 0, "Must supply a non-empty headers list");
+    this.ethContext = ethContext;
+
+    this.headers = headers;
+    this.receipts = new HashMap<>();
+    // Blocks without transactions have no receipts, so there is nothing to request for them
+    headers
+        .stream()
+        .filter(header -> header.getReceiptsRoot().equals(Hash.EMPTY_TRIE_HASH))
+        .forEach(header -> receipts.put(header, Collections.emptyList()));
+  }
+
+  public static GetReceiptsForHeadersTask forHeaders(
+      final EthContext ethContext, final List<BlockHeader> headers, final int maxRetries) {
+    return new GetReceiptsForHeadersTask(ethContext, headers, maxRetries);
+  }
+
+  public static GetReceiptsForHeadersTask forHeaders(
+      final EthContext ethContext, final List<BlockHeader> headers) {
+    return new GetReceiptsForHeadersTask(ethContext, headers, DEFAULT_RETRIES);
+  }
+
+  @Override
+  protected void executeTask() {
+    if (incompleteHeaders().isEmpty()) {
+      result.get().complete(receipts);
+      return;
+    }
+    super.executeTask();
+  }
+
+  @Override
+  protected CompletableFuture<?> executePeerTask() {
+    return requestReceipts().thenApply(this::processReceiptsResult);
+  }
+
+  @Override
+  protected boolean isRetryableError(final Throwable error) {
+    return error instanceof TimeoutException
+        || error instanceof PeerBreachedProtocolException
+        || error instanceof PeerDisconnectedException
+        || error instanceof NoAvailablePeersException;
+  }
+
+  private CompletableFuture<PeerTaskResult<Map<BlockHeader, List<TransactionReceipt>>>>
+      requestReceipts() {
+    final List<BlockHeader> incompleteHeaders = incompleteHeaders();
+    LOG.debug(
+        "Requesting receipts for {} blocks, starting with {}.",
+        incompleteHeaders.size(),
+        incompleteHeaders.get(0).getNumber());
+    return executeSubTask(
+        () -> GetReceiptsFromPeerTask.forHeaders(ethContext, incompleteHeaders).run());
+  }
+
+  private Void processReceiptsResult(
+      final PeerTaskResult<Map<BlockHeader, List<TransactionReceipt>>> receiptsResult) {
+    receipts.putAll(receiptsResult.getResult());
+    if (incompleteHeaders().isEmpty()) {
+      result.get().complete(receipts);
+    }
+    return null;
+  }
+
+  private List<BlockHeader> incompleteHeaders() {
+    return headers
+        .stream()
+        .filter(header -> !receipts.containsKey(header))
+        .collect(Collectors.toList());
+  }
+}
@@ -15,9 +15,10 @@ package tech.pegasys.pantheon.ethereum.eth.sync.tasks;
 import tech.pegasys.pantheon.ethereum.ProtocolContext;
 import tech.pegasys.pantheon.ethereum.core.Block;
 import tech.pegasys.pantheon.ethereum.core.BlockHeader;
-import tech.pegasys.pantheon.ethereum.core.Transaction;
 import tech.pegasys.pantheon.ethereum.eth.manager.AbstractEthTask;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
+import tech.pegasys.pantheon.ethereum.eth.sync.BlockHandler;
+import tech.pegasys.pantheon.ethereum.eth.sync.FullSyncBlockHandler;
 import tech.pegasys.pantheon.ethereum.eth.sync.tasks.exceptions.InvalidBlockException;
 import tech.pegasys.pantheon.ethereum.mainnet.BlockHeaderValidator;
 import tech.pegasys.pantheon.ethereum.mainnet.HeaderValidationMode;
@@ -32,19 +33,26 @@ import java.util.Deque;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedDeque;
-import java.util.function.Supplier;
 
 import com.google.common.collect.Lists;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-public class PipelinedImportChainSegmentTask<C> extends AbstractEthTask<List<Block>> {
+/**
+ * Imports the blocks between a sequence of checkpoint headers, downloading and importing several
+ * chunks at once.
+ *
+ * @param <C> the consensus algorithm context
+ * @param <B> the type of the blocks being imported, as produced by the {@link BlockHandler}
+ */
+public class PipelinedImportChainSegmentTask<C, B> extends AbstractEthTask<List<B>> {
   private static final Logger LOG = LogManager.getLogger();
 
   private final EthContext ethContext;
   private final ProtocolContext<C> protocolContext;
   private final ProtocolSchedule<C> protocolSchedule;
-  private final List<Block> importedBlocks = new ArrayList<>();
+  private final BlockHandler<B> blockHandler;
+  private final List<B> importedBlocks = new ArrayList<>();
 
   // First header is assumed  to already be imported
   private final List<BlockHeader> checkpointHeaders;
@@ -55,11 +63,11 @@ public class PipelinedImportChainSegmentTask<C> extends AbstractEthTask<List<Blo
 
   private final Deque<CompletableFuture<List<BlockHeader>>> downloadAndValidateHeadersTasks =
       new ConcurrentLinkedDeque<>();
-  private final Deque<CompletableFuture<List<Block>>> downloadBodiesTasks =
+  private final Deque<CompletableFuture<List<B>>> downloadBodiesTasks =
       new ConcurrentLinkedDeque<>();
-  private final Deque<CompletableFuture<List<Block>>> extractTransactionSendersTasks =
+  private final Deque<CompletableFuture<List<B>>> extractTransactionSendersTasks =
       new ConcurrentLinkedDeque<>();
-  private final Deque<CompletableFuture<List<Block>>> validateAndImportBlocksTasks =
+  private final Deque<CompletableFuture<List<B>>> validateAndImportBlocksTasks =
       new ConcurrentLinkedDeque<>();
 
   protected PipelinedImportChainSegmentTask(
@@ -67,10 +75,12 @@ public class PipelinedImportChainSegmentTask<C> extends AbstractEthTask<List<Blo
       final ProtocolContext<C> protocolContext,
       final EthContext ethContext,
       final int maxActiveChunks,
-      final List<BlockHeader> checkpointHeaders) {
+      final List<BlockHeader> checkpointHeaders,
+      final BlockHandler<B> blockHandler) {
     this.protocolSchedule = protocolSchedule;
     this.protocolContext = protocolContext;
     this.ethContext = ethContext;
+    this.blockHandler = blockHandler;
     this.checkpointHeaders = checkpointHeaders;
     this.chunksInTotal = checkpointHeaders.size() - 1;
     this.chunksIssued = 0;
@@ -78,7 +88,7 @@ public class PipelinedImportChainSegmentTask<C> extends AbstractEthTask<List<Blo
     this.maxActiveChunks = maxActiveChunks;
   }
 
-  public static <C> PipelinedImportChainSegmentTask<C> forCheckpoints(
+  public static <C> PipelinedImportChainSegmentTask<C, Block> forCheckpoints(
       final ProtocolSchedule<C> protocolSchedule,
       final ProtocolContext<C> protocolContext,
       final EthContext ethContext,
@@ -92,14 +102,35 @@ public class PipelinedImportChainSegmentTask<C> extends AbstractEthTask<List<Blo
         Arrays.asList(checkpointHeaders));
   }
 
-  public static <C> PipelinedImportChainSegmentTask<C> forCheckpoints(
+  public static <C> PipelinedImportChainSegmentTask<C, Block> forCheckpoints(
       final ProtocolSchedule<C> protocolSchedule,
       final ProtocolContext<C> protocolContext,
       final EthContext ethContext,
       final int maxActiveChunks,
       final List<BlockHeader> checkpointHeaders) {
+    return forCheckpoints(
+        protocolSchedule,
+        protocolContext,
+        ethContext,
+        maxActiveChunks,
+        checkpointHeaders,
+        new FullSyncBlockHandler<>(protocolSchedule, protocolContext, ethContext));
+  }
+
+  public static <C, B> PipelinedImportChainSegmentTask<C, B> forCheckpoints(
+      final ProtocolSchedule<C> protocolSchedule,
+      final ProtocolContext<C> protocolContext,
+      final EthContext ethContext,
+      final int maxActiveChunks,
+      final List<BlockHeader> checkpointHeaders,
+      final BlockHandler<B> blockHandler) {
     return new PipelinedImportChainSegmentTask<>(
-        protocolSchedule, protocolContext, ethContext, maxActiveChunks, checkpointHeaders);
+        protocolSchedule,
+        protocolContext,
+        ethContext,
+        maxActiveChunks,
+        checkpointHeaders,
+        blockHandler);
   }
 
   @Override
@@ -121,15 +152,15 @@ public class PipelinedImportChainSegmentTask<C> extends AbstractEthTask<List<Blo
         lastDownloadAndValidateHeadersTask()
             .thenCompose((ignore) -> downloadNextHeaders(firstChunkHeader, lastChunkHeader))
             .thenCompose(this::validateHeaders);
-    final CompletableFuture<List<Block>> downloadBodiesTask =
+    final CompletableFuture<List<B>> downloadBodiesTask =
         downloadAndValidateHeadersTask
             .thenCombine(lastDownloadBodiesTask(), (headers, ignored) -> headers)
             .thenCompose(this::downloadBlocks);
-    final CompletableFuture<List<Block>> extractTransactionSendersTask =
+    final CompletableFuture<List<B>> extractTransactionSendersTask =
         downloadBodiesTask
             .thenCombine(lastExtractTransactionSendersTasks(), (blocks, ignored) -> blocks)
             .thenCompose(this::extractTransactionSenders);
-    final CompletableFuture<List<Block>> validateAndImportBlocksTask =
+    final CompletableFuture<List<B>> validateAndImportBlocksTask =
         extractTransactionSendersTask
             .thenCombine(lastValidateAndImportBlocksTasks(), (blocks, ignored) -> blocks)
             .thenCompose(this::validateAndImportBlocks);
@@ -143,7 +174,7 @@ public class PipelinedImportChainSegmentTask<C> extends AbstractEthTask<List<Blo
   }
 
   public void completeChunkPipelineAndMaybeLaunchNextOne(
-      final List<Block> blocks, final Throwable throwable) {
+      final List<B> blocks, final Throwable throwable) {
     if (throwable != null) {
       LOG.warn(
           "Import of chain segment ({} to {}) failed: {}.",
@@ -153,13 +184,11 @@ public class PipelinedImportChainSegmentTask<C> extends AbstractEthTask<List<Blo
       result.get().completeExceptionally(throwable);
     } else {
       importedBlocks.addAll(blocks);
-      final BlockHeader firstHeader = blocks.get(0).getHeader();
-      final BlockHeader lastHeader = blocks.get(blocks.size() - 1).getHeader();
       chunksCompleted++;
       LOG.debug(
           "Import chain segment from {} to {} succeeded (chunk {}/{}).",
-          firstHeader.getNumber(),
-          lastHeader.getNumber(),
+          firstBlockNumber(blocks),
+          lastBlockNumber(blocks),
           chunksCompleted,
           chunksInTotal);
       if (chunksCompleted == chunksInTotal) {
@@ -233,45 +262,33 @@ public class PipelinedImportChainSegmentTask<C> extends AbstractEthTask<List<Blo
         });
   }
 
-  private CompletableFuture<List<Block>> downloadBlocks(final List<BlockHeader> headers) {
+  private CompletableFuture<List<B>> downloadBlocks(final List<BlockHeader> headers) {
     LOG.debug(
         "Downloading bodies {} to {}",
         headers.get(0).getNumber(),
         headers.get(headers.size() - 1).getNumber());
-    final CompleteBlocksTask<C> task =
-        CompleteBlocksTask.forHeaders(protocolSchedule, ethContext, headers);
-    return executeSubTask(task::run);
+    return executeSubTask(() -> blockHandler.downloadBlocks(headers));
   }
 
-  private CompletableFuture<List<Block>> validateAndImportBlocks(final List<Block> blocks) {
+  private CompletableFuture<List<B>> validateAndImportBlocks(final List<B> blocks) {
     LOG.debug(
-        "Validating and importing {} to {}",
-        blocks.get(0).getHeader().getNumber(),
-        blocks.get(blocks.size() - 1).getHeader().getNumber());
-    final Supplier<CompletableFuture<List<Block>>> task =
-        PersistBlockTask.forSequentialBlocks(
-            protocolSchedule, protocolContext, blocks, HeaderValidationMode.SKIP_DETACHED);
-    return executeWorkerSubTask(ethContext.getScheduler(), task);
+        "Validating and importing {} to {}", firstBlockNumber(blocks), lastBlockNumber(blocks));
+    return executeWorkerSubTask(
+        ethContext.getScheduler(), () -> blockHandler.validateAndImportBlocks(blocks));
   }
 
-  private CompletableFuture<List<Block>> extractTransactionSenders(final List<Block> blocks) {
-    LOG.debug(
-        "Extracting sender {} to {}",
-        blocks.get(0).getHeader().getNumber(),
-        blocks.get(blocks.size() - 1).getHeader().getNumber());
+  private CompletableFuture<List<B>> extractTransactionSenders(final List<B> blocks) {
+    LOG.debug("Preparing blocks {} to {}", firstBlockNumber(blocks), lastBlockNumber(blocks));
     return executeWorkerSubTask(
-        ethContext.getScheduler(),
-        () -> {
-          final CompletableFuture<List<Block>> result = new CompletableFuture<>();
-          for (final Block block : blocks) {
-            for (final Transaction transaction : block.getBody().getTransactions()) {
-              // This method internally performs the transaction sender extraction.
-              transaction.getSender();
-            }
-          }
-          result.complete(blocks);
-          return result;
-        });
+        ethContext.getScheduler(), () -> blockHandler.prepareBlocks(blocks));
+  }
+
+  private long firstBlockNumber(final List<B> blocks) {
+    return blockHandler.extractBlockNumber(blocks.get(0));
+  }
+
+  private long lastBlockNumber(final List<B> blocks) {
+    return blockHandler.extractBlockNumber(blocks.get(blocks.size() - 1));
   }
 
   private BlockHeader firstHeader() {
@@ -290,7 +307,7 @@ public class PipelinedImportChainSegmentTask<C> extends AbstractEthTask<List<Blo
     }
   }
 
-  private CompletableFuture<List<Block>> lastDownloadBodiesTask() {
+  private CompletableFuture<List<B>> lastDownloadBodiesTask() {
     if (downloadBodiesTasks.isEmpty()) {
       return CompletableFuture.completedFuture(Lists.newArrayList());
     } else {
@@ -298,7 +315,7 @@ public class PipelinedImportChainSegmentTask<C> extends AbstractEthTask<List<Blo
     }
   }
 
-  private CompletableFuture<List<Block>> lastValidateAndImportBlocksTasks() {
+  private CompletableFuture<List<B>> lastValidateAndImportBlocksTasks() {
     if (validateAndImportBlocksTasks.isEmpty()) {
       return CompletableFuture.completedFuture(Lists.newArrayList());
     } else {
@@ -306,7 +323,7 @@ public class PipelinedImportChainSegmentTask<C> extends AbstractEthTask<List<Blo
     }
   }
 
-  private CompletableFuture<List<Block>> lastExtractTransactionSendersTasks() {
+  private CompletableFuture<List<B>> lastExtractTransactionSendersTasks() {
     if (extractTransactionSendersTasks.isEmpty()) {
       return CompletableFuture.completedFuture(Lists.newArrayList());
     } else {
@@ -18,6 +18,7 @@ import tech.pegasys.pantheon.ethereum.core.TransactionPool;
 import tech.pegasys.pantheon.ethereum.eth.manager.EthContext;
 import tech.pegasys.pantheon.ethereum.eth.messages.EthPV62;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
+import tech.pegasys.pantheon.metrics.MetricCategory;
 
 public class TransactionPoolFactory {
 
@@ -47,6 +48,14 @@ public class TransactionPoolFactory {
     ethContext.getEthMessages().subscribe(EthPV62.TRANSACTIONS, transactionsMessageHandler);
     protocolContext.getBlockchain().observeBlockAdded(transactionPool);
     ethContext.getEthPeers().subscribeDisconnect(transactionTracker);
+
+    protocolContext
+        .getMetricsSystem()
+        .createGauge(
+            MetricCategory.TRANSACTION_POOL,
+            "pending_transactions",
+            "Number of transactions waiting in the transaction pool",
+            pendingTransactions::size);
     return transactionPool;
   }
 }
@@ -29,6 +29,7 @@ import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
 import tech.pegasys.pantheon.ethereum.p2p.wire.Capability;
 import tech.pegasys.pantheon.ethereum.p2p.wire.DefaultMessage;
 import tech.pegasys.pantheon.ethereum.testutil.BlockDataGenerator;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
@@ -187,6 +188,16 @@ public class RespondingEthPeer {
   }
 
   public static Responder blockchainResponder(final Blockchain blockchain) {
+    return blockchainResponder(blockchain, Optional.empty());
+  }
+
+  public static Responder blockchainResponder(
+      final Blockchain blockchain, final WorldStateStorage worldStateStorage) {
+    return blockchainResponder(blockchain, Optional.of(worldStateStorage));
+  }
+
+  private static Responder blockchainResponder(
+      final Blockchain blockchain, final Optional<WorldStateStorage> worldStateStorage) {
     return (cap, msg) -> {
       MessageData response = null;
       switch (msg.getCode()) {
@@ -200,7 +211,7 @@ public class RespondingEthPeer {
           response = EthServer.constructGetReceiptsResponse(blockchain, msg, 200);
           break;
         case EthPV63.GET_NODE_DATA:
-          response = EthServer.constructGetNodeDataResponse(msg, 200);
+          response = EthServer.constructGetNodeDataResponse(worldStateStorage, msg, 200);
           break;
       }
       return Optional.ofNullable(response);
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.eth.sync.fastsync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import tech.pegasys.pantheon.ethereum.chain.Blockchain;
+import tech.pegasys.pantheon.ethereum.chain.GenesisConfig;
+import tech.pegasys.pantheon.ethereum.core.Account;
+import tech.pegasys.pantheon.ethereum.core.Address;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.MutableAccount;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.ethereum.core.Wei;
+import tech.pegasys.pantheon.ethereum.core.WorldState;
+import tech.pegasys.pantheon.ethereum.core.WorldUpdater;
+import tech.pegasys.pantheon.ethereum.db.DefaultMutableBlockchain;
+import tech.pegasys.pantheon.ethereum.db.WorldStateArchive;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManager;
+import tech.pegasys.pantheon.ethereum.eth.manager.EthProtocolManagerTestUtil;
+import tech.pegasys.pantheon.ethereum.eth.manager.RespondingEthPeer;
+import tech.pegasys.pantheon.ethereum.eth.manager.RespondingEthPeer.Responder;
+import tech.pegasys.pantheon.ethereum.mainnet.MainnetProtocolSchedule;
+import tech.pegasys.pantheon.ethereum.mainnet.ScheduleBasedBlockHashFunction;
+import tech.pegasys.pantheon.ethereum.testutil.BlockDataGenerator;
+import tech.pegasys.pantheon.ethereum.testutil.BlockDataGenerator.BlockOptions;
+import tech.pegasys.pantheon.ethereum.worldstate.KeyValueStorageWorldStateStorage;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateStorage;
+import tech.pegasys.pantheon.services.kvstore.InMemoryKeyValueStorage;
+import tech.pegasys.pantheon.services.kvstore.KeyValueStorage;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+public class WorldStateDownloaderTest {
+
+  private final BlockDataGenerator dataGen = new BlockDataGenerator(1);
+  private final Blockchain blockchain =
+      new DefaultMutableBlockchain(
+          GenesisConfig.mainnet().getBlock(),
+          new InMemoryKeyValueStorage(),
+          ScheduleBasedBlockHashFunction.create(MainnetProtocolSchedule.create()));
+  private final EthProtocolManager ethProtocolManager =
+      EthProtocolManagerTestUtil.create(blockchain);
+
+  private final WorldStateStorage remoteStorage =
+      new KeyValueStorageWorldStateStorage(new InMemoryKeyValueStorage());
+  private final WorldStateStorage localStorage =
+      new KeyValueStorageWorldStateStorage(new InMemoryKeyValueStorage());
+  private final KeyValueStorage queueStorage = new InMemoryKeyValueStorage();
+  private final List<Address> accounts = new ArrayList<>();
+  private final List<UInt256> storageKeys = new ArrayList<>();
+
+  @Test
+  public void downloadsWorldStateFromPeers() {
+    final Hash stateRoot = createWorldState(remoteStorage, 20);
+    final BlockHeader header = headerWithStateRoot(stateRoot);
+    final RespondingEthPeer peer = EthProtocolManagerTestUtil.createPeer(ethProtocolManager, 100);
+
+    final CompletableFuture<Void> result = createDownloader(localStorage, queueStorage).run(header);
+    final Responder responder = RespondingEthPeer.blockchainResponder(blockchain, remoteStorage);
+    peer.respondWhile(responder, () -> !result.isDone());
+
+    assertThat(result).isCompleted();
+    assertWorldStatesMatch(stateRoot);
+    assertThat(new NodeDataRequestQueue(queueStorage).isEmpty()).isTrue();
+  }
+
+  @Test
+  public void completesImmediatelyWhenWorldStateIsAlreadyStored() {
+    final Hash stateRoot = createWorldState(localStorage, 5);
+
+    final CompletableFuture<Void> result =
+        createDownloader(localStorage, queueStorage).run(headerWithStateRoot(stateRoot));
+
+    assertThat(result).isCompleted();
+  }
+
+  @Test
+  public void completesImmediatelyForEmptyWorldState() {
+    final CompletableFuture<Void> result =
+        createDownloader(localStorage, queueStorage).run(headerWithStateRoot(Hash.EMPTY_TRIE_HASH));
+
+    assertThat(result).isCompleted();
+  }
+
+  @Test
+  public void resumesFromPersistedRequests() {
+    final Hash stateRoot = createWorldState(remoteStorage, 20);
+    final BlockHeader header = headerWithStateRoot(stateRoot);
+    final RespondingEthPeer peer = EthProtocolManagerTestUtil.createPeer(ethProtocolManager, 100);
+    final Responder responder = RespondingEthPeer.blockchainResponder(blockchain, remoteStorage);
+
+    // Stop after the first response, leaving child requests in the queue
+    final CompletableFuture<Void> firstRun =
+        createDownloader(localStorage, queueStorage).run(header);
+    peer.respondTimes(responder, 1);
+    firstRun.cancel(false);
+    peer.respondTimes(RespondingEthPeer.emptyResponder(), 1);
+    assertThat(new NodeDataRequestQueue(queueStorage).isEmpty()).isFalse();
+
+    final CompletableFuture<Void> result = createDownloader(localStorage, queueStorage).run(header);
+    peer.respondWhile(responder, () -> !result.isDone());
+
+    assertThat(result).isCompleted();
+    assertWorldStatesMatch(stateRoot);
+  }
+
+  @Test
+  public void failsWhenPeersStopReturningWorldStateAndMovesOnToAnotherBlock() {
+    final Hash prunedStateRoot = createWorldState(remoteStorage, 20);
+    final RespondingEthPeer peer = EthProtocolManagerTestUtil.createPeer(ethProtocolManager, 100);
+    final WorldStateDownloader downloader =
+        new WorldStateDownloader(
+            ethProtocolManager.ethContext(),
+            localStorage,
+            new NodeDataRequestQueue(queueStorage),
+            10,
+            1,
+            1);
+
+    final CompletableFuture<Void> stalled = downloader.run(headerWithStateRoot(prunedStateRoot));
+    peer.respondTimes(RespondingEthPeer.emptyResponder(), 1);
+
+    assertThat(stalled).isCompletedExceptionally();
+    assertThatThrownBy(stalled::get).hasCauseInstanceOf(StalledDownloadException.class);
+    assertThat(new NodeDataRequestQueue(queueStorage).isEmpty()).isFalse();
+
+    accounts.clear();
+    storageKeys.clear();
+    final Hash stateRoot = createWorldState(remoteStorage, 20);
+    downloader.clearPendingRequests();
+    final CompletableFuture<Void> result = downloader.run(headerWithStateRoot(stateRoot));
+    final Responder responder = RespondingEthPeer.blockchainResponder(blockchain, remoteStorage);
+    peer.respondWhile(responder, () -> !result.isDone());
+
+    assertThat(result).isCompleted();
+    assertWorldStatesMatch(stateRoot);
+    assertThat(new NodeDataRequestQueue(queueStorage).isEmpty()).isTrue();
+  }
+
+  @Test
+  public void storesCompleteSubtriesWhenMovingOnToAnOverlappingState() {
+    final Hash firstStateRoot = createWorldState(remoteStorage, 20);
+    final RespondingEthPeer peer = EthProtocolManagerTestUtil.createPeer(ethProtocolManager, 100);
+    final Responder responder = RespondingEthPeer.blockchainResponder(blockchain, remoteStorage);
+    final WorldStateDownloader downloader =
+        new WorldStateDownloader(
+            ethProtocolManager.ethContext(),
+            localStorage,
+            new NodeDataRequestQueue(queueStorage),
+            10,
+            1,
+            1);
+
+    final CompletableFuture<Void> stalled = downloader.run(headerWithStateRoot(firstStateRoot));
+    peer.respondTimes(responder, 2);
+    peer.respondTimes(RespondingEthPeer.emptyResponder(), 1);
+    assertThat(stalled).isCompletedExceptionally();
+
+    // The next pivot shares most of its trie with the partially downloaded one
+    final MutableWorldState worldState =
+        new WorldStateArchive(remoteStorage).getMutable(firstStateRoot);
+    final WorldUpdater updater = worldState.updater();
+    updater.getMutable(accounts.get(0)).setBalance(Wei.of(1));
+    updater.commit();
+    worldState.persist();
+    final Hash stateRoot = worldState.rootHash();
+
+    downloader.clearPendingRequests();
+    final CompletableFuture<Void> result = downloader.run(headerWithStateRoot(stateRoot));
+    peer.respondWhile(responder, () -> !result.isDone());
+
+    assertThat(result).isCompleted();
+    assertAllNodesStored(NodeDataRequest.createAccountDataRequest(stateRoot));
+    assertWorldStatesMatch(stateRoot);
+    assertThat(new NodeDataRequestQueue(queueStorage).isEmpty()).isTrue();
+  }
+
+  private WorldStateDownloader createDownloader(
+      final WorldStateStorage storage, final KeyValueStorage queueStorage) {
+    return new WorldStateDownloader(
+        ethProtocolManager.ethContext(), storage, new NodeDataRequestQueue(queueStorage), 10, 1);
+  }
+
+  private BlockHeader headerWithStateRoot(final Hash stateRoot) {
+    return dataGen.header(10, BlockOptions.create().setStateRoot(stateRoot));
+  }
+
+  private Hash createWorldState(final WorldStateStorage storage, final int accountCount) {
+    final MutableWorldState worldState = new WorldStateArchive(storage).getMutable();
+    final WorldUpdater updater = worldState.updater();
+    for (int i = 0; i < accountCount; i++) {
+      final Address address = dataGen.address();
+      accounts.add(address);
+      final MutableAccount account = updater.createAccount(address, i, Wei.of(1000 + i));
+      if (i % 2 == 0) {
+        account.setCode(dataGen.bytesValue(10, 40));
+        for (int j = 0; j < 5; j++) {
+          final UInt256 key = dataGen.storageKey();
+          storageKeys.add(key);
+          account.setStorageValue(key, UInt256.of(j + 1));
+        }
+      }
+    }
+    updater.commit();
+    worldState.persist();
+    return worldState.rootHash();
+  }
+
+  private void assertAllNodesStored(final NodeDataRequest request) {
+    final Optional<BytesValue> data = request.getExistingData(localStorage);
+    assertThat(data).describedAs("Data for %s", request).isPresent();
+    request.getChildRequests(data.get()).forEach(this::assertAllNodesStored);
+  }
+
+  private void assertWorldStatesMatch(final Hash stateRoot) {
+    final WorldState expected = new WorldStateArchive(remoteStorage).get(stateRoot);
+    final WorldState actual = new WorldStateArchive(localStorage).get(stateRoot);
+    for (final Address address : accounts) {
+      final Account expectedAccount = expected.get(address);
+      final Account actualAccount = actual.get(address);
+      assertThat(actualAccount.getNonce()).isEqualTo(expectedAccount.getNonce());
+      assertThat(actualAccount.getBalance()).isEqualTo(expectedAccount.getBalance());
+      assertThat(actualAccount.getCode()).isEqualTo(expectedAccount.getCode());
+      for (final UInt256 key : storageKeys) {
+        assertThat(actualAccount.getStorageValue(key))
+            .isEqualTo(expectedAccount.getStorageValue(key));
+      }
+    }
+  }
+}
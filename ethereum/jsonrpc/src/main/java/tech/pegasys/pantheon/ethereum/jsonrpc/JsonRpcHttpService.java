@@ -25,6 +25,13 @@ import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcErrorResp
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcNoResponse;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcResponse;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcResponseType;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcResponseWriter;
+import tech.pegasys.pantheon.metrics.LabelledMetric;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.metrics.OperationTimer;
+import tech.pegasys.pantheon.metrics.OperationTimer.TimingContext;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
 import tech.pegasys.pantheon.util.NetworkUtility;
 
 import java.net.BindException;
@@ -41,6 +48,7 @@ import io.netty.handler.codec.http.HttpResponseStatus;
 import io.vertx.core.CompositeFuture;
 import io.vertx.core.Future;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpMethod;
 import io.vertx.core.http.HttpServer;
 import io.vertx.core.http.HttpServerOptions;
@@ -69,6 +77,7 @@ public class JsonRpcHttpService {
   private final JsonRpcConfiguration config;
   private final Map<String, JsonRpcMethod> jsonRpcMethods;
   private final Path dataDir;
+  private final LabelledMetric<OperationTimer> requestTimer;
 
   private HttpServer httpServer;
 
@@ -77,11 +86,26 @@ public class JsonRpcHttpService {
       final Path dataDir,
       final JsonRpcConfiguration config,
       final Map<String, JsonRpcMethod> methods) {
+    this(vertx, dataDir, config, new NoOpMetricsSystem(), methods);
+  }
+
+  public JsonRpcHttpService(
+      final Vertx vertx,
+      final Path dataDir,
+      final JsonRpcConfiguration config,
+      final MetricsSystem metricsSystem,
+      final Map<String, JsonRpcMethod> methods) {
     this.dataDir = dataDir;
     validateConfig(config);
     this.config = config;
     this.vertx = vertx;
     this.jsonRpcMethods = methods;
+    this.requestTimer =
+        metricsSystem.createLabelledTimer(
+            MetricCategory.RPC,
+            "request_time",
+            "Time taken to process a JSON-RPC request",
+            "methodName");
   }
 
   private void validateConfig(final JsonRpcConfiguration config) {
@@ -239,13 +263,13 @@ public class JsonRpcHttpService {
     }
   }
 
-  private String serialise(final JsonRpcResponse response) {
+  private Buffer serialise(final JsonRpcResponse response) {
 
     if (response.getType() == JsonRpcResponseType.NONE) {
-      return EMPTY_RESPONSE;
+      return Buffer.buffer(EMPTY_RESPONSE);
     }
 
-    return Json.encodePrettily(response);
+    return JsonRpcResponseWriter.write(response);
   }
 
   @SuppressWarnings("rawtypes")
@@ -296,7 +320,7 @@ public class JsonRpcHttpService {
                       .filter(r -> isNonEmptyResponses(r))
                       .toArray(JsonRpcResponse[]::new);
 
-              routingContext.response().end(Json.encode(completed));
+              routingContext.response().end(JsonRpcResponseWriter.write(completed));
             });
   }
 
@@ -327,7 +351,7 @@ public class JsonRpcHttpService {
     }
 
     // Generate response
-    try {
+    try (final TimingContext ignored = requestTimer.labels(request.getMethod()).startTimer()) {
       return method.response(request);
     } catch (final InvalidJsonRpcParameters e) {
       LOG.debug(e);
@@ -20,6 +20,7 @@ import tech.pegasys.pantheon.ethereum.db.WorldStateArchive;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.filter.FilterManager;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.AdminPeers;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.DebugStorageRangeAt;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.DebugTraceBlockByHash;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.DebugTraceTransaction;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthAccounts;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthBlockNumber;
@@ -36,6 +37,7 @@ import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthGetCode;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthGetFilterChanges;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthGetFilterLogs;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthGetLogs;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthGetProof;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthGetStorageAt;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthGetTransactionByBlockHashAndIndex;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.EthGetTransactionByBlockNumberAndIndex;
@@ -67,6 +69,7 @@ import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.miner.MinerStart;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods.miner.MinerStop;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.parameters.JsonRpcParameter;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.processor.BlockReplay;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.processor.BlockTracer;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.processor.TransactionTracer;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.processor.TransientTransactionProcessor;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.BlockchainQueries;
@@ -166,6 +169,7 @@ public class JsonRpcMethodsFactory {
           new EthGetFilterLogs(filterManager, parameter),
           new EthSyncing(synchronizer),
           new EthGetStorageAt(blockchainQueries, parameter),
+          new EthGetProof(blockchainQueries, parameter),
           new EthSendRawTransaction(transactionPool, parameter),
           new EthEstimateGas(
               blockchainQueries,
@@ -190,6 +194,7 @@ public class JsonRpcMethodsFactory {
           enabledMethods,
           new DebugTraceTransaction(
               blockchainQueries, new TransactionTracer(blockReplay), parameter),
+          new DebugTraceBlockByHash(new BlockTracer(blockReplay), parameter),
           new DebugStorageRangeAt(parameter, blockchainQueries, blockReplay));
     }
     if (rpcApis.contains(RpcApis.NET)) {
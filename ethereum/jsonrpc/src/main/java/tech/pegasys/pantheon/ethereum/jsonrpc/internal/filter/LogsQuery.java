@@ -15,10 +15,14 @@ package tech.pegasys.pantheon.ethereum.jsonrpc.internal.filter;
 import tech.pegasys.pantheon.ethereum.core.Address;
 import tech.pegasys.pantheon.ethereum.core.Log;
 import tech.pegasys.pantheon.ethereum.core.LogTopic;
+import tech.pegasys.pantheon.ethereum.core.LogsBloomFilter;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.parameters.TopicsParameter;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 
@@ -26,16 +30,82 @@ public class LogsQuery {
 
   private final List<Address> queryAddresses;
   private final List<List<LogTopic>> queryTopics;
+  private final List<List<LogsBloomFilter>> bloomFilters;
 
   private LogsQuery(final List<Address> addresses, final List<List<LogTopic>> topics) {
     this.queryAddresses = addresses;
     this.queryTopics = topics;
+    this.bloomFilters = computeBloomFilters(addresses, topics);
   }
 
   public boolean matches(final Log log) {
     return matchesAddresses(log.getLogger()) && matchesTopics(log.getTopics());
   }
 
+  /**
+   * The addresses a log must be emitted by; empty when logs from any address match.
+   *
+   * @return The query addresses.
+   */
+  public List<Address> getAddresses() {
+    return queryAddresses;
+  }
+
+  /**
+   * The topic alternatives a log must match, by topic position. A {@code null} alternative matches
+   * any topic at its position.
+   *
+   * @return The query topics.
+   */
+  public List<List<LogTopic>> getTopics() {
+    return queryTopics;
+  }
+
+  /**
+   * Whether a block with the given logs bloom may contain logs matching this query.
+   *
+   * @param bloom The logs bloom of the block.
+   * @return false if no log of the block can match this query.
+   */
+  public boolean couldMatch(final LogsBloomFilter bloom) {
+    for (final List<LogsBloomFilter> condition : bloomFilters) {
+      if (condition.stream().noneMatch(bloom::couldContain)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The blooms a block must contain to have matching logs: for each condition, the bloom of at
+   * least one of its alternatives. Wildcard topic positions impose no condition.
+   *
+   * @return The conditions, each a list of alternatives.
+   */
+  public List<List<LogsBloomFilter>> getBloomFilters() {
+    return bloomFilters;
+  }
+
+  private static List<List<LogsBloomFilter>> computeBloomFilters(
+      final List<Address> addresses, final List<List<LogTopic>> topics) {
+    final List<List<LogsBloomFilter>> conditions = new ArrayList<>();
+    if (!addresses.isEmpty()) {
+      conditions.add(addresses.stream().map(LogsQuery::bloomOf).collect(Collectors.toList()));
+    }
+    for (final List<LogTopic> alternatives : topics) {
+      if (!alternatives.contains(null)) {
+        conditions.add(alternatives.stream().map(LogsQuery::bloomOf).collect(Collectors.toList()));
+      }
+    }
+    return conditions;
+  }
+
+  private static LogsBloomFilter bloomOf(final BytesValue value) {
+    final LogsBloomFilter bloom = new LogsBloomFilter();
+    bloom.insertValue(value);
+    return bloom;
+  }
+
   private boolean matchesAddresses(final Address address) {
     return queryAddresses.isEmpty() || queryAddresses.contains(address);
   }
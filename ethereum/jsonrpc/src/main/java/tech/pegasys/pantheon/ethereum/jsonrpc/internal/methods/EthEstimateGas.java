@@ -16,7 +16,6 @@ import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.JsonRpcRequest;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.parameters.CallParameter;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.parameters.JsonRpcParameter;
-import tech.pegasys.pantheon.ethereum.jsonrpc.internal.processor.TransientTransactionProcessingResult;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.processor.TransientTransactionProcessor;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.BlockchainQueries;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcError;
@@ -61,7 +60,7 @@ public class EthEstimateGas implements JsonRpcMethod {
         overrideGasLimitAndPrice(callParams, blockHeader.getGasLimit());
 
     return transientTransactionProcessor
-        .process(modifiedCallParams, blockHeader.getNumber())
+        .estimateGas(modifiedCallParams, blockHeader.getNumber())
         .map(gasEstimateResponse(request))
         .orElse(errorResponse(request));
   }
@@ -82,10 +81,8 @@ public class EthEstimateGas implements JsonRpcMethod {
         callParams.getPayload() != null ? callParams.getPayload().toString() : null);
   }
 
-  private Function<TransientTransactionProcessingResult, JsonRpcResponse> gasEstimateResponse(
-      final JsonRpcRequest request) {
-    return result ->
-        new JsonRpcSuccessResponse(request.getId(), Quantity.create(result.getGasEstimate()));
+  private Function<Long, JsonRpcResponse> gasEstimateResponse(final JsonRpcRequest request) {
+    return gasEstimate -> new JsonRpcSuccessResponse(request.getId(), Quantity.create(gasEstimate));
   }
 
   private JsonRpcErrorResponse errorResponse(final JsonRpcRequest request) {
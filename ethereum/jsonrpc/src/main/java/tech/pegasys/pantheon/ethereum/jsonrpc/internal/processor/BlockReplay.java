@@ -13,36 +13,122 @@
 package tech.pegasys.pantheon.ethereum.jsonrpc.internal.processor;
 
 import tech.pegasys.pantheon.ethereum.chain.Blockchain;
+import tech.pegasys.pantheon.ethereum.core.Address;
 import tech.pegasys.pantheon.ethereum.core.BlockBody;
 import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
 import tech.pegasys.pantheon.ethereum.core.Transaction;
+import tech.pegasys.pantheon.ethereum.core.WorldUpdater;
 import tech.pegasys.pantheon.ethereum.db.WorldStateArchive;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSpec;
 import tech.pegasys.pantheon.ethereum.mainnet.TransactionProcessor;
 import tech.pegasys.pantheon.ethereum.vm.BlockHashLookup;
+import tech.pegasys.pantheon.ethereum.vm.DebugOperationTracer;
+import tech.pegasys.pantheon.ethereum.vm.OperationTracer;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Replays the transactions of a block on top of the state of its parent.
+ *
+ * <p>The world states between the transactions of the most recently replayed blocks are kept in
+ * memory, so that following calls for the same block, such as tracing its transactions one after
+ * the other, resume from the closest replayed transaction instead of the start of the block.
+ */
 public class BlockReplay {
 
+  /** The default number of blocks whose intermediate world states are kept. */
+  public static final int DEFAULT_REPLAYED_BLOCKS_CACHE_SIZE = 8;
+
   private final ProtocolSchedule<?> protocolSchedule;
   private final Blockchain blockchain;
   private final WorldStateArchive worldStateArchive;
+  private final Cache<Hash, ReplayedBlock> replayedBlocks;
 
   public BlockReplay(
       final ProtocolSchedule<?> protocolSchedule,
       final Blockchain blockchain,
       final WorldStateArchive worldStateArchive) {
+    this(protocolSchedule, blockchain, worldStateArchive, DEFAULT_REPLAYED_BLOCKS_CACHE_SIZE);
+  }
+
+  /**
+   * @param protocolSchedule The protocol schedule of the chain.
+   * @param blockchain The blockchain holding the blocks to replay.
+   * @param worldStateArchive The archive holding the state of the parents of the blocks.
+   * @param replayedBlocksCacheSize The number of blocks whose intermediate world states are kept.
+   */
+  public BlockReplay(
+      final ProtocolSchedule<?> protocolSchedule,
+      final Blockchain blockchain,
+      final WorldStateArchive worldStateArchive,
+      final int replayedBlocksCacheSize) {
     this.protocolSchedule = protocolSchedule;
     this.blockchain = blockchain;
     this.worldStateArchive = worldStateArchive;
+    this.replayedBlocks = CacheBuilder.newBuilder().maximumSize(replayedBlocksCacheSize).build();
   }
 
   public <T> Optional<T> beforeTransactionInBlock(
       final Hash blockHash, final Hash transactionHash, final Action<T> action) {
+    return performActionWithTransaction(blockHash, transactionHash, false, action);
+  }
+
+  public <T> Optional<T> afterTransactionInBlock(
+      final Hash blockHash, final Hash transactionHash, final Action<T> action) {
+    return performActionWithTransaction(blockHash, transactionHash, true, action);
+  }
+
+  /**
+   * Replays all the transactions of a block in a single pass, tracing each of them.
+   *
+   * @param blockHash The hash of the block to trace.
+   * @param tracerFactory Creates the tracer of each transaction.
+   * @return The traces of the transactions, in block order, or empty if the block or the state of
+   *     its parent is not available.
+   */
+  public Optional<List<TransactionTrace>> traceTransactionsInBlock(
+      final Hash blockHash, final Supplier<DebugOperationTracer> tracerFactory) {
+    return replayedBlock(blockHash).map(block -> block.traceAll(tracerFactory));
+  }
+
+  private <T> Optional<T> performActionWithTransaction(
+      final Hash blockHash,
+      final Hash transactionHash,
+      final boolean afterTransaction,
+      final Action<T> action) {
+    return replayedBlock(blockHash)
+        .flatMap(
+            block -> {
+              final int index = block.indexOf(transactionHash);
+              if (index < 0) {
+                return Optional.empty();
+              }
+              final MutableWorldState worldState =
+                  block.stateAfter(afterTransaction ? index + 1 : index);
+              return Optional.of(
+                  action.performAction(
+                      block.transactions.get(index),
+                      block.header,
+                      blockchain,
+                      worldState,
+                      block.transactionProcessor));
+            });
+  }
+
+  private Optional<ReplayedBlock> replayedBlock(final Hash blockHash) {
+    final ReplayedBlock cached = replayedBlocks.getIfPresent(blockHash);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
     final BlockHeader header = blockchain.getBlockHeader(blockHash).orElse(null);
     if (header == null) {
       return Optional.empty();
@@ -51,55 +137,28 @@ public class BlockReplay {
     if (body == null) {
       return Optional.empty();
     }
-    final ProtocolSpec<?> protocolSpec = protocolSchedule.getByBlockNumber(header.getNumber());
-    final TransactionProcessor transactionProcessor = protocolSpec.getTransactionProcessor();
     final BlockHeader previous = blockchain.getBlockHeader(header.getParentHash()).orElse(null);
     if (previous == null) {
       return Optional.empty();
     }
-    final MutableWorldState mutableWorldState =
-        worldStateArchive.getMutable(previous.getStateRoot());
-    final BlockHashLookup blockHashLookup = new BlockHashLookup(header, blockchain);
-    for (final Transaction transaction : body.getTransactions()) {
-      if (transaction.hash().equals(transactionHash)) {
-        return Optional.of(
-            action.performAction(
-                transaction, header, blockchain, mutableWorldState, transactionProcessor));
-      } else {
-        final ProtocolSpec<?> spec = protocolSchedule.getByBlockNumber(header.getNumber());
-        transactionProcessor.processTransaction(
-            blockchain,
-            mutableWorldState.updater(),
+    final ReplayedBlock replayedBlock =
+        new ReplayedBlock(
             header,
-            transaction,
-            spec.getMiningBeneficiaryCalculator().calculateBeneficiary(header),
-            blockHashLookup);
-      }
-    }
-    return Optional.empty();
-  }
-
-  public <T> Optional<T> afterTransactionInBlock(
-      final Hash blockHash, final Hash transactionHash, final Action<T> action) {
-    return beforeTransactionInBlock(
-        blockHash,
-        transactionHash,
-        (transaction, blockHeader, blockchain, worldState, transactionProcessor) -> {
-          final ProtocolSpec<?> spec = protocolSchedule.getByBlockNumber(blockHeader.getNumber());
-          transactionProcessor.processTransaction(
-              blockchain,
-              worldState.updater(),
-              blockHeader,
-              transaction,
-              spec.getMiningBeneficiaryCalculator().calculateBeneficiary(blockHeader),
-              new BlockHashLookup(blockHeader, blockchain));
-          return action.performAction(
-              transaction, blockHeader, blockchain, worldState, transactionProcessor);
-        });
+            body.getTransactions(),
+            protocolSchedule.getByBlockNumber(header.getNumber()),
+            previous.getStateRoot());
+    replayedBlocks.put(blockHash, replayedBlock);
+    return Optional.of(replayedBlock);
   }
 
   public interface Action<T> {
 
+    /**
+     * Performs an action on the world state before or after a transaction of a block.
+     *
+     * <p>The world state is the action's own, but changes to it should not be persisted: persisted
+     * nodes are kept in memory with the replayed block.
+     */
     T performAction(
         Transaction transaction,
         BlockHeader blockHeader,
@@ -107,4 +166,87 @@ public class BlockReplay {
         MutableWorldState worldState,
         TransactionProcessor transactionProcessor);
   }
+
+  /** A block being replayed, with the root hashes of the world states replayed so far. */
+  private class ReplayedBlock {
+
+    private final BlockHeader header;
+    private final List<Transaction> transactions;
+    private final TransactionProcessor transactionProcessor;
+    private final Address miningBeneficiary;
+    private final BlockHashLookup blockHashLookup;
+    // Persisted world states only live in memory, until the block is evicted from the cache
+    private final WorldStateArchive replayedStates;
+    // The root hash of the parent state, followed by the root hash after each replayed transaction
+    private final List<Hash> stateRoots = new ArrayList<>();
+
+    private ReplayedBlock(
+        final BlockHeader header,
+        final List<Transaction> transactions,
+        final ProtocolSpec<?> protocolSpec,
+        final Hash parentStateRoot) {
+      this.header = header;
+      this.transactions = transactions;
+      this.transactionProcessor = protocolSpec.getTransactionProcessor();
+      this.miningBeneficiary =
+          protocolSpec.getMiningBeneficiaryCalculator().calculateBeneficiary(header);
+      this.blockHashLookup = new BlockHashLookup(header, blockchain);
+      this.replayedStates = worldStateArchive.createOverlay();
+      stateRoots.add(parentStateRoot);
+    }
+
+    private int indexOf(final Hash transactionHash) {
+      for (int i = 0; i < transactions.size(); i++) {
+        if (transactions.get(i).hash().equals(transactionHash)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Returns the world state after the given number of transactions, replaying the transactions
+     * that have not been replayed yet.
+     */
+    private synchronized MutableWorldState stateAfter(final int transactionCount) {
+      final int replayed = Math.min(transactionCount, stateRoots.size() - 1);
+      final MutableWorldState worldState = replayedStates.getMutable(stateRoots.get(replayed));
+      for (int i = replayed; i < transactionCount; i++) {
+        replay(i, worldState, OperationTracer.NO_TRACING);
+      }
+      return worldState;
+    }
+
+    private synchronized List<TransactionTrace> traceAll(
+        final Supplier<DebugOperationTracer> tracerFactory) {
+      final MutableWorldState worldState = replayedStates.getMutable(stateRoots.get(0));
+      final List<TransactionTrace> traces = new ArrayList<>(transactions.size());
+      for (int i = 0; i < transactions.size(); i++) {
+        final DebugOperationTracer tracer = tracerFactory.get();
+        final TransactionProcessor.Result result = replay(i, worldState, tracer);
+        traces.add(new TransactionTrace(transactions.get(i), result, tracer.getTraceFrames()));
+      }
+      return traces;
+    }
+
+    private TransactionProcessor.Result replay(
+        final int index, final MutableWorldState worldState, final OperationTracer tracer) {
+      final WorldUpdater updater = worldState.updater();
+      final TransactionProcessor.Result result =
+          transactionProcessor.processTransaction(
+              blockchain,
+              updater,
+              header,
+              transactions.get(index),
+              miningBeneficiary,
+              tracer,
+              blockHashLookup);
+      updater.commit();
+      worldState.persist();
+      if (stateRoots.size() == index + 1) {
+        stateRoots.add(worldState.rootHash());
+      }
+      return result;
+    }
+  }
 }
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.jsonrpc.internal.processor;
+
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.vm.DebugOperationTracer;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/** Used to produce debug traces of all the transactions of a block in a single replay */
+public class BlockTracer {
+
+  private final BlockReplay blockReplay;
+
+  public BlockTracer(final BlockReplay blockReplay) {
+    this.blockReplay = blockReplay;
+  }
+
+  public Optional<BlockTrace> trace(
+      final Hash blockHash, final Supplier<DebugOperationTracer> tracerFactory) {
+    return blockReplay.traceTransactionsInBlock(blockHash, tracerFactory).map(BlockTrace::new);
+  }
+}
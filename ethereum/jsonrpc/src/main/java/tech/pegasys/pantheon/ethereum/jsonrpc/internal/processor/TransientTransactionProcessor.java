@@ -47,6 +47,9 @@ public class TransientTransactionProcessor {
   private static final Address DEFAULT_FROM =
       Address.fromHexString("0x0000000000000000000000000000000000000000");
 
+  // Narrows a block gas limit of 8 million down to about a hundred gas.
+  private static final int MAX_ESTIMATE_ITERATIONS = 16;
+
   private final Blockchain blockchain;
   private final WorldStateArchive worldStateArchive;
   private final ProtocolSchedule<?> protocolSchedule;
@@ -67,13 +70,69 @@ public class TransientTransactionProcessor {
       return Optional.empty();
     }
     final MutableWorldState worldState = worldStateArchive.getMutable(header.getStateRoot());
+    return Optional.of(process(callParams, gasLimit(callParams, header), header, worldState));
+  }
+
+  /**
+   * Estimates the lowest gas limit with which the call succeeds.
+   *
+   * <p>The call is first executed with the gas limit of the call parameters, or the block gas limit
+   * if none is set. The gas it uses is a lower bound of the estimate, which is tried next since
+   * most calls succeed with exactly the gas they use. Otherwise the gas limit is binary searched
+   * between the two, for at most {@link #MAX_ESTIMATE_ITERATIONS} executions. Every execution runs
+   * in its own discarded updater of the same world state, so trie nodes loaded by one execution are
+   * reused by the next.
+   *
+   * @param callParams The call to estimate.
+   * @param blockNumber The number of the block on top of which the call is executed.
+   * @return The estimated gas limit, or the gas used by the call if it fails even with the maximum
+   *     gas limit, or empty if the block is not available.
+   */
+  public Optional<Long> estimateGas(final CallParameter callParams, final long blockNumber) {
+    final BlockHeader header = blockchain.getBlockHeader(blockNumber).orElse(null);
+    if (header == null) {
+      return Optional.empty();
+    }
+    final MutableWorldState worldState = worldStateArchive.getMutable(header.getStateRoot());
+
+    final long maxGasLimit = gasLimit(callParams, header);
+    final TransientTransactionProcessingResult maxGasResult =
+        process(callParams, maxGasLimit, header, worldState);
+    final long gasUsed = maxGasResult.getGasEstimate();
+    if (!maxGasResult.isSuccessful() || gasUsed >= maxGasLimit) {
+      return Optional.of(gasUsed);
+    }
+    if (process(callParams, gasUsed, header, worldState).isSuccessful()) {
+      return Optional.of(gasUsed);
+    }
+
+    long failingGasLimit = gasUsed;
+    long succeedingGasLimit = maxGasLimit;
+    int iterations = 0;
+    while (succeedingGasLimit - failingGasLimit > 1 && iterations++ < MAX_ESTIMATE_ITERATIONS) {
+      final long gasLimit = failingGasLimit + (succeedingGasLimit - failingGasLimit) / 2;
+      if (process(callParams, gasLimit, header, worldState).isSuccessful()) {
+        succeedingGasLimit = gasLimit;
+      } else {
+        failingGasLimit = gasLimit;
+      }
+    }
+    return Optional.of(succeedingGasLimit);
+  }
+
+  private long gasLimit(final CallParameter callParams, final BlockHeader header) {
+    return callParams.getGasLimit() >= 0 ? callParams.getGasLimit() : header.getGasLimit();
+  }
 
+  private TransientTransactionProcessingResult process(
+      final CallParameter callParams,
+      final long gasLimit,
+      final BlockHeader header,
+      final MutableWorldState worldState) {
     final Address senderAddress =
         callParams.getFrom() != null ? callParams.getFrom() : DEFAULT_FROM;
     final Account sender = worldState.get(senderAddress);
     final long nonce = sender != null ? sender.getNonce() : 0L;
-    final long gasLimit =
-        callParams.getGasLimit() >= 0 ? callParams.getGasLimit() : header.getGasLimit();
     final Wei gasPrice = callParams.getGasPrice() != null ? callParams.getGasPrice() : Wei.ZERO;
     final Wei value = callParams.getValue() != null ? callParams.getValue() : Wei.ZERO;
     final BytesValue payload =
@@ -104,6 +163,6 @@ public class TransientTransactionProcessor {
             protocolSpec.getMiningBeneficiaryCalculator().calculateBeneficiary(header),
             new BlockHashLookup(header, blockchain));
 
-    return Optional.of(new TransientTransactionProcessingResult(transaction, result));
+    return new TransientTransactionProcessingResult(transaction, result);
   }
 }
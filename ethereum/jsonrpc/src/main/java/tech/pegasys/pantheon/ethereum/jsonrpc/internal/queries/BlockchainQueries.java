@@ -15,6 +15,7 @@ package tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import tech.pegasys.pantheon.ethereum.chain.Blockchain;
+import tech.pegasys.pantheon.ethereum.chain.BloomBitsIndex;
 import tech.pegasys.pantheon.ethereum.chain.TransactionLocation;
 import tech.pegasys.pantheon.ethereum.core.Account;
 import tech.pegasys.pantheon.ethereum.core.Address;
@@ -28,11 +29,15 @@ import tech.pegasys.pantheon.ethereum.core.TransactionReceipt;
 import tech.pegasys.pantheon.ethereum.core.Wei;
 import tech.pegasys.pantheon.ethereum.db.WorldStateArchive;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.filter.LogsQuery;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateProof;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -42,10 +47,19 @@ public class BlockchainQueries {
 
   private final WorldStateArchive worldStateArchive;
   private final Blockchain blockchain;
+  private final Optional<BloomBitsIndex> bloomBitsIndex;
 
   public BlockchainQueries(final Blockchain blockchain, final WorldStateArchive worldStateArchive) {
+    this(blockchain, worldStateArchive, Optional.empty());
+  }
+
+  public BlockchainQueries(
+      final Blockchain blockchain,
+      final WorldStateArchive worldStateArchive,
+      final Optional<BloomBitsIndex> bloomBitsIndex) {
     this.blockchain = blockchain;
     this.worldStateArchive = worldStateArchive;
+    this.bloomBitsIndex = bloomBitsIndex;
   }
 
   public Blockchain getBlockchain() {
@@ -97,6 +111,26 @@ public class BlockchainQueries {
             .orElse(UInt256.ZERO));
   }
 
+  /**
+   * Builds the proof of an account, and of some of its storage entries, at a specific block number.
+   *
+   * @param address The address of the account to prove.
+   * @param storageKeys The storage keys of the account to prove.
+   * @param blockNumber The block number being queried.
+   * @return The proof, or empty if the block or its world state is not available.
+   */
+  public Optional<WorldStateProof> getAccountProof(
+      final Address address, final List<UInt256> storageKeys, final long blockNumber) {
+    if (!withinValidRange(blockNumber)) {
+      return Optional.empty();
+    }
+    return blockchain
+        .getBlockHeader(blockNumber)
+        .flatMap(
+            header ->
+                worldStateArchive.getAccountProof(header.getStateRoot(), address, storageKeys));
+  }
+
   /**
    * Returns the nonce of the given account at a specific block number.
    *
@@ -487,75 +521,104 @@ public class BlockchainQueries {
    */
   public Optional<TransactionReceiptWithMetadata> transactionReceiptByTransactionHash(
       final Hash transactionHash) {
-    final Optional<TransactionLocation> maybeLocation =
-        blockchain.getTransactionLocation(transactionHash);
-    if (!maybeLocation.isPresent()) {
-      return Optional.empty();
-    }
-    final TransactionLocation location = maybeLocation.get();
-    final BlockBody blockBody = blockchain.getBlockBody(location.getBlockHash()).get();
-    final Transaction transaction = blockBody.getTransactions().get(location.getTransactionIndex());
-
-    final Hash blockhash = location.getBlockHash();
-    final BlockHeader header = blockchain.getBlockHeader(blockhash).get();
-    final List<TransactionReceipt> transactionReceipts = blockchain.getTxReceipts(blockhash).get();
-    final TransactionReceipt transactionReceipt =
-        transactionReceipts.get(location.getTransactionIndex());
-
-    long gasUsed = transactionReceipt.getCumulativeGasUsed();
-    if (location.getTransactionIndex() > 0) {
-      gasUsed =
-          gasUsed
-              - transactionReceipts.get(location.getTransactionIndex() - 1).getCumulativeGasUsed();
+    return blockchain
+        .getTransactionLocation(transactionHash)
+        .map(
+            location ->
+                blockReceipts(location.getBlockHash())
+                    .receiptWithMetadata(transactionHash, location.getTransactionIndex()));
+  }
+
+  /**
+   * Returns the transaction receipts associated with the given transaction hashes. The receipts,
+   * body and header of each block are read once, however many of the transactions it contains.
+   *
+   * @param transactionHashes The hashes of the transactions whose receipts to retrieve.
+   * @return The receipts of the transactions that were found, in the order of the given hashes.
+   */
+  public List<TransactionReceiptWithMetadata> transactionReceiptsByTransactionHashes(
+      final List<Hash> transactionHashes) {
+    final Map<Hash, BlockReceipts> blocks = new HashMap<>();
+    final List<TransactionReceiptWithMetadata> receipts =
+        new ArrayList<>(transactionHashes.size());
+    for (final Hash transactionHash : transactionHashes) {
+      final Optional<TransactionLocation> location =
+          blockchain.getTransactionLocation(transactionHash);
+      if (location.isPresent()) {
+        final BlockReceipts block =
+            blocks.computeIfAbsent(location.get().getBlockHash(), this::blockReceipts);
+        receipts.add(
+            block.receiptWithMetadata(transactionHash, location.get().getTransactionIndex()));
+      }
     }
+    return receipts;
+  }
 
-    return Optional.of(
-        TransactionReceiptWithMetadata.create(
-            transactionReceipt,
-            transaction,
-            transactionHash,
-            location.getTransactionIndex(),
-            gasUsed,
-            blockhash,
-            header.getNumber()));
+  private BlockReceipts blockReceipts(final Hash blockhash) {
+    return new BlockReceipts(
+        blockhash,
+        blockchain.getBlockHeader(blockhash).get().getNumber(),
+        blockchain.getBlockBody(blockhash).get().getTransactions(),
+        blockchain.getTxReceipts(blockhash).get());
   }
 
   /**
-   * Retrieve logs from the range of blocks with optional filtering based on logger address and log
-   * topics.
+   * Returns the logs of the canonical blocks in a range that match a query. Only the receipts of
+   * blocks whose logs bloom may match are read, and the blooms of indexed sections are read from
+   * the {@link BloomBitsIndex} instead of the block headers.
    *
-   * @param fromBlockNumber The block number defining the first block in the search range
-   *     (inclusive).
-   * @param toBlockNumber The block number defining the last block in the search range (inclusive).
-   * @param query Constraints on required topics by topic index. For a given index if the set of
-   *     topics is non-empty, the topic at this index must match one of the values in the set.
-   * @return The set of logs matching the given constraints.
+   * @param fromBlockNumber The first block of the range.
+   * @param toBlockNumber The last block of the range.
+   * @param query The query the logs must match.
+   * @return The matching logs.
    */
   public List<LogWithMetadata> matchingLogs(
       final long fromBlockNumber, final long toBlockNumber, final LogsQuery query) {
     if (fromBlockNumber > toBlockNumber || toBlockNumber > headBlockNumber()) {
       return Lists.newArrayList();
     }
-    List<LogWithMetadata> matchingLogs = Lists.newArrayList();
-    for (long blockNumber = fromBlockNumber; blockNumber <= toBlockNumber; blockNumber++) {
-      final Hash blockhash = blockchain.getBlockHashByNumber(blockNumber).get();
-      final boolean logHasBeenRemoved = !blockchain.blockIsOnCanonicalChain(blockhash);
-      final List<TransactionReceipt> receipts = blockchain.getTxReceipts(blockhash).get();
-      final List<Transaction> transaction =
-          blockchain.getBlockBody(blockhash).get().getTransactions();
-      matchingLogs =
-          generateLogWithMetadata(
-              receipts,
-              blockNumber,
-              query,
-              blockhash,
-              matchingLogs,
-              transaction,
-              logHasBeenRemoved);
+    final List<LogWithMetadata> matchingLogs = Lists.newArrayList();
+    long blockNumber = fromBlockNumber;
+    while (blockNumber <= toBlockNumber) {
+      final long section = blockNumber / BloomBitsIndex.SECTION_SIZE;
+      final Optional<BitSet> candidates =
+          bloomBitsIndex.flatMap(index -> index.matchingBlocks(section, query.getBloomFilters()));
+      if (candidates.isPresent()) {
+        final long sectionStart = section * BloomBitsIndex.SECTION_SIZE;
+        final long lastBlock =
+            Math.min(toBlockNumber, sectionStart + BloomBitsIndex.SECTION_SIZE - 1);
+        final BitSet offsets = candidates.get();
+        for (int offset = offsets.nextSetBit((int) (blockNumber - sectionStart));
+            offset >= 0 && sectionStart + offset <= lastBlock;
+            offset = offsets.nextSetBit(offset + 1)) {
+          final Hash blockhash = blockchain.getBlockHashByNumber(sectionStart + offset).get();
+          addMatchingLogs(blockhash, sectionStart + offset, query, matchingLogs);
+        }
+        blockNumber = lastBlock + 1;
+      } else {
+        final BlockHeader header = blockchain.getBlockHeader(blockNumber).get();
+        if (query.couldMatch(header.getLogsBloom())) {
+          addMatchingLogs(header.getHash(), blockNumber, query, matchingLogs);
+        }
+        blockNumber++;
+      }
     }
     return matchingLogs;
   }
 
+  private void addMatchingLogs(
+      final Hash blockhash,
+      final long blockNumber,
+      final LogsQuery query,
+      final List<LogWithMetadata> matchingLogs) {
+    final boolean logHasBeenRemoved = !blockchain.blockIsOnCanonicalChain(blockhash);
+    final List<TransactionReceipt> receipts = blockchain.getTxReceipts(blockhash).get();
+    final List<Transaction> transaction =
+        blockchain.getBlockBody(blockhash).get().getTransactions();
+    generateLogWithMetadata(
+        receipts, blockNumber, query, blockhash, matchingLogs, transaction, logHasBeenRemoved);
+  }
+
   public List<LogWithMetadata> matchingLogs(final Hash blockhash, final LogsQuery query) {
     final List<LogWithMetadata> matchingLogs = Lists.newArrayList();
     final List<TransactionReceipt> receipts = blockchain.getTxReceipts(blockhash).get();
@@ -621,4 +684,39 @@ public class BlockchainQueries {
   private boolean withinValidRange(final long blockNumber) {
     return blockNumber <= headBlockNumber() && blockNumber >= BlockHeader.GENESIS_BLOCK_NUMBER;
   }
+
+  private static class BlockReceipts {
+    private final Hash blockhash;
+    private final long blockNumber;
+    private final List<Transaction> transactions;
+    private final List<TransactionReceipt> receipts;
+
+    private BlockReceipts(
+        final Hash blockhash,
+        final long blockNumber,
+        final List<Transaction> transactions,
+        final List<TransactionReceipt> receipts) {
+      this.blockhash = blockhash;
+      this.blockNumber = blockNumber;
+      this.transactions = transactions;
+      this.receipts = receipts;
+    }
+
+    private TransactionReceiptWithMetadata receiptWithMetadata(
+        final Hash transactionHash, final int transactionIndex) {
+      final TransactionReceipt receipt = receipts.get(transactionIndex);
+      long gasUsed = receipt.getCumulativeGasUsed();
+      if (transactionIndex > 0) {
+        gasUsed = gasUsed - receipts.get(transactionIndex - 1).getCumulativeGasUsed();
+      }
+      return TransactionReceiptWithMetadata.create(
+          receipt,
+          transactions.get(transactionIndex),
+          transactionHash,
+          transactionIndex,
+          gasUsed,
+          blockhash,
+          blockNumber);
+    }
+  }
 }
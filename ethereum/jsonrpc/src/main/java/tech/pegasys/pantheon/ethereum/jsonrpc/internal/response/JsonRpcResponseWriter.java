@@ -0,0 +1,291 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.jsonrpc.internal.response;
+
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.BlockResult;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.LogResult;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.LogsResult;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.TransactionCompleteResult;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.TransactionHashResult;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.TransactionReceiptLogResult;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.TransactionReceiptResult;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.TransactionReceiptRootResult;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.TransactionReceiptStatusResult;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.TransactionResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+
+/**
+ * Serializes JSON-RPC responses as compact JSON straight into a {@link Buffer}.
+ *
+ * <p>The results that make up the largest responses (blocks, transactions, receipts and logs) are
+ * written field by field rather than through Jackson's reflective serializers, without building
+ * intermediate strings. Their output is the same as {@link Json#encode(Object)}. Any other result
+ * is handed to {@link Json#mapper}.
+ */
+public class JsonRpcResponseWriter {
+
+  private static final int INITIAL_BUFFER_SIZE = 1024;
+
+  private JsonRpcResponseWriter() {}
+
+  public static Buffer write(final JsonRpcResponse response) {
+    final Buffer buffer = Buffer.buffer(INITIAL_BUFFER_SIZE);
+    try (final JsonGenerator generator = createGenerator(buffer)) {
+      writeResponse(generator, response);
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return buffer;
+  }
+
+  public static Buffer write(final JsonRpcResponse[] responses) {
+    final Buffer buffer = Buffer.buffer(INITIAL_BUFFER_SIZE);
+    try (final JsonGenerator generator = createGenerator(buffer)) {
+      generator.writeStartArray();
+      for (final JsonRpcResponse response : responses) {
+        writeResponse(generator, response);
+      }
+      generator.writeEndArray();
+    } catch (final IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return buffer;
+  }
+
+  private static JsonGenerator createGenerator(final Buffer buffer) throws IOException {
+    final JsonGenerator generator =
+        Json.mapper.getFactory().createGenerator(new BufferOutputStream(buffer), JsonEncoding.UTF8);
+    generator.setCodec(Json.mapper);
+    return generator;
+  }
+
+  private static void writeResponse(final JsonGenerator generator, final JsonRpcResponse response)
+      throws IOException {
+    if (response instanceof JsonRpcSuccessResponse) {
+      final JsonRpcSuccessResponse success = (JsonRpcSuccessResponse) response;
+      generator.writeStartObject();
+      generator.writeStringField("jsonrpc", success.getVersion());
+      generator.writeFieldName("id");
+      generator.writeObject(success.getId());
+      generator.writeFieldName("result");
+      writeResult(generator, success.getResult());
+      generator.writeEndObject();
+    } else {
+      generator.writeObject(response);
+    }
+  }
+
+  private static void writeResult(final JsonGenerator generator, final Object result)
+      throws IOException {
+    if (result instanceof BlockResult) {
+      writeBlock(generator, (BlockResult) result);
+    } else if (result instanceof LogsResult) {
+      writeLogs(generator, ((LogsResult) result).getResults());
+    } else if (result instanceof TransactionReceiptResult) {
+      writeReceipt(generator, (TransactionReceiptResult) result);
+    } else if (result instanceof TransactionCompleteResult) {
+      writeTransaction(generator, (TransactionCompleteResult) result);
+    } else {
+      generator.writeObject(result);
+    }
+  }
+
+  private static void writeBlock(final JsonGenerator generator, final BlockResult block)
+      throws IOException {
+    // Blocks are JsonRpcResults, so absent values are left out rather than written as null.
+    generator.writeStartObject();
+    writePresentField(generator, "number", block.getNumber());
+    writePresentField(generator, "hash", block.getHash());
+    writePresentField(generator, "parentHash", block.getParentHash());
+    writePresentField(generator, "nonce", block.getNonce());
+    writePresentField(generator, "sha3Uncles", block.getSha3Uncles());
+    writePresentField(generator, "logsBloom", block.getLogsBloom());
+    writePresentField(generator, "transactionsRoot", block.getTransactionsRoot());
+    writePresentField(generator, "stateRoot", block.getStateRoot());
+    writePresentField(generator, "receiptsRoot", block.getReceiptsRoot());
+    writePresentField(generator, "miner", block.getMiner());
+    writePresentField(generator, "difficulty", block.getDifficulty());
+    writePresentField(generator, "totalDifficulty", block.getTotalDifficulty());
+    writePresentField(generator, "extraData", block.getExtraData());
+    writePresentField(generator, "size", block.getSize());
+    writePresentField(generator, "gasLimit", block.getGasLimit());
+    writePresentField(generator, "gasUsed", block.getGasUsed());
+    writePresentField(generator, "timestamp", block.getTimestamp());
+    if (block.getOmmers() != null) {
+      generator.writeFieldName("uncles");
+      generator.writeObject(block.getOmmers());
+    }
+    final List<TransactionResult> transactions = block.getTransactions();
+    if (transactions != null) {
+      generator.writeArrayFieldStart("transactions");
+      for (final TransactionResult transaction : transactions) {
+        if (transaction instanceof TransactionCompleteResult) {
+          writeTransaction(generator, (TransactionCompleteResult) transaction);
+        } else if (transaction instanceof TransactionHashResult) {
+          writeStringOrNull(generator, ((TransactionHashResult) transaction).getHash());
+        } else {
+          generator.writeObject(transaction);
+        }
+      }
+      generator.writeEndArray();
+    }
+    generator.writeEndObject();
+  }
+
+  private static void writeTransaction(
+      final JsonGenerator generator, final TransactionCompleteResult transaction)
+      throws IOException {
+    generator.writeStartObject();
+    writeField(generator, "blockHash", transaction.getBlockHash());
+    writeField(generator, "blockNumber", transaction.getBlockNumber());
+    writeField(generator, "from", transaction.getFrom());
+    writeField(generator, "gas", transaction.getGas());
+    writeField(generator, "gasPrice", transaction.getGasPrice());
+    writeField(generator, "hash", transaction.getHash());
+    writeField(generator, "input", transaction.getInput());
+    writeField(generator, "nonce", transaction.getNonce());
+    writeField(generator, "to", transaction.getTo());
+    writeField(generator, "transactionIndex", transaction.getTransactionIndex());
+    writeField(generator, "value", transaction.getValue());
+    writeField(generator, "v", transaction.getV());
+    writeField(generator, "r", transaction.getR());
+    writeField(generator, "s", transaction.getS());
+    generator.writeEndObject();
+  }
+
+  private static void writeReceipt(
+      final JsonGenerator generator, final TransactionReceiptResult receipt) throws IOException {
+    generator.writeStartObject();
+    writeField(generator, "blockHash", receipt.getBlockHash());
+    writeField(generator, "blockNumber", receipt.getBlockNumber());
+    writeField(generator, "contractAddress", receipt.getContractAddress());
+    writeField(generator, "cumulativeGasUsed", receipt.getCumulativeGasUsed());
+    writeField(generator, "from", receipt.getFrom());
+    writeField(generator, "gasUsed", receipt.getGasUsed());
+    generator.writeArrayFieldStart("logs");
+    for (final TransactionReceiptLogResult log : receipt.getLogs()) {
+      writeReceiptLog(generator, log);
+    }
+    generator.writeEndArray();
+    writeField(generator, "logsBloom", receipt.getLogsBloom());
+    if (receipt instanceof TransactionReceiptRootResult) {
+      writeField(generator, "root", ((TransactionReceiptRootResult) receipt).getRoot());
+    }
+    if (receipt instanceof TransactionReceiptStatusResult) {
+      writeField(generator, "status", ((TransactionReceiptStatusResult) receipt).getStatus());
+    }
+    writeField(generator, "to", receipt.getTo());
+    writeField(generator, "transactionHash", receipt.getTransactionHash());
+    writeField(generator, "transactionIndex", receipt.getTransactionIndex());
+    generator.writeEndObject();
+  }
+
+  private static void writeReceiptLog(
+      final JsonGenerator generator, final TransactionReceiptLogResult log) throws IOException {
+    generator.writeStartObject();
+    writeField(generator, "address", log.getAddress());
+    writeTopics(generator, log.getTopics());
+    writeField(generator, "data", log.getData());
+    writeField(generator, "blockNumber", log.getBlockNumber());
+    writeField(generator, "transactionHash", log.getTransactionHash());
+    writeField(generator, "transactionIndex", log.getTransactionIndex());
+    writeField(generator, "blockHash", log.getBlockHash());
+    writeField(generator, "logIndex", log.getLogIndex());
+    generator.writeBooleanField("removed", log.isRemoved());
+    generator.writeEndObject();
+  }
+
+  private static void writeLogs(final JsonGenerator generator, final List<LogResult> logs)
+      throws IOException {
+    generator.writeStartArray();
+    for (final LogResult log : logs) {
+      // Logs are JsonRpcResults, so absent values are left out rather than written as null.
+      generator.writeStartObject();
+      writePresentField(generator, "logIndex", log.getLogIndex());
+      generator.writeBooleanField("removed", log.isRemoved());
+      writePresentField(generator, "blockNumber", log.getBlockNumber());
+      writePresentField(generator, "blockHash", log.getBlockHash());
+      writePresentField(generator, "transactionHash", log.getTransactionHash());
+      writePresentField(generator, "transactionIndex", log.getTransactionIndex());
+      writePresentField(generator, "address", log.getAddress());
+      writePresentField(generator, "data", log.getData());
+      if (log.getTopics() != null) {
+        writeTopics(generator, log.getTopics());
+      }
+      generator.writeEndObject();
+    }
+    generator.writeEndArray();
+  }
+
+  private static void writeTopics(final JsonGenerator generator, final List<String> topics)
+      throws IOException {
+    if (topics == null) {
+      generator.writeNullField("topics");
+      return;
+    }
+    generator.writeArrayFieldStart("topics");
+    for (final String topic : topics) {
+      writeStringOrNull(generator, topic);
+    }
+    generator.writeEndArray();
+  }
+
+  private static void writeField(
+      final JsonGenerator generator, final String name, final String value) throws IOException {
+    generator.writeFieldName(name);
+    writeStringOrNull(generator, value);
+  }
+
+  private static void writePresentField(
+      final JsonGenerator generator, final String name, final String value) throws IOException {
+    if (value != null) {
+      generator.writeStringField(name, value);
+    }
+  }
+
+  private static void writeStringOrNull(final JsonGenerator generator, final String value)
+      throws IOException {
+    if (value == null) {
+      generator.writeNull();
+    } else {
+      generator.writeString(value);
+    }
+  }
+
+  private static class BufferOutputStream extends OutputStream {
+    private final Buffer buffer;
+
+    BufferOutputStream(final Buffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public void write(final int b) {
+      buffer.appendByte((byte) b);
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) {
+      buffer.appendBytes(bytes, offset, length);
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.jsonrpc.internal.results;
+
+import tech.pegasys.pantheon.ethereum.core.Address;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.worldstate.StateTrieAccountValue;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateProof;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.annotation.JsonGetter;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+@JsonPropertyOrder({
+  "address",
+  "balance",
+  "codeHash",
+  "nonce",
+  "storageHash",
+  "accountProof",
+  "storageProof"
+})
+public class GetProofResult implements JsonRpcResult {
+
+  private final String address;
+  private final String balance;
+  private final String codeHash;
+  private final String nonce;
+  private final String storageHash;
+  private final List<String> accountProof;
+  private final List<StorageEntryProof> storageProof;
+
+  public GetProofResult(final Address address, final WorldStateProof worldStateProof) {
+    final Optional<StateTrieAccountValue> account = worldStateProof.getStateTrieAccountValue();
+    this.address = address.toString();
+    this.balance = account.map(a -> Quantity.create(a.getBalance())).orElse(Quantity.create(0));
+    this.codeHash = account.map(StateTrieAccountValue::getCodeHash).orElse(Hash.EMPTY).toString();
+    this.nonce = Quantity.create(account.map(StateTrieAccountValue::getNonce).orElse(0L));
+    this.storageHash =
+        account.map(StateTrieAccountValue::getStorageRoot).orElse(Hash.EMPTY_TRIE_HASH).toString();
+    this.accountProof = toHexStrings(worldStateProof.getAccountProof());
+    this.storageProof = new ArrayList<>();
+    worldStateProof
+        .getStorageKeys()
+        .forEach(
+            key ->
+                storageProof.add(
+                    new StorageEntryProof(
+                        key.toHexString(),
+                        Quantity.create(worldStateProof.getStorageValue(key)),
+                        toHexStrings(worldStateProof.getStorageProof(key)))));
+  }
+
+  private static List<String> toHexStrings(final List<BytesValue> nodes) {
+    return nodes.stream().map(BytesValue::toString).collect(Collectors.toList());
+  }
+
+  @JsonGetter(value = "address")
+  public String getAddress() {
+    return address;
+  }
+
+  @JsonGetter(value = "balance")
+  public String getBalance() {
+    return balance;
+  }
+
+  @JsonGetter(value = "codeHash")
+  public String getCodeHash() {
+    return codeHash;
+  }
+
+  @JsonGetter(value = "nonce")
+  public String getNonce() {
+    return nonce;
+  }
+
+  @JsonGetter(value = "storageHash")
+  public String getStorageHash() {
+    return storageHash;
+  }
+
+  @JsonGetter(value = "accountProof")
+  public List<String> getAccountProof() {
+    return accountProof;
+  }
+
+  @JsonGetter(value = "storageProof")
+  public List<StorageEntryProof> getStorageProof() {
+    return storageProof;
+  }
+
+  @JsonPropertyOrder({"key", "value", "proof"})
+  public static class StorageEntryProof {
+    private final String key;
+    private final String value;
+    private final List<String> proof;
+
+    public StorageEntryProof(final String key, final String value, final List<String> proof) {
+      this.key = key;
+      this.value = value;
+      this.proof = proof;
+    }
+
+    @JsonGetter(value = "key")
+    public String getKey() {
+      return key;
+    }
+
+    @JsonGetter(value = "value")
+    public String getValue() {
+      return value;
+    }
+
+    @JsonGetter(value = "proof")
+    public List<String> getProof() {
+      return proof;
+    }
+  }
+}
@@ -13,6 +13,8 @@
 package tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription;
 
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.JsonRpcResult;
+import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.logs.LogsSubscription;
+import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.logs.LogsSubscriptionIndex;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.request.SubscribeRequest;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.request.SubscriptionType;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.request.UnsubscribeRequest;
@@ -48,7 +50,9 @@ public class SubscriptionManager extends AbstractVerticle {
   private final AtomicLong subscriptionCounter = new AtomicLong(0);
   private final Map<Long, Subscription> subscriptions = new HashMap<>();
   private final Map<String, List<Long>> connectionSubscriptionsMap = new HashMap<>();
+  private final Map<Long, String> subscriptionConnectionMap = new HashMap<>();
   private final SubscriptionBuilder subscriptionBuilder = new SubscriptionBuilder();
+  private final LogsSubscriptionIndex logsSubscriptionIndex = new LogsSubscriptionIndex();
 
   @Override
   public void start() {
@@ -67,10 +71,15 @@ public class SubscriptionManager extends AbstractVerticle {
 
   private void addSubscription(final Subscription subscription, final String connectionId) {
     subscriptions.put(subscription.getId(), subscription);
+    if (subscription.isType(SubscriptionType.LOGS)) {
+      logsSubscriptionIndex.add(
+          subscriptionBuilder.mapToSubscriptionClass(LogsSubscription.class).apply(subscription));
+    }
     mapSubscriptionToConnection(connectionId, subscription.getId());
   }
 
   private void mapSubscriptionToConnection(final String connectionId, final Long subscriptionId) {
+    subscriptionConnectionMap.put(subscriptionId, connectionId);
     if (connectionSubscriptionsMap.containsKey(connectionId)) {
       connectionSubscriptionsMap.get(connectionId).add(subscriptionId);
     } else {
@@ -101,6 +110,8 @@ public class SubscriptionManager extends AbstractVerticle {
 
   private void destroySubscription(final long subscriptionId, final String connectionId) {
     subscriptions.remove(subscriptionId);
+    logsSubscriptionIndex.remove(subscriptionId);
+    subscriptionConnectionMap.remove(subscriptionId);
 
     if (connectionSubscriptionsMap.containsKey(connectionId)) {
       removeSubscriptionToConnectionMapping(connectionId, subscriptionId);
@@ -151,15 +162,46 @@ public class SubscriptionManager extends AbstractVerticle {
         .collect(Collectors.toList());
   }
 
+  /**
+   * Returns the index of the active logs subscriptions, kept up to date as subscriptions are
+   * created and destroyed.
+   *
+   * @return The index of the logs subscriptions.
+   */
+  public LogsSubscriptionIndex logsSubscriptionIndex() {
+    return logsSubscriptionIndex;
+  }
+
   public void sendMessage(final Long subscriptionId, final JsonRpcResult msg) {
-    final SubscriptionResponse response = new SubscriptionResponse(subscriptionId, msg);
+    final String connectionId = subscriptionConnectionMap.get(subscriptionId);
+    if (connectionId != null) {
+      vertx
+          .eventBus()
+          .send(connectionId, Json.encode(new SubscriptionResponse(subscriptionId, msg)));
+    }
+  }
 
-    connectionSubscriptionsMap
-        .entrySet()
-        .stream()
-        .filter(e -> e.getValue().contains(subscriptionId))
-        .map(Entry::getKey)
-        .findFirst()
-        .ifPresent(connectionId -> vertx.eventBus().send(connectionId, Json.encode(response)));
+  /**
+   * Sends the same result to several subscriptions. The result is serialized once and only the
+   * subscription id differs between the messages.
+   *
+   * @param subscriptionIds The ids of the subscriptions to notify.
+   * @param msg The result to send.
+   */
+  public void sendMessageToSubscriptions(
+      final List<Long> subscriptionIds, final JsonRpcResult msg) {
+    String encodedResult = null;
+    for (final Long subscriptionId : subscriptionIds) {
+      final String connectionId = subscriptionConnectionMap.get(subscriptionId);
+      if (connectionId == null) {
+        continue;
+      }
+      if (encodedResult == null) {
+        encodedResult = Json.encode(msg);
+      }
+      vertx
+          .eventBus()
+          .send(connectionId, SubscriptionResponse.encode(subscriptionId, encodedResult));
+    }
   }
 }
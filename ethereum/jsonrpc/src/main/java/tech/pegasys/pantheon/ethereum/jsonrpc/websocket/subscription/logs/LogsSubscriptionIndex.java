@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.logs;
+
+import tech.pegasys.pantheon.ethereum.core.Address;
+import tech.pegasys.pantheon.ethereum.core.Log;
+import tech.pegasys.pantheon.ethereum.core.LogTopic;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.filter.LogsQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Indexes logs subscriptions by the addresses they filter on or, failing that, by the first topics
+ * they filter on, so that a log is only checked against the subscriptions that could match it.
+ *
+ * <p>Subscriptions are added and removed as they are created and destroyed, while logs are matched
+ * from the thread importing blocks, so the buckets are copied on write.
+ */
+public class LogsSubscriptionIndex {
+
+  private final Map<Long, IndexedSubscription> subscriptions = new ConcurrentHashMap<>();
+  private final Map<Address, List<IndexedSubscription>> byAddress = new ConcurrentHashMap<>();
+  private final Map<LogTopic, List<IndexedSubscription>> byFirstTopic = new ConcurrentHashMap<>();
+  private final List<IndexedSubscription> unindexed = new CopyOnWriteArrayList<>();
+
+  public void add(final LogsSubscription logsSubscription) {
+    final IndexedSubscription subscription =
+        new IndexedSubscription(logsSubscription.getId(), logsSubscription.getLogsQuery());
+    subscriptions.put(subscription.id, subscription);
+    final LogsQuery query = subscription.query;
+    if (!query.getAddresses().isEmpty()) {
+      for (final Address address : distinctAddresses(query)) {
+        addToBucket(byAddress, address, subscription);
+      }
+    } else if (isIndexedByFirstTopic(query)) {
+      for (final LogTopic topic : distinctFirstTopics(query)) {
+        addToBucket(byFirstTopic, topic, subscription);
+      }
+    } else {
+      unindexed.add(subscription);
+    }
+  }
+
+  public void remove(final Long subscriptionId) {
+    final IndexedSubscription subscription = subscriptions.remove(subscriptionId);
+    if (subscription == null) {
+      return;
+    }
+    final LogsQuery query = subscription.query;
+    if (!query.getAddresses().isEmpty()) {
+      for (final Address address : distinctAddresses(query)) {
+        removeFromBucket(byAddress, address, subscription);
+      }
+    } else if (isIndexedByFirstTopic(query)) {
+      for (final LogTopic topic : distinctFirstTopics(query)) {
+        removeFromBucket(byFirstTopic, topic, subscription);
+      }
+    } else {
+      unindexed.remove(subscription);
+    }
+  }
+
+  public boolean isEmpty() {
+    return subscriptions.isEmpty();
+  }
+
+  // Duplicate keys are dropped so that each log finds a subscription at most once.
+  private static Collection<Address> distinctAddresses(final LogsQuery query) {
+    return new HashSet<>(query.getAddresses());
+  }
+
+  private static Collection<LogTopic> distinctFirstTopics(final LogsQuery query) {
+    return new HashSet<>(query.getTopics().get(0));
+  }
+
+  private static boolean isIndexedByFirstTopic(final LogsQuery query) {
+    return !query.getTopics().isEmpty()
+        && !query.getTopics().get(0).isEmpty()
+        && !query.getTopics().get(0).contains(null);
+  }
+
+  private static <K> void addToBucket(
+      final Map<K, List<IndexedSubscription>> index,
+      final K key,
+      final IndexedSubscription subscription) {
+    index.compute(
+        key,
+        (k, bucket) -> {
+          final List<IndexedSubscription> updated =
+              bucket == null ? new CopyOnWriteArrayList<>() : bucket;
+          updated.add(subscription);
+          return updated;
+        });
+  }
+
+  private static <K> void removeFromBucket(
+      final Map<K, List<IndexedSubscription>> index,
+      final K key,
+      final IndexedSubscription subscription) {
+    index.computeIfPresent(
+        key,
+        (k, bucket) -> {
+          bucket.remove(subscription);
+          return bucket.isEmpty() ? null : bucket;
+        });
+  }
+
+  /**
+   * Returns the ids of the subscriptions matching a log.
+   *
+   * @param log The log to match.
+   * @return The ids of the matching subscriptions, each at most once.
+   */
+  public List<Long> matchingSubscriptionIds(final Log log) {
+    final List<Long> matching = new ArrayList<>();
+    addMatching(byAddress.getOrDefault(log.getLogger(), Collections.emptyList()), log, matching);
+    if (!log.getTopics().isEmpty()) {
+      addMatching(
+          byFirstTopic.getOrDefault(log.getTopics().get(0), Collections.emptyList()),
+          log,
+          matching);
+    }
+    addMatching(unindexed, log, matching);
+    return matching;
+  }
+
+  private static void addMatching(
+      final List<IndexedSubscription> candidates, final Log log, final List<Long> matching) {
+    for (final IndexedSubscription candidate : candidates) {
+      if (candidate.query.matches(log)) {
+        matching.add(candidate.id);
+      }
+    }
+  }
+
+  private static class IndexedSubscription {
+    private final Long id;
+    private final LogsQuery query;
+
+    private IndexedSubscription(final Long id, final LogsQuery query) {
+      this.id = id;
+      this.query = query;
+    }
+  }
+}
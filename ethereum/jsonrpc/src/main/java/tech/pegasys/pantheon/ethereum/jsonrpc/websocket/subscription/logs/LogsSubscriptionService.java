@@ -15,16 +15,17 @@ package tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.logs;
 import tech.pegasys.pantheon.ethereum.chain.BlockAddedEvent;
 import tech.pegasys.pantheon.ethereum.chain.BlockAddedObserver;
 import tech.pegasys.pantheon.ethereum.chain.Blockchain;
+import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.ethereum.core.Log;
+import tech.pegasys.pantheon.ethereum.core.Transaction;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.BlockchainQueries;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.LogWithMetadata;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.TransactionReceiptWithMetadata;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.LogResult;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.SubscriptionManager;
-import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.request.SubscriptionType;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.stream.Collectors;
 
 public class LogsSubscriptionService implements BlockAddedObserver {
 
@@ -39,61 +40,40 @@ public class LogsSubscriptionService implements BlockAddedObserver {
 
   @Override
   public void onBlockAdded(final BlockAddedEvent event, final Blockchain blockchain) {
-    final List<LogsSubscription> logsSubscriptions =
-        subscriptionManager.subscriptionsOfType(SubscriptionType.LOGS, LogsSubscription.class);
+    final LogsSubscriptionIndex index = subscriptionManager.logsSubscriptionIndex();
 
-    if (logsSubscriptions.isEmpty()) {
+    if (index.isEmpty()) {
       return;
     }
 
-    event
-        .getAddedTransactions()
-        .stream()
-        .map(tx -> blockchainQueries.transactionReceiptByTransactionHash(tx.hash()))
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .forEachOrdered(
-            receiptWithMetadata -> {
-              final List<Log> logs = receiptWithMetadata.getReceipt().getLogs();
-              sendLogsToMatchingSubscriptions(logs, logsSubscriptions, receiptWithMetadata, false);
-            });
-
-    event
-        .getRemovedTransactions()
-        .stream()
-        .map(tx -> blockchainQueries.transactionReceiptByTransactionHash(tx.hash()))
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .forEachOrdered(
-            receiptWithMetadata -> {
-              final List<Log> logs = receiptWithMetadata.getReceipt().getLogs();
-              sendLogsToMatchingSubscriptions(logs, logsSubscriptions, receiptWithMetadata, true);
-            });
+    sendLogsToMatchingSubscriptions(event.getAddedTransactions(), index, false);
+    sendLogsToMatchingSubscriptions(event.getRemovedTransactions(), index, true);
   }
 
   private void sendLogsToMatchingSubscriptions(
-      final List<Log> logs,
-      final List<LogsSubscription> logsSubscriptions,
-      final TransactionReceiptWithMetadata receiptWithMetadata,
+      final List<Transaction> transactions,
+      final LogsSubscriptionIndex index,
       final boolean removed) {
-    for (int logIndex = 0; logIndex < logs.size(); logIndex++) {
-      for (final LogsSubscription subscription : logsSubscriptions) {
-        if (subscription.getLogsQuery().matches(logs.get(logIndex))) {
-          sendLogToSubscription(receiptWithMetadata, removed, logIndex, subscription);
+    if (transactions.isEmpty()) {
+      return;
+    }
+    final List<Hash> transactionHashes =
+        transactions.stream().map(Transaction::hash).collect(Collectors.toList());
+    for (final TransactionReceiptWithMetadata receiptWithMetadata :
+        blockchainQueries.transactionReceiptsByTransactionHashes(transactionHashes)) {
+      final List<Log> logs = receiptWithMetadata.getReceipt().getLogs();
+      for (int logIndex = 0; logIndex < logs.size(); logIndex++) {
+        final List<Long> subscriptionIds = index.matchingSubscriptionIds(logs.get(logIndex));
+        if (!subscriptionIds.isEmpty()) {
+          final LogWithMetadata logWithMetaData =
+              logWithMetadata(logIndex, receiptWithMetadata, removed);
+          subscriptionManager.sendMessageToSubscriptions(
+              subscriptionIds, new LogResult(logWithMetaData));
         }
       }
     }
   }
 
-  private void sendLogToSubscription(
-      final TransactionReceiptWithMetadata receiptWithMetadata,
-      final boolean removed,
-      final int logIndex,
-      final LogsSubscription subscription) {
-    final LogWithMetadata logWithMetaData = logWithMetadata(logIndex, receiptWithMetadata, removed);
-    subscriptionManager.sendMessage(subscription.getId(), new LogResult(logWithMetaData));
-  }
-
   // @formatter:off
   private LogWithMetadata logWithMetadata(
       final int logIndex,
@@ -30,6 +30,26 @@ public class SubscriptionResponse {
     this.params = new SubscriptionResponseResult(Quantity.create(subscriptionId), result);
   }
 
+  /**
+   * Encodes a subscription response around a result that is already encoded, producing the same
+   * JSON as encoding a {@link SubscriptionResponse}.
+   *
+   * @param subscriptionId The id of the notified subscription.
+   * @param encodedResult The JSON encoded result.
+   * @return The JSON encoded response.
+   */
+  public static String encode(final long subscriptionId, final String encodedResult) {
+    return "{\"jsonrpc\":\""
+        + JSON_RPC_VERSION
+        + "\",\"method\":\""
+        + METHOD_NAME
+        + "\",\"params\":{\"subscription\":\""
+        + Quantity.create(subscriptionId)
+        + "\",\"result\":"
+        + encodedResult
+        + "}}";
+  }
+
   @JsonGetter("jsonrpc")
   public String getJsonrpc() {
     return JSON_RPC_VERSION;
@@ -17,6 +17,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import tech.pegasys.pantheon.ethereum.core.Address;
 import tech.pegasys.pantheon.ethereum.core.Log;
 import tech.pegasys.pantheon.ethereum.core.LogTopic;
+import tech.pegasys.pantheon.ethereum.core.LogsBloomFilter;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import java.util.ArrayList;
@@ -414,4 +415,41 @@ public class LogsQueryTest {
 
     assertThat(query.matches(log)).isTrue();
   }
+
+  @Test
+  public void bloomOfMatchingLogCouldMatch() {
+    final Address address = Address.fromHexString("0x1111111111111111111111111111111111111111");
+    final LogTopic topic =
+        LogTopic.fromHexString(
+            "0xaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa");
+    final List<List<LogTopic>> topicsQuery = new ArrayList<>();
+    topicsQuery.add(Lists.newArrayList(topic));
+    topicsQuery.add(Lists.newArrayList((LogTopic) null));
+    final LogsQuery query = new LogsQuery.Builder().address(address).topics(topicsQuery).build();
+    final Log log = new Log(address, BytesValue.fromHexString("0x0102"), Lists.newArrayList(topic));
+
+    assertThat(query.couldMatch(LogsBloomFilter.compute(Lists.newArrayList(log)))).isTrue();
+  }
+
+  @Test
+  public void bloomWithoutQueriedTopicCannotMatch() {
+    final Address address = Address.fromHexString("0x1111111111111111111111111111111111111111");
+    final LogTopic topic =
+        LogTopic.fromHexString(
+            "0xaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa");
+    final List<List<LogTopic>> topicsQuery = new ArrayList<>();
+    topicsQuery.add(Lists.newArrayList(topic));
+    final LogsQuery query = new LogsQuery.Builder().address(address).topics(topicsQuery).build();
+    final Log log = new Log(address, BytesValue.fromHexString("0x0102"), Lists.newArrayList());
+
+    assertThat(query.couldMatch(LogsBloomFilter.compute(Lists.newArrayList(log)))).isFalse();
+    assertThat(query.couldMatch(LogsBloomFilter.empty())).isFalse();
+  }
+
+  @Test
+  public void wildcardQueryCouldMatchEmptyBloom() {
+    final LogsQuery query = new LogsQuery.Builder().build();
+
+    assertThat(query.couldMatch(LogsBloomFilter.empty())).isTrue();
+  }
 }
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.pantheon.ethereum.core.Gas;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.Transaction;
+import tech.pegasys.pantheon.ethereum.debug.TraceFrame;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.JsonRpcRequest;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.parameters.JsonRpcParameter;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.processor.BlockTrace;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.processor.BlockTracer;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.processor.TransactionTrace;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcSuccessResponse;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.DebugTraceTransactionResult;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.StructLog;
+import tech.pegasys.pantheon.ethereum.mainnet.TransactionProcessor.Result;
+import tech.pegasys.pantheon.ethereum.vm.ExceptionalHaltReason;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.Test;
+
+public class DebugTraceBlockByHashTest {
+
+  private final JsonRpcParameter parameters = new JsonRpcParameter();
+  private final BlockTracer blockTracer = mock(BlockTracer.class);
+  private final DebugTraceBlockByHash debugTraceBlockByHash =
+      new DebugTraceBlockByHash(blockTracer, parameters);
+  private final Hash blockHash =
+      Hash.fromHexString("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa");
+
+  @Test
+  public void nameShouldBeDebugTraceBlockByHash() {
+    assertThat(debugTraceBlockByHash.getName()).isEqualTo("debug_traceBlockByHash");
+  }
+
+  @Test
+  public void shouldReturnOneResultPerTransactionInBlockOrder() {
+    final TraceFrame traceFrame =
+        new TraceFrame(
+            12,
+            "NONE",
+            Gas.of(45),
+            Optional.of(Gas.of(56)),
+            2,
+            EnumSet.noneOf(ExceptionalHaltReason.class),
+            Optional.empty(),
+            Optional.empty(),
+            Optional.empty());
+    final TransactionTrace firstTrace = transactionTrace(100L, 27L, "1234", traceFrame);
+    final TransactionTrace secondTrace = transactionTrace(50L, 10L, "5678");
+    when(blockTracer.trace(eq(blockHash), any()))
+        .thenReturn(Optional.of(new BlockTrace(Arrays.asList(firstTrace, secondTrace))));
+
+    final JsonRpcRequest request =
+        new JsonRpcRequest("2.0", "debug_traceBlockByHash", new Object[] {blockHash});
+    final JsonRpcSuccessResponse response =
+        (JsonRpcSuccessResponse) debugTraceBlockByHash.response(request);
+
+    @SuppressWarnings("unchecked")
+    final List<DebugTraceTransactionResult> results =
+        (List<DebugTraceTransactionResult>) response.getResult();
+    assertThat(results).hasSize(2);
+    assertThat(results.get(0).getGas()).isEqualTo(73);
+    assertThat(results.get(0).getReturnValue()).isEqualTo("1234");
+    assertThat(results.get(0).getStructLogs()).containsExactly(new StructLog(traceFrame));
+    assertThat(results.get(1).getGas()).isEqualTo(40);
+    assertThat(results.get(1).getReturnValue()).isEqualTo("5678");
+    assertThat(results.get(1).getStructLogs()).isEmpty();
+  }
+
+  @Test
+  public void shouldReturnNullWhenBlockCannotBeReplayed() {
+    when(blockTracer.trace(eq(blockHash), any())).thenReturn(Optional.empty());
+
+    final JsonRpcRequest request =
+        new JsonRpcRequest("2.0", "debug_traceBlockByHash", new Object[] {blockHash});
+    final JsonRpcSuccessResponse response =
+        (JsonRpcSuccessResponse) debugTraceBlockByHash.response(request);
+
+    assertThat(response.getResult()).isNull();
+  }
+
+  private TransactionTrace transactionTrace(
+      final long gasLimit,
+      final long gasRemaining,
+      final String output,
+      final TraceFrame... traceFrames) {
+    final Transaction transaction = mock(Transaction.class);
+    final Result result = mock(Result.class);
+    when(transaction.getGasLimit()).thenReturn(gasLimit);
+    when(result.getGasRemaining()).thenReturn(gasRemaining);
+    when(result.getOutput()).thenReturn(BytesValue.fromHexString(output));
+    return new TransactionTrace(transaction, result, Arrays.asList(traceFrames));
+  }
+}
@@ -14,7 +14,6 @@ package tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import tech.pegasys.pantheon.ethereum.chain.Blockchain;
@@ -22,7 +21,6 @@ import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.JsonRpcRequest;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.parameters.CallParameter;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.parameters.JsonRpcParameter;
-import tech.pegasys.pantheon.ethereum.jsonrpc.internal.processor.TransientTransactionProcessingResult;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.processor.TransientTransactionProcessor;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.BlockchainQueries;
 import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcError;
@@ -70,7 +68,7 @@ public class EthEstimateGasTest {
   @Test
   public void shouldReturnErrorWhenTransientTransactionProcessorReturnsEmpty() {
     final JsonRpcRequest request = ethEstimateGasRequest(callParameter());
-    when(transientTransactionProcessor.process(eq(modifiedCallParameter()), eq(1L)))
+    when(transientTransactionProcessor.estimateGas(eq(modifiedCallParameter()), eq(1L)))
         .thenReturn(Optional.empty());
 
     final JsonRpcResponse expectedResponse =
@@ -90,11 +88,8 @@ public class EthEstimateGasTest {
   }
 
   private void mockTransientProcessorResultGasEstimate(final long gasEstimate) {
-    final TransientTransactionProcessingResult result =
-        mock(TransientTransactionProcessingResult.class);
-    when(result.getGasEstimate()).thenReturn(gasEstimate);
-    when(transientTransactionProcessor.process(eq(modifiedCallParameter()), eq(1L)))
-        .thenReturn(Optional.of(result));
+    when(transientTransactionProcessor.estimateGas(eq(modifiedCallParameter()), eq(1L)))
+        .thenReturn(Optional.of(gasEstimate));
   }
 
   private CallParameter callParameter() {
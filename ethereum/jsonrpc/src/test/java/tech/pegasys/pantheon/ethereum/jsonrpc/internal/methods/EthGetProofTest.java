@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.jsonrpc.internal.methods;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.pantheon.ethereum.core.Address;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.MutableAccount;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.ethereum.core.Wei;
+import tech.pegasys.pantheon.ethereum.core.WorldUpdater;
+import tech.pegasys.pantheon.ethereum.db.WorldStateArchive;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.JsonRpcRequest;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.parameters.JsonRpcParameter;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.BlockchainQueries;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.response.JsonRpcSuccessResponse;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.GetProofResult;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.GetProofResult.StorageEntryProof;
+import tech.pegasys.pantheon.ethereum.worldstate.KeyValueStorageWorldStateStorage;
+import tech.pegasys.pantheon.services.kvstore.InMemoryKeyValueStorage;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class EthGetProofTest {
+
+  private static final Address ADDRESS =
+      Address.fromHexString("0x6295ee1b4f6dd65047762f924ecd367c17eabf8f");
+
+  private final JsonRpcParameter parameters = new JsonRpcParameter();
+  private final BlockchainQueries blockchainQueries = mock(BlockchainQueries.class);
+  private final WorldStateArchive worldStateArchive =
+      new WorldStateArchive(new KeyValueStorageWorldStateStorage(new InMemoryKeyValueStorage()));
+  private final EthGetProof method = new EthGetProof(blockchainQueries, parameters);
+
+  private Hash stateRoot;
+
+  @Before
+  public void setUp() {
+    final MutableWorldState worldState = worldStateArchive.getMutable();
+    final WorldUpdater updater = worldState.updater();
+    final MutableAccount account = updater.createAccount(ADDRESS, 3, Wei.of(100000));
+    account.setStorageValue(UInt256.ONE, UInt256.of(42));
+    updater.createAccount(Address.fromHexString("0x01")).setBalance(Wei.of(1));
+    updater.commit();
+    worldState.persist();
+    stateRoot = worldState.rootHash();
+
+    when(blockchainQueries.headBlockNumber()).thenReturn(1L);
+  }
+
+  @Test
+  public void shouldReturnAccountAndStorageProofs() {
+    proveFromWorldState(stateRoot);
+    final GetProofResult result = getProof(ADDRESS, "0x1", "0x2");
+
+    assertThat(result.getAddress()).isEqualTo(ADDRESS.toString());
+    assertThat(result.getBalance()).isEqualTo("0x186a0");
+    assertThat(result.getNonce()).isEqualTo("0x3");
+    assertThat(result.getCodeHash()).isEqualTo(Hash.EMPTY.toString());
+    assertThat(result.getStorageHash()).isNotEqualTo(Hash.EMPTY_TRIE_HASH.toString());
+    assertThat(firstNodeHash(result.getAccountProof())).isEqualTo(stateRoot);
+
+    final List<StorageEntryProof> storageProof = result.getStorageProof();
+    assertThat(storageProof).hasSize(2);
+    assertThat(storageProof.get(0).getKey()).isEqualTo(UInt256.ONE.toHexString());
+    assertThat(storageProof.get(0).getValue()).isEqualTo("0x2a");
+    assertThat(firstNodeHash(storageProof.get(0).getProof()).toString())
+        .isEqualTo(result.getStorageHash());
+    assertThat(storageProof.get(1).getValue()).isEqualTo("0x0");
+    assertThat(storageProof.get(1).getProof()).isEqualTo(storageProof.get(0).getProof());
+  }
+
+  @Test
+  public void shouldProveAbsenceOfMissingAccount() {
+    proveFromWorldState(stateRoot);
+    final GetProofResult result = getProof(Address.fromHexString("0x02"), "0x1");
+
+    assertThat(result.getBalance()).isEqualTo("0x0");
+    assertThat(result.getNonce()).isEqualTo("0x0");
+    assertThat(result.getStorageHash()).isEqualTo(Hash.EMPTY_TRIE_HASH.toString());
+    assertThat(firstNodeHash(result.getAccountProof())).isEqualTo(stateRoot);
+    assertThat(result.getStorageProof().get(0).getProof()).containsExactly("0x80");
+  }
+
+  @Test
+  public void shouldReturnNullWhenWorldStateIsNotAvailable() {
+    proveFromWorldState(Hash.ZERO);
+
+    final JsonRpcRequest request =
+        new JsonRpcRequest(
+            "2.0", "eth_getProof", new Object[] {ADDRESS.toString(), new String[0], "0x1"});
+    final JsonRpcSuccessResponse response = (JsonRpcSuccessResponse) method.response(request);
+
+    assertThat(response.getResult()).isNull();
+  }
+
+  private void proveFromWorldState(final Hash worldStateRoot) {
+    when(blockchainQueries.getAccountProof(any(), any(), anyLong()))
+        .thenAnswer(
+            invocation ->
+                worldStateArchive.getAccountProof(
+                    worldStateRoot, invocation.getArgument(0), invocation.getArgument(1)));
+  }
+
+  private GetProofResult getProof(final Address address, final String... storageKeys) {
+    final JsonRpcRequest request =
+        new JsonRpcRequest(
+            "2.0", "eth_getProof", new Object[] {address.toString(), storageKeys, "latest"});
+    final JsonRpcSuccessResponse response = (JsonRpcSuccessResponse) method.response(request);
+    return (GetProofResult) response.getResult();
+  }
+
+  private static Hash firstNodeHash(final List<String> proof) {
+    return Hash.hash(BytesValue.fromHexString(proof.get(0)));
+  }
+}
@@ -16,6 +16,7 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import tech.pegasys.pantheon.ethereum.chain.Blockchain;
@@ -33,6 +34,7 @@ import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSpec;
 import tech.pegasys.pantheon.ethereum.mainnet.TransactionProcessor;
 import tech.pegasys.pantheon.ethereum.mainnet.TransactionProcessor.Result;
 import tech.pegasys.pantheon.ethereum.vm.DebugOperationTracer;
+import tech.pegasys.pantheon.ethereum.vm.OperationTracer;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -69,6 +71,8 @@ public class TransactionTracerTest {
 
   @Mock private MutableWorldState mutableWorldState;
 
+  @Mock private WorldUpdater worldUpdater;
+
   @Mock private TransactionProcessor transactionProcessor;
 
   private TransactionTracer transactionTracer;
@@ -96,6 +100,7 @@ public class TransactionTracerTest {
     when(blockHeader.getHash()).thenReturn(blockHash);
     when(blockHeader.getParentHash()).thenReturn(previousBlockHash);
     when(previousBlockHeader.getStateRoot()).thenReturn(Hash.ZERO);
+    when(worldStateArchive.createOverlay()).thenReturn(worldStateArchive);
     when(worldStateArchive.getMutable(Hash.ZERO)).thenReturn(mutableWorldState);
     when(protocolSchedule.getByBlockNumber(12)).thenReturn(protocolSpec);
     when(protocolSpec.getTransactionProcessor()).thenReturn(transactionProcessor);
@@ -132,6 +137,7 @@ public class TransactionTracerTest {
 
     when(blockBody.getTransactions()).thenReturn(Arrays.asList(otherTransaction, transaction));
     when(blockchain.getBlockBody(blockHash)).thenReturn(Optional.of(blockBody));
+    when(mutableWorldState.updater()).thenReturn(worldUpdater);
     final List<TraceFrame> traceFrames = Collections.singletonList(mock(TraceFrame.class));
     when(tracer.getTraceFrames()).thenReturn(traceFrames);
 
@@ -139,6 +145,16 @@ public class TransactionTracerTest {
         transactionTracer.traceTransaction(blockHash, transactionHash, tracer);
 
     assertEquals(traceFrames, transactionTrace.get().getTraceFrames());
+    verify(transactionProcessor)
+        .processTransaction(
+            eq(blockchain),
+            eq(worldUpdater),
+            eq(blockHeader),
+            eq(otherTransaction),
+            any(),
+            eq(OperationTracer.NO_TRACING),
+            any());
+    verify(worldUpdater).commit();
   }
 
   @Test
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.jsonrpc.internal.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import tech.pegasys.pantheon.ethereum.chain.Blockchain;
+import tech.pegasys.pantheon.ethereum.core.BlockHeader;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.MutableWorldState;
+import tech.pegasys.pantheon.ethereum.core.Transaction;
+import tech.pegasys.pantheon.ethereum.core.WorldUpdater;
+import tech.pegasys.pantheon.ethereum.db.WorldStateArchive;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.parameters.CallParameter;
+import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
+import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSpec;
+import tech.pegasys.pantheon.ethereum.mainnet.TransactionProcessor;
+import tech.pegasys.pantheon.ethereum.mainnet.TransactionProcessor.Result;
+import tech.pegasys.pantheon.ethereum.vm.BlockHashLookup;
+
+import java.util.Optional;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TransientTransactionProcessorTest {
+
+  private static final long BLOCK_GAS_LIMIT = 50_000L;
+
+  @Mock private Blockchain blockchain;
+  @Mock private WorldStateArchive worldStateArchive;
+  @Mock private ProtocolSchedule<Void> protocolSchedule;
+  @Mock private ProtocolSpec<Void> protocolSpec;
+  @Mock private TransactionProcessor transactionProcessor;
+  @Mock private BlockHeader blockHeader;
+  @Mock private MutableWorldState worldState;
+  @Mock private WorldUpdater worldUpdater;
+
+  private TransientTransactionProcessor transientTransactionProcessor;
+
+  @Before
+  public void setUp() {
+    when(blockchain.getBlockHeader(1L)).thenReturn(Optional.of(blockHeader));
+    when(blockHeader.getNumber()).thenReturn(1L);
+    when(blockHeader.getStateRoot()).thenReturn(Hash.ZERO);
+    when(blockHeader.getGasLimit()).thenReturn(BLOCK_GAS_LIMIT);
+    when(worldStateArchive.getMutable(Hash.ZERO)).thenReturn(worldState);
+    when(worldState.updater()).thenReturn(worldUpdater);
+    when(protocolSchedule.getByBlockNumber(1L)).thenReturn(protocolSpec);
+    when(protocolSpec.getTransactionProcessor()).thenReturn(transactionProcessor);
+    when(protocolSpec.getMiningBeneficiaryCalculator()).thenReturn(BlockHeader::getCoinbase);
+
+    transientTransactionProcessor =
+        new TransientTransactionProcessor(blockchain, worldStateArchive, protocolSchedule);
+  }
+
+  @Test
+  public void estimateGasShouldReturnEmptyWhenBlockIsNotAvailable() {
+    assertThat(transientTransactionProcessor.estimateGas(callParameter(), 2L)).isEmpty();
+  }
+
+  @Test
+  public void estimateGasShouldStopAtGasUsedWhenItIsEnough() {
+    mockExecution(21_000L, 21_000L);
+
+    assertThat(transientTransactionProcessor.estimateGas(callParameter(), 1L)).contains(21_000L);
+    verify(transactionProcessor, times(2))
+        .processTransaction(any(), any(), any(), any(), any(), any(BlockHashLookup.class));
+  }
+
+  @Test
+  public void estimateGasShouldSearchLowestSucceedingGasLimitAboveGasUsed() {
+    mockExecution(30_000L, 25_000L);
+
+    assertThat(transientTransactionProcessor.estimateGas(callParameter(), 1L)).contains(30_000L);
+  }
+
+  @Test
+  public void estimateGasShouldReturnGasUsedWhenCallFailsWithMaximumGasLimit() {
+    mockExecution(BLOCK_GAS_LIMIT + 1, 40_000L);
+
+    assertThat(transientTransactionProcessor.estimateGas(callParameter(), 1L)).contains(40_000L);
+    verify(transactionProcessor)
+        .processTransaction(any(), any(), any(), any(), any(), any(BlockHashLookup.class));
+  }
+
+  /** Executions succeed from the required gas limit on, and then use the given amount of gas. */
+  private void mockExecution(final long requiredGas, final long gasUsed) {
+    when(transactionProcessor.processTransaction(
+            any(), any(), any(), any(), any(), any(BlockHashLookup.class)))
+        .thenAnswer(
+            invocation -> {
+              final long gasLimit = invocation.<Transaction>getArgument(3).getGasLimit();
+              final Result result = mock(Result.class);
+              when(result.isSuccessful()).thenReturn(gasLimit >= requiredGas);
+              when(result.getGasRemaining()).thenReturn(Math.max(gasLimit - gasUsed, 0L));
+              return result;
+            });
+  }
+
+  private CallParameter callParameter() {
+    return new CallParameter(
+        "0x6295ee1b4f6dd65047762f924ecd367c17eabf8f",
+        "0x8888f1f195afa192cfee860698584c030f4c9db1",
+        null,
+        null,
+        null,
+        null);
+  }
+}
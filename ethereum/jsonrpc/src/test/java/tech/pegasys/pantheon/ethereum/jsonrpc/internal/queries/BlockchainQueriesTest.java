@@ -17,8 +17,13 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 import static tech.pegasys.pantheon.ethereum.core.InMemoryWorldState.createInMemoryWorldStateArchive;
 
+import tech.pegasys.pantheon.ethereum.chain.BloomBitsIndex;
 import tech.pegasys.pantheon.ethereum.chain.MutableBlockchain;
 import tech.pegasys.pantheon.ethereum.core.Account;
 import tech.pegasys.pantheon.ethereum.core.Address;
@@ -41,6 +46,7 @@ import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -344,6 +350,40 @@ public class BlockchainQueriesTest {
     assertThat(logs).allMatch(LogWithMetadata::isRemoved);
   }
 
+  @Test
+  public void matchingLogsInRangeShouldReturnTheLogsOfEachBlock() {
+    final BlockchainWithData data = setupBlockchain(3);
+    final List<LogWithMetadata> expected = new ArrayList<>();
+    for (final BlockData blockData : data.blockData) {
+      expected.addAll(
+          data.blockchainQueries.matchingLogs(blockData.block.getHash(), new Builder().build()));
+    }
+
+    final List<LogWithMetadata> logs =
+        data.blockchainQueries.matchingLogs(0, 2, new Builder().build());
+
+    assertThat(logs).isNotEmpty();
+    assertThat(logs).usingFieldByFieldElementComparator().containsExactlyElementsOf(expected);
+  }
+
+  @Test
+  public void matchingLogsInRangeShouldOnlyReadCandidateBlocksOfIndexedSections() {
+    final BlockchainWithData data = setupBlockchain(3);
+    final BloomBitsIndex bloomBitsIndex = mock(BloomBitsIndex.class);
+    final BitSet candidates = new BitSet();
+    candidates.set(1);
+    when(bloomBitsIndex.matchingBlocks(eq(0L), any())).thenReturn(Optional.of(candidates));
+    final BlockchainQueries queries =
+        new BlockchainQueries(
+            data.blockchain, data.worldStateArchive, Optional.of(bloomBitsIndex));
+    final Hash candidateHash = data.blockData.get(1).block.getHash();
+
+    final List<LogWithMetadata> logs = queries.matchingLogs(0, 2, new Builder().build());
+
+    assertThat(logs).isNotEmpty();
+    assertThat(logs).allMatch(log -> log.getBlockHash().equals(candidateHash));
+  }
+
   @Test
   public void getOmmerByBlockHashAndIndexShouldReturnEmptyWhenBlockDoesNotExist() {
     final BlockchainWithData data = setupBlockchain(3);
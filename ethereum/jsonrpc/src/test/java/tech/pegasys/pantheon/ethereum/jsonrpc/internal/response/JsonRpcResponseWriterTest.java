@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.jsonrpc.internal.response;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.crypto.SECP256K1;
+import tech.pegasys.pantheon.ethereum.core.Block;
+import tech.pegasys.pantheon.ethereum.core.Hash;
+import tech.pegasys.pantheon.ethereum.core.Log;
+import tech.pegasys.pantheon.ethereum.core.Transaction;
+import tech.pegasys.pantheon.ethereum.core.TransactionReceipt;
+import tech.pegasys.pantheon.ethereum.core.Wei;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.BlockWithMetadata;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.LogWithMetadata;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.TransactionReceiptWithMetadata;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.queries.TransactionWithMetadata;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.BlockResultFactory;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.LogsResult;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.TransactionCompleteResult;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.TransactionReceiptRootResult;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.TransactionReceiptStatusResult;
+import tech.pegasys.pantheon.ethereum.testutil.BlockDataGenerator;
+import tech.pegasys.pantheon.util.uint.UInt256;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import io.vertx.core.json.Json;
+import org.junit.Test;
+
+public class JsonRpcResponseWriterTest {
+
+  private final BlockDataGenerator gen = new BlockDataGenerator();
+  private final BlockResultFactory blockResultFactory = new BlockResultFactory();
+
+  @Test
+  public void writesBlockWithFullTransactionsLikeJackson() {
+    final Block block = gen.block();
+    final List<TransactionWithMetadata> transactions = new ArrayList<>();
+    for (int i = 0; i < block.getBody().getTransactions().size(); i++) {
+      transactions.add(
+          new TransactionWithMetadata(
+              block.getBody().getTransactions().get(i),
+              block.getHeader().getNumber(),
+              block.getHash(),
+              i));
+    }
+    final BlockWithMetadata<TransactionWithMetadata, Hash> blockWithMetadata =
+        new BlockWithMetadata<>(
+            block.getHeader(), transactions, Arrays.asList(gen.hash()), UInt256.of(10), 1000);
+
+    assertWrittenLikeJackson(
+        new JsonRpcSuccessResponse(1, blockResultFactory.transactionComplete(blockWithMetadata)));
+  }
+
+  @Test
+  public void writesBlockWithTransactionHashesLikeJackson() {
+    final Block block = gen.block();
+    final List<Hash> transactionHashes = new ArrayList<>();
+    block.getBody().getTransactions().forEach(t -> transactionHashes.add(t.hash()));
+    final BlockWithMetadata<Hash, Hash> blockWithMetadata =
+        new BlockWithMetadata<>(
+            block.getHeader(), transactionHashes, new ArrayList<>(), UInt256.of(10), 1000);
+
+    assertWrittenLikeJackson(
+        new JsonRpcSuccessResponse("id", blockResultFactory.transactionHash(blockWithMetadata)));
+  }
+
+  @Test
+  public void writesTransactionWithoutRecipientLikeJackson() {
+    final Transaction transaction =
+        Transaction.builder()
+            .nonce(1)
+            .gasPrice(Wei.of(1))
+            .gasLimit(21000)
+            .value(Wei.of(100))
+            .payload(gen.bytesValue())
+            .signAndBuild(SECP256K1.KeyPair.generate());
+
+    assertWrittenLikeJackson(
+        new JsonRpcSuccessResponse(
+            null,
+            new TransactionCompleteResult(
+                new TransactionWithMetadata(transaction, 5, gen.hash(), 0))));
+  }
+
+  @Test
+  public void writesReceiptsLikeJackson() {
+    final Transaction transaction = gen.transaction();
+    final List<Log> logs = Arrays.asList(gen.log(), gen.log());
+    final TransactionReceipt statusReceipt = new TransactionReceipt(1, 21000, logs);
+    final TransactionReceipt rootReceipt = new TransactionReceipt(gen.hash(), 21000, logs);
+
+    assertWrittenLikeJackson(
+        new JsonRpcSuccessResponse(
+            7,
+            new TransactionReceiptStatusResult(
+                TransactionReceiptWithMetadata.create(
+                    statusReceipt, transaction, transaction.hash(), 1, 21000, gen.hash(), 3))));
+    assertWrittenLikeJackson(
+        new JsonRpcSuccessResponse(
+            7,
+            new TransactionReceiptRootResult(
+                TransactionReceiptWithMetadata.create(
+                    rootReceipt, transaction, transaction.hash(), 1, 21000, gen.hash(), 3))));
+  }
+
+  @Test
+  public void writesLogsLikeJackson() {
+    final List<LogWithMetadata> logs = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      final Log log = gen.log();
+      logs.add(
+          LogWithMetadata.create(
+              i,
+              10,
+              gen.hash(),
+              gen.hash(),
+              2,
+              log.getLogger(),
+              log.getData(),
+              log.getTopics(),
+              i % 2 == 0));
+    }
+
+    assertWrittenLikeJackson(new JsonRpcSuccessResponse(1, new LogsResult(logs)));
+  }
+
+  @Test
+  public void writesOtherResponsesLikeJackson() {
+    assertWrittenLikeJackson(new JsonRpcSuccessResponse(1, "0x1"));
+    assertWrittenLikeJackson(new JsonRpcSuccessResponse(1, null));
+    assertWrittenLikeJackson(new JsonRpcErrorResponse(2, JsonRpcError.INVALID_PARAMS));
+  }
+
+  @Test
+  public void writesBatchesLikeJackson() {
+    final JsonRpcResponse[] responses = {
+      new JsonRpcSuccessResponse(1, "0x1"),
+      new JsonRpcErrorResponse(2, JsonRpcError.METHOD_NOT_FOUND),
+      new JsonRpcSuccessResponse(3, new LogsResult(new ArrayList<>()))
+    };
+
+    assertThat(JsonRpcResponseWriter.write(responses).toString()).isEqualTo(Json.encode(responses));
+  }
+
+  private void assertWrittenLikeJackson(final JsonRpcResponse response) {
+    assertThat(JsonRpcResponseWriter.write(response).toString()).isEqualTo(Json.encode(response));
+  }
+}
@@ -19,7 +19,9 @@ import tech.pegasys.pantheon.ethereum.jsonrpc.internal.results.JsonRpcResult;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.request.SubscribeRequest;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.request.SubscriptionType;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.response.SubscriptionResponse;
+import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.syncing.NotSynchronisingResult;
 
+import java.util.Arrays;
 import java.util.UUID;
 
 import io.vertx.core.Vertx;
@@ -73,6 +75,47 @@ public class SubscriptionManagerSendMessageTest {
     async.awaitSuccess(VERTX_AWAIT_TIMEOUT_MILLIS);
   }
 
+  @Test
+  public void shouldSendSameResultToEachSubscriptionOnItsConnection(final TestContext context) {
+    final String firstConnectionId = UUID.randomUUID().toString();
+    final String secondConnectionId = UUID.randomUUID().toString();
+    final Long firstSubscriptionId =
+        subscriptionManager.subscribe(
+            new SubscribeRequest(SubscriptionType.SYNCING, null, null, firstConnectionId));
+    final Long secondSubscriptionId =
+        subscriptionManager.subscribe(
+            new SubscribeRequest(SubscriptionType.SYNCING, null, null, secondConnectionId));
+
+    final JsonRpcResult result = new NotSynchronisingResult();
+
+    final Async async = context.async(2);
+
+    vertx
+        .eventBus()
+        .consumer(firstConnectionId)
+        .handler(
+            msg -> {
+              context.assertEquals(
+                  Json.encode(new SubscriptionResponse(firstSubscriptionId, result)), msg.body());
+              async.countDown();
+            });
+    vertx
+        .eventBus()
+        .consumer(secondConnectionId)
+        .handler(
+            msg -> {
+              context.assertEquals(
+                  Json.encode(new SubscriptionResponse(secondSubscriptionId, result)), msg.body());
+              async.countDown();
+            })
+        .completionHandler(
+            v ->
+                subscriptionManager.sendMessageToSubscriptions(
+                    Arrays.asList(firstSubscriptionId, secondSubscriptionId, 99L), result));
+
+    async.awaitSuccess(VERTX_AWAIT_TIMEOUT_MILLIS);
+  }
+
   @Test
   public void shouldNotSendMessageOnTheConnectionIdEventBusAddressForAbsentSubscription(
       final TestContext context) {
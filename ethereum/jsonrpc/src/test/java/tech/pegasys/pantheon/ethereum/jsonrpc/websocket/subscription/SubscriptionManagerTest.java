@@ -19,12 +19,17 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.junit.internal.matchers.ThrowableMessageMatcher.hasMessage;
 
+import tech.pegasys.pantheon.ethereum.core.Address;
+import tech.pegasys.pantheon.ethereum.core.Log;
+import tech.pegasys.pantheon.ethereum.jsonrpc.internal.parameters.FilterParameter;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.blockheaders.NewBlockHeadersSubscription;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.request.SubscribeRequest;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.request.SubscriptionType;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.request.UnsubscribeRequest;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.syncing.SyncingSubscription;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
@@ -195,6 +200,26 @@ public class SubscriptionManagerTest {
     assertThat(subscriptions).hasSize(0);
   }
 
+  @Test
+  public void logsSubscriptionShouldBeIndexedUntilUnsubscribed() {
+    final Address address = Address.fromHexString("0x1");
+    final FilterParameter filterParameter =
+        new FilterParameter(null, null, Collections.singletonList(address.toString()), null, null);
+    final Log log = new Log(address, BytesValue.EMPTY, Collections.emptyList());
+
+    final Long subscriptionId =
+        subscriptionManager.subscribe(
+            new SubscribeRequest(SubscriptionType.LOGS, filterParameter, null, CONNECTION_ID));
+
+    assertThat(subscriptionManager.logsSubscriptionIndex().matchingSubscriptionIds(log))
+        .containsExactly(subscriptionId);
+
+    subscriptionManager.unsubscribe(new UnsubscribeRequest(subscriptionId, CONNECTION_ID));
+
+    assertThat(subscriptionManager.logsSubscriptionIndex().isEmpty()).isTrue();
+    assertThat(subscriptionManager.logsSubscriptionIndex().matchingSubscriptionIds(log)).isEmpty();
+  }
+
   @Test
   public void unsubscribeOthersSubscriptionsNotHavingOwnSubscriptionShouldReturnNotFound() {
     final SubscribeRequest subscribeRequest = subscribeRequest(CONNECTION_ID);
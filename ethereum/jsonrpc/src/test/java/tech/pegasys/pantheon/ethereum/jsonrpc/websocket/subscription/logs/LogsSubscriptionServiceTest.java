@@ -12,6 +12,7 @@
  */
 package tech.pegasys.pantheon.ethereum.jsonrpc.websocket.subscription.logs;
 
+import static java.util.Collections.singletonList;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.refEq;
@@ -29,6 +30,7 @@ import tech.pegasys.pantheon.ethereum.core.BlockHeader;
 import tech.pegasys.pantheon.ethereum.core.BlockHeaderTestFixture;
 import tech.pegasys.pantheon.ethereum.core.Hash;
 import tech.pegasys.pantheon.ethereum.core.Log;
+import tech.pegasys.pantheon.ethereum.core.LogTopic;
 import tech.pegasys.pantheon.ethereum.core.Transaction;
 import tech.pegasys.pantheon.ethereum.core.TransactionReceipt;
 import tech.pegasys.pantheon.ethereum.core.TransactionTestFixture;
@@ -42,8 +44,11 @@ import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 
 import com.google.common.collect.Lists;
 import org.junit.Before;
@@ -55,9 +60,14 @@ import org.mockito.junit.MockitoJUnitRunner;
 @RunWith(MockitoJUnitRunner.class)
 public class LogsSubscriptionServiceTest {
 
+  private static final String HASH_ONE =
+      "0x0000000000000000000000000000000000000000000000000000000000000001";
+
   private final KeyPair keyPair = KeyPair.generate();
   private final BlockHeaderTestFixture blockHeaderTestFixture = new BlockHeaderTestFixture();
   private final TransactionTestFixture txTestFixture = new TransactionTestFixture();
+  private final Map<Hash, TransactionReceiptWithMetadata> receipts = new HashMap<>();
+  private final LogsSubscriptionIndex logsSubscriptionIndex = new LogsSubscriptionIndex();
 
   private LogsSubscriptionService logsSubscriptionService;
 
@@ -68,6 +78,7 @@ public class LogsSubscriptionServiceTest {
   @Before
   public void before() {
     logsSubscriptionService = new LogsSubscriptionService(subscriptionManager, blockchainQueries);
+    when(subscriptionManager.logsSubscriptionIndex()).thenReturn(logsSubscriptionIndex);
   }
 
   @Test
@@ -80,7 +91,9 @@ public class LogsSubscriptionServiceTest {
 
     logsSubscriptionService.onBlockAdded(createBlockAddedEvent(transaction, null), blockchain);
 
-    verify(subscriptionManager).sendMessage(eq(subscription.getId()), refEq(expectedLogResult));
+    verify(subscriptionManager)
+        .sendMessageToSubscriptions(
+            eq(Collections.singletonList(subscription.getId())), refEq(expectedLogResult));
   }
 
   @Test
@@ -93,7 +106,9 @@ public class LogsSubscriptionServiceTest {
 
     logsSubscriptionService.onBlockAdded(createBlockAddedEvent(null, transaction), blockchain);
 
-    verify(subscriptionManager).sendMessage(eq(subscription.getId()), refEq(expectedLogResult));
+    verify(subscriptionManager)
+        .sendMessageToSubscriptions(
+            eq(Collections.singletonList(subscription.getId())), refEq(expectedLogResult));
   }
 
   @Test
@@ -109,7 +124,9 @@ public class LogsSubscriptionServiceTest {
 
     final int totalOfLogs = addedTransactions.size() + removedTransactions.size();
 
-    verify(subscriptionManager, times(totalOfLogs)).sendMessage(eq(subscription.getId()), any());
+    verify(subscriptionManager, times(totalOfLogs))
+        .sendMessageToSubscriptions(eq(Collections.singletonList(subscription.getId())), any());
+    verify(blockchainQueries, times(2)).transactionReceiptsByTransactionHashes(any());
   }
 
   @Test
@@ -122,8 +139,40 @@ public class LogsSubscriptionServiceTest {
 
     logsSubscriptionService.onBlockAdded(createBlockAddedEvent(transaction, null), blockchain);
 
-    verify(subscriptionManager, times(subscriptions.size()))
-        .sendMessage(any(), refEq(expectedLogResult));
+    verify(subscriptionManager)
+        .sendMessageToSubscriptions(
+            eq(subscriptions.stream().map(LogsSubscription::getId).collect(Collectors.toList())),
+            refEq(expectedLogResult));
+  }
+
+  @Test
+  public void shouldSendLogMessageToSubscriptionsMatchingFirstTopic() {
+    final LogTopic topic = LogTopic.fromHexString(HASH_ONE);
+    final FilterParameter filterParameter =
+        new FilterParameter(null, null, null, singletonList(singletonList(HASH_ONE)), null);
+    final LogsSubscription subscription = new LogsSubscription(1L, filterParameter);
+    logsSubscriptionIndex.add(subscription);
+    final Transaction transaction = createTransaction();
+    final Log log = new Log(Address.fromHexString("0x1"), BytesValue.EMPTY, singletonList(topic));
+    final LogResult expectedLogResult = createLogResult(transaction, log, false);
+
+    logsSubscriptionService.onBlockAdded(createBlockAddedEvent(transaction, null), blockchain);
+
+    verify(subscriptionManager)
+        .sendMessageToSubscriptions(eq(singletonList(1L)), refEq(expectedLogResult));
+  }
+
+  @Test
+  public void shouldNotSendLogMessageWhenTopicsDoNotMatchSubscription() {
+    final FilterParameter filterParameter =
+        new FilterParameter(null, null, null, singletonList(singletonList(HASH_ONE)), null);
+    logsSubscriptionIndex.add(new LogsSubscription(1L, filterParameter));
+    final Transaction transaction = createTransaction();
+    createLogResult(transaction, createLog(Address.fromHexString("0x1")), false);
+
+    logsSubscriptionService.onBlockAdded(createBlockAddedEvent(transaction, null), blockchain);
+
+    verify(subscriptionManager, times(0)).sendMessageToSubscriptions(any(), any());
   }
 
   @Test
@@ -134,8 +183,8 @@ public class LogsSubscriptionServiceTest {
     logsSubscriptionService.onBlockAdded(
         createBlockAddedEvent(Collections.emptyList(), Collections.emptyList()), blockchain);
 
-    verify(subscriptionManager).subscriptionsOfType(any(), any());
-    verify(subscriptionManager, times(0)).sendMessage(any(), any());
+    verify(subscriptionManager).logsSubscriptionIndex();
+    verify(subscriptionManager, times(0)).sendMessageToSubscriptions(any(), any());
   }
 
   @Test
@@ -147,8 +196,8 @@ public class LogsSubscriptionServiceTest {
 
     logsSubscriptionService.onBlockAdded(createBlockAddedEvent(transaction, null), blockchain);
 
-    verify(subscriptionManager).subscriptionsOfType(any(), any());
-    verify(subscriptionManager, times(0)).sendMessage(any(), any());
+    verify(subscriptionManager).logsSubscriptionIndex();
+    verify(subscriptionManager, times(0)).sendMessageToSubscriptions(any(), any());
   }
 
   private Transaction createTransaction() {
@@ -163,8 +212,7 @@ public class LogsSubscriptionServiceTest {
     final FilterParameter filterParameter =
         new FilterParameter(null, null, Lists.newArrayList(address.toString()), null, null);
     final LogsSubscription logsSubscription = new LogsSubscription(1L, filterParameter);
-    when(subscriptionManager.subscriptionsOfType(any(), any()))
-        .thenReturn(Lists.newArrayList(logsSubscription));
+    logsSubscriptionIndex.add(logsSubscription);
     return logsSubscription;
   }
 
@@ -175,8 +223,7 @@ public class LogsSubscriptionServiceTest {
           new FilterParameter(null, null, Lists.newArrayList(address.toString()), null, null);
       subscriptions.add(new LogsSubscription((long) i, filterParameter));
     }
-    when(subscriptionManager.subscriptionsOfType(any(), any()))
-        .thenReturn(Lists.newArrayList(subscriptions));
+    subscriptions.forEach(logsSubscriptionIndex::add);
     return subscriptions;
   }
 
@@ -203,8 +250,18 @@ public class LogsSubscriptionServiceTest {
             blockHeader.getHash(),
             blockHeader.getNumber());
 
-    when(blockchainQueries.transactionReceiptByTransactionHash(eq(transaction.hash())))
-        .thenReturn(Optional.of(transactionReceiptWithMetadata));
+    if (receipts.isEmpty()) {
+      when(blockchainQueries.transactionReceiptsByTransactionHashes(any()))
+          .thenAnswer(
+              invocation ->
+                  invocation
+                      .<List<Hash>>getArgument(0)
+                      .stream()
+                      .map(receipts::get)
+                      .filter(Objects::nonNull)
+                      .collect(Collectors.toList()));
+    }
+    receipts.put(transaction.hash(), transactionReceiptWithMetadata);
 
     return transactionReceiptWithMetadata;
   }
@@ -20,7 +20,15 @@ public class NetworkMemoryPool {
 
   private static final ByteBufAllocator ALLOCATOR = new PooledByteBufAllocator();
 
+  /**
+   * Allocates a pooled buffer, direct where the platform allows it, holding up to {@code size}
+   * bytes. The full capacity is reserved up front so that writing the buffer never has to grow and
+   * copy it.
+   *
+   * @param size The capacity of the buffer.
+   * @return The buffer.
+   */
   public static ByteBuf allocate(final int size) {
-    return ALLOCATOR.ioBuffer(0, size);
+    return ALLOCATOR.ioBuffer(size, size);
   }
 }
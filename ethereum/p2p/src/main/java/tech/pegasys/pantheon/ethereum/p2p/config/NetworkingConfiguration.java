@@ -20,10 +20,16 @@ import java.util.List;
 import java.util.Objects;
 
 public class NetworkingConfiguration {
+  public static final int DEFAULT_WORKER_THREADS = Runtime.getRuntime().availableProcessors();
+  public static final int DEFAULT_HANDSHAKE_THREADS =
+      Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
   private List<SubProtocol> supportedProtocols = Collections.emptyList();
   private DiscoveryConfiguration discovery = new DiscoveryConfiguration();
   private RlpxConfiguration rlpx = new RlpxConfiguration();
   private String clientId = "";
+  private int workerThreads = DEFAULT_WORKER_THREADS;
+  private int handshakeThreads = DEFAULT_HANDSHAKE_THREADS;
 
   public static NetworkingConfiguration create() {
     return new NetworkingConfiguration();
@@ -70,6 +76,36 @@ public class NetworkingConfiguration {
     return this;
   }
 
+  public int getWorkerThreads() {
+    return workerThreads;
+  }
+
+  /**
+   * Sets the number of event loop threads that read and write established peer connections.
+   *
+   * @param workerThreads the number of worker threads
+   * @return this configuration
+   */
+  public NetworkingConfiguration setWorkerThreads(final int workerThreads) {
+    this.workerThreads = workerThreads;
+    return this;
+  }
+
+  public int getHandshakeThreads() {
+    return handshakeThreads;
+  }
+
+  /**
+   * Sets the number of threads that perform the ECIES handshake of new connections.
+   *
+   * @param handshakeThreads the number of handshake threads
+   * @return this configuration
+   */
+  public NetworkingConfiguration setHandshakeThreads(final int handshakeThreads) {
+    this.handshakeThreads = handshakeThreads;
+    return this;
+  }
+
   @Override
   public boolean equals(final Object o) {
     if (o == this) {
@@ -79,16 +115,28 @@ public class NetworkingConfiguration {
       return false;
     }
     final NetworkingConfiguration that = (NetworkingConfiguration) o;
-    return Objects.equals(discovery, that.discovery) && Objects.equals(rlpx, that.rlpx);
+    return workerThreads == that.workerThreads
+        && handshakeThreads == that.handshakeThreads
+        && Objects.equals(discovery, that.discovery)
+        && Objects.equals(rlpx, that.rlpx);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(discovery, rlpx);
+    return Objects.hash(discovery, rlpx, workerThreads, handshakeThreads);
   }
 
   @Override
   public String toString() {
-    return "NetworkingConfiguration{" + "discovery=" + discovery + ", rlpx=" + rlpx + '}';
+    return "NetworkingConfiguration{"
+        + "discovery="
+        + discovery
+        + ", rlpx="
+        + rlpx
+        + ", workerThreads="
+        + workerThreads
+        + ", handshakeThreads="
+        + handshakeThreads
+        + '}';
   }
 }
@@ -23,12 +23,11 @@ import tech.pegasys.pantheon.ethereum.p2p.peers.Peer;
 import tech.pegasys.pantheon.ethereum.p2p.peers.PeerId;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 
@@ -47,7 +46,6 @@ public class PeerTable {
   private final BytesValue keccak256;
   private final int maxEntriesCnt;
 
-  private final Map<BytesValue, Integer> distanceCache;
   private BloomFilter<BytesValue> idBloom;
   private int evictionCnt = 0;
 
@@ -63,7 +61,6 @@ public class PeerTable {
         Stream.generate(() -> new Bucket(DEFAULT_BUCKET_SIZE))
             .limit(N_BUCKETS + 1)
             .toArray(Bucket[]::new);
-    this.distanceCache = new ConcurrentHashMap<>();
     this.maxEntriesCnt = N_BUCKETS * bucketSize;
 
     // A bloom filter with 4096 expected insertions of 64-byte keys with a 0.1% false positive
@@ -131,7 +128,6 @@ public class PeerTable {
 
     if (!res.isPresent()) {
       idBloom.put(id);
-      distanceCache.put(id, distance);
       return AddResult.added();
     }
 
@@ -145,10 +141,7 @@ public class PeerTable {
    * @return Whether the peer existed, and hence the eviction took place.
    */
   public boolean evict(final PeerId peer) {
-    final BytesValue id = peer.getId();
     final int distance = distanceFrom(peer);
-    distanceCache.remove(id);
-
     final boolean evicted = table[distance].evict(peer);
     evictionCnt += evicted ? 1 : 0;
 
@@ -172,18 +165,50 @@ public class PeerTable {
    * Returns the <code>limit</code> peers (at most) closest to the provided target, based on the XOR
    * distance between the keccak-256 hash of the ID and the keccak-256 hash of the target.
    *
+   * <p>Only the buckets needed to fill the result are visited. Peers in the bucket the target falls
+   * into are closer to it than any other peer. Peers in the buckets nearer to us than the target
+   * are all at the target's own distance from it, and peers in each bucket further away than the
+   * target are at that bucket's distance from it.
+   *
    * @param target The target node ID.
    * @param limit The amount of results to return.
    * @return The <code>limit</code> closest peers, at most.
    */
   public List<DiscoveryPeer> nearestPeers(final BytesValue target, final int limit) {
-    final BytesValue keccak256 = Hash.keccak256(target);
-    return getAllPeers()
+    final BytesValue targetHash = Hash.keccak256(target);
+    final int targetDistance = distance(keccak256, targetHash);
+    final List<DiscoveryPeer> nearest = new ArrayList<>(limit);
+
+    table[targetDistance]
+        .peers()
         .stream()
-        .filter(p -> p.getStatus() == PeerDiscoveryStatus.BONDED)
-        .sorted(comparingInt((peer) -> distance(peer.keccak256(), keccak256)))
+        .filter(PeerTable::isBonded)
+        .sorted(comparingInt(peer -> distance(peer.keccak256(), targetHash)))
         .limit(limit)
-        .collect(toList());
+        .forEach(nearest::add);
+    for (int i = 0; i < targetDistance && nearest.size() < limit; i++) {
+      addBondedPeers(table[i], nearest, limit);
+    }
+    for (int i = targetDistance + 1; i <= N_BUCKETS && nearest.size() < limit; i++) {
+      addBondedPeers(table[i], nearest, limit);
+    }
+    return nearest;
+  }
+
+  private static void addBondedPeers(
+      final Bucket bucket, final List<DiscoveryPeer> peers, final int limit) {
+    for (final DiscoveryPeer peer : bucket.peers()) {
+      if (peers.size() == limit) {
+        return;
+      }
+      if (isBonded(peer)) {
+        peers.add(peer);
+      }
+    }
+  }
+
+  private static boolean isBonded(final DiscoveryPeer peer) {
+    return peer.getStatus() == PeerDiscoveryStatus.BONDED;
   }
 
   public Collection<DiscoveryPeer> getAllPeers() {
@@ -199,8 +224,7 @@ public class PeerTable {
    * @return The distance.
    */
   private int distanceFrom(final PeerId peer) {
-    final Integer distance = distanceCache.get(peer.getId());
-    return distance == null ? distance(keccak256, peer.keccak256()) : distance;
+    return distance(keccak256, peer.keccak256());
   }
 
   /**
@@ -212,27 +236,14 @@ public class PeerTable {
    */
   static int distance(final BytesValue v1, final BytesValue v2) {
     assert (v1.size() == v2.size());
-    final byte[] v1b = v1.extractArray();
-    final byte[] v2b = v2.extractArray();
-
-    if (Arrays.equals(v1b, v2b)) {
-      return 0;
-    }
-
-    int distance = v1b.length * 8;
-    for (int i = 0; i < v1b.length; i++) {
-      final byte xor = (byte) (0xff & (v1b[i] ^ v2b[i]));
-      if (xor == 0) {
-        distance -= 8;
-      } else {
-        int p = 7;
-        while (((xor >> p--) & 0x01) == 0) {
-          distance--;
-        }
-        break;
+    for (int i = 0; i < v1.size(); i++) {
+      final int xor = (v1.get(i) ^ v2.get(i)) & 0xff;
+      if (xor != 0) {
+        // The bits of the bytes before this one are all equal, as are the leading zeros of the xor.
+        return (v1.size() - i) * 8 - (Integer.numberOfLeadingZeros(xor) - 24);
       }
     }
-    return distance;
+    return 0;
   }
 
   /** A class that encapsulates the result of a peer addition to the table. */
@@ -30,6 +30,7 @@ import java.util.concurrent.CompletableFuture;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.MessageToByteEncoder;
@@ -50,6 +51,8 @@ abstract class AbstractHandshakeHandler extends SimpleChannelInboundHandler<Byte
   private final CompletableFuture<PeerConnection> connectionFuture;
   private final List<SubProtocol> subProtocols;
 
+  private boolean handshakeComplete = false;
+
   AbstractHandshakeHandler(
       final List<SubProtocol> subProtocols,
       final PeerInfo ourInfo,
@@ -73,6 +76,12 @@ abstract class AbstractHandshakeHandler extends SimpleChannelInboundHandler<Byte
 
   @Override
   protected final void channelRead0(final ChannelHandlerContext ctx, final ByteBuf msg) {
+    if (handshakeComplete) {
+      // Bytes read before the framing handlers were installed, pass them on in order
+      msg.retain();
+      ctx.channel().eventLoop().execute(() -> ctx.pipeline().fireChannelRead(msg));
+      return;
+    }
     final Optional<ByteBuf> nextMsg = nextHandshakeMessage(msg);
     if (nextMsg.isPresent()) {
       ctx.writeAndFlush(nextMsg.get());
@@ -103,23 +112,38 @@ abstract class AbstractHandshakeHandler extends SimpleChannelInboundHandler<Byte
       final ByteToMessageDecoder deFramer =
           new DeFramer(framer, subProtocols, ourInfo, callbacks, connectionFuture);
 
-      ctx.channel()
-          .pipeline()
-          .addFirst(new ValidateFirstOutboundMessage(framer))
-          .replace(this, "DeFramer", deFramer);
-
-      ctx.writeAndFlush(new OutboundMessage(null, HelloMessage.create(ourInfo)))
-          .addListener(
-              ff -> {
-                if (ff.isSuccess()) {
-                  LOG.debug("Successfully wrote hello message");
-                }
-              });
+      // This handler runs on the handshake executor, but the framing handlers belong on the
+      // channel's own event loop, so they are installed there rather than replacing this one.
+      // Reading is paused until the switch is done so that no framed bytes overtake the remainder.
+      handshakeComplete = true;
+      ctx.channel().config().setAutoRead(false);
       msg.retain();
-      ctx.fireChannelRead(msg);
+      ctx.channel().eventLoop().execute(() -> switchToFraming(ctx, framer, deFramer, msg));
     }
   }
 
+  private void switchToFraming(
+      final ChannelHandlerContext ctx,
+      final Framer framer,
+      final ByteToMessageDecoder deFramer,
+      final ByteBuf remainder) {
+    final ChannelPipeline pipeline = ctx.pipeline();
+    pipeline.remove(this);
+    pipeline.addFirst(new ValidateFirstOutboundMessage(framer)).addLast("DeFramer", deFramer);
+
+    ctx.channel()
+        .writeAndFlush(new OutboundMessage(null, HelloMessage.create(ourInfo)))
+        .addListener(
+            ff -> {
+              if (ff.isSuccess()) {
+                LOG.debug("Successfully wrote hello message");
+              }
+            });
+    pipeline.fireChannelRead(remainder);
+    // Resume through the handshake executor so reads still queued there are forwarded first
+    ctx.executor().execute(() -> ctx.channel().config().setAutoRead(true));
+  }
+
   @Override
   public void exceptionCaught(final ChannelHandlerContext ctx, final Throwable throwable) {
     LOG.debug("Handshake error:", throwable);
@@ -23,9 +23,12 @@ import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
 
 public final class HandshakeHandlerInbound extends AbstractHandshakeHandler {
 
+  private final SECP256K1.KeyPair kp;
+
   public HandshakeHandlerInbound(
       final SECP256K1.KeyPair kp,
       final List<SubProtocol> subProtocols,
@@ -34,6 +37,12 @@ public final class HandshakeHandlerInbound extends AbstractHandshakeHandler {
       final Callbacks callbacks,
       final PeerConnectionRegistry peerConnectionRegistry) {
     super(subProtocols, ourInfo, connectionFuture, callbacks, peerConnectionRegistry);
+    this.kp = kp;
+  }
+
+  @Override
+  public void handlerAdded(final ChannelHandlerContext ctx) {
+    // Generating the ephemeral key is left to the handshake executor
     handshaker.prepareResponder(kp);
   }
 
@@ -32,7 +32,8 @@ public final class HandshakeHandlerOutbound extends AbstractHandshakeHandler {
 
   private static final Logger LOG = LogManager.getLogger();
 
-  private final ByteBuf first;
+  private final SECP256K1.KeyPair kp;
+  private final BytesValue peerId;
 
   public HandshakeHandlerOutbound(
       final SECP256K1.KeyPair kp,
@@ -43,8 +44,14 @@ public final class HandshakeHandlerOutbound extends AbstractHandshakeHandler {
       final Callbacks callbacks,
       final PeerConnectionRegistry peerConnectionRegistry) {
     super(subProtocols, ourInfo, connectionFuture, callbacks, peerConnectionRegistry);
+    this.kp = kp;
+    this.peerId = peerId;
+  }
+
+  @Override
+  public void handlerAdded(final ChannelHandlerContext ctx) {
+    // Generating the ephemeral key is left to the handshake executor
     handshaker.prepareInitiator(kp, SECP256K1.PublicKey.create(peerId));
-    this.first = handshaker.firstMessage();
   }
 
   @Override
@@ -61,7 +68,7 @@ public final class HandshakeHandlerOutbound extends AbstractHandshakeHandler {
   @Override
   public void channelActive(final ChannelHandlerContext ctx) throws Exception {
     super.channelActive(ctx);
-    ctx.writeAndFlush(first)
+    ctx.writeAndFlush(handshaker.firstMessage())
         .addListener(
             f -> {
               if (f.isSuccess()) {
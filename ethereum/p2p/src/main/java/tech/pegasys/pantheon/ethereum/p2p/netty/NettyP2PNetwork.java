@@ -49,10 +49,18 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutorGroup;
 import io.vertx.core.Vertx;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -119,9 +127,12 @@ public final class NettyP2PNetwork implements P2PNetwork {
 
   private final AtomicInteger pendingConnections = new AtomicInteger(0);
 
-  private final EventLoopGroup boss = new NioEventLoopGroup(1);
+  private final EventLoopGroup boss;
 
-  private final EventLoopGroup workers = new NioEventLoopGroup(1);
+  private final EventLoopGroup workers;
+
+  // Runs the ECIES handshakes, so their crypto does not hold up established connections
+  private final EventExecutorGroup handshakeExecutors;
 
   private volatile PeerInfo ourPeerInfo;
 
@@ -167,10 +178,16 @@ public final class NettyP2PNetwork implements P2PNetwork {
     this.keyPair = keyPair;
     this.subProtocols = config.getSupportedProtocols();
 
+    boss = createEventLoopGroup(1, "p2p-boss");
+    workers = createEventLoopGroup(config.getWorkerThreads(), "p2p-worker");
+    handshakeExecutors =
+        new DefaultEventExecutorGroup(
+            config.getHandshakeThreads(), new DefaultThreadFactory("p2p-handshake"));
+
     server =
         new ServerBootstrap()
             .group(boss, workers)
-            .channel(NioServerSocketChannel.class)
+            .channel(serverChannelClass())
             .childHandler(inboundChannelInitializer())
             .bind(config.getRlpx().getBindHost(), config.getRlpx().getBindPort());
     final CountDownLatch latch = new CountDownLatch(1);
@@ -199,6 +216,21 @@ public final class NettyP2PNetwork implements P2PNetwork {
     }
   }
 
+  private static EventLoopGroup createEventLoopGroup(final int threads, final String name) {
+    final DefaultThreadFactory threadFactory = new DefaultThreadFactory(name);
+    return Epoll.isAvailable()
+        ? new EpollEventLoopGroup(threads, threadFactory)
+        : new NioEventLoopGroup(threads, threadFactory);
+  }
+
+  private static Class<? extends ServerSocketChannel> serverChannelClass() {
+    return Epoll.isAvailable() ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+  }
+
+  private static Class<? extends SocketChannel> channelClass() {
+    return Epoll.isAvailable() ? EpollSocketChannel.class : NioSocketChannel.class;
+  }
+
   /** @return a channel initializer for inbound connections */
   public ChannelInitializer<SocketChannel> inboundChannelInitializer() {
     return new ChannelInitializer<SocketChannel>() {
@@ -213,7 +245,9 @@ public final class NettyP2PNetwork implements P2PNetwork {
                     () ->
                         connectionFuture.completeExceptionally(
                             new TimeoutException(
-                                "Timed out waiting to fully establish incoming connection"))),
+                                "Timed out waiting to fully establish incoming connection"))))
+            .addLast(
+                handshakeExecutors,
                 new HandshakeHandlerInbound(
                     keyPair, subProtocols, ourPeerInfo, connectionFuture, callbacks, connections));
 
@@ -261,7 +295,7 @@ public final class NettyP2PNetwork implements P2PNetwork {
 
     new Bootstrap()
         .group(workers)
-        .channel(NioSocketChannel.class)
+        .channel(channelClass())
         .remoteAddress(new InetSocketAddress(endpoint.getHost(), endpoint.getTcpPort().getAsInt()))
         .option(ChannelOption.TCP_NODELAY, true)
         .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, TIMEOUT_SECONDS * 1000)
@@ -278,7 +312,9 @@ public final class NettyP2PNetwork implements P2PNetwork {
                                 connectionFuture.completeExceptionally(
                                     new TimeoutException(
                                         "Timed out waiting to establish connection with peer: "
-                                            + peer.getId()))),
+                                            + peer.getId()))))
+                    .addLast(
+                        handshakeExecutors,
                         new HandshakeHandlerOutbound(
                             keyPair,
                             peer.getId(),
@@ -360,6 +396,7 @@ public final class NettyP2PNetwork implements P2PNetwork {
     peerDiscoveryAgent.stop().join();
     workers.shutdownGracefully();
     boss.shutdownGracefully();
+    handshakeExecutors.shutdownGracefully();
   }
 
   @Override
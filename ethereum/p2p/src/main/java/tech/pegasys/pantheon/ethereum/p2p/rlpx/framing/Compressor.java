@@ -12,6 +12,8 @@
  */
 package tech.pegasys.pantheon.ethereum.p2p.rlpx.framing;
 
+import io.netty.buffer.ByteBuf;
+
 /** A strategy for compressing and decompressing devp2p subprotocol messages. */
 public interface Compressor {
 
@@ -44,4 +46,44 @@ public interface Compressor {
    *     expect to find the root cause inside;
    */
   int uncompressedLength(byte[] compressed) throws CompressionException;
+
+  /**
+   * Compresses the readable bytes of a buffer into another buffer, consuming them.
+   *
+   * @param decompressed The buffer holding the original payload.
+   * @param compressed The buffer to write the compressed payload to. It must have room for at
+   *     least {@link #maxCompressedLength(int)} bytes.
+   * @throws CompressionException Thrown if an error occurs during compression; expect to find the
+   *     root cause inside.
+   */
+  void compress(ByteBuf decompressed, ByteBuf compressed) throws CompressionException;
+
+  /**
+   * Decompresses the readable bytes of a buffer into another buffer, consuming them.
+   *
+   * @param compressed The buffer holding the compressed payload.
+   * @param decompressed The buffer to write the original payload to. It must have room for at
+   *     least {@link #peekUncompressedLength(ByteBuf)} bytes.
+   * @throws CompressionException Thrown if an error occurs during decompression; expect to find the
+   *     root cause inside.
+   */
+  void decompress(ByteBuf compressed, ByteBuf decompressed) throws CompressionException;
+
+  /**
+   * Return the length when uncompressed of the readable bytes of a buffer, without consuming them.
+   *
+   * @param compressed The buffer holding the compressed payload.
+   * @return The length of the payload when uncompressed.
+   * @throws CompressionException Thrown if the size cannot be calculated from the available data;
+   *     expect to find the root cause inside;
+   */
+  int peekUncompressedLength(ByteBuf compressed) throws CompressionException;
+
+  /**
+   * Returns the largest size a payload of the given length can take once compressed.
+   *
+   * @param length The length of the original payload.
+   * @return The maximum length of the compressed payload.
+   */
+  int maxCompressedLength(int length);
 }
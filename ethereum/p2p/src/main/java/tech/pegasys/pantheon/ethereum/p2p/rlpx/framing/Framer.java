@@ -13,29 +13,28 @@
 package tech.pegasys.pantheon.ethereum.p2p.rlpx.framing;
 
 import static io.netty.buffer.ByteBufUtil.hexDump;
-import static io.netty.buffer.Unpooled.wrappedBuffer;
-import static org.bouncycastle.pqc.math.linearalgebra.ByteUtils.xor;
 
 import tech.pegasys.pantheon.ethereum.p2p.NetworkMemoryPool;
 import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
 import tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.HandshakeSecrets;
-import tech.pegasys.pantheon.ethereum.p2p.utils.ByteBufUtils;
 import tech.pegasys.pantheon.ethereum.p2p.wire.RawMessage;
 import tech.pegasys.pantheon.ethereum.rlp.RLP;
 import tech.pegasys.pantheon.ethereum.rlp.RlpUtils;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
+import java.security.GeneralSecurityException;
 import java.util.Arrays;
+import javax.crypto.Cipher;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import io.netty.buffer.ByteBuf;
 import org.bouncycastle.crypto.BlockCipher;
-import org.bouncycastle.crypto.StreamCipher;
 import org.bouncycastle.crypto.engines.AESEngine;
-import org.bouncycastle.crypto.modes.SICBlockCipher;
 import org.bouncycastle.crypto.params.KeyParameter;
-import org.bouncycastle.crypto.params.ParametersWithIV;
 
 /**
  * This component is responsible for reading and composing RLPx protocol frames, conformant to the
@@ -48,6 +47,12 @@ import org.bouncycastle.crypto.params.ParametersWithIV;
  * fragmented frames, as well as streams of multiple messages within the same incoming buffer, as
  * long as the order of incoming bytes matches the underlying TCP sequence.
  *
+ * <p>Frame payloads are encrypted, decrypted and authenticated in chunks of at most {@link
+ * #CHUNK_SIZE} bytes, through scratch arrays owned by the framer, so the cost of a frame does not
+ * include allocating or copying its whole payload. Outgoing payloads are written straight into the
+ * output buffer and encrypted in place. Framing and deframing use separate ciphers, MACs and
+ * scratch arrays, and so only exclude other calls in the same direction.
+ *
  * @see <a href="https://github.com/ethereum/devp2p/blob/master/rlpx.md#framing">RLPx framing</a>
  */
 public class Framer {
@@ -57,6 +62,7 @@ public class Framer {
   private static final int LENGTH_FRAME_SIZE = 3;
   private static final int LENGTH_MESSAGE_ID = 1;
   private static final int LENGTH_MAX_MESSAGE_FRAME = 0xFFFFFF;
+  private static final int CHUNK_SIZE = 16 * 1024;
 
   private static final byte[] IV = {0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0};
   private static final byte[] PROTOCOL_HEADER =
@@ -71,12 +77,22 @@ public class Framer {
 
   private final HandshakeSecrets secrets;
   private static final Compressor compressor = new SnappyCompressor();
-  private final StreamCipher encryptor;
-  private final StreamCipher decryptor;
-  private final BlockCipher macEncryptor;
+  private final Cipher encryptor;
+  private final Cipher decryptor;
+  private final BlockCipher egressMacEncryptor;
+  private final BlockCipher ingressMacEncryptor;
+  private final Object egressLock = new Object();
+  private final Object ingressLock = new Object();
+  private final byte[] egressPlain = new byte[CHUNK_SIZE];
+  private final byte[] egressCipher = new byte[CHUNK_SIZE];
+  private final byte[] egressMacBlock = new byte[LENGTH_MAC];
+  private final byte[] ingressCipher = new byte[CHUNK_SIZE];
+  private final byte[] ingressPlain = new byte[CHUNK_SIZE];
+  private final byte[] ingressMacBlock = new byte[LENGTH_MAC];
+  private final byte[] receivedMac = new byte[LENGTH_MAC];
   private boolean headerProcessed;
   private int frameSize;
-  private boolean compressionEnabled = false;
+  private volatile boolean compressionEnabled = false;
 
   /**
    * Creates a new framer out of the handshake secrets derived during the cryptographic handshake.
@@ -86,17 +102,26 @@ public class Framer {
   public Framer(final HandshakeSecrets secrets) {
     this.secrets = secrets;
 
-    final KeyParameter aesKey = new KeyParameter(secrets.getAesSecret());
-    final KeyParameter macKey = new KeyParameter(secrets.getMacSecret());
-
-    encryptor = new SICBlockCipher(new AESEngine());
-    encryptor.init(true, new ParametersWithIV(aesKey, IV));
+    // The JDK provider is used for the bulk AES-CTR work, as HotSpot compiles it to AES-NI
+    // instructions where the CPU has them.
+    encryptor = aesCtr(Cipher.ENCRYPT_MODE, secrets.getAesSecret());
+    decryptor = aesCtr(Cipher.DECRYPT_MODE, secrets.getAesSecret());
 
-    decryptor = new SICBlockCipher(new AESEngine());
-    decryptor.init(false, new ParametersWithIV(aesKey, IV));
+    final KeyParameter macKey = new KeyParameter(secrets.getMacSecret());
+    egressMacEncryptor = new AESEngine();
+    egressMacEncryptor.init(true, macKey);
+    ingressMacEncryptor = new AESEngine();
+    ingressMacEncryptor.init(true, macKey);
+  }
 
-    macEncryptor = new AESEngine();
-    macEncryptor.init(true, macKey);
+  private static Cipher aesCtr(final int mode, final byte[] key) {
+    try {
+      final Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
+      cipher.init(mode, new SecretKeySpec(key, "AES"), new IvParameterSpec(IV));
+      return cipher;
+    } catch (final GeneralSecurityException e) {
+      throw new IllegalStateException("AES-CTR is not available", e);
+    }
   }
 
   public void enableCompression() {
@@ -133,30 +158,32 @@ public class Framer {
    *     could be extracted yet.
    * @throws FramingException Thrown when a decryption or internal error occurs.
    */
-  public synchronized MessageData deframe(final ByteBuf buf) throws FramingException {
-    if (buf == null || !buf.isReadable()) {
-      return null;
-    }
+  public MessageData deframe(final ByteBuf buf) throws FramingException {
+    synchronized (ingressLock) {
+      if (buf == null || !buf.isReadable()) {
+        return null;
+      }
+
+      if (!headerProcessed) {
+        // We don't have enough bytes to read the header.
+        if (buf.readableBytes() < LENGTH_FULL_HEADER) {
+          return null;
+        }
+        frameSize = processHeader(buf.readSlice(LENGTH_FULL_HEADER));
+        headerProcessed = true;
+        buf.discardReadBytes();
+      }
 
-    if (!headerProcessed) {
-      // We don't have enough bytes to read the header.
-      if (buf.readableBytes() < LENGTH_FULL_HEADER) {
+      final int size = frameSize + padding16(frameSize) + LENGTH_MAC;
+      if (buf.readableBytes() < size) {
         return null;
       }
-      frameSize = processHeader(buf.readSlice(LENGTH_FULL_HEADER));
-      headerProcessed = true;
-      buf.discardReadBytes();
-    }
 
-    final int size = frameSize + padding16(frameSize) + LENGTH_MAC;
-    if (buf.readableBytes() < size) {
-      return null;
+      final MessageData msg = processFrame(buf.readSlice(size), frameSize);
+      buf.discardReadBytes();
+      headerProcessed = false;
+      return msg;
     }
-
-    final MessageData msg = processFrame(buf.readSlice(size), frameSize);
-    buf.discardReadBytes();
-    headerProcessed = false;
-    return msg;
   }
 
   /**
@@ -175,45 +202,33 @@ public class Framer {
           "Expected %s bytes in header, got %s", LENGTH_FULL_HEADER, tainedHeader.readableBytes());
     }
 
-    // Decrypt the header.
-    final byte[] hCipher = new byte[LENGTH_HEADER_DATA];
-    final byte[] hMac = new byte[LENGTH_MAC];
-    tainedHeader.readBytes(hCipher).readBytes(hMac);
+    final byte[] hCipher = ingressCipher;
+    tainedHeader.readBytes(hCipher, 0, LENGTH_HEADER_DATA).readBytes(receivedMac);
 
     // Header MAC validation.
-    byte[] expectedMac = new byte[16];
-    macEncryptor.processBlock(secrets.getIngressMac(), 0, expectedMac, 0);
-    expectedMac = secrets.updateIngress(xor(expectedMac, hCipher)).getIngressMac();
-    expectedMac = Arrays.copyOf(expectedMac, LENGTH_MAC);
-
-    validateMac(expectedMac, hMac);
+    ingressMacEncryptor.processBlock(secrets.getIngressMac(), 0, ingressMacBlock, 0);
+    xor(ingressMacBlock, hCipher);
+    validateMac(secrets.updateIngress(ingressMacBlock).getIngressMac(), receivedMac);
 
     // Perform the header decryption.
-    decryptor.processBytes(hCipher, 0, hCipher.length, hCipher, 0);
-    final ByteBuf h = wrappedBuffer(hCipher);
+    final byte[] h = ingressPlain;
+    crypt(decryptor, hCipher, LENGTH_HEADER_DATA, h);
 
     // Read the frame length.
-    final byte[] length = new byte[3];
-    h.readBytes(length);
-    int frameSize = length[0] & 0xff;
-    frameSize = (frameSize << 8) + (length[1] & 0xff);
-    frameSize = (frameSize << 8) + (length[2] & 0xff);
+    int frameSize = h[0] & 0xff;
+    frameSize = (frameSize << 8) + (h[1] & 0xff);
+    frameSize = (frameSize << 8) + (h[2] & 0xff);
 
     // Discard the header data (RLP): being set to fixed value 0xc28080 (list of two null
-    // elements) by other clients.
-    final int headerDataLength = RlpUtils.decodeLength(h.nioBuffer(), 0);
-    h.skipBytes(headerDataLength);
-
-    // Discard padding in header (= zero-fill to 16-byte boundary).
-    h.skipBytes(padding16(LENGTH_FRAME_SIZE + headerDataLength));
-
-    if (h.readableBytes() != 0) {
+    // elements) by other clients, as well as the zero-fill to the 16-byte boundary.
+    final int headerDataLength = RlpUtils.decodeLength(h, LENGTH_FRAME_SIZE);
+    final int headerLength = LENGTH_FRAME_SIZE + headerDataLength;
+    final int remaining = LENGTH_HEADER_DATA - headerLength - padding16(headerLength);
+    if (remaining != 0) {
       throw error(
-          "Expected no more readable bytes while processing header, remaining: %s",
-          h.readableBytes());
+          "Expected no more readable bytes while processing header, remaining: %s", remaining);
     }
 
-    h.discardReadBytes();
     return frameSize;
   }
 
@@ -233,53 +248,62 @@ public class Framer {
       throw error("Expected %s bytes in header, got %s", expectedSize, f.readableBytes());
     }
 
-    final byte[] frameData = new byte[frameSize + pad];
-    final byte[] fMac = new byte[LENGTH_MAC];
-    f.readBytes(frameData).readBytes(fMac);
-
-    // Validate the frame's MAC.
-    final byte[] fMacSeed = secrets.updateIngress(frameData).getIngressMac();
-    final byte[] fMacSeedEnc = new byte[16];
-    macEncryptor.processBlock(fMacSeed, 0, fMacSeedEnc, 0);
-    byte[] expectedMac = secrets.updateIngress(xor(fMacSeedEnc, fMacSeed)).getIngressMac();
-    expectedMac = Arrays.copyOf(expectedMac, LENGTH_MAC);
-
-    validateMac(fMac, expectedMac);
-
-    // Decrypt frame data.
-    decryptor.processBytes(frameData, 0, frameData.length, frameData, 0);
-
-    // Read the id.
-    final BytesValue idbv = RLP.decodeOne(BytesValue.of(frameData[0]));
-    final int id = idbv.isZero() || idbv.size() == 0 ? 0 : idbv.get(0);
+    // Authenticate and decrypt the frame data chunk by chunk, straight into a pooled buffer.
+    final ByteBuf frameData = NetworkMemoryPool.allocate(frameSize + pad);
+    try {
+      int remaining = frameSize + pad;
+      while (remaining > 0) {
+        final int length = Math.min(remaining, CHUNK_SIZE);
+        f.readBytes(ingressCipher, 0, length);
+        secrets.updateIngress(ingressCipher, 0, length);
+        crypt(decryptor, ingressCipher, length, ingressPlain);
+        frameData.writeBytes(ingressPlain, 0, length);
+        remaining -= length;
+      }
+      f.readBytes(receivedMac);
+
+      // Validate the frame's MAC.
+      final byte[] fMacSeed = secrets.getIngressMac();
+      ingressMacEncryptor.processBlock(fMacSeed, 0, ingressMacBlock, 0);
+      xor(ingressMacBlock, fMacSeed);
+      validateMac(receivedMac, secrets.updateIngress(ingressMacBlock).getIngressMac());
+
+      // Read the id.
+      final BytesValue idbv = RLP.decodeOne(BytesValue.of(frameData.readByte()));
+      final int id = idbv.isZero() || idbv.size() == 0 ? 0 : idbv.get(0);
+
+      // Drop the padding, leaving the message data readable.
+      frameData.writerIndex(frameSize);
+      if (!compressionEnabled) {
+        return new RawMessage(id, frameData.retain());
+      }
 
-    // Write message data to ByteBuf, decompressing as necessary
-    final ByteBuf data;
-    if (compressionEnabled) {
-      // Decompress data before writing to ByteBuf
-      final byte[] compressedMessageData = Arrays.copyOfRange(frameData, 1, frameData.length - pad);
       // Check message length
+      final int uncompressedLength = compressor.peekUncompressedLength(frameData);
       Preconditions.checkState(
-          compressor.uncompressedLength(compressedMessageData) < LENGTH_MAX_MESSAGE_FRAME,
+          uncompressedLength < LENGTH_MAX_MESSAGE_FRAME,
           "Message size in excess of maximum length.");
-      final byte[] decompressedMessageData = compressor.decompress(compressedMessageData);
-      data = NetworkMemoryPool.allocate(decompressedMessageData.length);
-      data.writeBytes(decompressedMessageData);
-    } else {
-      // Move data to a ByteBuf
-      final int messageLength = frameSize - LENGTH_MESSAGE_ID;
-      data = NetworkMemoryPool.allocate(messageLength);
-      data.writeBytes(frameData, 1, messageLength);
+      final ByteBuf data = NetworkMemoryPool.allocate(uncompressedLength);
+      try {
+        compressor.decompress(frameData, data);
+      } catch (final RuntimeException e) {
+        data.release();
+        throw e;
+      }
+      return new RawMessage(id, data);
+    } finally {
+      frameData.release();
     }
-
-    return new RawMessage(id, data);
   }
 
   private void validateMac(final byte[] candidateMac, final byte[] expectedMac) {
-    if (!Arrays.equals(expectedMac, candidateMac)) {
-      throw error(
-          "Frame MAC did not match expected MAC; expected: %s, received: %s",
-          hexDump(expectedMac), hexDump(candidateMac));
+    // Only the first 16 bytes of the keccak-256 MAC state are sent over the wire.
+    for (int i = 0; i < LENGTH_MAC; i++) {
+      if (candidateMac[i] != expectedMac[i]) {
+        throw error(
+            "Frame MAC did not match expected MAC; expected: %s, received: %s",
+            hexDump(expectedMac, 0, LENGTH_MAC), hexDump(candidateMac, 0, LENGTH_MAC));
+      }
     }
   }
 
@@ -290,23 +314,25 @@ public class Framer {
    * @param message The message to frame.
    * @param output The {@link ByteBuf} to write framed data to.
    */
-  public synchronized void frame(final MessageData message, final ByteBuf output) {
+  public void frame(final MessageData message, final ByteBuf output) {
     Preconditions.checkArgument(
         message.getSize() < LENGTH_MAX_MESSAGE_FRAME, "Message size in excess of maximum length.");
     // Compress message
     if (compressionEnabled) {
       try {
-        // Extract data from message
-        final ByteBuf tmp = NetworkMemoryPool.allocate(message.getSize());
-        message.writeTo(tmp);
-        // Compress data
-        final byte[] uncompressed = ByteBufUtils.toByteArray(tmp);
-        final byte[] compressed = compressor.compress(uncompressed);
-        tmp.release();
-        // Construct new, compressed message
-        final ByteBuf compressedBuf = NetworkMemoryPool.allocate(compressed.length);
-        compressedBuf.writeBytes(compressed);
-        frameAndReleaseMessage(new RawMessage(message.getCode(), compressedBuf), output);
+        final ByteBuf uncompressed = NetworkMemoryPool.allocate(message.getSize());
+        final ByteBuf compressed =
+            NetworkMemoryPool.allocate(compressor.maxCompressedLength(message.getSize()));
+        try {
+          message.writeTo(uncompressed);
+          compressor.compress(uncompressed, compressed);
+        } catch (final RuntimeException e) {
+          compressed.release();
+          throw e;
+        } finally {
+          uncompressed.release();
+        }
+        frameAndReleaseMessage(new RawMessage(message.getCode(), compressed), output);
       } finally {
         // We have to release the original message because frameAndRelease only released the
         // compressed copy.
@@ -319,51 +345,72 @@ public class Framer {
 
   @VisibleForTesting
   void frameAndReleaseMessage(final MessageData message, final ByteBuf buf) {
+    synchronized (egressLock) {
+      try {
+        final int frameSize = message.getSize() + LENGTH_MESSAGE_ID;
+        final int pad = padding16(frameSize);
+        buf.ensureWritable(LENGTH_FULL_HEADER + frameSize + pad + LENGTH_MAC);
+
+        final byte id = (byte) message.getCode();
+
+        // Generate the header data.
+        final byte[] h = egressPlain;
+        h[0] = (byte) ((frameSize >> 16) & 0xff);
+        h[1] = (byte) ((frameSize >> 8) & 0xff);
+        h[2] = (byte) (frameSize & 0xff);
+        System.arraycopy(PROTOCOL_HEADER, 0, h, LENGTH_FRAME_SIZE, PROTOCOL_HEADER.length);
+        Arrays.fill(h, LENGTH_FRAME_SIZE + PROTOCOL_HEADER.length, LENGTH_HEADER_DATA, (byte) 0x00);
+        crypt(encryptor, h, LENGTH_HEADER_DATA, egressCipher);
+
+        // Generate the header MAC.
+        egressMacEncryptor.processBlock(secrets.getEgressMac(), 0, egressMacBlock, 0);
+        xor(egressMacBlock, egressCipher);
+        final byte[] hMac = secrets.updateEgress(egressMacBlock).getEgressMac();
+        buf.writeBytes(egressCipher, 0, LENGTH_HEADER_DATA).writeBytes(hMac, 0, LENGTH_MAC);
+
+        // Write the id, the payload and the zero-fill to the 16-byte boundary.
+        final BytesValue bv = id == 0 ? RLP.NULL : RLP.encodeOne(BytesValue.of(id));
+        assert bv.size() == 1;
+        final int frameStart = buf.writerIndex();
+        buf.writeByte(bv.get(0));
+        message.writeTo(buf);
+        buf.writeZero(pad);
+
+        // Encrypt the frame in place, chunk by chunk, updating the MAC with the ciphertext.
+        final int frameEnd = buf.writerIndex();
+        for (int offset = frameStart; offset < frameEnd; offset += CHUNK_SIZE) {
+          final int length = Math.min(frameEnd - offset, CHUNK_SIZE);
+          buf.getBytes(offset, egressPlain, 0, length);
+          crypt(encryptor, egressPlain, length, egressCipher);
+          secrets.updateEgress(egressCipher, 0, length);
+          buf.setBytes(offset, egressCipher, 0, length);
+        }
+
+        // Calculate the frame MAC.
+        final byte[] fMacSeed = secrets.getEgressMac();
+        egressMacEncryptor.processBlock(fMacSeed, 0, egressMacBlock, 0);
+        xor(egressMacBlock, fMacSeed);
+        buf.writeBytes(secrets.updateEgress(egressMacBlock).getEgressMac(), 0, LENGTH_MAC);
+      } finally {
+        message.release();
+      }
+    }
+  }
+
+  private static void crypt(
+      final Cipher cipher, final byte[] input, final int length, final byte[] output) {
     try {
-      final int frameSize = message.getSize() + LENGTH_MESSAGE_ID;
-      final int pad = padding16(frameSize);
-
-      final byte id = (byte) message.getCode();
-
-      // Generate the header data.
-      final byte[] h = new byte[LENGTH_HEADER_DATA];
-      h[0] = (byte) ((frameSize >> 16) & 0xff);
-      h[1] = (byte) ((frameSize >> 8) & 0xff);
-      h[2] = (byte) (frameSize & 0xff);
-      System.arraycopy(PROTOCOL_HEADER, 0, h, LENGTH_FRAME_SIZE, PROTOCOL_HEADER.length);
-      Arrays.fill(h, LENGTH_FRAME_SIZE + PROTOCOL_HEADER.length, h.length - 1, (byte) 0x00);
-      encryptor.processBytes(h, 0, LENGTH_HEADER_DATA, h, 0);
-
-      // Generate the header MAC.
-      byte[] hMac = Arrays.copyOf(secrets.getEgressMac(), LENGTH_MAC);
-      macEncryptor.processBlock(hMac, 0, hMac, 0);
-      hMac = secrets.updateEgress(xor(h, hMac)).getEgressMac();
-      hMac = Arrays.copyOf(hMac, LENGTH_MAC);
-      buf.writeBytes(h).writeBytes(hMac);
-
-      // Encrypt payload.
-      final byte[] f = new byte[frameSize + pad];
-
-      final BytesValue bv = id == 0 ? RLP.NULL : RLP.encodeOne(BytesValue.of(id));
-      assert bv.size() == 1;
-      f[0] = bv.get(0);
-
-      // Zero-padded to 16-byte boundary.
-      final ByteBuf tmp = NetworkMemoryPool.allocate(message.getSize());
-      message.writeTo(tmp);
-      tmp.getBytes(tmp.readerIndex(), f, 1, tmp.readableBytes());
-      encryptor.processBytes(f, 0, f.length, f, 0);
-      tmp.release();
-
-      // Calculate the frame MAC.
-      final byte[] fMacSeed = Arrays.copyOf(secrets.updateEgress(f).getEgressMac(), LENGTH_MAC);
-      byte[] fMac = new byte[16];
-      macEncryptor.processBlock(fMacSeed, 0, fMac, 0);
-      fMac = Arrays.copyOf(secrets.updateEgress(xor(fMac, fMacSeed)).getEgressMac(), LENGTH_MAC);
-
-      buf.writeBytes(f).writeBytes(fMac);
-    } finally {
-      message.release();
+      // CTR is a stream mode, so every input byte produces an output byte straight away.
+      cipher.update(input, 0, length, output, 0);
+    } catch (final ShortBufferException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** XORs the first 16 bytes of {@code other} into {@code block}. */
+  private static void xor(final byte[] block, final byte[] other) {
+    for (int i = 0; i < LENGTH_MAC; i++) {
+      block[i] ^= other[i];
     }
   }
 
@@ -16,11 +16,16 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.io.IOException;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import org.xerial.snappy.Snappy;
 
 /**
  * A strategy for compressing and decompressing data with the Snappy algorithm.
  *
+ * <p>Buffers are handed to Snappy in place when both sides are direct, or both are backed by an
+ * array. Only mixed buffers are copied through intermediate arrays.
+ *
  * @see <a href="https://google.github.io/snappy/">Snappy algorithm</a>
  */
 public class SnappyCompressor implements Compressor {
@@ -54,4 +59,95 @@ public class SnappyCompressor implements Compressor {
       throw new CompressionException("Snappy uncompressedLength failed", e);
     }
   }
+
+  @Override
+  public void compress(final ByteBuf decompressed, final ByteBuf compressed) {
+    checkNotNull(decompressed, "input data must not be null");
+    final int length = decompressed.readableBytes();
+    compressed.ensureWritable(maxCompressedLength(length));
+    try {
+      final int written;
+      if (isSingleDirectBuffer(decompressed) && isSingleDirectBuffer(compressed)) {
+        written =
+            Snappy.compress(
+                decompressed.nioBuffer(),
+                compressed.nioBuffer(compressed.writerIndex(), compressed.writableBytes()));
+      } else if (decompressed.hasArray() && compressed.hasArray()) {
+        written =
+            Snappy.compress(
+                decompressed.array(),
+                decompressed.arrayOffset() + decompressed.readerIndex(),
+                length,
+                compressed.array(),
+                compressed.arrayOffset() + compressed.writerIndex());
+      } else {
+        final byte[] output = Snappy.compress(ByteBufUtil.getBytes(decompressed));
+        compressed.setBytes(compressed.writerIndex(), output);
+        written = output.length;
+      }
+      decompressed.skipBytes(length);
+      compressed.writerIndex(compressed.writerIndex() + written);
+    } catch (final IOException e) {
+      throw new CompressionException("Snappy compression failed", e);
+    }
+  }
+
+  @Override
+  public void decompress(final ByteBuf compressed, final ByteBuf decompressed) {
+    checkNotNull(compressed, "input data must not be null");
+    final int length = compressed.readableBytes();
+    decompressed.ensureWritable(peekUncompressedLength(compressed));
+    try {
+      final int written;
+      if (isSingleDirectBuffer(compressed) && isSingleDirectBuffer(decompressed)) {
+        written =
+            Snappy.uncompress(
+                compressed.nioBuffer(),
+                decompressed.nioBuffer(decompressed.writerIndex(), decompressed.writableBytes()));
+      } else if (compressed.hasArray() && decompressed.hasArray()) {
+        written =
+            Snappy.uncompress(
+                compressed.array(),
+                compressed.arrayOffset() + compressed.readerIndex(),
+                length,
+                decompressed.array(),
+                decompressed.arrayOffset() + decompressed.writerIndex());
+      } else {
+        final byte[] output = Snappy.uncompress(ByteBufUtil.getBytes(compressed));
+        decompressed.setBytes(decompressed.writerIndex(), output);
+        written = output.length;
+      }
+      compressed.skipBytes(length);
+      decompressed.writerIndex(decompressed.writerIndex() + written);
+    } catch (final IOException e) {
+      throw new CompressionException("Snappy decompression failed", e);
+    }
+  }
+
+  @Override
+  public int peekUncompressedLength(final ByteBuf compressed) {
+    checkNotNull(compressed, "input data must not be null");
+    try {
+      if (isSingleDirectBuffer(compressed)) {
+        return Snappy.uncompressedLength(compressed.nioBuffer());
+      } else if (compressed.hasArray()) {
+        return Snappy.uncompressedLength(
+            compressed.array(),
+            compressed.arrayOffset() + compressed.readerIndex(),
+            compressed.readableBytes());
+      }
+      return Snappy.uncompressedLength(ByteBufUtil.getBytes(compressed));
+    } catch (final IOException e) {
+      throw new CompressionException("Snappy uncompressedLength failed", e);
+    }
+  }
+
+  @Override
+  public int maxCompressedLength(final int length) {
+    return Snappy.maxCompressedLength(length);
+  }
+
+  private static boolean isSingleDirectBuffer(final ByteBuf buf) {
+    return buf.isDirect() && buf.nioBufferCount() == 1;
+  }
 }
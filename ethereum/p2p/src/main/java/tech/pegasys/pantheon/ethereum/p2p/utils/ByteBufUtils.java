@@ -45,7 +45,7 @@ public class ByteBufUtils {
 
   public static ByteBuf fromRLPOutput(final BytesValueRLPOutput out) {
     final ByteBuf data = NetworkMemoryPool.allocate(out.encodedSize());
-    data.writeBytes(out.encoded().extractArray());
+    out.appendEncoded(data);
     return data;
   }
 }
@@ -102,7 +102,7 @@ public class PeerInfo {
     writeTo(out);
 
     final ByteBuf data = NetworkMemoryPool.allocate(out.encodedSize());
-    data.writeBytes(out.encoded().extractArray());
+    out.appendEncoded(data);
     return data;
   }
 
@@ -12,12 +12,18 @@
  */
 package tech.pegasys.pantheon.ethereum.p2p.discovery.internal;
 
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import tech.pegasys.pantheon.crypto.Hash;
 import tech.pegasys.pantheon.ethereum.p2p.discovery.DiscoveryPeer;
+import tech.pegasys.pantheon.ethereum.p2p.discovery.PeerDiscoveryStatus;
 import tech.pegasys.pantheon.ethereum.p2p.discovery.PeerDiscoveryTestHelper;
 import tech.pegasys.pantheon.ethereum.p2p.discovery.internal.PeerTable.AddResult.Outcome;
 import tech.pegasys.pantheon.ethereum.p2p.peers.Peer;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.List;
 
 import org.junit.Test;
 
@@ -63,4 +69,53 @@ public class PeerTableTest {
               assertThat(result.getEvictionCandidate()).isNull();
             });
   }
+
+  @Test
+  public void nearestPeersMatchesSortingAllBondedPeersByDistance() {
+    final PeerTable table = new PeerTable(Peer.randomId(), 16);
+    final DiscoveryPeer[] peers =
+        PeerDiscoveryTestHelper.generateDiscoveryPeers(
+            PeerDiscoveryTestHelper.generateKeyPairs(100));
+    for (int i = 0; i < peers.length; i++) {
+      if (i % 5 != 0) {
+        peers[i].setStatus(PeerDiscoveryStatus.BONDED);
+      }
+      table.tryAdd(peers[i]);
+    }
+
+    for (int i = 0; i < 20; i++) {
+      final BytesValue target = i % 2 == 0 ? Peer.randomId() : peers[i].getId();
+      final BytesValue targetHash = Hash.keccak256(target);
+      final List<Integer> expectedDistances =
+          table
+              .getAllPeers()
+              .stream()
+              .filter(peer -> peer.getStatus() == PeerDiscoveryStatus.BONDED)
+              .map(peer -> PeerTable.distance(peer.keccak256(), targetHash))
+              .sorted()
+              .limit(16)
+              .collect(toList());
+
+      assertThat(
+              table
+                  .nearestPeers(target, 16)
+                  .stream()
+                  .map(peer -> PeerTable.distance(peer.keccak256(), targetHash))
+                  .collect(toList()))
+          .isEqualTo(expectedDistances);
+    }
+  }
+
+  @Test
+  public void nearestPeersSkipsPeersThatAreNotBonded() {
+    final PeerTable table = new PeerTable(Peer.randomId(), 16);
+    final DiscoveryPeer[] peers =
+        PeerDiscoveryTestHelper.generateDiscoveryPeers(PeerDiscoveryTestHelper.generateKeyPairs(3));
+    peers[1].setStatus(PeerDiscoveryStatus.BONDED);
+    for (final DiscoveryPeer peer : peers) {
+      table.tryAdd(peer);
+    }
+
+    assertThat(table.nearestPeers(Peer.randomId(), 16)).containsExactly(peers[1]);
+  }
 }
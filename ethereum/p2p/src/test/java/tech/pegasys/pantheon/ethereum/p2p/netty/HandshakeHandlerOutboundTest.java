@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.p2p.netty;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.crypto.SECP256K1.KeyPair;
+import tech.pegasys.pantheon.ethereum.p2p.api.MessageData;
+import tech.pegasys.pantheon.ethereum.p2p.api.PeerConnection;
+import tech.pegasys.pantheon.ethereum.p2p.rlpx.framing.Framer;
+import tech.pegasys.pantheon.ethereum.p2p.rlpx.handshake.ecies.ECIESHandshaker;
+import tech.pegasys.pantheon.ethereum.p2p.wire.Capability;
+import tech.pegasys.pantheon.ethereum.p2p.wire.PeerInfo;
+import tech.pegasys.pantheon.ethereum.p2p.wire.SubProtocol;
+import tech.pegasys.pantheon.ethereum.p2p.wire.messages.HelloMessage;
+import tech.pegasys.pantheon.ethereum.p2p.wire.messages.PingMessage;
+import tech.pegasys.pantheon.ethereum.p2p.wire.messages.WireMessageCodes;
+import tech.pegasys.pantheon.util.Subscribers;
+
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Test;
+
+public class HandshakeHandlerOutboundTest {
+
+  private static final Capability CAPABILITY = Capability.create("eth", 63);
+
+  private final KeyPair ourKeys = KeyPair.generate();
+  private final KeyPair peerKeys = KeyPair.generate();
+  private final CompletableFuture<PeerConnection> connectionFuture = new CompletableFuture<>();
+
+  @Test
+  public void shouldPassFramedMessagesReadWithFinalHandshakeBytesToDeFramerInOrder()
+      throws Exception {
+    final EmbeddedChannel channel =
+        new EmbeddedChannel(
+            new HandshakeHandlerOutbound(
+                ourKeys,
+                peerKeys.getPublicKey().getEncodedBytes(),
+                singletonList(subProtocol()),
+                peerInfo("us", ourKeys),
+                connectionFuture,
+                new Callbacks(new HashMap<>(), new Subscribers<>()),
+                new PeerConnectionRegistry()));
+
+    // Play the remote peer, which completes the handshake on our auth message
+    final ECIESHandshaker peerHandshaker = new ECIESHandshaker();
+    peerHandshaker.prepareResponder(peerKeys);
+    final ByteBuf ack = peerHandshaker.handleMessage(channel.readOutbound()).get();
+    final Framer peerFramer = new Framer(peerHandshaker.secrets());
+
+    // The ack and the peer's hello arrive in a single read, a ping follows before the switch
+    final ByteBuf ackAndHello = Unpooled.buffer();
+    ackAndHello.writeBytes(ack);
+    peerFramer.frame(HelloMessage.create(peerInfo("peer", peerKeys)), ackAndHello);
+    final ByteBuf ping = Unpooled.buffer();
+    peerFramer.frame(PingMessage.get(), ping);
+    channel.pipeline().fireChannelRead(ackAndHello);
+    channel.pipeline().fireChannelRead(ping);
+    channel.runPendingTasks();
+
+    assertThat(connectionFuture).isCompleted();
+    assertThat(connectionFuture.get().getPeer().getClientId()).isEqualTo("peer");
+
+    // Our hello is answered first, then the ping that was read after it
+    final MessageData ourHello = peerFramer.deframe(channel.readOutbound());
+    assertThat(ourHello.getCode()).isEqualTo(WireMessageCodes.HELLO);
+    final MessageData pong = peerFramer.deframe(channel.readOutbound());
+    assertThat(pong.getCode()).isEqualTo(WireMessageCodes.PONG);
+  }
+
+  private static PeerInfo peerInfo(final String clientId, final KeyPair keys) {
+    // Version 4 keeps both framers uncompressed
+    return new PeerInfo(
+        4, clientId, singletonList(CAPABILITY), 30303, keys.getPublicKey().getEncodedBytes());
+  }
+
+  private static SubProtocol subProtocol() {
+    return new SubProtocol() {
+      @Override
+      public String getName() {
+        return CAPABILITY.getName();
+      }
+
+      @Override
+      public int messageSpace(final int protocolVersion) {
+        return 17;
+      }
+
+      @Override
+      public boolean isValidMessageCode(final int protocolVersion, final int code) {
+        return true;
+      }
+    };
+  }
+}
@@ -32,6 +32,7 @@ import java.util.Random;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
 import io.netty.buffer.Unpooled;
 import org.junit.Test;
 import org.xerial.snappy.Snappy;
@@ -196,6 +197,35 @@ public class FramerTest {
     }
   }
 
+  @Test
+  public void roundTripMessagesSpanningManyChunks() throws IOException {
+    final JsonNode td = MAPPER.readTree(FramerTest.class.getResource("/peer1.json"));
+    final Framer framer = new Framer(secretsFrom(td, false));
+    final Framer deframer = new Framer(secretsFrom(td, true));
+
+    final byte[] payload = new byte[3 * 1024 * 1024 + 7];
+    new Random().nextBytes(payload);
+    final ByteBuf framed = Unpooled.directBuffer();
+
+    for (final boolean compression : new boolean[] {false, true}) {
+      if (compression) {
+        framer.enableCompression();
+        deframer.enableCompression();
+      }
+      final ByteBuf message = Unpooled.directBuffer(payload.length).writeBytes(payload);
+      framer.frame(new RawMessage(0x10, message), framed);
+
+      final MessageData deframed = deframer.deframe(framed);
+      assertThat(deframed.getCode()).isEqualTo(0x10);
+      final ByteBuf received = Unpooled.buffer(deframed.getSize());
+      deframed.writeTo(received);
+      assertThat(ByteBufUtil.getBytes(received)).isEqualTo(payload);
+      assertThat(framed.isReadable()).isFalse();
+      deframed.release();
+    }
+    framed.release();
+  }
+
   private HandshakeSecrets secretsFrom(final JsonNode td, final boolean swap) {
     final byte[] aes = decodeHexDump(td.get("aes_secret").asText());
     final byte[] mac = decodeHexDump(td.get("mac_secret").asText());
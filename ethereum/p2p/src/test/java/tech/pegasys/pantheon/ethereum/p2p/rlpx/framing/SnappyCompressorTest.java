@@ -17,6 +17,9 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.nio.charset.StandardCharsets;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
 import org.junit.Test;
 
 public class SnappyCompressorTest {
@@ -30,6 +33,37 @@ public class SnappyCompressorTest {
     assertThat(snappy.decompress(snappy.compress(data))).isEqualTo(data);
   }
 
+  @Test
+  public void roundTripBuffers() {
+    final byte[] data = new byte[100_000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) (i % 251);
+    }
+    final SnappyCompressor snappy = new SnappyCompressor();
+    final ByteBuf[][] buffers = {
+      {Unpooled.directBuffer(), Unpooled.directBuffer(), Unpooled.directBuffer()},
+      {Unpooled.buffer(), Unpooled.buffer(), Unpooled.buffer()},
+      {Unpooled.directBuffer(), Unpooled.buffer(), Unpooled.directBuffer()}
+    };
+    for (final ByteBuf[] bufs : buffers) {
+      final ByteBuf input = bufs[0].writeBytes(data);
+      final ByteBuf compressed = bufs[1];
+      final ByteBuf output = bufs[2];
+
+      snappy.compress(input, compressed);
+      assertThat(input.isReadable()).isFalse();
+      assertThat(ByteBufUtil.getBytes(compressed)).isEqualTo(snappy.compress(data));
+      assertThat(snappy.peekUncompressedLength(compressed)).isEqualTo(data.length);
+
+      snappy.decompress(compressed, output);
+      assertThat(compressed.isReadable()).isFalse();
+      assertThat(ByteBufUtil.getBytes(output)).isEqualTo(data);
+      for (final ByteBuf buf : bufs) {
+        buf.release();
+      }
+    }
+  }
+
   @Test
   public void roundTripEmptyByteArray() {
     final byte[] data = new byte[0];
@@ -59,6 +59,8 @@ public class RLPBench {
   volatile Object toEncode;
   volatile BytesValue toDecode;
 
+  private final BytesValueRLPOutput reusedOutput = new BytesValueRLPOutput();
+
   @Setup(Level.Trial)
   public void prepare() {
     toEncode = generate(depth, width, size);
@@ -70,6 +72,26 @@ public class RLPBench {
     return RLP.encode(toEncode);
   }
 
+  @Benchmark
+  public BytesValue getBenchmarkEncodingWithReusedOutput() {
+    reusedOutput.reset();
+    write(toEncode, reusedOutput);
+    return reusedOutput.encoded();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void write(final Object value, final RLPOutput out) {
+    if (value instanceof BytesValue) {
+      out.writeBytesValue((BytesValue) value);
+      return;
+    }
+    out.startList();
+    for (final Object element : (List<Object>) value) {
+      write(element, out);
+    }
+    out.endList();
+  }
+
   @Benchmark
   public Object getBenchmarkDecoding() {
     return RLP.decode(toDecode);
@@ -12,6 +12,7 @@
  */
 package tech.pegasys.pantheon.ethereum.rlp;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static tech.pegasys.pantheon.ethereum.rlp.RLPEncodingHelpers.elementSize;
 import static tech.pegasys.pantheon.ethereum.rlp.RLPEncodingHelpers.listSize;
@@ -21,112 +22,117 @@ import static tech.pegasys.pantheon.ethereum.rlp.RLPEncodingHelpers.writeListHea
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 import tech.pegasys.pantheon.util.bytes.MutableBytesValue;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.BitSet;
-import java.util.List;
 
 abstract class AbstractRLPOutput implements RLPOutput {
   /*
    * The algorithm implemented works as follows:
    *
-   * Values written to the output are accumulated in the 'values' list. When a list is started, it
-   * is indicated by adding a specific marker in that list (LIST_MARKER).
-   * While this is gathered, we also incrementally compute the size of the payload of every list of
-   * that output. Those sizes are stored in 'payloadSizes': when all the output has been added,
-   * payloadSizes[i] will contain the size of the (encoded) payload of the ith list in 'values'
-   * (that is, the list that starts at the ith LIST_MARKER in 'values').
+   * Values are RLP-encoded into 'buffer' as soon as they are written to the output, the buffer
+   * growing as necessary. This is a single pass: no intermediate value is kept around.
    *
-   * With that information gathered, encoded() can write its output in a single walk of 'values':
-   * values can encoded directly, and every time we read a list marker, we use the corresponding
-   * payload size to write the proper prefix and continue.
+   * The only difficulty is lists, since the header of a list depends on the size of its payload,
+   * which is only known once the list is ended. So when a list is started, we reserve a single
+   * byte for its header and push the offset of that byte on the 'openLists' stack. When the list is
+   * ended, we pop that offset and back-patch the header: if the payload is short (at most 55
+   * bytes), the header fits in the reserved byte. Otherwise, the header also needs the length of
+   * the payload size, and we shift the payload right by those few bytes before writing it.
    *
-   * The main remaining aspect is how the values of 'payloadSizes' are computed. Computing the size
-   * of a list without nesting inside is easy: simply add the encoded size of any newly added value
-   * to the running size. The difficulty is with nesting: when we start a new list, we need to
-   * track both the sizes of the previous list and the new one. To deal with that, we use the small
-   * stack 'parentListStack': it stores the index in 'payloadSizes' of every currently "open" lists.
-   * In other words, payloadSises[parentListStack[stackSize - 1]] corresponds to the size of the
-   * current list, the one to which newly added value are currently written (until the next call
-   * to 'endList()' that is, while payloadSises[parentListStack[stackSize - 2]] would be the size
-   * of the parent list, ....
-   *
-   * Note that when a new value is added, we add its size only the currently running list. We should
-   * add that size to that of any parent list as well, but we do so indirectly when a list is
-   * finished: when 'endList()' is called, we add the size of the full list we just finished (and
-   * whose size we have now have completely) to its parent size.
+   * The buffer is kept on reset(), so that an output can be reused to encode many values without
+   * allocating anything but the final result.
    *
    * Side-note: this class internally and informally use "element" to refer to a non list items.
    */
 
-  private static final BytesValue LIST_MARKER = BytesValue.wrap(new byte[0]);
+  private static final int INITIAL_CAPACITY = 128;
 
-  private final List<BytesValue> values = new ArrayList<>();
-  // For every value i in values, rlpEncoded.get(i) will be true only if the value stored is an
-  // already encoded item.
-  private final BitSet rlpEncoded = new BitSet();
+  private byte[] buffer = new byte[INITIAL_CAPACITY];
+  // Wraps 'buffer' so that values can be copied into it without allocating on every write.
+  private MutableBytesValue bufferView = MutableBytesValue.wrap(buffer);
+  private int size;
 
-  // First element is the total size of everything (the encoding may be a single non-list item, so
-  // this handle that case more easily; we need that value to size out final output). Following
-  // elements holds the size of the payload of the ith list in 'values'.
-  private int[] payloadSizes = new int[8];
-  private int listsCount = 1; // number of lists current in 'values' + 1.
+  // Offsets in 'buffer' of the header byte reserved for every currently "open" list.
+  private int[] openLists = new int[4];
+  private int openListsCount;
 
-  private int[] parentListStack = new int[4];
-  private int stackSize = 1;
+  private void checkNotTerminated() {
+    checkState(openListsCount > 0 || size == 0, "Terminated RLP output, cannot add more elements");
+  }
 
-  private int currentList() {
-    return parentListStack[stackSize - 1];
+  private void ensureCapacity(final int additionalBytes) {
+    final int required = size + additionalBytes;
+    if (required > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+      bufferView = MutableBytesValue.wrap(buffer);
+    }
   }
 
   @Override
   public void writeBytesValue(final BytesValue v) {
-    checkState(
-        stackSize > 1 || values.isEmpty(), "Terminated RLP output, cannot add more elements");
-    values.add(v);
-    payloadSizes[currentList()] += elementSize(v);
+    checkNotTerminated();
+    ensureCapacity(elementSize(v));
+    size = writeElement(v, bufferView, size);
   }
 
   @Override
   public void writeRLPUnsafe(final BytesValue v) {
-    checkState(
-        stackSize > 1 || values.isEmpty(), "Terminated RLP output, cannot add more elements");
-    values.add(v);
-    // Mark that last value added as already encoded.
-    rlpEncoded.set(values.size() - 1);
-    payloadSizes[currentList()] += v.size();
+    checkNotTerminated();
+    ensureCapacity(v.size());
+    v.copyTo(bufferView, size);
+    size += v.size();
   }
 
   @Override
-  public void startList() {
-    values.add(LIST_MARKER);
-    ++listsCount; // we'll add a new element to payloadSizes
-    ++stackSize; // and to the list stack.
-
-    // Resize our lists if necessary.
-    if (listsCount > payloadSizes.length) {
-      payloadSizes = Arrays.copyOf(payloadSizes, (payloadSizes.length * 3) / 2);
+  public void writeLongScalar(final long v) {
+    checkArgument(v >= 0, "Invalid negative value %s for scalar encoding", v);
+    checkNotTerminated();
+    // Same encoding as writing the minimal bytes of the value, without materializing them.
+    if (v > 0 && v < 0x80) {
+      ensureCapacity(1);
+      buffer[size++] = (byte) v;
+      return;
     }
-    if (stackSize > parentListStack.length) {
-      parentListStack = Arrays.copyOf(parentListStack, (parentListStack.length * 3) / 2);
+    final int length = 8 - Long.numberOfLeadingZeros(v) / 8;
+    ensureCapacity(1 + length);
+    buffer[size++] = (byte) (0x80 + length);
+    for (int shift = (length - 1) * 8; shift >= 0; shift -= 8) {
+      buffer[size++] = (byte) (v >>> shift);
     }
+  }
 
-    // The new current list size is store in the slot we just made room for by incrementing
-    // listsCount
-    parentListStack[stackSize - 1] = listsCount - 1;
+  @Override
+  public void startList() {
+    ensureCapacity(1);
+    if (openListsCount == openLists.length) {
+      openLists = Arrays.copyOf(openLists, openLists.length * 2);
+    }
+    // The header byte is only written once the list is ended.
+    openLists[openListsCount++] = size++;
   }
 
   @Override
   public void endList() {
-    checkState(stackSize > 1, "LeaveList() called with no prior matching startList()");
-
-    final int current = currentList();
-    final int finishedListSize = listSize(payloadSizes[current]);
-    --stackSize;
+    checkState(openListsCount > 0, "LeaveList() called with no prior matching startList()");
+
+    final int headerOffset = openLists[--openListsCount];
+    final int payloadSize = size - headerOffset - 1;
+    final int extraHeaderBytes = listSize(payloadSize) - payloadSize - 1;
+    if (extraHeaderBytes > 0) {
+      ensureCapacity(extraHeaderBytes);
+      System.arraycopy(
+          buffer, headerOffset + 1, buffer, headerOffset + 1 + extraHeaderBytes, payloadSize);
+      size += extraHeaderBytes;
+    }
+    writeListHeader(payloadSize, bufferView, headerOffset);
+  }
 
-    // We just finished an item of our parent list, add it to that parent list size now.
-    final int newCurrent = currentList();
-    payloadSizes[newCurrent] += finishedListSize;
+  /**
+   * Discards everything written to this output so it can be reused to encode another value. The
+   * buffer of this output is kept, so encoding values of similar size does not allocate again.
+   */
+  public void reset() {
+    size = 0;
+    openListsCount = 0;
   }
 
   /**
@@ -137,53 +143,21 @@ abstract class AbstractRLPOutput implements RLPOutput {
    *     as is).
    */
   public int encodedSize() {
-    checkState(stackSize == 1, "A list has been entered (startList()) but not left (endList())");
-    return payloadSizes[0];
+    checkState(
+        openListsCount == 0, "A list has been entered (startList()) but not left (endList())");
+    return size;
   }
 
-  protected void writeEncoded(final MutableBytesValue res) {
-    // Special case where we encode only a single non-list item (note that listsCount is initially
-    // set to 1, so listsCount == 1 really mean no list explicitly added to the output).
-    if (listsCount == 1) {
-      // writeBytesValue make sure we cannot have more than 1 value without a list
-      assert values.size() == 1;
-      final BytesValue value = values.get(0);
-
-      final int finalOffset;
-      // Single non-list value.
-      if (rlpEncoded.get(0)) {
-        value.copyTo(res, 0);
-        finalOffset = value.size();
-      } else {
-        finalOffset = writeElement(value, res, 0);
-      }
-      checkState(
-          finalOffset == res.size(),
-          "Expected single element RLP encode to be of size %s but was of size %s.",
-          res.size(),
-          finalOffset);
-      return;
-    }
-
-    int offset = 0;
-    int listIdx = 0;
-    for (int i = 0; i < values.size(); i++) {
-      final BytesValue value = values.get(i);
-      if (value == LIST_MARKER) {
-        final int payloadSize = payloadSizes[++listIdx];
-        offset = writeListHeader(payloadSize, res, offset);
-      } else if (rlpEncoded.get(i)) {
-        value.copyTo(res, offset);
-        offset += value.size();
-      } else {
-        offset = writeElement(value, res, offset);
-      }
-    }
+  /**
+   * A view of the RLP-encoded data written to this output, which is only valid until this output
+   * is written to or reset.
+   */
+  protected BytesValue encodedView() {
+    return BytesValue.wrap(buffer, 0, encodedSize());
+  }
 
-    checkState(
-        offset == res.size(),
-        "Expected RLP encoding to be of size %s but was of size %s.",
-        res.size(),
-        offset);
+  /** A copy of the RLP-encoded data written to this output. */
+  protected byte[] encodedArray() {
+    return Arrays.copyOf(buffer, encodedSize());
   }
 }
@@ -13,7 +13,8 @@
 package tech.pegasys.pantheon.ethereum.rlp;
 
 import tech.pegasys.pantheon.util.bytes.BytesValue;
-import tech.pegasys.pantheon.util.bytes.MutableBytesValue;
+
+import io.netty.buffer.ByteBuf;
 
 /** An {@link RLPOutput} that writes RLP encoded data to a {@link BytesValue}. */
 public class BytesValueRLPOutput extends AbstractRLPOutput {
@@ -28,8 +29,15 @@ public class BytesValueRLPOutput extends AbstractRLPOutput {
       return BytesValue.EMPTY;
     }
 
-    final MutableBytesValue output = MutableBytesValue.create(size);
-    writeEncoded(output);
-    return output;
+    return BytesValue.wrap(encodedArray());
+  }
+
+  /**
+   * Appends the RLP-encoded data written to this output to the provided Netty {@link ByteBuf}.
+   *
+   * @param buffer The buffer to which to append the data to.
+   */
+  public void appendEncoded(final ByteBuf buffer) {
+    encodedView().appendTo(buffer);
   }
 }
@@ -12,8 +12,6 @@
  */
 package tech.pegasys.pantheon.ethereum.rlp;
 
-import tech.pegasys.pantheon.util.bytes.MutableBytesValue;
-
 import io.vertx.core.buffer.Buffer;
 
 /**
@@ -26,15 +24,6 @@ public class VertxBufferRLPOutput extends AbstractRLPOutput {
    * @param buffer The buffer to which to append the data to.
    */
   public void appendEncoded(final Buffer buffer) {
-    final int size = encodedSize();
-    if (size == 0) {
-      return;
-    }
-
-    // We want to append to the buffer, and Buffer always grows to accommodate anything writing,
-    // so we write the last byte we know we'll need to make it resize accordingly.
-    final int start = buffer.length();
-    buffer.setByte(start + size - 1, (byte) 0);
-    writeEncoded(MutableBytesValue.wrapBuffer(buffer, start, size));
+    encodedView().appendTo(buffer);
   }
 }
@@ -16,6 +16,8 @@ import static org.junit.Assert.assertEquals;
 
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.junit.Test;
 
 public class BytesValueRLPOutputTest {
@@ -155,7 +157,10 @@ public class BytesValueRLPOutputTest {
 
     assertLongScalar(h("0x01"), 1);
     assertLongScalar(h("0x0F"), 15);
+    assertLongScalar(h("0x7F"), 0x7f);
+    assertLongScalar(h("0x8180"), 0x80);
     assertLongScalar(h("0x820400"), 1024);
+    assertLongScalar(h("0x887FFFFFFFFFFFFFFF"), Long.MAX_VALUE);
   }
 
   private void assertLongScalar(final BytesValue expected, final long toTest) {
@@ -304,4 +309,52 @@ public class BytesValueRLPOutputTest {
     // so 0xc0 + size then payloads
     assertEquals(h("0xc52cc203123b"), out.encoded());
   }
+
+  @Test
+  public void nestedLongLists() {
+    final BytesValueRLPOutput out = new BytesValueRLPOutput();
+    out.startList();
+    out.startList();
+    for (int i = 0; i < 60; i++) {
+      out.writeByte((byte) 0x3c);
+    }
+    out.endList();
+    out.writeByte((byte) 0x01);
+    out.endList();
+
+    // Both headers only fit once the payloads are shifted: the nested list is 0xf83c + 60 bytes,
+    // and the outer list payload is that nested list followed by 0x01.
+    assertEquals(h("0xf83ff83c" + times("3c", 60) + "01"), out.encoded());
+  }
+
+  @Test
+  public void resetOutputCanBeReused() {
+    final BytesValueRLPOutput out = new BytesValueRLPOutput();
+    out.startList();
+    out.writeBytesValue(h(times("3c", 200)));
+    out.endList();
+    out.encoded();
+
+    out.reset();
+    out.startList();
+    out.writeLongScalar(1024);
+    out.endList();
+
+    assertEquals(h("0xc3820400"), out.encoded());
+  }
+
+  @Test
+  public void appendEncodedToByteBuf() {
+    final BytesValueRLPOutput out = new BytesValueRLPOutput();
+    out.startList();
+    out.writeByte((byte) 0x2c);
+    out.writeByte((byte) 0x3b);
+    out.endList();
+
+    final ByteBuf buffer = Unpooled.buffer();
+    buffer.writeByte(0xff);
+    out.appendEncoded(buffer);
+
+    assertEquals(h("0xffc22c3b"), BytesValue.wrapBuffer(buffer));
+  }
 }
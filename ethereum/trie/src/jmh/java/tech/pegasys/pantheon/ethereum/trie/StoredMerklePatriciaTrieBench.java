@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.trie;
+
+import tech.pegasys.pantheon.services.kvstore.InMemoryKeyValueStorage;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.Optional;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class StoredMerklePatriciaTrieBench {
+  private static final int UPDATES_PER_COMMIT = 100;
+
+  @Param({"1000", "100000"})
+  public int entries;
+
+  private Bytes32[] keys;
+  private BytesValue[] values;
+  private KeyValueMerkleStorage merkleStorage;
+  private Bytes32 rootHash;
+  private StoredMerklePatriciaTrie<Bytes32, BytesValue> trie;
+  private int index;
+
+  @Setup(Level.Trial)
+  public void prepare() {
+    final Random random = new Random(42);
+    keys = new Bytes32[entries];
+    values = new BytesValue[entries];
+    for (int i = 0; i < entries; i++) {
+      final byte[] key = new byte[Bytes32.SIZE];
+      random.nextBytes(key);
+      keys[i] = Bytes32.wrap(key);
+      // Roughly the size of an RLP encoded account
+      final byte[] value = new byte[70];
+      random.nextBytes(value);
+      values[i] = BytesValue.wrap(value);
+    }
+
+    merkleStorage = new KeyValueMerkleStorage(new InMemoryKeyValueStorage());
+    final StoredMerklePatriciaTrie<Bytes32, BytesValue> initial =
+        createTrie(MerklePatriciaTrie.EMPTY_TRIE_ROOT_HASH);
+    for (int i = 0; i < entries; i++) {
+      initial.put(keys[i], values[i]);
+    }
+    initial.commit(merkleStorage::put);
+    merkleStorage.commit();
+    rootHash = initial.getRootHash();
+  }
+
+  /** Starts each iteration from the stored root, so that nodes are loaded from storage again. */
+  @Setup(Level.Iteration)
+  public void resetTrie() {
+    trie = createTrie(rootHash);
+    index = 0;
+  }
+
+  private StoredMerklePatriciaTrie<Bytes32, BytesValue> createTrie(final Bytes32 root) {
+    return new StoredMerklePatriciaTrie<>(
+        merkleStorage::get, root, Function.identity(), Function.identity());
+  }
+
+  private int nextIndex() {
+    index = (index + 1) % entries;
+    return index;
+  }
+
+  @Benchmark
+  public Optional<BytesValue> get() {
+    return trie.get(keys[nextIndex()]);
+  }
+
+  /** Overwrites existing keys so the trie keeps its size over the iteration. */
+  @Benchmark
+  public void put() {
+    final int i = nextIndex();
+    trie.put(keys[i], values[(i + 1) % entries]);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(UPDATES_PER_COMMIT)
+  public Bytes32 putAndCommit() {
+    for (int j = 0; j < UPDATES_PER_COMMIT; j++) {
+      final int i = nextIndex();
+      trie.put(keys[i], values[(i + j + 1) % entries]);
+    }
+    trie.commit(merkleStorage::put);
+    merkleStorage.commit();
+    return trie.getRootHash();
+  }
+}
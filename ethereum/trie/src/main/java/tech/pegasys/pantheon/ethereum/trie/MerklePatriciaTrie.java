@@ -33,6 +33,15 @@ public interface MerklePatriciaTrie<K, V> {
    */
   Optional<V> get(K key);
 
+  /**
+   * Returns the value mapped to the key, along with the trie nodes that prove the presence or
+   * absence of the key from the root hash of the trie.
+   *
+   * @param key The key for the value.
+   * @return The value, if any, and the proof of its inclusion or exclusion.
+   */
+  Proof<V> getValueWithProof(K key);
+
   /**
    * Updates the value mapped to the specified key, creating the mapping if one does not already
    * exist.
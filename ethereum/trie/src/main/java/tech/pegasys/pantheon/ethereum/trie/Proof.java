@@ -0,0 +1,50 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.trie;
+
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The value mapped to a key in a {@link MerklePatriciaTrie}, along with the trie nodes needed to
+ * prove it from the root hash.
+ *
+ * @param <V> The type of values stored by the trie.
+ */
+public class Proof<V> {
+
+  private final Optional<V> value;
+  private final List<BytesValue> proofRelatedNodes;
+
+  public Proof(final Optional<V> value, final List<BytesValue> proofRelatedNodes) {
+    this.value = value;
+    this.proofRelatedNodes = proofRelatedNodes;
+  }
+
+  /** @return The value mapped to the key, or empty if the proof is one of exclusion. */
+  public Optional<V> getValue() {
+    return value;
+  }
+
+  /**
+   * Returns the RLP encoding of the nodes on the path to the key, starting from the root. Nodes
+   * that are embedded in their parent rather than referenced by hash are not listed on their own.
+   *
+   * @return The RLP encoded nodes on the path to the key.
+   */
+  public List<BytesValue> getProofRelatedNodes() {
+    return proofRelatedNodes;
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.trie;
+
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Looks up a key like {@link GetVisitor}, while collecting the RLP of the root node and of every
+ * node on the path that its parent references by hash.
+ */
+class ProofVisitor<V> extends GetVisitor<V> {
+
+  private final List<BytesValue> proof = new ArrayList<>();
+  private boolean visitedRoot;
+
+  @Override
+  public Node<V> visit(final ExtensionNode<V> extensionNode, final BytesValue path) {
+    maybeTrackNode(extensionNode);
+    return super.visit(extensionNode, path);
+  }
+
+  @Override
+  public Node<V> visit(final BranchNode<V> branchNode, final BytesValue path) {
+    maybeTrackNode(branchNode);
+    return super.visit(branchNode, path);
+  }
+
+  @Override
+  public Node<V> visit(final LeafNode<V> leafNode, final BytesValue path) {
+    maybeTrackNode(leafNode);
+    return super.visit(leafNode, path);
+  }
+
+  @Override
+  public Node<V> visit(final NullNode<V> nullNode, final BytesValue path) {
+    maybeTrackNode(nullNode);
+    return super.visit(nullNode, path);
+  }
+
+  List<BytesValue> getProof() {
+    return proof;
+  }
+
+  private void maybeTrackNode(final Node<V> node) {
+    // Nodes shorter than a hash are inlined in their parent, so the parent already proves them.
+    if (!visitedRoot || node.getRlpRef().size() >= 32) {
+      proof.add(node.getRlp());
+    }
+    visitedRoot = true;
+  }
+}
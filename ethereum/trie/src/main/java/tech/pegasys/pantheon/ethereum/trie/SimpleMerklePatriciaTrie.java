@@ -50,6 +50,14 @@ public class SimpleMerklePatriciaTrie<K extends BytesValue, V> implements Merkle
     return root.accept(getVisitor, bytesToPath(key)).getValue();
   }
 
+  @Override
+  public Proof<V> getValueWithProof(final K key) {
+    checkNotNull(key);
+    final ProofVisitor<V> proofVisitor = new ProofVisitor<>();
+    final Optional<V> value = root.accept(proofVisitor, bytesToPath(key)).getValue();
+    return new Proof<>(value, proofVisitor.getProof());
+  }
+
   @Override
   public void put(final K key, final V value) {
     checkNotNull(key);
@@ -20,7 +20,9 @@ import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
  * A {@link MerklePatriciaTrie} that persists trie nodes to a {@link MerkleStorage} key/value store.
@@ -62,7 +64,36 @@ public class StoredMerklePatriciaTrie<K extends BytesValue, V> implements Merkle
       final Bytes32 rootHash,
       final Function<V, BytesValue> valueSerializer,
       final Function<BytesValue, V> valueDeserializer) {
-    this.nodeFactory = new StoredNodeFactory<>(nodeLoader, valueSerializer, valueDeserializer);
+    this(nodeLoader, Optional.empty(), rootHash, valueSerializer, valueDeserializer);
+  }
+
+  /**
+   * Create a trie whose decoded nodes are shared through a cache.
+   *
+   * @param nodeLoader The {@link NodeLoader} to retrieve node data from.
+   * @param nodeCache The cache of decoded nodes, shared by tries using the same {@code nodeLoader}.
+   * @param rootHash The initial root has for the trie, which should be already present in {@code
+   *     storage}.
+   * @param valueSerializer A function for serializing values to bytes.
+   * @param valueDeserializer A function for deserializing values from bytes.
+   */
+  public StoredMerklePatriciaTrie(
+      final NodeLoader nodeLoader,
+      final TrieNodeCache<V> nodeCache,
+      final Bytes32 rootHash,
+      final Function<V, BytesValue> valueSerializer,
+      final Function<BytesValue, V> valueDeserializer) {
+    this(nodeLoader, Optional.of(nodeCache), rootHash, valueSerializer, valueDeserializer);
+  }
+
+  private StoredMerklePatriciaTrie(
+      final NodeLoader nodeLoader,
+      final Optional<TrieNodeCache<V>> nodeCache,
+      final Bytes32 rootHash,
+      final Function<V, BytesValue> valueSerializer,
+      final Function<BytesValue, V> valueDeserializer) {
+    this.nodeFactory =
+        new StoredNodeFactory<>(nodeLoader, nodeCache, valueSerializer, valueDeserializer);
     this.root =
         rootHash.equals(MerklePatriciaTrie.EMPTY_TRIE_ROOT_HASH)
             ? NullNode.instance()
@@ -75,6 +106,14 @@ public class StoredMerklePatriciaTrie<K extends BytesValue, V> implements Merkle
     return root.accept(getVisitor, bytesToPath(key)).getValue();
   }
 
+  @Override
+  public Proof<V> getValueWithProof(final K key) {
+    checkNotNull(key);
+    final ProofVisitor<V> proofVisitor = new ProofVisitor<>();
+    final Optional<V> value = root.accept(proofVisitor, bytesToPath(key)).getValue();
+    return new Proof<>(value, proofVisitor.getProof());
+  }
+
   @Override
   public void put(final K key, final V value) {
     checkNotNull(key);
@@ -90,11 +129,12 @@ public class StoredMerklePatriciaTrie<K extends BytesValue, V> implements Merkle
 
   @Override
   public void commit(final NodeUpdater nodeUpdater) {
-    final CommitVisitor<V> commitVisitor = new CommitVisitor<>(nodeUpdater);
+    final NodeUpdater updater = nodeFactory.isCaching() ? cachingUpdater(nodeUpdater) : nodeUpdater;
+    final CommitVisitor<V> commitVisitor = new CommitVisitor<>(updater);
     root.accept(commitVisitor);
     // Make sure root node was stored
     if (root.isDirty() && root.getRlpRef().size() < 32) {
-      nodeUpdater.store(root.getHash(), root.getRlpRef());
+      updater.store(root.getHash(), root.getRlpRef());
     }
     // Reset root so dirty nodes can be garbage collected
     final Bytes32 rootHash = root.getHash();
@@ -104,11 +144,31 @@ public class StoredMerklePatriciaTrie<K extends BytesValue, V> implements Merkle
             : new StoredNode<>(nodeFactory, rootHash);
   }
 
+  private NodeUpdater cachingUpdater(final NodeUpdater nodeUpdater) {
+    return (hash, value) -> {
+      nodeUpdater.store(hash, value);
+      nodeFactory.cacheStoredNode(hash, value);
+    };
+  }
+
   @Override
   public Map<Bytes32, V> entriesFrom(final Bytes32 startKeyHash, final int limit) {
     return StorageEntriesCollector.collectEntries(root, startKeyHash, limit);
   }
 
+  /**
+   * Walks the nodes of this trie that are held in storage under their own hash, along with the
+   * nodes embedded in them.
+   *
+   * @param shouldVisit Called with the hash of each stored node before it is loaded. The node and
+   *     everything below it are skipped if this returns false.
+   * @param valueHandler Called with every value held by the visited nodes.
+   */
+  public void visitStoredNodes(
+      final Predicate<Bytes32> shouldVisit, final Consumer<V> valueHandler) {
+    new StoredNodeWalker<>(shouldVisit, valueHandler).walk(root);
+  }
+
   @Override
   public Bytes32 getRootHash() {
     return root.getHash();
@@ -86,11 +86,14 @@ class StoredNode<V> implements Node<V> {
   }
 
   private Node<V> load() {
-    if (loaded == null) {
-      loaded = nodeFactory.retrieve(hash);
+    if (loaded != null) {
+      return loaded;
     }
-
-    return loaded;
+    final Node<V> node = nodeFactory.retrieve(hash);
+    if (!nodeFactory.isCaching()) {
+      loaded = node;
+    }
+    return node;
   }
 
   @Override
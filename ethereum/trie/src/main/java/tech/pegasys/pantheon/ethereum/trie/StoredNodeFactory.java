@@ -31,14 +31,17 @@ class StoredNodeFactory<V> implements NodeFactory<V> {
   private static final NullNode NULL_NODE = NullNode.instance();
 
   private final NodeLoader nodeLoader;
+  private final Optional<TrieNodeCache<V>> nodeCache;
   private final Function<V, BytesValue> valueSerializer;
   private final Function<BytesValue, V> valueDeserializer;
 
   StoredNodeFactory(
       final NodeLoader nodeLoader,
+      final Optional<TrieNodeCache<V>> nodeCache,
       final Function<V, BytesValue> valueSerializer,
       final Function<BytesValue, V> valueDeserializer) {
     this.nodeLoader = nodeLoader;
+    this.nodeCache = nodeCache;
     this.valueSerializer = valueSerializer;
     this.valueDeserializer = valueDeserializer;
   }
@@ -88,17 +91,49 @@ class StoredNodeFactory<V> implements NodeFactory<V> {
   }
 
   public Node<V> retrieve(final Bytes32 hash) throws MerkleStorageException {
-    return nodeLoader
-        .getNode(hash)
-        .map(
-            rlp -> {
-              final Node<V> node = decode(rlp, () -> format("Invalid RLP value for hash %s", hash));
-              // recalculating the node.hash() is expensive, so we only do this as an assertion
-              assert (hash.equals(node.getHash()))
-                  : "Node hash " + node.getHash() + " not equal to expected " + hash;
-              return node;
-            })
-        .orElseThrow(() -> new MerkleStorageException("Missing value for hash " + hash));
+    if (nodeCache.isPresent()) {
+      final Node<V> cached = nodeCache.get().getIfPresent(hash);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    final Node<V> node =
+        nodeLoader
+            .getNode(hash)
+            .map(
+                rlp -> {
+                  final Node<V> decoded =
+                      decode(rlp, () -> format("Invalid RLP value for hash %s", hash));
+                  // recalculating the node.hash() is expensive, so we only do this as an assertion
+                  assert (hash.equals(decoded.getHash()))
+                      : "Node hash " + decoded.getHash() + " not equal to expected " + hash;
+                  return decoded;
+                })
+            .orElseThrow(() -> new MerkleStorageException("Missing value for hash " + hash));
+    nodeCache.ifPresent(cache -> cache.put(hash, node));
+    return node;
+  }
+
+  /**
+   * Whether retrieved nodes are held in a shared cache. Cached nodes must not keep references to
+   * the children loaded through them, otherwise a cached root would pin the whole trie in memory.
+   *
+   * @return true if this factory is backed by a {@link TrieNodeCache}.
+   */
+  boolean isCaching() {
+    return nodeCache.isPresent();
+  }
+
+  /**
+   * Adds a node that has just been persisted to the cache, so that the next block does not have to
+   * read back the top of the trie it just wrote.
+   *
+   * @param hash The hash of the stored node.
+   * @param rlp The encoded node.
+   */
+  void cacheStoredNode(final Bytes32 hash, final BytesValue rlp) {
+    nodeCache.ifPresent(
+        cache -> cache.put(hash, decode(rlp, () -> format("Invalid RLP value for hash %s", hash))));
   }
 
   private Node<V> decode(final BytesValue rlp, final Supplier<String> errMessage)
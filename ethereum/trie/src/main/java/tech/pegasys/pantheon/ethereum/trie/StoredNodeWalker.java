@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.trie;
+
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Walks the nodes of a trie depth first, asking before loading each node that is held in storage
+ * under its own hash. Nodes embedded in their parent are always visited along with it.
+ */
+class StoredNodeWalker<V> implements NodeVisitor<V> {
+
+  private final Predicate<Bytes32> shouldVisit;
+  private final Consumer<V> valueHandler;
+
+  StoredNodeWalker(final Predicate<Bytes32> shouldVisit, final Consumer<V> valueHandler) {
+    this.shouldVisit = shouldVisit;
+    this.valueHandler = valueHandler;
+  }
+
+  void walk(final Node<V> node) {
+    if (node instanceof StoredNode && !shouldVisit.test(node.getHash())) {
+      return;
+    }
+    node.accept(this);
+  }
+
+  @Override
+  public void visit(final ExtensionNode<V> extensionNode) {
+    walk(extensionNode.getChild());
+  }
+
+  @Override
+  public void visit(final BranchNode<V> branchNode) {
+    for (byte i = 0; i < BranchNode.RADIX; i++) {
+      walk(branchNode.child(i));
+    }
+    branchNode.getValue().ifPresent(valueHandler);
+  }
+
+  @Override
+  public void visit(final LeafNode<V> leafNode) {
+    leafNode.getValue().ifPresent(valueHandler);
+  }
+
+  @Override
+  public void visit(final NullNode<V> nullNode) {}
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.trie;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+
+/**
+ * A size-bounded, thread-safe cache of decoded trie nodes, keyed by node hash.
+ *
+ * <p>Nodes are content-addressed, so a cached node is valid for any trie whose nodes are loaded
+ * from the same storage with the same value serialization. A single cache may therefore be shared
+ * between all {@link StoredMerklePatriciaTrie} instances backed by the same {@link NodeLoader}.
+ *
+ * @param <V> The type of values stored by the tries using this cache.
+ */
+public class TrieNodeCache<V> {
+
+  private final Cache<Bytes32, Node<V>> nodes;
+
+  /**
+   * Create a cache.
+   *
+   * @param maximumSize The maximum number of nodes held by the cache.
+   */
+  public TrieNodeCache(final long maximumSize) {
+    checkArgument(maximumSize > 0, "Cache size must be positive");
+    this.nodes =
+        CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .concurrencyLevel(4)
+            .recordStats()
+            .build();
+  }
+
+  Node<V> getIfPresent(final Bytes32 hash) {
+    return nodes.getIfPresent(hash);
+  }
+
+  void put(final Bytes32 hash, final Node<V> node) {
+    nodes.put(hash, node);
+  }
+
+  /** @return The number of lookups that found a cached node. */
+  public long hitCount() {
+    return stats().hitCount();
+  }
+
+  /** @return The number of lookups that had to load the node from storage. */
+  public long missCount() {
+    return stats().missCount();
+  }
+
+  /** @return The number of nodes currently cached. */
+  public long size() {
+    return nodes.size();
+  }
+
+  private CacheStats stats() {
+    return nodes.stats();
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.trie;
+
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/** Decodes trie nodes that are received on their own, rather than loaded as part of a trie. */
+public class TrieNodeDecoder {
+
+  private TrieNodeDecoder() {}
+
+  /**
+   * Decodes a node held in storage under its own hash, reporting the children that are stored
+   * separately and the values held by the node, including those of the children embedded in it.
+   *
+   * @param hash The hash of the node.
+   * @param nodeRlp The RLP encoding of the node.
+   * @param childHashHandler Told the hash of every child that is stored under its own hash.
+   * @param valueHandler Told every value held by the node or its embedded children.
+   * @throws MerkleStorageException If the node is not a valid trie node.
+   */
+  public static void decodeNode(
+      final Bytes32 hash,
+      final BytesValue nodeRlp,
+      final Consumer<Bytes32> childHashHandler,
+      final Consumer<BytesValue> valueHandler) {
+    final StoredNodeFactory<BytesValue> nodeFactory =
+        new StoredNodeFactory<>(
+            nodeHash -> Optional.of(nodeRlp),
+            Optional.empty(),
+            Function.identity(),
+            Function.identity());
+    final Node<BytesValue> node = nodeFactory.retrieve(hash);
+    new StoredNodeWalker<BytesValue>(
+            childHash -> {
+              childHashHandler.accept(childHash);
+              return false;
+            },
+            valueHandler)
+        .walk(node);
+  }
+}
@@ -14,13 +14,16 @@ package tech.pegasys.pantheon.ethereum.trie;
 
 import static junit.framework.TestCase.assertFalse;
 import static org.assertj.core.api.Assertions.assertThat;
+import static tech.pegasys.pantheon.crypto.Hash.keccak256;
 
+import tech.pegasys.pantheon.ethereum.rlp.RLP;
 import tech.pegasys.pantheon.services.kvstore.InMemoryKeyValueStorage;
 import tech.pegasys.pantheon.services.kvstore.KeyValueStorage;
 import tech.pegasys.pantheon.util.bytes.Bytes32;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import java.nio.charset.Charset;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
 
@@ -375,6 +378,72 @@ public class StoredMerklePatriciaTrieTest {
     assertThat(trie.get(key3)).isEqualTo(Optional.of("value3"));
   }
 
+  @Test
+  public void cachedTrieLoadsNodesFromStorageOnlyOnce() {
+    final BytesValue key1 = BytesValue.of(1, 5, 8, 9);
+    final BytesValue key2 = BytesValue.of(1, 6, 1, 2);
+    trie.put(key1, "value1");
+    trie.put(key2, "value2");
+    final Bytes32 rootHash = trie.getRootHash();
+    trie.commit(merkleStorage::put);
+
+    final TrieNodeCache<String> cache = new TrieNodeCache<>(100);
+    trie =
+        new StoredMerklePatriciaTrie<>(
+            merkleStorage::get, cache, rootHash, valueSerializer, valueDeserializer);
+    assertThat(trie.get(key1)).isEqualTo(Optional.of("value1"));
+    final long missesAfterFirstRead = cache.missCount();
+    assertThat(missesAfterFirstRead).isGreaterThan(0);
+
+    trie =
+        new StoredMerklePatriciaTrie<>(
+            merkleStorage::get, cache, rootHash, valueSerializer, valueDeserializer);
+    assertThat(trie.get(key1)).isEqualTo(Optional.of("value1"));
+    assertThat(cache.hitCount()).isGreaterThan(0);
+    assertThat(cache.missCount()).isEqualTo(missesAfterFirstRead);
+    assertThat(trie.get(key2)).isEqualTo(Optional.of("value2"));
+  }
+
+  @Test
+  public void cachedTrieCachesCommittedNodes() {
+    final TrieNodeCache<String> cache = new TrieNodeCache<>(100);
+    final BytesValue key1 = BytesValue.of(1, 5, 8, 9);
+    final BytesValue key2 = BytesValue.of(1, 6, 1, 2);
+    trie =
+        new StoredMerklePatriciaTrie<>(
+            merkleStorage::get,
+            cache,
+            MerklePatriciaTrie.EMPTY_TRIE_ROOT_HASH,
+            valueSerializer,
+            valueDeserializer);
+    trie.put(key1, "value1");
+    trie.put(key2, "value2");
+    final Bytes32 rootHash = trie.getRootHash();
+    trie.commit(merkleStorage::put);
+    assertThat(cache.size()).isGreaterThan(0);
+
+    trie =
+        new StoredMerklePatriciaTrie<>(
+            merkleStorage::get, cache, rootHash, valueSerializer, valueDeserializer);
+    assertThat(trie.get(key1)).isEqualTo(Optional.of("value1"));
+    assertThat(trie.get(key2)).isEqualTo(Optional.of("value2"));
+    assertThat(cache.missCount()).isEqualTo(0);
+
+    // Updating a trie sharing the cache must not affect other tries
+    trie.put(key1, "value3");
+    final Bytes32 updatedRootHash = trie.getRootHash();
+    trie.commit(merkleStorage::put);
+    final StoredMerklePatriciaTrie<BytesValue, String> original =
+        new StoredMerklePatriciaTrie<>(
+            merkleStorage::get, cache, rootHash, valueSerializer, valueDeserializer);
+    final StoredMerklePatriciaTrie<BytesValue, String> updated =
+        new StoredMerklePatriciaTrie<>(
+            merkleStorage::get, cache, updatedRootHash, valueSerializer, valueDeserializer);
+    assertThat(original.get(key1)).isEqualTo(Optional.of("value1"));
+    assertThat(updated.get(key1)).isEqualTo(Optional.of("value3"));
+    assertThat(updated.get(key2)).isEqualTo(Optional.of("value2"));
+  }
+
   @Test
   public void shouldRetrieveStoredExtensionWithInlinedChild() {
     final KeyValueStorage keyValueStorage = new InMemoryKeyValueStorage();
@@ -419,4 +488,59 @@ public class StoredMerklePatriciaTrieTest {
 
     newTrie.get(BytesValue.fromHexString("0x0401"));
   }
+
+  @Test
+  public void shouldProveInclusionFromStoredRoot() {
+    final BytesValue key1 = BytesValue.fromHexString("0x0100");
+    final BytesValue key2 = BytesValue.fromHexString("0x0200");
+    final BytesValue key3 = BytesValue.fromHexString("0x0201");
+    trie.put(key1, "a value that is long enough to not be inlined in its parent");
+    trie.put(key2, "another value that is long enough to not be inlined in its parent");
+    trie.put(key3, "a third value that is long enough to not be inlined in its parent");
+    final Proof<String> inMemoryProof = trie.getValueWithProof(key3);
+    trie.commit(merkleStorage::put);
+
+    final StoredMerklePatriciaTrie<BytesValue, String> storedTrie =
+        new StoredMerklePatriciaTrie<>(
+            merkleStorage::get, trie.getRootHash(), valueSerializer, valueDeserializer);
+    final Proof<String> proof = storedTrie.getValueWithProof(key3);
+
+    assertThat(proof.getValue())
+        .contains("a third value that is long enough to not be inlined in its parent");
+    assertThat(proof.getProofRelatedNodes()).hasSize(5);
+    assertThat(proof.getProofRelatedNodes()).isEqualTo(inMemoryProof.getProofRelatedNodes());
+    assertProofPathFromRoot(trie.getRootHash(), proof);
+  }
+
+  @Test
+  public void shouldProveExclusionOfMissingKey() {
+    trie.put(BytesValue.fromHexString("0x0100"), "a value that is long enough to not be inlined");
+    trie.put(BytesValue.fromHexString("0x0200"), "another value that is long enough to be hashed");
+    trie.commit(merkleStorage::put);
+
+    final Proof<String> proof = trie.getValueWithProof(BytesValue.fromHexString("0x0300"));
+
+    assertThat(proof.getValue()).isEmpty();
+    assertThat(proof.getProofRelatedNodes()).hasSize(2);
+    assertProofPathFromRoot(trie.getRootHash(), proof);
+  }
+
+  @Test
+  public void emptyTreeProvesExclusionWithEmptyRoot() {
+    final Proof<String> proof = trie.getValueWithProof(BytesValue.of(1));
+
+    assertThat(proof.getValue()).isEmpty();
+    assertThat(proof.getProofRelatedNodes()).containsExactly(RLP.NULL);
+    assertProofPathFromRoot(trie.getRootHash(), proof);
+  }
+
+  private static void assertProofPathFromRoot(final Bytes32 rootHash, final Proof<?> proof) {
+    // The first node hashes to the root and every other node is referenced by its parent's hash.
+    final List<BytesValue> nodes = proof.getProofRelatedNodes();
+    assertThat(keccak256(nodes.get(0))).isEqualTo(rootHash);
+    for (int i = 1; i < nodes.size(); i++) {
+      assertThat(nodes.get(i - 1).toString())
+          .contains(keccak256(nodes.get(i)).toString().substring(2));
+    }
+  }
 }
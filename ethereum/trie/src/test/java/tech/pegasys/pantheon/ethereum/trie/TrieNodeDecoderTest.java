@@ -0,0 +1,82 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.ethereum.trie;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.services.kvstore.InMemoryKeyValueStorage;
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+public class TrieNodeDecoderTest {
+
+  @Test
+  public void decodingFromRootReachesEveryStoredNodeAndValue() {
+    final InMemoryKeyValueStorage keyValueStorage = new InMemoryKeyValueStorage();
+    final MerkleStorage merkleStorage = new KeyValueMerkleStorage(keyValueStorage);
+    final StoredMerklePatriciaTrie<BytesValue, BytesValue> trie =
+        new StoredMerklePatriciaTrie<>(
+            merkleStorage::get, Function.identity(), Function.identity());
+    final Set<BytesValue> expectedValues = new HashSet<>();
+    for (int i = 0; i < 500; i++) {
+      // Short values keep some leaves small enough to be embedded in their parent.
+      final BytesValue value = BytesValue.of(i % 7, i / 7);
+      trie.put(Bytes32.leftPad(BytesValue.of(i / 256, i % 256)), value);
+      expectedValues.add(value);
+    }
+    trie.commit(merkleStorage::put);
+    merkleStorage.commit();
+
+    final Set<Bytes32> visitedNodes = new HashSet<>();
+    final List<BytesValue> values = new ArrayList<>();
+    final Deque<Bytes32> pending = new ArrayDeque<>();
+    pending.push(trie.getRootHash());
+    while (!pending.isEmpty()) {
+      final Bytes32 hash = pending.pop();
+      assertThat(visitedNodes.add(hash)).isTrue();
+      final BytesValue node = keyValueStorage.get(hash).get();
+      TrieNodeDecoder.decodeNode(hash, node, pending::push, values::add);
+    }
+
+    assertThat(visitedNodes).hasSize((int) keyValueStorage.entries().count());
+    assertThat(values).hasSize(500);
+    assertThat(new HashSet<>(values)).isEqualTo(expectedValues);
+  }
+
+  @Test
+  public void decodingLeafReportsItsValueAndNoChildren() {
+    final SimpleMerklePatriciaTrie<BytesValue, BytesValue> trie =
+        new SimpleMerklePatriciaTrie<>(Function.identity());
+    final BytesValue value = BytesValue.wrap(new byte[40]);
+    trie.put(BytesValue.of(1, 2, 3), value);
+    final List<BytesValue> nodes =
+        trie.getValueWithProof(BytesValue.of(1, 2, 3)).getProofRelatedNodes();
+
+    final List<Bytes32> children = new ArrayList<>();
+    final List<BytesValue> values = new ArrayList<>();
+    TrieNodeDecoder.decodeNode(trie.getRootHash(), nodes.get(0), children::add, values::add);
+
+    assertThat(children).isEmpty();
+    assertThat(values).containsExactly(value);
+  }
+}
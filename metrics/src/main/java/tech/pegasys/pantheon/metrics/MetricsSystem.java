@@ -0,0 +1,49 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.metrics;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Creates the metrics reported by the node. Creating a counter or timer that already exists
+ * returns the existing one, so components can ask for their metrics whenever they need them.
+ */
+public interface MetricsSystem {
+
+  default Counter createCounter(
+      final MetricCategory category, final String name, final String help) {
+    return createLabelledCounter(category, name, help).labels();
+  }
+
+  LabelledMetric<Counter> createLabelledCounter(
+      MetricCategory category, String name, String help, String... labelNames);
+
+  default OperationTimer createTimer(
+      final MetricCategory category, final String name, final String help) {
+    return createLabelledTimer(category, name, help).labels();
+  }
+
+  LabelledMetric<OperationTimer> createLabelledTimer(
+      MetricCategory category, String name, String help, String... labelNames);
+
+  /**
+   * Registers a gauge whose value is read from the supplier each time the metrics are collected.
+   * Registering a gauge with the name of an existing one replaces its supplier.
+   *
+   * @param category the category of the gauge.
+   * @param name the name of the gauge within its category.
+   * @param help a description of the gauge.
+   * @param valueSupplier supplies the current value, must be cheap and thread safe.
+   */
+  void createGauge(MetricCategory category, String name, String help, DoubleSupplier valueSupplier);
+}
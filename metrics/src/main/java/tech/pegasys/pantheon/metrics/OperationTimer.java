@@ -0,0 +1,43 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.metrics;
+
+/**
+ * Records the distribution of the durations of an operation. Intended to be used with
+ * try-with-resources:
+ *
+ * <pre>{@code
+ * try (final TimingContext ignored = timer.startTimer()) {
+ *   operation();
+ * }
+ * }</pre>
+ */
+public interface OperationTimer {
+
+  TimingContext startTimer();
+
+  interface TimingContext extends AutoCloseable {
+
+    /**
+     * Records the time elapsed since the timer was started.
+     *
+     * @return the elapsed time in seconds.
+     */
+    double stopTimer();
+
+    @Override
+    default void close() {
+      stopTimer();
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.metrics.prometheus;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static tech.pegasys.pantheon.util.NetworkUtility.urlForSocketAddress;
+
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.util.NetworkUtility;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpMethod;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerOptions;
+import io.vertx.core.http.HttpServerRequest;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/** Serves the metrics to Prometheus scrapes on {@code GET /metrics}. */
+public class MetricsHttpService {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final InetSocketAddress EMPTY_SOCKET_ADDRESS = new InetSocketAddress("0.0.0.0", 0);
+  private static final String METRICS_PATH = "/metrics";
+  private static final String TEXT_FORMAT_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private final Vertx vertx;
+  private final MetricsConfiguration config;
+  private final PrometheusMetricsSystem metricsSystem;
+
+  private HttpServer httpServer;
+
+  public MetricsHttpService(
+      final Vertx vertx,
+      final MetricsConfiguration configuration,
+      final MetricsSystem metricsSystem) {
+    validateConfig(configuration);
+    checkArgument(
+        metricsSystem instanceof PrometheusMetricsSystem,
+        "Metrics can only be served from a Prometheus metrics system.");
+    this.vertx = vertx;
+    this.config = configuration;
+    this.metricsSystem = (PrometheusMetricsSystem) metricsSystem;
+  }
+
+  private void validateConfig(final MetricsConfiguration config) {
+    checkArgument(
+        config.getPort() == 0 || NetworkUtility.isValidPort(config.getPort()),
+        "Invalid port configuration.");
+    checkArgument(config.getHost() != null, "Required host is not configured.");
+  }
+
+  public CompletableFuture<?> start() {
+    LOG.info("Starting metrics service on {}:{}", config.getHost(), config.getPort());
+    httpServer =
+        vertx.createHttpServer(
+            new HttpServerOptions().setHost(config.getHost()).setPort(config.getPort()));
+
+    final CompletableFuture<?> resultFuture = new CompletableFuture<>();
+    httpServer
+        .requestHandler(this::handleRequest)
+        .listen(
+            res -> {
+              if (!res.failed()) {
+                resultFuture.complete(null);
+                LOG.info(
+                    "Metrics service started and listening on {}:{}",
+                    config.getHost(),
+                    httpServer.actualPort());
+                return;
+              }
+              httpServer = null;
+              resultFuture.completeExceptionally(
+                  new IllegalStateException(
+                      String.format(
+                          "Failed to bind metrics listener to %s:%s: %s",
+                          config.getHost(), config.getPort(), res.cause().getMessage()),
+                      res.cause()));
+            });
+    return resultFuture;
+  }
+
+  public CompletableFuture<?> stop() {
+    if (httpServer == null) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    final CompletableFuture<?> resultFuture = new CompletableFuture<>();
+    httpServer.close(
+        res -> {
+          if (res.failed()) {
+            resultFuture.completeExceptionally(res.cause());
+          } else {
+            httpServer = null;
+            resultFuture.complete(null);
+          }
+        });
+    return resultFuture;
+  }
+
+  public InetSocketAddress socketAddress() {
+    if (httpServer == null) {
+      return EMPTY_SOCKET_ADDRESS;
+    }
+    return new InetSocketAddress(config.getHost(), httpServer.actualPort());
+  }
+
+  @VisibleForTesting
+  public String url() {
+    if (httpServer == null) {
+      return "";
+    }
+    return urlForSocketAddress("http", socketAddress());
+  }
+
+  private void handleRequest(final HttpServerRequest request) {
+    if (!METRICS_PATH.equals(request.path())) {
+      request.response().setStatusCode(HttpResponseStatus.NOT_FOUND.code()).end();
+      return;
+    }
+    if (request.method() != HttpMethod.GET) {
+      request.response().setStatusCode(HttpResponseStatus.METHOD_NOT_ALLOWED.code()).end();
+      return;
+    }
+    // Gauges may read from other components, so keep collection off the event loop.
+    vertx.<String>executeBlocking(
+        future -> future.complete(metricsSystem.toTextFormat()),
+        false,
+        res -> {
+          if (res.failed()) {
+            LOG.error("Failed to collect metrics", res.cause());
+            request
+                .response()
+                .setStatusCode(HttpResponseStatus.INTERNAL_SERVER_ERROR.code())
+                .end();
+            return;
+          }
+          request
+              .response()
+              .putHeader("Content-Type", TEXT_FORMAT_CONTENT_TYPE)
+              .end(res.result());
+        });
+  }
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.metrics.prometheus;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import tech.pegasys.pantheon.metrics.Counter;
+import tech.pegasys.pantheon.metrics.LabelledMetric;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.metrics.OperationTimer;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+import com.google.common.collect.ImmutableList;
+
+/**
+ * Keeps metrics in memory and renders them in the Prometheus text exposition format.
+ *
+ * <p>Counters and histogram buckets are striped {@link LongAdder}s, so recording from many threads
+ * does not contend, and timers read {@link System#nanoTime()} only when started and stopped. All
+ * aggregation is left to the time the metrics are scraped.
+ */
+public class PrometheusMetricsSystem implements MetricsSystem {
+
+  static final double[] DEFAULT_BUCKETS = {
+    0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10
+  };
+  private static final String NAME_PREFIX = "pantheon_";
+  private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+  private final Map<String, Collector> collectors = new ConcurrentSkipListMap<>();
+
+  public static MetricsSystem init(final MetricsConfiguration metricsConfiguration) {
+    return metricsConfiguration.isEnabled()
+        ? new PrometheusMetricsSystem()
+        : new NoOpMetricsSystem();
+  }
+
+  @Override
+  public LabelledMetric<Counter> createLabelledCounter(
+      final MetricCategory category,
+      final String name,
+      final String help,
+      final String... labelNames) {
+    final String metricName = metricName(category, name);
+    return getOrCreate(
+        metricName, CounterFamily.class, () -> new CounterFamily(metricName, help, labelNames));
+  }
+
+  @Override
+  public LabelledMetric<OperationTimer> createLabelledTimer(
+      final MetricCategory category,
+      final String name,
+      final String help,
+      final String... labelNames) {
+    final String metricName = metricName(category, name);
+    return getOrCreate(
+        metricName,
+        HistogramFamily.class,
+        () -> new HistogramFamily(metricName, help, labelNames, DEFAULT_BUCKETS));
+  }
+
+  @Override
+  public void createGauge(
+      final MetricCategory category,
+      final String name,
+      final String help,
+      final DoubleSupplier valueSupplier) {
+    final String metricName = metricName(category, name);
+    collectors.compute(
+        metricName,
+        (key, existing) -> {
+          checkArgument(
+              existing == null || existing instanceof Gauge,
+              "Metric %s is already registered as a %s",
+              metricName,
+              existing == null ? null : existing.type);
+          return new Gauge(metricName, help, valueSupplier);
+        });
+  }
+
+  /**
+   * Renders the current value of every metric.
+   *
+   * @return the metrics in the Prometheus text exposition format, version 0.0.4.
+   */
+  public String toTextFormat() {
+    final StringBuilder out = new StringBuilder();
+    collectors.values().forEach(collector -> collector.write(out));
+    return out.toString();
+  }
+
+  private <T extends Collector> T getOrCreate(
+      final String metricName, final Class<T> type, final Supplier<T> factory) {
+    final Collector collector = collectors.computeIfAbsent(metricName, key -> factory.get());
+    checkArgument(
+        type.isInstance(collector),
+        "Metric %s is already registered as a %s",
+        metricName,
+        collector.type);
+    return type.cast(collector);
+  }
+
+  private static String metricName(final MetricCategory category, final String name) {
+    return NAME_PREFIX + category.getName() + "_" + name;
+  }
+
+  private abstract static class Collector {
+    final String name;
+    final String help;
+    final String type;
+
+    Collector(final String name, final String help, final String type) {
+      this.name = name;
+      this.help = help;
+      this.type = type;
+    }
+
+    void write(final StringBuilder out) {
+      out.append("# HELP ").append(name).append(' ');
+      escape(out, help, false);
+      out.append('\n');
+      out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+      writeSamples(out);
+    }
+
+    abstract void writeSamples(StringBuilder out);
+  }
+
+  private abstract static class Family<T> extends Collector implements LabelledMetric<T> {
+    final List<String> labelNames;
+    private final Map<List<String>, T> children = new ConcurrentHashMap<>();
+
+    Family(final String name, final String help, final String type, final String[] labelNames) {
+      super(name, help, type);
+      this.labelNames = ImmutableList.copyOf(labelNames);
+    }
+
+    @Override
+    public T labels(final String... labels) {
+      checkArgument(
+          labels.length == labelNames.size(),
+          "Metric %s requires %s label values but got %s",
+          name,
+          labelNames.size(),
+          labels.length);
+      return children.computeIfAbsent(ImmutableList.copyOf(labels), key -> newChild());
+    }
+
+    abstract T newChild();
+
+    @Override
+    void writeSamples(final StringBuilder out) {
+      children.forEach((labels, child) -> writeChild(out, labels, child));
+    }
+
+    abstract void writeChild(StringBuilder out, List<String> labels, T child);
+
+    void writeSample(
+        final StringBuilder out,
+        final String suffix,
+        final List<String> labels,
+        final String extraLabel,
+        final String extraValue,
+        final String value) {
+      out.append(name).append(suffix);
+      if (!labels.isEmpty() || extraLabel != null) {
+        out.append('{');
+        for (int i = 0; i < labels.size(); i++) {
+          if (i > 0) {
+            out.append(',');
+          }
+          writeLabel(out, labelNames.get(i), labels.get(i));
+        }
+        if (extraLabel != null) {
+          if (!labels.isEmpty()) {
+            out.append(',');
+          }
+          writeLabel(out, extraLabel, extraValue);
+        }
+        out.append('}');
+      }
+      out.append(' ').append(value).append('\n');
+    }
+
+    private static void writeLabel(
+        final StringBuilder out, final String label, final String value) {
+      out.append(label).append("=\"");
+      escape(out, value, true);
+      out.append('"');
+    }
+  }
+
+  private static class CounterFamily extends Family<Counter> {
+
+    CounterFamily(final String name, final String help, final String[] labelNames) {
+      super(name, help, "counter", labelNames);
+    }
+
+    @Override
+    Counter newChild() {
+      return new AdderCounter();
+    }
+
+    @Override
+    void writeChild(final StringBuilder out, final List<String> labels, final Counter child) {
+      writeSample(out, "", labels, null, null, Long.toString(((AdderCounter) child).get()));
+    }
+  }
+
+  private static class AdderCounter implements Counter {
+    private final LongAdder count = new LongAdder();
+
+    @Override
+    public void inc() {
+      count.increment();
+    }
+
+    @Override
+    public void inc(final long amount) {
+      count.add(amount);
+    }
+
+    long get() {
+      return count.sum();
+    }
+  }
+
+  private static class HistogramFamily extends Family<OperationTimer> {
+    private final double[] buckets;
+
+    HistogramFamily(
+        final String name, final String help, final String[] labelNames, final double[] buckets) {
+      super(name, help, "histogram", labelNames);
+      this.buckets = buckets;
+    }
+
+    @Override
+    OperationTimer newChild() {
+      return new HistogramTimer(buckets);
+    }
+
+    @Override
+    void writeChild(
+        final StringBuilder out, final List<String> labels, final OperationTimer child) {
+      final HistogramTimer histogram = (HistogramTimer) child;
+      long cumulativeCount = 0;
+      for (int i = 0; i < buckets.length; i++) {
+        cumulativeCount += histogram.counts[i].sum();
+        writeSample(
+            out, "_bucket", labels, "le", formatDouble(buckets[i]), Long.toString(cumulativeCount));
+      }
+      cumulativeCount += histogram.counts[buckets.length].sum();
+      writeSample(out, "_bucket", labels, "le", "+Inf", Long.toString(cumulativeCount));
+      writeSample(out, "_sum", labels, null, null, formatDouble(histogram.sum.sum()));
+      writeSample(out, "_count", labels, null, null, Long.toString(cumulativeCount));
+    }
+  }
+
+  private static class HistogramTimer implements OperationTimer {
+    private final double[] buckets;
+    // One count per bucket, not cumulative, plus one for values above the largest bucket.
+    private final LongAdder[] counts;
+    private final DoubleAdder sum = new DoubleAdder();
+
+    HistogramTimer(final double[] buckets) {
+      this.buckets = buckets;
+      this.counts = new LongAdder[buckets.length + 1];
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] = new LongAdder();
+      }
+    }
+
+    @Override
+    public TimingContext startTimer() {
+      final long start = System.nanoTime();
+      return () -> {
+        final double elapsed = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        observe(elapsed);
+        return elapsed;
+      };
+    }
+
+    void observe(final double value) {
+      int bucket = 0;
+      while (bucket < buckets.length && value > buckets[bucket]) {
+        bucket++;
+      }
+      counts[bucket].increment();
+      sum.add(value);
+    }
+  }
+
+  private static class Gauge extends Collector {
+    private final DoubleSupplier valueSupplier;
+
+    Gauge(final String name, final String help, final DoubleSupplier valueSupplier) {
+      super(name, help, "gauge");
+      this.valueSupplier = valueSupplier;
+    }
+
+    @Override
+    void writeSamples(final StringBuilder out) {
+      out.append(name).append(' ').append(formatDouble(valueSupplier.getAsDouble())).append('\n');
+    }
+  }
+
+  private static String formatDouble(final double value) {
+    if (value == Double.POSITIVE_INFINITY) {
+      return "+Inf";
+    } else if (value == Double.NEGATIVE_INFINITY) {
+      return "-Inf";
+    } else if (Double.isNaN(value)) {
+      return "NaN";
+    }
+    return Double.toString(value);
+  }
+
+  private static void escape(final StringBuilder out, final String text, final boolean quoted) {
+    for (int i = 0; i < text.length(); i++) {
+      final char c = text.charAt(i);
+      if (c == '\\') {
+        out.append("\\\\");
+      } else if (c == '\n') {
+        out.append("\\n");
+      } else if (c == '"' && quoted) {
+        out.append("\\\"");
+      } else {
+        out.append(c);
+      }
+    }
+  }
+}
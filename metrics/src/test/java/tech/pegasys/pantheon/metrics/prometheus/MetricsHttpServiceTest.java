@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.metrics.prometheus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+
+import io.vertx.core.Vertx;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class MetricsHttpServiceTest {
+
+  private static final Vertx vertx = Vertx.vertx();
+
+  private static final PrometheusMetricsSystem metricsSystem = new PrometheusMetricsSystem();
+  private static MetricsHttpService service;
+  private static OkHttpClient client;
+  private static String baseUrl;
+
+  @BeforeClass
+  public static void initServerAndClient() {
+    final MetricsConfiguration config = MetricsConfiguration.createDefault();
+    config.setEnabled(true);
+    config.setPort(0);
+    service = new MetricsHttpService(vertx, config, metricsSystem);
+    service.start().join();
+
+    client = new OkHttpClient();
+    baseUrl = service.url();
+  }
+
+  @AfterClass
+  public static void shutdownServer() {
+    service.stop().join();
+    vertx.close();
+  }
+
+  @Test
+  public void shouldServeMetrics() throws Exception {
+    metricsSystem.createCounter(MetricCategory.BLOCKCHAIN, "served_total", "Served").inc();
+
+    try (final Response resp = client.newCall(buildGetRequest("/metrics")).execute()) {
+      assertThat(resp.code()).isEqualTo(200);
+      assertThat(resp.header("Content-Type")).startsWith("text/plain; version=0.0.4");
+      assertThat(resp.body().string()).contains("pantheon_blockchain_served_total 1\n");
+    }
+  }
+
+  @Test
+  public void shouldReturnNotFoundForOtherPaths() throws Exception {
+    try (final Response resp = client.newCall(buildGetRequest("/")).execute()) {
+      assertThat(resp.code()).isEqualTo(404);
+    }
+  }
+
+  @Test
+  public void shouldRequirePrometheusMetricsSystem() {
+    assertThatThrownBy(
+            () ->
+                new MetricsHttpService(
+                    vertx, MetricsConfiguration.createDefault(), new NoOpMetricsSystem()))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private Request buildGetRequest(final String path) {
+    return new Request.Builder().get().url(baseUrl + path).build();
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.metrics.prometheus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static tech.pegasys.pantheon.metrics.MetricCategory.BLOCKCHAIN;
+import static tech.pegasys.pantheon.metrics.MetricCategory.PEERS;
+import static tech.pegasys.pantheon.metrics.MetricCategory.RPC;
+
+import tech.pegasys.pantheon.metrics.Counter;
+import tech.pegasys.pantheon.metrics.LabelledMetric;
+import tech.pegasys.pantheon.metrics.OperationTimer;
+import tech.pegasys.pantheon.metrics.OperationTimer.TimingContext;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+
+import org.junit.Test;
+
+public class PrometheusMetricsSystemTest {
+
+  private final PrometheusMetricsSystem metricsSystem = new PrometheusMetricsSystem();
+
+  @Test
+  public void shouldRenderCounters() {
+    final Counter counter = metricsSystem.createCounter(BLOCKCHAIN, "imported_total", "Imported");
+    counter.inc();
+    counter.inc(2);
+
+    assertThat(metricsSystem.toTextFormat())
+        .isEqualTo(
+            "# HELP pantheon_blockchain_imported_total Imported\n"
+                + "# TYPE pantheon_blockchain_imported_total counter\n"
+                + "pantheon_blockchain_imported_total 3\n");
+  }
+
+  @Test
+  public void shouldReturnExistingMetricWhenCreatedTwice() {
+    metricsSystem.createCounter(BLOCKCHAIN, "imported_total", "Imported").inc();
+    metricsSystem.createCounter(BLOCKCHAIN, "imported_total", "Imported").inc();
+
+    assertThat(metricsSystem.toTextFormat()).contains("pantheon_blockchain_imported_total 2\n");
+  }
+
+  @Test
+  public void shouldRenderLabelledCountersSeparately() {
+    final LabelledMetric<Counter> counter =
+        metricsSystem.createLabelledCounter(RPC, "requests_total", "Requests", "method");
+    counter.labels("eth_call").inc();
+    counter.labels("eth_call").inc();
+    counter.labels("say \"hi\"").inc();
+
+    assertThat(metricsSystem.toTextFormat())
+        .contains("pantheon_rpc_requests_total{method=\"eth_call\"} 2\n")
+        .contains("pantheon_rpc_requests_total{method=\"say \\\"hi\\\"\"} 1\n");
+  }
+
+  @Test
+  public void shouldRejectWrongNumberOfLabels() {
+    final LabelledMetric<Counter> counter =
+        metricsSystem.createLabelledCounter(RPC, "requests_total", "Requests", "method");
+
+    assertThatThrownBy(() -> counter.labels("a", "b"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void shouldRejectMetricRegisteredWithAnotherType() {
+    metricsSystem.createCounter(BLOCKCHAIN, "height", "Height");
+
+    assertThatThrownBy(() -> metricsSystem.createTimer(BLOCKCHAIN, "height", "Height"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> metricsSystem.createGauge(BLOCKCHAIN, "height", "Height", () -> 1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  public void shouldRenderTimersAsCumulativeHistograms() {
+    final OperationTimer timer =
+        metricsSystem.createLabelledTimer(RPC, "request_time", "Time", "method").labels("eth_call");
+    final TimingContext context = timer.startTimer();
+    final double elapsed = context.stopTimer();
+    try (final TimingContext ignored = timer.startTimer()) {
+      // Timed by closing the context.
+    }
+
+    final String output = metricsSystem.toTextFormat();
+    assertThat(elapsed).isGreaterThanOrEqualTo(0);
+    assertThat(output)
+        .startsWith(
+            "# HELP pantheon_rpc_request_time Time\n# TYPE pantheon_rpc_request_time histogram\n")
+        .contains("pantheon_rpc_request_time_bucket{method=\"eth_call\",le=\"10.0\"} 2\n")
+        .contains("pantheon_rpc_request_time_bucket{method=\"eth_call\",le=\"+Inf\"} 2\n")
+        .contains("pantheon_rpc_request_time_count{method=\"eth_call\"} 2\n")
+        .contains("pantheon_rpc_request_time_sum{method=\"eth_call\"} ");
+    assertThat(output.split("\n"))
+        .filteredOn(line -> line.startsWith("pantheon_rpc_request_time_bucket"))
+        .hasSize(PrometheusMetricsSystem.DEFAULT_BUCKETS.length + 1);
+  }
+
+  @Test
+  public void shouldReadGaugesWhenRendered() {
+    final int[] peers = {3};
+    metricsSystem.createGauge(PEERS, "peer_count", "Peers", () -> peers[0]);
+    assertThat(metricsSystem.toTextFormat()).contains("pantheon_peers_peer_count 3.0\n");
+
+    peers[0] = 5;
+    assertThat(metricsSystem.toTextFormat()).contains("pantheon_peers_peer_count 5.0\n");
+  }
+
+  @Test
+  public void shouldReplaceGaugeRegisteredAgain() {
+    metricsSystem.createGauge(PEERS, "peer_count", "Peers", () -> 1);
+    metricsSystem.createGauge(PEERS, "peer_count", "Peers", () -> 2);
+
+    assertThat(metricsSystem.toTextFormat()).contains("pantheon_peers_peer_count 2.0\n");
+  }
+
+  @Test
+  public void shouldOnlyRecordWhenEnabled() {
+    final MetricsConfiguration config = MetricsConfiguration.createDefault();
+    assertThat(PrometheusMetricsSystem.init(config)).isInstanceOf(NoOpMetricsSystem.class);
+
+    config.setEnabled(true);
+    assertThat(PrometheusMetricsSystem.init(config)).isInstanceOf(PrometheusMetricsSystem.class);
+  }
+}
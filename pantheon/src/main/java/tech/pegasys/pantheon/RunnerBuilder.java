@@ -54,6 +54,9 @@ import tech.pegasys.pantheon.ethereum.p2p.netty.NettyP2PNetwork;
 import tech.pegasys.pantheon.ethereum.p2p.peers.PeerBlacklist;
 import tech.pegasys.pantheon.ethereum.p2p.wire.Capability;
 import tech.pegasys.pantheon.ethereum.p2p.wire.SubProtocol;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.metrics.prometheus.MetricsConfiguration;
+import tech.pegasys.pantheon.metrics.prometheus.MetricsHttpService;
 
 import java.nio.file.Path;
 import java.util.Collection;
@@ -78,6 +81,7 @@ public class RunnerBuilder {
       final int maxPeers,
       final JsonRpcConfiguration jsonRpcConfiguration,
       final WebSocketConfiguration webSocketConfiguration,
+      final MetricsConfiguration metricsConfiguration,
       final Path dataDir) {
 
     Preconditions.checkNotNull(pantheonController);
@@ -106,6 +110,7 @@ public class RunnerBuilder {
 
     final ProtocolSchedule<?> protocolSchedule = pantheonController.getProtocolSchedule();
     final ProtocolContext<?> context = pantheonController.getProtocolContext();
+    final MetricsSystem metricsSystem = context.getMetricsSystem();
 
     final List<SubProtocol> subProtocols = subProtocolConfiguration.getSubProtocols();
     final List<ProtocolManager> protocolManagers = subProtocolConfiguration.getProtocolManagers();
@@ -141,13 +146,20 @@ public class RunnerBuilder {
     final TransactionPool transactionPool = pantheonController.getTransactionPool();
     final MiningCoordinator miningCoordinator = pantheonController.getMiningCoordinator();
 
-    final FilterManager filterManager = createFilterManager(vertx, context, transactionPool);
+    final BlockchainQueries blockchainQueries =
+        new BlockchainQueries(
+            context.getBlockchain(),
+            context.getWorldStateArchive(),
+            Optional.of(pantheonController.getBloomBitsIndex()));
+    final FilterManager filterManager =
+        createFilterManager(vertx, blockchainQueries, transactionPool);
 
     Optional<JsonRpcHttpService> jsonRpcHttpService = Optional.empty();
     if (jsonRpcConfiguration.isEnabled()) {
       final Map<String, JsonRpcMethod> jsonRpcMethods =
           jsonRpcMethods(
               context,
+              blockchainQueries,
               protocolSchedule,
               pantheonController,
               networkRunner,
@@ -158,7 +170,9 @@ public class RunnerBuilder {
               jsonRpcConfiguration.getRpcApis(),
               filterManager);
       jsonRpcHttpService =
-          Optional.of(new JsonRpcHttpService(vertx, dataDir, jsonRpcConfiguration, jsonRpcMethods));
+          Optional.of(
+              new JsonRpcHttpService(
+                  vertx, dataDir, jsonRpcConfiguration, metricsSystem, jsonRpcMethods));
     }
 
     Optional<WebSocketService> webSocketService = Optional.empty();
@@ -166,6 +180,7 @@ public class RunnerBuilder {
       final Map<String, JsonRpcMethod> webSocketsJsonRpcMethods =
           jsonRpcMethods(
               context,
+              blockchainQueries,
               protocolSchedule,
               pantheonController,
               networkRunner,
@@ -193,15 +208,29 @@ public class RunnerBuilder {
                   vertx, webSocketConfiguration, subscriptionManager, webSocketsJsonRpcMethods));
     }
 
+    Optional<MetricsHttpService> metricsService = Optional.empty();
+    if (metricsConfiguration.isEnabled()) {
+      metricsService =
+          Optional.of(new MetricsHttpService(vertx, metricsConfiguration, metricsSystem));
+    }
+
     return new Runner(
-        vertx, networkRunner, jsonRpcHttpService, webSocketService, pantheonController, dataDir);
+        vertx,
+        networkRunner,
+        jsonRpcHttpService,
+        webSocketService,
+        metricsService,
+        pantheonController,
+        dataDir);
   }
 
   private FilterManager createFilterManager(
-      final Vertx vertx, final ProtocolContext<?> context, final TransactionPool transactionPool) {
+      final Vertx vertx,
+      final BlockchainQueries blockchainQueries,
+      final TransactionPool transactionPool) {
     final FilterManager filterManager =
         new FilterManager(
-            new BlockchainQueries(context.getBlockchain(), context.getWorldStateArchive()),
+            blockchainQueries,
             transactionPool,
             new FilterIdGenerator(),
             new FilterRepository());
@@ -211,6 +240,7 @@ public class RunnerBuilder {
 
   private Map<String, JsonRpcMethod> jsonRpcMethods(
       final ProtocolContext<?> context,
+      final BlockchainQueries blockchainQueries,
       final ProtocolSchedule<?> protocolSchedule,
       final PantheonController<?> pantheonController,
       final NetworkRunner networkRunner,
@@ -226,15 +256,14 @@ public class RunnerBuilder {
                 PantheonInfo.version(),
                 String.valueOf(pantheonController.getGenesisConfig().getChainId()),
                 networkRunner.getNetwork(),
-                context.getBlockchain(),
-                context.getWorldStateArchive(),
+                blockchainQueries,
                 synchronizer,
-                transactionPool,
                 protocolSchedule,
+                filterManager,
+                transactionPool,
                 miningCoordinator,
                 supportedCapabilities,
-                jsonRpcApis,
-                filterManager);
+                jsonRpcApis);
 
     if (context.getConsensusState() instanceof CliqueContext) {
       // This is checked before entering this if branch
@@ -84,6 +84,14 @@ class ImportBlockchainSubCommand implements Runnable {
   )
   private final Long worldStateOffset = null;
 
+  @CommandLine.Option(
+    names = {"--no-write-ahead-log"},
+    description =
+        "Speed up the import by not writing to the database write-ahead log. Blocks imported just "
+            + "before a crash may be lost (default: ${DEFAULT-VALUE})"
+  )
+  private final Boolean noWriteAheadLog = false;
+
   public ImportBlockchainSubCommand() {}
 
   @Override
@@ -100,7 +108,7 @@ class ImportBlockchainSubCommand implements Runnable {
       final BlockImporter.ImportResult result =
           parentCommand.blockchainImporter.importBlockchain(
               blocksImportPath,
-              parentCommand.buildController(),
+              parentCommand.buildController(!noWriteAheadLog),
               isSkipHeaderValidation,
               metricsIntervalSec,
               accountCommitInterval,
@@ -25,6 +25,7 @@ import org.apache.logging.log4j.Logger;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.ExecutionException;
+import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
 import picocli.CommandLine.ParentCommand;
 
@@ -42,6 +43,14 @@ class ImportSubCommand implements Runnable {
   @Parameters(arity = "1..1", paramLabel = "PATH", description = "File containing blocks to import")
   private final Path blocksImportPath = null;
 
+  @Option(
+    names = {"--no-write-ahead-log"},
+    description =
+        "Speed up the import by not writing to the database write-ahead log. Blocks imported just "
+            + "before a crash may be lost (default: ${DEFAULT-VALUE})"
+  )
+  private final Boolean noWriteAheadLog = false;
+
   private final BlockImporter blockImporter;
 
   ImportSubCommand(final BlockImporter blockImporter) {
@@ -56,7 +65,8 @@ class ImportSubCommand implements Runnable {
     checkNotNull(blockImporter);
 
     try {
-      blockImporter.importBlockchain(blocksImportPath, parentCommand.buildController());
+      blockImporter.importBlockchain(
+          blocksImportPath, parentCommand.buildController(!noWriteAheadLog));
     } catch (final FileNotFoundException e) {
       throw new ExecutionException(
           new CommandLine(this), "Could not find file to import: " + blocksImportPath);
@@ -30,8 +30,13 @@ import tech.pegasys.pantheon.ethereum.jsonrpc.JsonRpcConfiguration;
 import tech.pegasys.pantheon.ethereum.jsonrpc.RpcApi;
 import tech.pegasys.pantheon.ethereum.jsonrpc.RpcApis;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.WebSocketConfiguration;
+import tech.pegasys.pantheon.ethereum.mainnet.EthHasher;
 import tech.pegasys.pantheon.ethereum.p2p.peers.DefaultPeer;
 import tech.pegasys.pantheon.ethereum.util.InvalidConfigurationException;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateConfiguration;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.metrics.prometheus.MetricsConfiguration;
+import tech.pegasys.pantheon.metrics.prometheus.PrometheusMetricsSystem;
 import tech.pegasys.pantheon.util.BlockImporter;
 import tech.pegasys.pantheon.util.BlockchainImporter;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
@@ -48,8 +53,10 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
+import com.google.common.base.Suppliers;
 import com.google.common.net.HostAndPort;
 import io.vertx.core.Vertx;
 import org.apache.logging.log4j.Level;
@@ -87,6 +94,7 @@ public class PantheonCommand implements Runnable {
 
   private static final String PANTHEON_HOME_PROPERTY_NAME = "pantheon.home";
   private static final String DEFAULT_DATA_DIR_PATH = "./build/data";
+  private static final String ETHASH_DATASET_DIRECTORY = "ethash";
 
   private static final String MANDATORY_HOST_AND_PORT_FORMAT_HELP = "<HOST:PORT>";
   private static final String MANDATORY_PATH_FORMAT_HELP = "<PATH>";
@@ -202,14 +210,72 @@ public class PantheonCommand implements Runnable {
   )
   private final Integer maxTrailingPeers = Integer.MAX_VALUE;
 
-  // TODO: Re-enable as per NC-1057/NC-1681
-  //  @Option(
-  //    names = {"--sync-mode"},
-  //    paramLabel = MANDATORY_MODE_FORMAT_HELP,
-  //    description =
-  //        "Synchronization mode (Value can be one of ${COMPLETION-CANDIDATES}, default:
-  // ${DEFAULT-VALUE})"
-  //  )
+  @Option(
+    names = {"--trie-node-cache-size"},
+    paramLabel = MANDATORY_INTEGER_FORMAT_HELP,
+    description =
+        "Maximum number of world state trie nodes kept in memory, 0 to disable the cache "
+            + "(default: ${DEFAULT-VALUE})",
+    arity = "1"
+  )
+  private final Long trieNodeCacheSize = WorldStateConfiguration.DEFAULT_TRIE_NODE_CACHE_SIZE;
+
+  @Option(
+    names = {"--code-cache-size"},
+    paramLabel = MANDATORY_INTEGER_FORMAT_HELP,
+    description =
+        "Maximum total size in bytes of the analyzed contract code kept in memory "
+            + "(default: ${DEFAULT-VALUE})",
+    arity = "1"
+  )
+  private final Long codeCacheSize = WorldStateConfiguration.DEFAULT_CODE_CACHE_SIZE;
+
+  @Option(
+    names = {"--state-snapshot-enabled"},
+    description =
+        "Keep a flat index of the latest world state to speed up account and storage reads. "
+            + "Only effective on a database synchronised with it enabled "
+            + "(default: ${DEFAULT-VALUE})"
+  )
+  private final Boolean isStateSnapshotEnabled = false;
+
+  @Option(
+    names = {"--pruning-enabled"},
+    description =
+        "Remove the world state of blocks that are neither recent nor checkpoints "
+            + "(default: ${DEFAULT-VALUE})"
+  )
+  private final Boolean isPruningEnabled = false;
+
+  @Option(
+    names = {"--pruning-blocks-retained"},
+    paramLabel = MANDATORY_INTEGER_FORMAT_HELP,
+    description =
+        "Number of most recent blocks whose world state is kept when pruning "
+            + "(default: ${DEFAULT-VALUE})",
+    arity = "1"
+  )
+  private final Long pruningBlocksRetained =
+      WorldStateConfiguration.DEFAULT_PRUNING_BLOCKS_RETAINED;
+
+  @Option(
+    names = {"--pruning-checkpoint-interval"},
+    paramLabel = MANDATORY_INTEGER_FORMAT_HELP,
+    description =
+        "Keep the world state of every block whose number is a multiple of this interval "
+            + "when pruning, 0 to keep none (default: ${DEFAULT-VALUE})",
+    arity = "1"
+  )
+  private final Long pruningCheckpointInterval =
+      WorldStateConfiguration.DEFAULT_PRUNING_CHECKPOINT_INTERVAL;
+
+  @Option(
+    names = {"--sync-mode"},
+    paramLabel = MANDATORY_MODE_FORMAT_HELP,
+    description =
+        "Synchronization mode (Value can be one of ${COMPLETION-CANDIDATES}, "
+            + "default: ${DEFAULT-VALUE})"
+  )
   private final SyncMode syncMode = DEFAULT_SYNC_MODE;
 
   // Boolean option to indicate if the client have to sync against the ottoman test network
@@ -222,6 +288,14 @@ public class PantheonCommand implements Runnable {
   )
   private final Boolean syncWithOttoman = false;
 
+  @Option(
+    names = {"--ethash-full-dataset-enabled"},
+    description =
+        "Validate proof of work against full EthHash datasets kept in the data directory instead "
+            + "of the light cache, using over 1GB of disk per epoch (default: ${DEFAULT-VALUE})"
+  )
+  private final Boolean isEthHashFullDatasetEnabled = false;
+
   @Option(
     names = {"--rinkeby"},
     description =
@@ -313,6 +387,23 @@ public class PantheonCommand implements Runnable {
   )
   private final Collection<RpcApi> wsApis = null;
 
+  @Option(
+    names = {"--metrics-enabled"},
+    description =
+        "Set if the metrics exporter should be started for Prometheus to scrape "
+            + "(default: ${DEFAULT-VALUE})"
+  )
+  private final Boolean isMetricsEnabled = false;
+
+  @Option(
+    names = {"--metrics-listen"},
+    paramLabel = MANDATORY_HOST_AND_PORT_FORMAT_HELP,
+    description = "Host and port for the metrics exporter to listen on (default: ${DEFAULT-VALUE})",
+    arity = "1"
+  )
+  private final HostAndPort metricsHostAndPort =
+      getDefaultHostAndPort(MetricsConfiguration.DEFAULT_METRICS_PORT);
+
   @Option(
     names = {"--dev-mode"},
     description =
@@ -360,6 +451,10 @@ public class PantheonCommand implements Runnable {
   )
   private final BytesValue extraData = DEFAULT_EXTRA_DATA;
 
+  // Created on first use, once the options have been parsed.
+  private final Supplier<MetricsSystem> metricsSystem =
+      Suppliers.memoize(() -> PrometheusMetricsSystem.init(metricsConfiguration()));
+
   public PantheonCommand(
       final BlockImporter blockImporter,
       final BlockchainImporter blockchainImporter,
@@ -429,18 +524,31 @@ public class PantheonCommand implements Runnable {
         maxPeers,
         p2pHostAndPort,
         jsonRpcConfiguration(),
-        webSocketConfiguration());
+        webSocketConfiguration(),
+        metricsConfiguration());
   }
 
   PantheonController<?> buildController() {
+    return buildController(true);
+  }
+
+  PantheonController<?> buildController(final boolean writeAheadLogForBatches) {
     try {
+      final EthHasher ethHasher =
+          isEthHashFullDatasetEnabled
+              ? new EthHasher.Full(dataDir.resolve(ETHASH_DATASET_DIRECTORY))
+              : new EthHasher.Light();
       return controllerBuilder.build(
           buildSyncConfig(syncMode),
+          buildWorldStateConfig(),
           dataDir,
           ethNetworkConfig(),
           syncWithOttoman,
           new MiningParameters(coinbase, minTransactionGasPrice, extraData, isMiningEnabled),
-          isDevMode);
+          isDevMode,
+          ethHasher,
+          writeAheadLogForBatches,
+          metricsSystem.get());
     } catch (final InvalidConfigurationException e) {
       throw new ExecutionException(new CommandLine(this), e.getMessage());
     } catch (final IOException e) {
@@ -467,6 +575,14 @@ public class PantheonCommand implements Runnable {
     return webSocketConfiguration;
   }
 
+  private MetricsConfiguration metricsConfiguration() {
+    final MetricsConfiguration metricsConfiguration = MetricsConfiguration.createDefault();
+    metricsConfiguration.setEnabled(isMetricsEnabled);
+    metricsConfiguration.setHost(metricsHostAndPort.getHost());
+    metricsConfiguration.setPort(metricsHostAndPort.getPort());
+    return metricsConfiguration;
+  }
+
   private SynchronizerConfiguration buildSyncConfig(final SyncMode syncMode) {
     checkNotNull(syncMode);
     synchronizerConfigurationBuilder.syncMode(syncMode);
@@ -474,6 +590,17 @@ public class PantheonCommand implements Runnable {
     return synchronizerConfigurationBuilder.build();
   }
 
+  private WorldStateConfiguration buildWorldStateConfig() {
+    return WorldStateConfiguration.builder()
+        .trieNodeCacheSize(trieNodeCacheSize)
+        .codeCacheSize(codeCacheSize)
+        .stateSnapshotEnabled(isStateSnapshotEnabled)
+        .pruningEnabled(isPruningEnabled)
+        .pruningBlocksRetained(pruningBlocksRetained)
+        .pruningCheckpointInterval(pruningCheckpointInterval)
+        .build();
+  }
+
   // Blockchain synchronisation from peers.
   private void synchronize(
       final PantheonController<?> controller,
@@ -482,7 +609,8 @@ public class PantheonCommand implements Runnable {
       final int maxPeers,
       final HostAndPort discoveryHostAndPort,
       final JsonRpcConfiguration jsonRpcConfiguration,
-      final WebSocketConfiguration webSocketConfiguration) {
+      final WebSocketConfiguration webSocketConfiguration,
+      final MetricsConfiguration metricsConfiguration) {
 
     checkNotNull(runnerBuilder);
 
@@ -498,6 +626,7 @@ public class PantheonCommand implements Runnable {
             maxPeers,
             jsonRpcConfiguration,
             webSocketConfiguration,
+            metricsConfiguration,
             dataDir);
 
     runner.execute();
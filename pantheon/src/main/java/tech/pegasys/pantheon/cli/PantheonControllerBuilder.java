@@ -21,6 +21,9 @@ import tech.pegasys.pantheon.crypto.SECP256K1.KeyPair;
 import tech.pegasys.pantheon.ethereum.chain.GenesisConfig;
 import tech.pegasys.pantheon.ethereum.core.MiningParameters;
 import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
+import tech.pegasys.pantheon.ethereum.mainnet.EthHasher;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateConfiguration;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
 
 import java.io.IOException;
 import java.nio.file.Path;
@@ -31,11 +34,15 @@ public class PantheonControllerBuilder {
 
   public PantheonController<?> build(
       final SynchronizerConfiguration synchronizerConfiguration,
+      final WorldStateConfiguration worldStateConfiguration,
       final Path homePath,
       final EthNetworkConfig ethNetworkConfig,
       final boolean syncWithOttoman,
       final MiningParameters miningParameters,
-      final boolean isDevMode)
+      final boolean isDevMode,
+      final EthHasher ethHasher,
+      final boolean writeAheadLogForBatches,
+      final MetricsSystem metricsSystem)
       throws IOException {
     // instantiate a controller with mainnet config if no genesis file is defined
     // otherwise use the indicated genesis file
@@ -45,19 +52,26 @@ public class PantheonControllerBuilder {
           homePath,
           GenesisConfig.development(),
           synchronizerConfiguration,
+          worldStateConfiguration,
           miningParameters,
-          nodeKeys);
+          nodeKeys,
+          writeAheadLogForBatches,
+          metricsSystem);
     } else {
       final String genesisConfig =
           Resources.toString(ethNetworkConfig.getGenesisConfig().toURL(), UTF_8);
       return PantheonController.fromConfig(
           synchronizerConfiguration,
+          worldStateConfiguration,
           genesisConfig,
           homePath,
           syncWithOttoman,
           ethNetworkConfig.getNetworkId(),
           miningParameters,
-          nodeKeys);
+          nodeKeys,
+          ethHasher,
+          writeAheadLogForBatches,
+          metricsSystem);
     }
   }
 }
@@ -25,6 +25,7 @@ import tech.pegasys.pantheon.consensus.common.VoteProposer;
 import tech.pegasys.pantheon.crypto.SECP256K1.KeyPair;
 import tech.pegasys.pantheon.ethereum.ProtocolContext;
 import tech.pegasys.pantheon.ethereum.blockcreation.MiningCoordinator;
+import tech.pegasys.pantheon.ethereum.chain.BloomBitsIndex;
 import tech.pegasys.pantheon.ethereum.chain.GenesisConfig;
 import tech.pegasys.pantheon.ethereum.chain.MutableBlockchain;
 import tech.pegasys.pantheon.ethereum.core.BlockHashFunction;
@@ -47,12 +48,18 @@ import tech.pegasys.pantheon.ethereum.mainnet.ScheduleBasedBlockHashFunction;
 import tech.pegasys.pantheon.ethereum.p2p.api.ProtocolManager;
 import tech.pegasys.pantheon.ethereum.p2p.config.SubProtocolConfiguration;
 import tech.pegasys.pantheon.ethereum.worldstate.KeyValueStorageWorldStateStorage;
-import tech.pegasys.pantheon.services.kvstore.RocksDbKeyValueStorage;
+import tech.pegasys.pantheon.ethereum.worldstate.MarkSweepPruner;
+import tech.pegasys.pantheon.ethereum.worldstate.Pruner;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateConfiguration;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.services.kvstore.RocksDbSegmentedStorage;
+import tech.pegasys.pantheon.services.kvstore.RocksDbSegmentedStorage.Segment;
 import tech.pegasys.pantheon.util.time.SystemClock;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -68,6 +75,7 @@ public class CliquePantheonController implements PantheonController<CliqueContex
   private final ProtocolManager ethProtocolManager;
   private final KeyPair keyPair;
   private final TransactionPool transactionPool;
+  private final BloomBitsIndex bloomBitsIndex;
   private final Runnable closer;
 
   private static final long EPOCH_LENGTH_DEFAULT = 30_000L;
@@ -82,6 +90,7 @@ public class CliquePantheonController implements PantheonController<CliqueContex
       final KeyPair keyPair,
       final TransactionPool transactionPool,
       final MiningCoordinator miningCoordinator,
+      final BloomBitsIndex bloomBitsIndex,
       final Runnable closer) {
 
     this.genesisConfig = genesisConfig;
@@ -90,6 +99,7 @@ public class CliquePantheonController implements PantheonController<CliqueContex
     this.synchronizer = synchronizer;
     this.keyPair = keyPair;
     this.transactionPool = transactionPool;
+    this.bloomBitsIndex = bloomBitsIndex;
     this.closer = closer;
     this.miningCoordinator = miningCoordinator;
   }
@@ -98,27 +108,53 @@ public class CliquePantheonController implements PantheonController<CliqueContex
       final Path home,
       final GenesisConfig<CliqueContext> genesisConfig,
       final SynchronizerConfiguration taintedSyncConfig,
+      final WorldStateConfiguration worldStateConfig,
       final MiningParameters miningParams,
       final JsonObject cliqueConfig,
       final int networkId,
-      final KeyPair nodeKeys)
+      final KeyPair nodeKeys,
+      final boolean writeAheadLogForBatches,
+      final MetricsSystem metricsSystem)
       throws IOException {
     final long blocksPerEpoch = cliqueConfig.getLong("epoch", EPOCH_LENGTH_DEFAULT);
     final long secondsBetweenBlocks =
         cliqueConfig.getLong("period", SECONDS_BETWEEN_BLOCKS_DEFAULT);
 
     final EpochManager epochManger = new EpochManager(blocksPerEpoch);
-    final RocksDbKeyValueStorage kv =
-        RocksDbKeyValueStorage.create(Files.createDirectories(home.resolve(DATABASE_PATH)));
+    final RocksDbSegmentedStorage storage =
+        RocksDbSegmentedStorage.create(
+            Files.createDirectories(home.resolve(DATABASE_PATH)),
+            writeAheadLogForBatches,
+            metricsSystem);
     final ProtocolSchedule<CliqueContext> protocolSchedule = genesisConfig.getProtocolSchedule();
     final BlockHashFunction blockHashFunction =
         ScheduleBasedBlockHashFunction.create(protocolSchedule);
     final MutableBlockchain blockchain =
-        new DefaultMutableBlockchain(genesisConfig.getBlock(), kv, blockHashFunction);
+        new DefaultMutableBlockchain(
+            genesisConfig.getBlock(), storage.getSegment(Segment.BLOCKCHAIN), blockHashFunction);
     final KeyValueStorageWorldStateStorage worldStateStorage =
-        new KeyValueStorageWorldStateStorage(kv);
-    final WorldStateArchive worldStateArchive = new WorldStateArchive(worldStateStorage);
+        new KeyValueStorageWorldStateStorage(
+            storage.getSegment(Segment.WORLD_STATE), storage.getSegment(Segment.CODE));
+    final WorldStateArchive worldStateArchive =
+        new WorldStateArchive(
+            worldStateStorage,
+            storage.getSegment(Segment.WORLD_STATE_SNAPSHOT),
+            worldStateConfig,
+            metricsSystem);
     genesisConfig.writeStateTo(worldStateArchive.getMutable(Hash.EMPTY_TRIE_HASH));
+    final Optional<Pruner> pruner =
+        worldStateConfig.isPruningEnabled()
+            ? Optional.of(
+                new Pruner(
+                    new MarkSweepPruner(
+                        worldStateStorage, storage.getSegment(Segment.PRUNING_MARKS)),
+                    blockchain,
+                    worldStateConfig))
+            : Optional.empty();
+    pruner.ifPresent(Pruner::start);
+    final BloomBitsIndex bloomBitsIndex =
+        new BloomBitsIndex(blockchain, storage.getSegment(Segment.BLOOM_BITS));
+    bloomBitsIndex.start();
 
     final ProtocolContext<CliqueContext> protocolContext =
         new ProtocolContext<>(
@@ -128,16 +164,19 @@ public class CliquePantheonController implements PantheonController<CliqueContex
                 new VoteTallyCache(
                     blockchain, new CliqueVoteTallyUpdater(epochManger), epochManger),
                 new VoteProposer(),
-                epochManger));
+                epochManger),
+            metricsSystem);
 
     final SynchronizerConfiguration syncConfig = taintedSyncConfig.validated(blockchain);
     final boolean fastSyncEnabled = syncConfig.syncMode().equals(SyncMode.FAST);
     final EthProtocolManager ethProtocolManager =
         new EthProtocolManager(
             protocolContext.getBlockchain(),
+            worldStateStorage,
             genesisConfig.getChainId(),
             fastSyncEnabled,
-            networkId);
+            networkId,
+            metricsSystem);
     final SyncState syncState =
         new SyncState(
             protocolContext.getBlockchain(), ethProtocolManager.ethContext().getEthPeers());
@@ -146,6 +185,8 @@ public class CliquePantheonController implements PantheonController<CliqueContex
             syncConfig,
             protocolSchedule,
             protocolContext,
+            worldStateStorage,
+            storage.getSegment(Segment.FAST_SYNC),
             ethProtocolManager.ethContext(),
             syncState);
 
@@ -183,6 +224,7 @@ public class CliquePantheonController implements PantheonController<CliqueContex
         nodeKeys,
         transactionPool,
         miningCoordinator,
+        bloomBitsIndex,
         () -> {
           miningCoordinator.disable();
           minerThreadPool.shutdownNow();
@@ -191,7 +233,9 @@ public class CliquePantheonController implements PantheonController<CliqueContex
           } catch (final InterruptedException e) {
             LOG.error("Failed to shutdown miner executor");
           }
-          kv.close();
+          bloomBitsIndex.stop();
+          pruner.ifPresent(Pruner::stop);
+          storage.close();
         });
   }
 
@@ -230,6 +274,11 @@ public class CliquePantheonController implements PantheonController<CliqueContex
     return miningCoordinator;
   }
 
+  @Override
+  public BloomBitsIndex getBloomBitsIndex() {
+    return bloomBitsIndex;
+  }
+
   @Override
   public void close() {
     closer.run();
@@ -32,6 +32,7 @@ import tech.pegasys.pantheon.consensus.ibftlegacy.protocol.Istanbul64ProtocolMan
 import tech.pegasys.pantheon.crypto.SECP256K1.KeyPair;
 import tech.pegasys.pantheon.ethereum.ProtocolContext;
 import tech.pegasys.pantheon.ethereum.blockcreation.MiningCoordinator;
+import tech.pegasys.pantheon.ethereum.chain.BloomBitsIndex;
 import tech.pegasys.pantheon.ethereum.chain.GenesisConfig;
 import tech.pegasys.pantheon.ethereum.chain.MutableBlockchain;
 import tech.pegasys.pantheon.ethereum.core.BlockHashFunction;
@@ -53,7 +54,12 @@ import tech.pegasys.pantheon.ethereum.p2p.api.ProtocolManager;
 import tech.pegasys.pantheon.ethereum.p2p.config.SubProtocolConfiguration;
 import tech.pegasys.pantheon.ethereum.p2p.wire.SubProtocol;
 import tech.pegasys.pantheon.ethereum.worldstate.KeyValueStorageWorldStateStorage;
-import tech.pegasys.pantheon.services.kvstore.RocksDbKeyValueStorage;
+import tech.pegasys.pantheon.ethereum.worldstate.MarkSweepPruner;
+import tech.pegasys.pantheon.ethereum.worldstate.Pruner;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateConfiguration;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.services.kvstore.RocksDbSegmentedStorage;
+import tech.pegasys.pantheon.services.kvstore.RocksDbSegmentedStorage.Segment;
 
 import java.io.IOException;
 import java.nio.file.Files;
@@ -79,6 +85,7 @@ public class IbftPantheonController implements PantheonController<IbftContext> {
   private final KeyPair keyPair;
   private final TransactionPool transactionPool;
   private final IbftProcessor ibftProcessor;
+  private final BloomBitsIndex bloomBitsIndex;
   private final Runnable closer;
 
   IbftPantheonController(
@@ -91,6 +98,7 @@ public class IbftPantheonController implements PantheonController<IbftContext> {
       final KeyPair keyPair,
       final TransactionPool transactionPool,
       final IbftProcessor ibftProcessor,
+      final BloomBitsIndex bloomBitsIndex,
       final Runnable closer) {
 
     this.genesisConfig = genesisConfig;
@@ -102,6 +110,7 @@ public class IbftPantheonController implements PantheonController<IbftContext> {
     this.keyPair = keyPair;
     this.transactionPool = transactionPool;
     this.ibftProcessor = ibftProcessor;
+    this.bloomBitsIndex = bloomBitsIndex;
     this.closer = closer;
   }
 
@@ -109,22 +118,48 @@ public class IbftPantheonController implements PantheonController<IbftContext> {
       final Path home,
       final GenesisConfig<IbftContext> genesisConfig,
       final SynchronizerConfiguration taintedSyncConfig,
+      final WorldStateConfiguration worldStateConfig,
       final boolean ottomanTestnetOperation,
       final JsonObject ibftConfig,
       final int networkId,
-      final KeyPair nodeKeys)
+      final KeyPair nodeKeys,
+      final boolean writeAheadLogForBatches,
+      final MetricsSystem metricsSystem)
       throws IOException {
-    final RocksDbKeyValueStorage kv =
-        RocksDbKeyValueStorage.create(Files.createDirectories(home.resolve(DATABASE_PATH)));
+    final RocksDbSegmentedStorage storage =
+        RocksDbSegmentedStorage.create(
+            Files.createDirectories(home.resolve(DATABASE_PATH)),
+            writeAheadLogForBatches,
+            metricsSystem);
     final ProtocolSchedule<IbftContext> protocolSchedule = genesisConfig.getProtocolSchedule();
     final BlockHashFunction blockHashFunction =
         ScheduleBasedBlockHashFunction.create(protocolSchedule);
     final MutableBlockchain blockchain =
-        new DefaultMutableBlockchain(genesisConfig.getBlock(), kv, blockHashFunction);
+        new DefaultMutableBlockchain(
+            genesisConfig.getBlock(), storage.getSegment(Segment.BLOCKCHAIN), blockHashFunction);
     final KeyValueStorageWorldStateStorage worldStateStorage =
-        new KeyValueStorageWorldStateStorage(kv);
-    final WorldStateArchive worldStateArchive = new WorldStateArchive(worldStateStorage);
+        new KeyValueStorageWorldStateStorage(
+            storage.getSegment(Segment.WORLD_STATE), storage.getSegment(Segment.CODE));
+    final WorldStateArchive worldStateArchive =
+        new WorldStateArchive(
+            worldStateStorage,
+            storage.getSegment(Segment.WORLD_STATE_SNAPSHOT),
+            worldStateConfig,
+            metricsSystem);
     genesisConfig.writeStateTo(worldStateArchive.getMutable(Hash.EMPTY_TRIE_HASH));
+    final Optional<Pruner> pruner =
+        worldStateConfig.isPruningEnabled()
+            ? Optional.of(
+                new Pruner(
+                    new MarkSweepPruner(
+                        worldStateStorage, storage.getSegment(Segment.PRUNING_MARKS)),
+                    blockchain,
+                    worldStateConfig))
+            : Optional.empty();
+    pruner.ifPresent(Pruner::start);
+    final BloomBitsIndex bloomBitsIndex =
+        new BloomBitsIndex(blockchain, storage.getSegment(Segment.BLOOM_BITS));
+    bloomBitsIndex.start();
 
     final EpochManager epochManager =
         new EpochManager(IbftProtocolSchedule.getEpochLength(Optional.of(ibftConfig)));
@@ -136,7 +171,10 @@ public class IbftPantheonController implements PantheonController<IbftContext> {
 
     final ProtocolContext<IbftContext> protocolContext =
         new ProtocolContext<>(
-            blockchain, worldStateArchive, new IbftContext(voteTally, voteProposer));
+            blockchain,
+            worldStateArchive,
+            new IbftContext(voteTally, voteProposer),
+            metricsSystem);
 
     final SynchronizerConfiguration syncConfig = taintedSyncConfig.validated(blockchain);
     final boolean fastSyncEnabled = syncConfig.syncMode().equals(SyncMode.FAST);
@@ -151,7 +189,13 @@ public class IbftPantheonController implements PantheonController<IbftContext> {
     } else {
       ethSubProtocol = EthProtocol.get();
       ethProtocolManager =
-          new EthProtocolManager(protocolContext.getBlockchain(), networkId, fastSyncEnabled, 1);
+          new EthProtocolManager(
+              protocolContext.getBlockchain(),
+              worldStateStorage,
+              networkId,
+              fastSyncEnabled,
+              1,
+              metricsSystem);
     }
     final SyncState syncState =
         new SyncState(
@@ -161,6 +205,8 @@ public class IbftPantheonController implements PantheonController<IbftContext> {
             syncConfig,
             protocolSchedule,
             protocolContext,
+            worldStateStorage,
+            storage.getSegment(Segment.FAST_SYNC),
             ethProtocolManager.ethContext(),
             syncState);
 
@@ -186,7 +232,9 @@ public class IbftPantheonController implements PantheonController<IbftContext> {
           } catch (final InterruptedException e) {
             LOG.error("Failed to shutdown ibft processor executor");
           }
-          kv.close();
+          bloomBitsIndex.stop();
+          pruner.ifPresent(Pruner::stop);
+          storage.close();
         };
 
     final TransactionPool transactionPool =
@@ -206,6 +254,7 @@ public class IbftPantheonController implements PantheonController<IbftContext> {
         nodeKeys,
         transactionPool,
         ibftProcessor,
+        bloomBitsIndex,
         closer);
   }
 
@@ -246,6 +295,11 @@ public class IbftPantheonController implements PantheonController<IbftContext> {
     return null;
   }
 
+  @Override
+  public BloomBitsIndex getBloomBitsIndex() {
+    return bloomBitsIndex;
+  }
+
   @Override
   public void close() {
     closer.run();
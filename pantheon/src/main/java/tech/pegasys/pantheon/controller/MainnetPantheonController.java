@@ -20,6 +20,7 @@ import tech.pegasys.pantheon.ethereum.blockcreation.DefaultBlockScheduler;
 import tech.pegasys.pantheon.ethereum.blockcreation.EthHashMinerExecutor;
 import tech.pegasys.pantheon.ethereum.blockcreation.EthHashMiningCoordinator;
 import tech.pegasys.pantheon.ethereum.blockcreation.MiningCoordinator;
+import tech.pegasys.pantheon.ethereum.chain.BloomBitsIndex;
 import tech.pegasys.pantheon.ethereum.chain.GenesisConfig;
 import tech.pegasys.pantheon.ethereum.chain.MutableBlockchain;
 import tech.pegasys.pantheon.ethereum.core.BlockHashFunction;
@@ -42,12 +43,19 @@ import tech.pegasys.pantheon.ethereum.mainnet.ScheduleBasedBlockHashFunction;
 import tech.pegasys.pantheon.ethereum.p2p.api.ProtocolManager;
 import tech.pegasys.pantheon.ethereum.p2p.config.SubProtocolConfiguration;
 import tech.pegasys.pantheon.ethereum.worldstate.KeyValueStorageWorldStateStorage;
-import tech.pegasys.pantheon.services.kvstore.RocksDbKeyValueStorage;
+import tech.pegasys.pantheon.ethereum.worldstate.MarkSweepPruner;
+import tech.pegasys.pantheon.ethereum.worldstate.Pruner;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateConfiguration;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+import tech.pegasys.pantheon.services.kvstore.RocksDbSegmentedStorage;
+import tech.pegasys.pantheon.services.kvstore.RocksDbSegmentedStorage.Segment;
 import tech.pegasys.pantheon.util.time.SystemClock;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -67,6 +75,7 @@ public class MainnetPantheonController implements PantheonController<Void> {
 
   private final TransactionPool transactionPool;
   private final MiningCoordinator miningCoordinator;
+  private final BloomBitsIndex bloomBitsIndex;
   private final Runnable close;
 
   public MainnetPantheonController(
@@ -77,6 +86,7 @@ public class MainnetPantheonController implements PantheonController<Void> {
       final KeyPair keyPair,
       final TransactionPool transactionPool,
       final MiningCoordinator miningCoordinator,
+      final BloomBitsIndex bloomBitsIndex,
       final Runnable close) {
     this.genesisConfig = genesisConfig;
     this.protocolContext = protocolContext;
@@ -85,6 +95,7 @@ public class MainnetPantheonController implements PantheonController<Void> {
     this.keyPair = keyPair;
     this.transactionPool = transactionPool;
     this.miningCoordinator = miningCoordinator;
+    this.bloomBitsIndex = bloomBitsIndex;
     this.close = close;
   }
 
@@ -95,39 +106,71 @@ public class MainnetPantheonController implements PantheonController<Void> {
         home,
         GenesisConfig.mainnet(),
         SynchronizerConfiguration.builder().build(),
+        WorldStateConfiguration.builder().build(),
         miningParams,
-        nodeKeys);
+        nodeKeys,
+        true,
+        new NoOpMetricsSystem());
   }
 
   public static PantheonController<Void> init(
       final Path home,
       final GenesisConfig<Void> genesisConfig,
       final SynchronizerConfiguration taintedSyncConfig,
+      final WorldStateConfiguration worldStateConfig,
       final MiningParameters miningParams,
-      final KeyPair nodeKeys)
+      final KeyPair nodeKeys,
+      final boolean writeAheadLogForBatches,
+      final MetricsSystem metricsSystem)
       throws IOException {
-    final RocksDbKeyValueStorage kv =
-        RocksDbKeyValueStorage.create(Files.createDirectories(home.resolve(DATABASE_PATH)));
+    final RocksDbSegmentedStorage storage =
+        RocksDbSegmentedStorage.create(
+            Files.createDirectories(home.resolve(DATABASE_PATH)),
+            writeAheadLogForBatches,
+            metricsSystem);
     final ProtocolSchedule<Void> protocolSchedule = genesisConfig.getProtocolSchedule();
     final BlockHashFunction blockHashFunction =
         ScheduleBasedBlockHashFunction.create(protocolSchedule);
     final MutableBlockchain blockchain =
-        new DefaultMutableBlockchain(genesisConfig.getBlock(), kv, blockHashFunction);
+        new DefaultMutableBlockchain(
+            genesisConfig.getBlock(), storage.getSegment(Segment.BLOCKCHAIN), blockHashFunction);
+    final KeyValueStorageWorldStateStorage worldStateStorage =
+        new KeyValueStorageWorldStateStorage(
+            storage.getSegment(Segment.WORLD_STATE), storage.getSegment(Segment.CODE));
     final WorldStateArchive worldStateArchive =
-        new WorldStateArchive(new KeyValueStorageWorldStateStorage(kv));
+        new WorldStateArchive(
+            worldStateStorage,
+            storage.getSegment(Segment.WORLD_STATE_SNAPSHOT),
+            worldStateConfig,
+            metricsSystem);
     genesisConfig.writeStateTo(worldStateArchive.getMutable(Hash.EMPTY_TRIE_HASH));
+    final Optional<Pruner> pruner =
+        worldStateConfig.isPruningEnabled()
+            ? Optional.of(
+                new Pruner(
+                    new MarkSweepPruner(
+                        worldStateStorage, storage.getSegment(Segment.PRUNING_MARKS)),
+                    blockchain,
+                    worldStateConfig))
+            : Optional.empty();
+    pruner.ifPresent(Pruner::start);
+    final BloomBitsIndex bloomBitsIndex =
+        new BloomBitsIndex(blockchain, storage.getSegment(Segment.BLOOM_BITS));
+    bloomBitsIndex.start();
 
     final ProtocolContext<Void> protocolContext =
-        new ProtocolContext<>(blockchain, worldStateArchive, null);
+        new ProtocolContext<>(blockchain, worldStateArchive, null, metricsSystem);
 
     final SynchronizerConfiguration syncConfig = taintedSyncConfig.validated(blockchain);
     final boolean fastSyncEnabled = syncConfig.syncMode().equals(SyncMode.FAST);
     final EthProtocolManager ethProtocolManager =
         new EthProtocolManager(
             protocolContext.getBlockchain(),
+            worldStateStorage,
             genesisConfig.getChainId(),
             fastSyncEnabled,
-            syncConfig.downloaderParallelism());
+            syncConfig.downloaderParallelism(),
+            metricsSystem);
     final SyncState syncState =
         new SyncState(
             protocolContext.getBlockchain(), ethProtocolManager.ethContext().getEthPeers());
@@ -136,6 +179,8 @@ public class MainnetPantheonController implements PantheonController<Void> {
             syncConfig,
             protocolSchedule,
             protocolContext,
+            worldStateStorage,
+            storage.getSegment(Segment.FAST_SYNC),
             ethProtocolManager.ethContext(),
             syncState);
 
@@ -171,6 +216,7 @@ public class MainnetPantheonController implements PantheonController<Void> {
         nodeKeys,
         transactionPool,
         miningCoordinator,
+        bloomBitsIndex,
         () -> {
           miningCoordinator.disable();
           minerThreadPool.shutdownNow();
@@ -179,7 +225,9 @@ public class MainnetPantheonController implements PantheonController<Void> {
           } catch (final InterruptedException e) {
             LOG.error("Failed to shutdown miner executor");
           }
-          kv.close();
+          bloomBitsIndex.stop();
+          pruner.ifPresent(Pruner::stop);
+          storage.close();
         });
   }
 
@@ -218,6 +266,11 @@ public class MainnetPantheonController implements PantheonController<Void> {
     return miningCoordinator;
   }
 
+  @Override
+  public BloomBitsIndex getBloomBitsIndex() {
+    return bloomBitsIndex;
+  }
+
   @Override
   public void close() {
     close.run();
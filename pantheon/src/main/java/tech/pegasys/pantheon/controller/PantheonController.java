@@ -17,14 +17,19 @@ import tech.pegasys.pantheon.consensus.ibftlegacy.IbftProtocolSchedule;
 import tech.pegasys.pantheon.crypto.SECP256K1.KeyPair;
 import tech.pegasys.pantheon.ethereum.ProtocolContext;
 import tech.pegasys.pantheon.ethereum.blockcreation.MiningCoordinator;
+import tech.pegasys.pantheon.ethereum.chain.BloomBitsIndex;
 import tech.pegasys.pantheon.ethereum.chain.GenesisConfig;
 import tech.pegasys.pantheon.ethereum.core.MiningParameters;
 import tech.pegasys.pantheon.ethereum.core.Synchronizer;
 import tech.pegasys.pantheon.ethereum.core.TransactionPool;
 import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
+import tech.pegasys.pantheon.ethereum.mainnet.EthHasher;
 import tech.pegasys.pantheon.ethereum.mainnet.MainnetProtocolSchedule;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
 import tech.pegasys.pantheon.ethereum.p2p.config.SubProtocolConfiguration;
+import tech.pegasys.pantheon.ethereum.vm.CodeCache;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateConfiguration;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -38,42 +43,58 @@ public interface PantheonController<C> extends Closeable {
 
   static PantheonController<?> fromConfig(
       final SynchronizerConfiguration syncConfig,
+      final WorldStateConfiguration worldStateConfig,
       final String configContents,
       final Path pantheonHome,
       final boolean ottomanTestnetOperation,
       final int networkId,
       final MiningParameters miningParameters,
-      final KeyPair nodeKeys)
+      final KeyPair nodeKeys,
+      final EthHasher ethHasher,
+      final boolean writeAheadLogForBatches,
+      final MetricsSystem metricsSystem)
       throws IOException {
 
     final JsonObject config = new JsonObject(configContents);
     final JsonObject configOptions = config.getJsonObject("config");
+    final CodeCache codeCache = new CodeCache(worldStateConfig.codeCacheSize(), metricsSystem);
 
     if (configOptions.containsKey("ethash")) {
       return MainnetPantheonController.init(
           pantheonHome,
-          GenesisConfig.fromConfig(config, MainnetProtocolSchedule.fromConfig(configOptions)),
+          GenesisConfig.fromConfig(
+              config, MainnetProtocolSchedule.fromConfig(configOptions, ethHasher, codeCache)),
           syncConfig,
+          worldStateConfig,
           miningParameters,
-          nodeKeys);
+          nodeKeys,
+          writeAheadLogForBatches,
+          metricsSystem);
     } else if (configOptions.containsKey("ibft")) {
       return IbftPantheonController.init(
           pantheonHome,
-          GenesisConfig.fromConfig(config, IbftProtocolSchedule.create(configOptions)),
+          GenesisConfig.fromConfig(config, IbftProtocolSchedule.create(configOptions, codeCache)),
           syncConfig,
+          worldStateConfig,
           ottomanTestnetOperation,
           configOptions.getJsonObject("ibft"),
           networkId,
-          nodeKeys);
+          nodeKeys,
+          writeAheadLogForBatches,
+          metricsSystem);
     } else if (configOptions.containsKey("clique")) {
       return CliquePantheonController.init(
           pantheonHome,
-          GenesisConfig.fromConfig(config, CliqueProtocolSchedule.create(configOptions, nodeKeys)),
+          GenesisConfig.fromConfig(
+              config, CliqueProtocolSchedule.create(configOptions, nodeKeys, codeCache)),
           syncConfig,
+          worldStateConfig,
           miningParameters,
           configOptions.getJsonObject("clique"),
           networkId,
-          nodeKeys);
+          nodeKeys,
+          writeAheadLogForBatches,
+          metricsSystem);
     } else {
       throw new IllegalArgumentException("Unknown consensus mechanism defined");
     }
@@ -96,4 +117,6 @@ public interface PantheonController<C> extends Closeable {
   TransactionPool getTransactionPool();
 
   MiningCoordinator getMiningCoordinator();
+
+  BloomBitsIndex getBloomBitsIndex();
 }
@@ -32,6 +32,9 @@ import tech.pegasys.pantheon.ethereum.mainnet.HeaderValidationMode;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSpec;
 import tech.pegasys.pantheon.ethereum.p2p.peers.DefaultPeer;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateConfiguration;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+import tech.pegasys.pantheon.metrics.prometheus.MetricsConfiguration;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.net.InetAddress;
@@ -83,10 +86,7 @@ public final class RunnerTest {
     final SynchronizerConfiguration fastSyncConfig =
         SynchronizerConfiguration.builder()
             .syncMode(mode)
-            // TODO: Disable switch from fast to full sync via configuration for now, set pivot to
-            // realistic value when world state persistence is added.
-            //        .fastSyncPivotDistance(blockCount / 2).build();
-            .fastSyncPivotDistance(0)
+            .fastSyncPivotDistance(blockCount / 2)
             .build();
 
     // Setup state with block data
@@ -95,8 +95,11 @@ public final class RunnerTest {
             dbAhead,
             GenesisConfig.mainnet(),
             fastSyncConfig,
+            WorldStateConfiguration.builder().build(),
             new MiningParametersTestBuilder().enabled(false).build(),
-            aheadDbNodeKeys)) {
+            aheadDbNodeKeys,
+            true,
+            new NoOpMetricsSystem())) {
       setupState(blockCount, controller.getProtocolSchedule(), controller.getProtocolContext());
     }
 
@@ -106,8 +109,11 @@ public final class RunnerTest {
             dbAhead,
             GenesisConfig.mainnet(),
             fastSyncConfig,
+            WorldStateConfiguration.builder().build(),
             new MiningParametersTestBuilder().enabled(false).build(),
-            aheadDbNodeKeys);
+            aheadDbNodeKeys,
+            true,
+            new NoOpMetricsSystem());
     final String listenHost = InetAddress.getLoopbackAddress().getHostAddress();
     final ExecutorService executorService = Executors.newFixedThreadPool(2);
     final JsonRpcConfiguration aheadJsonRpcConfiguration = jsonRpcConfiguration();
@@ -124,6 +130,7 @@ public final class RunnerTest {
             3,
             aheadJsonRpcConfiguration,
             aheadWebSocketConfiguration,
+            MetricsConfiguration.createDefault(),
             dbAhead);
     try {
 
@@ -139,8 +146,11 @@ public final class RunnerTest {
               temp.newFolder().toPath(),
               GenesisConfig.mainnet(),
               fastSyncConfig,
+              WorldStateConfiguration.builder().build(),
               new MiningParametersTestBuilder().enabled(false).build(),
-              behindDbNodeKeys);
+              behindDbNodeKeys,
+              true,
+              new NoOpMetricsSystem());
       final Runner runnerBehind =
           runnerBuilder.build(
               Vertx.vertx(),
@@ -157,6 +167,7 @@ public final class RunnerTest {
               3,
               behindJsonRpcConfiguration,
               behindWebSocketConfiguration,
+              MetricsConfiguration.createDefault(),
               dbBehind);
 
       executorService.submit(runnerBehind::execute);
@@ -14,6 +14,8 @@ package tech.pegasys.pantheon.cli;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
 
 import java.nio.file.Path;
@@ -33,7 +35,7 @@ public class ImportSubCommandTest extends CommandTestAbstract {
   @Test
   public void callingImportSubCommandHelpMustDisplayImportUsage() {
     parseCommand("import", "--help");
-    final String expectedOutputStart = "Usage: pantheon import [-hV] PATH";
+    final String expectedOutputStart = "Usage: pantheon import [-hV] [--no-write-ahead-log] PATH";
     assertThat(commandOutput.toString()).startsWith(expectedOutputStart);
     assertThat(commandErrorOutput.toString()).isEmpty();
   }
@@ -50,4 +52,25 @@ public class ImportSubCommandTest extends CommandTestAbstract {
     assertThat(commandOutput.toString()).isEmpty();
     assertThat(commandErrorOutput.toString()).isEmpty();
   }
+
+  @Test
+  public void noWriteAheadLogOptionMustBePassedToController() throws Exception {
+    parseCommand("import", "--no-write-ahead-log", Paths.get(".").toString());
+
+    verify(mockControllerBuilder)
+        .build(
+            any(),
+            any(),
+            any(),
+            any(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any(),
+            eq(false),
+            any());
+
+    assertThat(commandOutput.toString()).isEmpty();
+    assertThat(commandErrorOutput.toString()).isEmpty();
+  }
 }
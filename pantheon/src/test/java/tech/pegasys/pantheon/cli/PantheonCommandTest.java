@@ -37,6 +37,8 @@ import tech.pegasys.pantheon.ethereum.eth.sync.SyncMode;
 import tech.pegasys.pantheon.ethereum.jsonrpc.JsonRpcConfiguration;
 import tech.pegasys.pantheon.ethereum.jsonrpc.RpcApis;
 import tech.pegasys.pantheon.ethereum.jsonrpc.websocket.WebSocketConfiguration;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateConfiguration;
+import tech.pegasys.pantheon.metrics.prometheus.MetricsConfiguration;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import java.io.File;
@@ -53,7 +55,6 @@ import java.util.Optional;
 import com.google.common.collect.Lists;
 import com.google.common.io.Resources;
 import org.junit.Before;
-import org.junit.Ignore;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -93,6 +94,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             anyInt(),
             any(),
             any(),
+            any(),
             any()))
         .thenReturn(mockRunner);
   }
@@ -135,6 +137,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             eq(25),
             eq(defaultJsonRpcConfiguration),
             eq(defaultWebSocketConfiguration),
+            eq(MetricsConfiguration.createDefault()),
             any());
 
     final ArgumentCaptor<MiningParameters> miningArg =
@@ -142,7 +145,17 @@ public class PantheonCommandTest extends CommandTestAbstract {
     final ArgumentCaptor<EthNetworkConfig> networkArg =
         ArgumentCaptor.forClass(EthNetworkConfig.class);
     verify(mockControllerBuilder)
-        .build(any(), isNotNull(), networkArg.capture(), eq(false), miningArg.capture(), eq(false));
+        .build(
+            any(),
+            any(),
+            isNotNull(),
+            networkArg.capture(),
+            eq(false),
+            miningArg.capture(),
+            eq(false),
+            any(),
+            anyBoolean(),
+            any());
 
     verify(mockSyncConfBuilder).syncMode(ArgumentMatchers.eq(SyncMode.FULL));
 
@@ -249,6 +262,10 @@ public class PantheonCommandTest extends CommandTestAbstract {
     webSocketConfiguration.addRpcApi(CliqueRpcApis.CLIQUE);
     webSocketConfiguration.addRpcApi(IbftRpcApis.IBFT);
 
+    final MetricsConfiguration metricsConfiguration = MetricsConfiguration.createDefault();
+    metricsConfiguration.setHost("8.6.7.5");
+    metricsConfiguration.setPort(309);
+
     parseCommand("--config", configFile);
 
     verify(mockRunnerBuilder)
@@ -262,6 +279,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             eq(42),
             eq(jsonRpcConfiguration),
             eq(webSocketConfiguration),
+            eq(metricsConfiguration),
             any());
 
     final Collection<String> nodes =
@@ -275,15 +293,18 @@ public class PantheonCommandTest extends CommandTestAbstract {
             .build();
     verify(mockControllerBuilder)
         .build(
+            any(),
             any(),
             eq(Paths.get("~/pantheondata")),
             eq(networkConfig),
             eq(false),
             any(),
-            anyBoolean());
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any());
 
-    // TODO: Re-enable as per NC-1057/NC-1681
-    // verify(mockSyncConfBuilder).syncMode(ArgumentMatchers.eq(SyncMode.FAST));
+    verify(mockSyncConfBuilder).syncMode(ArgumentMatchers.eq(SyncMode.FAST));
 
     assertThat(commandErrorOutput.toString()).isEmpty();
 
@@ -315,12 +336,13 @@ public class PantheonCommandTest extends CommandTestAbstract {
             eq(25),
             eq(jsonRpcConfiguration),
             eq(webSocketConfiguration),
+            eq(MetricsConfiguration.createDefault()),
             any());
 
-    verify(mockControllerBuilder).build(any(), any(), any(), eq(false), any(), eq(false));
+    verify(mockControllerBuilder)
+        .build(any(), any(), any(), any(), eq(false), any(), eq(false), any(), anyBoolean(), any());
 
-    // TODO: Re-enable as per NC-1057/NC-1681
-    // verify(mockSyncConfBuilder).syncMode(ArgumentMatchers.eq(SyncMode.FULL));
+    verify(mockSyncConfBuilder).syncMode(ArgumentMatchers.eq(SyncMode.FULL));
 
     assertThat(commandErrorOutput.toString()).isEmpty();
 
@@ -335,7 +357,17 @@ public class PantheonCommandTest extends CommandTestAbstract {
     parseCommand("--datadir", path.toString());
 
     verify(mockControllerBuilder)
-        .build(any(), pathArgumentCaptor.capture(), any(), eq(false), any(), anyBoolean());
+        .build(
+            any(),
+            any(),
+            pathArgumentCaptor.capture(),
+            any(),
+            eq(false),
+            any(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any());
 
     assertThat(pathArgumentCaptor.getValue()).isEqualByComparingTo(path);
 
@@ -352,7 +384,17 @@ public class PantheonCommandTest extends CommandTestAbstract {
     parseCommand("--genesis", path.toString());
 
     verify(mockControllerBuilder)
-        .build(any(), any(), networkArg.capture(), anyBoolean(), any(), anyBoolean());
+        .build(
+            any(),
+            any(),
+            any(),
+            networkArg.capture(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any());
 
     assertThat(networkArg.getValue().getGenesisConfig()).isEqualTo(path.toUri());
 
@@ -368,7 +410,17 @@ public class PantheonCommandTest extends CommandTestAbstract {
 
     verify(mockRunnerBuilder)
         .build(
-            any(), any(), eq(false), any(), anyString(), anyInt(), anyInt(), any(), any(), any());
+            any(),
+            any(),
+            eq(false),
+            any(),
+            anyString(),
+            anyInt(),
+            anyInt(),
+            any(),
+            any(),
+            any(),
+            any());
 
     assertThat(commandOutput.toString()).isEmpty();
     assertThat(commandErrorOutput.toString()).isEmpty();
@@ -399,6 +451,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             anyInt(),
             any(),
             any(),
+            any(),
             any());
 
     assertThat(stringListArgumentCaptor.getValue().toArray()).isEqualTo(nodes);
@@ -425,6 +478,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             anyInt(),
             any(),
             any(),
+            any(),
             any());
 
     assertThat(stringArgumentCaptor.getValue()).isEqualTo(host);
@@ -451,6 +505,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             intArgumentCaptor.capture(),
             any(),
             any(),
+            any(),
             any());
 
     assertThat(intArgumentCaptor.getValue()).isEqualTo(maxPeers);
@@ -459,7 +514,6 @@ public class PantheonCommandTest extends CommandTestAbstract {
     assertThat(commandErrorOutput.toString()).isEmpty();
   }
 
-  @Ignore
   @Test
   public void syncModeOptionMustBeUsed() {
 
@@ -482,6 +536,109 @@ public class PantheonCommandTest extends CommandTestAbstract {
     assertThat(commandErrorOutput.toString()).isEmpty();
   }
 
+  @Test
+  public void trieNodeCacheSizeMustBeUsed() throws Exception {
+    parseCommand("--trie-node-cache-size", "1234");
+
+    final ArgumentCaptor<WorldStateConfiguration> worldStateArg =
+        ArgumentCaptor.forClass(WorldStateConfiguration.class);
+    verify(mockControllerBuilder)
+        .build(
+            any(),
+            worldStateArg.capture(),
+            any(),
+            any(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any());
+    assertThat(worldStateArg.getValue().trieNodeCacheSize()).isEqualTo(1234L);
+
+    assertThat(commandOutput.toString()).isEmpty();
+    assertThat(commandErrorOutput.toString()).isEmpty();
+  }
+
+  @Test
+  public void codeCacheSizeMustBeUsed() throws Exception {
+    parseCommand("--code-cache-size", "1234");
+
+    final ArgumentCaptor<WorldStateConfiguration> worldStateArg =
+        ArgumentCaptor.forClass(WorldStateConfiguration.class);
+    verify(mockControllerBuilder)
+        .build(
+            any(),
+            worldStateArg.capture(),
+            any(),
+            any(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any());
+    assertThat(worldStateArg.getValue().codeCacheSize()).isEqualTo(1234L);
+
+    assertThat(commandOutput.toString()).isEmpty();
+    assertThat(commandErrorOutput.toString()).isEmpty();
+  }
+
+  @Test
+  public void stateSnapshotEnabledMustBeUsed() throws Exception {
+    parseCommand("--state-snapshot-enabled");
+
+    final ArgumentCaptor<WorldStateConfiguration> worldStateArg =
+        ArgumentCaptor.forClass(WorldStateConfiguration.class);
+    verify(mockControllerBuilder)
+        .build(
+            any(),
+            worldStateArg.capture(),
+            any(),
+            any(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any());
+    assertThat(worldStateArg.getValue().isStateSnapshotEnabled()).isTrue();
+
+    assertThat(commandOutput.toString()).isEmpty();
+    assertThat(commandErrorOutput.toString()).isEmpty();
+  }
+
+  @Test
+  public void pruningOptionsMustBeUsed() throws Exception {
+    parseCommand(
+        "--pruning-enabled",
+        "--pruning-blocks-retained",
+        "64",
+        "--pruning-checkpoint-interval",
+        "10000");
+
+    final ArgumentCaptor<WorldStateConfiguration> worldStateArg =
+        ArgumentCaptor.forClass(WorldStateConfiguration.class);
+    verify(mockControllerBuilder)
+        .build(
+            any(),
+            worldStateArg.capture(),
+            any(),
+            any(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any());
+    assertThat(worldStateArg.getValue().isPruningEnabled()).isTrue();
+    assertThat(worldStateArg.getValue().pruningBlocksRetained()).isEqualTo(64);
+    assertThat(worldStateArg.getValue().pruningCheckpointInterval()).isEqualTo(10000);
+
+    assertThat(commandOutput.toString()).isEmpty();
+    assertThat(commandErrorOutput.toString()).isEmpty();
+  }
+
   @Test
   public void jsonRpcEnabledPropertyDefaultIsFalse() {
     parseCommand();
@@ -497,6 +654,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             anyInt(),
             jsonRpcConfigArgumentCaptor.capture(),
             any(),
+            any(),
             any());
 
     assertThat(jsonRpcConfigArgumentCaptor.getValue().isEnabled()).isFalse();
@@ -520,6 +678,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             anyInt(),
             jsonRpcConfigArgumentCaptor.capture(),
             any(),
+            any(),
             any());
 
     assertThat(jsonRpcConfigArgumentCaptor.getValue().isEnabled()).isTrue();
@@ -543,6 +702,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             anyInt(),
             jsonRpcConfigArgumentCaptor.capture(),
             any(),
+            any(),
             any());
 
     assertThat(jsonRpcConfigArgumentCaptor.getValue().getRpcApis())
@@ -570,6 +730,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             anyInt(),
             jsonRpcConfigArgumentCaptor.capture(),
             any(),
+            any(),
             any());
 
     assertThat(jsonRpcConfigArgumentCaptor.getValue().getHost()).isEqualTo(host);
@@ -595,6 +756,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             anyInt(),
             jsonRpcConfigArgumentCaptor.capture(),
             any(),
+            any(),
             any());
 
     assertThat(jsonRpcConfigArgumentCaptor.getValue().getCorsAllowedDomains().toArray())
@@ -620,6 +782,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             anyInt(),
             jsonRpcConfigArgumentCaptor.capture(),
             any(),
+            any(),
             any());
 
     assertThat(jsonRpcConfigArgumentCaptor.getValue().getCorsAllowedDomains().toArray())
@@ -645,6 +808,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             anyInt(),
             jsonRpcConfigArgumentCaptor.capture(),
             any(),
+            any(),
             any());
 
     assertThat(jsonRpcConfigArgumentCaptor.getValue().getCorsAllowedDomains())
@@ -670,6 +834,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             anyInt(),
             jsonRpcConfigArgumentCaptor.capture(),
             any(),
+            any(),
             any());
 
     assertThat(jsonRpcConfigArgumentCaptor.getValue().getCorsAllowedDomains()).isEmpty();
@@ -741,6 +906,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             anyInt(),
             any(),
             wsRpcConfigArgumentCaptor.capture(),
+            any(),
             any());
 
     assertThat(wsRpcConfigArgumentCaptor.getValue().isEnabled()).isFalse();
@@ -764,6 +930,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             anyInt(),
             any(),
             wsRpcConfigArgumentCaptor.capture(),
+            any(),
             any());
 
     assertThat(wsRpcConfigArgumentCaptor.getValue().isEnabled()).isTrue();
@@ -787,6 +954,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             anyInt(),
             any(),
             wsRpcConfigArgumentCaptor.capture(),
+            any(),
             any());
 
     assertThat(wsRpcConfigArgumentCaptor.getValue().getRpcApis())
@@ -813,6 +981,7 @@ public class PantheonCommandTest extends CommandTestAbstract {
             anyInt(),
             any(),
             wsRpcConfigArgumentCaptor.capture(),
+            any(),
             any());
 
     assertThat(wsRpcConfigArgumentCaptor.getValue().getHost()).isEqualTo(host);
@@ -822,6 +991,81 @@ public class PantheonCommandTest extends CommandTestAbstract {
     assertThat(commandErrorOutput.toString()).isEmpty();
   }
 
+  @Test
+  public void metricsEnabledPropertyDefaultIsFalse() {
+    parseCommand();
+
+    verify(mockRunnerBuilder)
+        .build(
+            any(),
+            any(),
+            anyBoolean(),
+            any(),
+            anyString(),
+            anyInt(),
+            anyInt(),
+            any(),
+            any(),
+            metricsConfigArgumentCaptor.capture(),
+            any());
+
+    assertThat(metricsConfigArgumentCaptor.getValue().isEnabled()).isFalse();
+
+    assertThat(commandOutput.toString()).isEmpty();
+    assertThat(commandErrorOutput.toString()).isEmpty();
+  }
+
+  @Test
+  public void metricsEnabledPropertyMustBeUsed() {
+    parseCommand("--metrics-enabled");
+
+    verify(mockRunnerBuilder)
+        .build(
+            any(),
+            any(),
+            anyBoolean(),
+            any(),
+            anyString(),
+            anyInt(),
+            anyInt(),
+            any(),
+            any(),
+            metricsConfigArgumentCaptor.capture(),
+            any());
+
+    assertThat(metricsConfigArgumentCaptor.getValue().isEnabled()).isTrue();
+
+    assertThat(commandOutput.toString()).isEmpty();
+    assertThat(commandErrorOutput.toString()).isEmpty();
+  }
+
+  @Test
+  public void metricsHostAndPortOptionMustBeUsed() {
+    final String host = "1.2.3.4";
+    final int port = 1234;
+    parseCommand("--metrics-listen", String.format("%1$s:%2$s", host, port));
+
+    verify(mockRunnerBuilder)
+        .build(
+            any(),
+            any(),
+            anyBoolean(),
+            any(),
+            anyString(),
+            anyInt(),
+            anyInt(),
+            any(),
+            any(),
+            metricsConfigArgumentCaptor.capture(),
+            any());
+
+    assertThat(metricsConfigArgumentCaptor.getValue().getHost()).isEqualTo(host);
+    assertThat(metricsConfigArgumentCaptor.getValue().getPort()).isEqualTo(port);
+
+    assertThat(commandOutput.toString()).isEmpty();
+    assertThat(commandErrorOutput.toString()).isEmpty();
+  }
+
   @Test
   public void pantheonDoesNotStartInMiningModeIfCoinbaseNotSet() throws Exception {
     parseCommand("--miner-enabled");
@@ -841,7 +1085,17 @@ public class PantheonCommandTest extends CommandTestAbstract {
         ArgumentCaptor.forClass(MiningParameters.class);
 
     verify(mockControllerBuilder)
-        .build(any(), any(), any(), anyBoolean(), miningArg.capture(), anyBoolean());
+        .build(
+            any(),
+            any(),
+            any(),
+            any(),
+            anyBoolean(),
+            miningArg.capture(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any());
     assertThat(commandOutput.toString()).isEmpty();
     assertThat(commandErrorOutput.toString()).isEmpty();
     assertThat(miningArg.getValue().isMiningEnabled()).isTrue();
@@ -863,7 +1117,17 @@ public class PantheonCommandTest extends CommandTestAbstract {
         ArgumentCaptor.forClass(MiningParameters.class);
 
     verify(mockControllerBuilder)
-        .build(any(), any(), any(), anyBoolean(), miningArg.capture(), anyBoolean());
+        .build(
+            any(),
+            any(),
+            any(),
+            any(),
+            anyBoolean(),
+            miningArg.capture(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any());
     assertThat(commandOutput.toString()).isEmpty();
     assertThat(commandErrorOutput.toString()).isEmpty();
     assertThat(miningArg.getValue().getCoinbase()).isEqualTo(Optional.of(requestedCoinbase));
@@ -875,7 +1139,17 @@ public class PantheonCommandTest extends CommandTestAbstract {
   @Test
   public void devModeOptionMustBeUsed() throws Exception {
     parseCommand("--dev-mode");
-    verify(mockControllerBuilder).build(any(), any(), any(), anyBoolean(), any(), eq(true));
+    verify(mockControllerBuilder).build(
+        any(),
+        any(),
+        any(),
+        any(),
+        anyBoolean(),
+        any(),
+        eq(true),
+        any(),
+        anyBoolean(),
+        any());
     assertThat(commandOutput.toString()).isEmpty();
     assertThat(commandErrorOutput.toString()).isEmpty();
   }
@@ -887,7 +1161,17 @@ public class PantheonCommandTest extends CommandTestAbstract {
     final ArgumentCaptor<EthNetworkConfig> networkArg =
         ArgumentCaptor.forClass(EthNetworkConfig.class);
     verify(mockControllerBuilder)
-        .build(any(), any(), networkArg.capture(), anyBoolean(), any(), anyBoolean());
+        .build(
+            any(),
+            any(),
+            any(),
+            networkArg.capture(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any());
     assertThat(commandOutput.toString()).isEmpty();
     assertThat(commandErrorOutput.toString()).isEmpty();
     assertThat(networkArg.getValue()).isEqualTo(EthNetworkConfig.rinkeby());
@@ -909,7 +1193,17 @@ public class PantheonCommandTest extends CommandTestAbstract {
     final ArgumentCaptor<EthNetworkConfig> networkArg =
         ArgumentCaptor.forClass(EthNetworkConfig.class);
     verify(mockControllerBuilder)
-        .build(any(), any(), networkArg.capture(), anyBoolean(), any(), anyBoolean());
+        .build(
+            any(),
+            any(),
+            any(),
+            networkArg.capture(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any(),
+            anyBoolean(),
+            any());
     assertThat(commandOutput.toString()).isEmpty();
     assertThat(commandErrorOutput.toString()).isEmpty();
     assertThat(networkArg.getValue().getGenesisConfig()).isEqualTo(path.toUri());
@@ -20,6 +20,9 @@ import tech.pegasys.pantheon.controller.PantheonController;
 import tech.pegasys.pantheon.crypto.SECP256K1.KeyPair;
 import tech.pegasys.pantheon.ethereum.core.MiningParametersTestBuilder;
 import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
+import tech.pegasys.pantheon.ethereum.mainnet.EthHasher;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateConfiguration;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
 import tech.pegasys.pantheon.testutil.BlockTestUtil;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
@@ -70,12 +73,16 @@ public final class BlockImporterTest {
     final PantheonController<?> controller =
         PantheonController.fromConfig(
             SynchronizerConfiguration.builder().build(),
+            WorldStateConfiguration.builder().build(),
             config,
             target,
             false,
             10,
             new MiningParametersTestBuilder().enabled(false).build(),
-            KeyPair.generate());
+            KeyPair.generate(),
+            new EthHasher.Light(),
+            true,
+            new NoOpMetricsSystem());
     final BlockImporter.ImportResult result = blockImporter.importBlockchain(source, controller);
 
     assertThat(result.count).isEqualTo(959);
@@ -24,6 +24,8 @@ import tech.pegasys.pantheon.ethereum.core.MiningParametersTestBuilder;
 import tech.pegasys.pantheon.ethereum.eth.sync.SynchronizerConfiguration;
 import tech.pegasys.pantheon.ethereum.mainnet.MainnetProtocolSchedule;
 import tech.pegasys.pantheon.ethereum.mainnet.ProtocolSchedule;
+import tech.pegasys.pantheon.ethereum.worldstate.WorldStateConfiguration;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
 import tech.pegasys.pantheon.util.uint.UInt256;
 
 import java.io.File;
@@ -77,8 +79,11 @@ public final class BlockchainImporterTest {
             target,
             genesisConfig,
             SynchronizerConfiguration.builder().build(),
+            WorldStateConfiguration.builder().build(),
             miningParams,
-            keyPair);
+            keyPair,
+            true,
+            new NoOpMetricsSystem());
     final BlockchainImporter.ImportResult result =
         blockImporter.importBlockchain(source, ctrl, skipValidation, 1, 1, false, false, null);
     System.out.println(source);
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.services.kvstore;
+
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Random;
+
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+@State(Scope.Benchmark)
+public class RocksDbKeyValueStorageBench {
+  private static final int WRITES_PER_COMMIT = 500;
+
+  @Param({"100000"})
+  public int entries;
+
+  // Roughly the size of a trie branch node
+  @Param({"532"})
+  public int valueSize;
+
+  private Path directory;
+  private RocksDbKeyValueStorage storage;
+  private BytesValue[] keys;
+  private BytesValue[] values;
+  private Random random;
+  private long writes;
+
+  @Setup(Level.Trial)
+  public void prepare() throws IOException {
+    directory = Files.createTempDirectory("rocksdb-bench");
+    storage = RocksDbKeyValueStorage.create(directory);
+    random = new Random(42);
+    keys = new BytesValue[entries];
+    values = new BytesValue[entries];
+    final KeyValueStorage.Transaction batch = storage.getStartBatch();
+    for (int i = 0; i < entries; i++) {
+      keys[i] = randomBytes(32);
+      values[i] = randomBytes(valueSize);
+      batch.put(keys[i], values[i]);
+    }
+    batch.commit();
+  }
+
+  @TearDown(Level.Trial)
+  public void cleanUp() throws IOException {
+    storage.close();
+    MoreFiles.deleteRecursively(directory, RecursiveDeleteOption.ALLOW_INSECURE);
+  }
+
+  private BytesValue randomBytes(final int size) {
+    final byte[] bytes = new byte[size];
+    random.nextBytes(bytes);
+    return BytesValue.wrap(bytes);
+  }
+
+  /** New keys for the write benchmarks, so that the stored data keeps growing like a chain. */
+  private BytesValue nextWriteKey() {
+    final byte[] key = new byte[32];
+    final long n = writes++;
+    for (int i = 0; i < 8; i++) {
+      key[i] = (byte) (n >>> (56 - 8 * i));
+    }
+    return BytesValue.wrap(key);
+  }
+
+  @Benchmark
+  public Optional<BytesValue> randomRead() {
+    return storage.get(keys[random.nextInt(entries)]);
+  }
+
+  @Benchmark
+  public Optional<BytesValue> missingRead() {
+    return storage.get(randomBytes(32));
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(WRITES_PER_COMMIT)
+  public void batchedWrites() {
+    final KeyValueStorage.Transaction batch = storage.getStartBatch();
+    for (int i = 0; i < WRITES_PER_COMMIT; i++) {
+      batch.put(nextWriteKey(), values[i]);
+    }
+    batch.commit();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(WRITES_PER_COMMIT)
+  public void transactionalWrites() {
+    final KeyValueStorage.Transaction transaction = storage.getStartTransaction();
+    for (int i = 0; i < WRITES_PER_COMMIT; i++) {
+      transaction.put(nextWriteKey(), values[i]);
+    }
+    transaction.commit();
+  }
+}
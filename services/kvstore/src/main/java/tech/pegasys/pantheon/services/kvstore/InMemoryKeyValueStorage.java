@@ -68,6 +68,11 @@ public class InMemoryKeyValueStorage implements KeyValueStorage {
     return new InMemoryTransaction();
   }
 
+  @Override
+  public Transaction getStartBatch() {
+    return new InMemoryTransaction();
+  }
+
   @Override
   public Stream<Entry> entries() {
     final Lock lock = rwLock.readLock();
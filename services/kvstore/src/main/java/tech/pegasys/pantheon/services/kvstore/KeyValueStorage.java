@@ -49,6 +49,15 @@ public interface KeyValueStorage {
    */
   Transaction getStartTransaction() throws StorageException;
 
+  /**
+   * Begins a write batch. A batch is applied atomically like a transaction, but is not checked for
+   * conflicts with concurrent writers, so it should only be used for writes that cannot conflict,
+   * such as content-addressed trie nodes or data guarded by an external lock.
+   *
+   * @return An object representing the batch.
+   */
+  Transaction getStartBatch() throws StorageException;
+
   /**
    * Stream all stored key-value pairs.
    *
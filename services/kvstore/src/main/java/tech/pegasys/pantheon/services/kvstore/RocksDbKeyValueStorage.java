@@ -12,6 +12,12 @@
  */
 package tech.pegasys.pantheon.services.kvstore;
 
+import tech.pegasys.pantheon.metrics.LabelledMetric;
+import tech.pegasys.pantheon.metrics.MetricCategory;
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.metrics.OperationTimer;
+import tech.pegasys.pantheon.metrics.OperationTimer.TimingContext;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
 import tech.pegasys.pantheon.util.bytes.BytesValue;
 
 import java.io.Closeable;
@@ -27,21 +33,27 @@ import java.util.stream.StreamSupport;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.OptimisticTransactionDB;
 import org.rocksdb.Options;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
-import org.rocksdb.TransactionDB;
-import org.rocksdb.TransactionDBOptions;
+import org.rocksdb.WriteBatch;
 import org.rocksdb.WriteOptions;
 
 public class RocksDbKeyValueStorage implements KeyValueStorage, Closeable {
 
   private static final Logger LOG = LogManager.getLogger();
 
-  private final Options options;
-  private final TransactionDBOptions txOptions;
-  private final TransactionDB db;
+  private final OptimisticTransactionDB db;
+  private final RocksDB baseDb;
+  private final ColumnFamilyHandle columnFamily;
+  private final boolean writeAheadLogForBatches;
+  private final Runnable closeAction;
+  private final OperationTimer readLatency;
+  private final OperationTimer writeLatency;
+  private final OperationTimer commitLatency;
   private final AtomicBoolean closed = new AtomicBoolean(false);
 
   static {
@@ -49,24 +61,69 @@ public class RocksDbKeyValueStorage implements KeyValueStorage, Closeable {
   }
 
   public static RocksDbKeyValueStorage create(final Path storageDirectory) throws StorageException {
-    return new RocksDbKeyValueStorage(storageDirectory);
-  }
-
-  private RocksDbKeyValueStorage(final Path storageDirectory) {
     try {
-      options = new Options().setCreateIfMissing(true);
-      txOptions = new TransactionDBOptions();
-      db = TransactionDB.open(options, txOptions, storageDirectory.toString());
+      final Options options = new Options().setCreateIfMissing(true);
+      final OptimisticTransactionDB db =
+          OptimisticTransactionDB.open(options, storageDirectory.toString());
+      return new RocksDbKeyValueStorage(
+          db,
+          db.getDefaultColumnFamily(),
+          true,
+          new NoOpMetricsSystem(),
+          "default",
+          () -> {
+            options.close();
+            db.close();
+          });
     } catch (final RocksDBException e) {
       throw new StorageException(e);
     }
   }
 
+  /**
+   * Creates a view onto a single column family of an already opened database.
+   *
+   * @param db The database holding the column family.
+   * @param columnFamily The column family all reads and writes are directed to.
+   * @param writeAheadLogForBatches Whether batches are written to the write-ahead log.
+   * @param metricsSystem Records the latencies of reads, writes and commits.
+   * @param name The name the latencies are labelled with.
+   * @param closeAction Releases the resources owned by this storage when it is closed.
+   */
+  RocksDbKeyValueStorage(
+      final OptimisticTransactionDB db,
+      final ColumnFamilyHandle columnFamily,
+      final boolean writeAheadLogForBatches,
+      final MetricsSystem metricsSystem,
+      final String name,
+      final Runnable closeAction) {
+    this.db = db;
+    // Batches are written to the base database so they bypass transaction conflict tracking.
+    this.baseDb = db.getBaseDB();
+    this.columnFamily = columnFamily;
+    this.writeAheadLogForBatches = writeAheadLogForBatches;
+    this.closeAction = closeAction;
+    this.readLatency = latencyTimer(metricsSystem, "read", name);
+    this.writeLatency = latencyTimer(metricsSystem, "write", name);
+    this.commitLatency = latencyTimer(metricsSystem, "commit", name);
+  }
+
+  private static OperationTimer latencyTimer(
+      final MetricsSystem metricsSystem, final String operation, final String name) {
+    final LabelledMetric<OperationTimer> timer =
+        metricsSystem.createLabelledTimer(
+            MetricCategory.ROCKSDB,
+            operation + "_latency_seconds",
+            "Latency of RocksDB " + operation + "s",
+            "segment");
+    return timer.labels(name);
+  }
+
   @Override
   public Optional<BytesValue> get(final BytesValue key) throws StorageException {
     throwIfClosed();
-    try {
-      return Optional.ofNullable(db.get(key.extractArray())).map(BytesValue::wrap);
+    try (final TimingContext ignored = readLatency.startTimer()) {
+      return Optional.ofNullable(db.get(columnFamily, key.extractArray())).map(BytesValue::wrap);
     } catch (final RocksDBException e) {
       throw new StorageException(e);
     }
@@ -75,8 +132,8 @@ public class RocksDbKeyValueStorage implements KeyValueStorage, Closeable {
   @Override
   public void put(final BytesValue key, final BytesValue value) throws StorageException {
     throwIfClosed();
-    try {
-      db.put(key.extractArray(), value.extractArray());
+    try (final TimingContext ignored = writeLatency.startTimer()) {
+      db.put(columnFamily, key.extractArray(), value.extractArray());
     } catch (final RocksDBException e) {
       throw new StorageException(e);
     }
@@ -85,8 +142,8 @@ public class RocksDbKeyValueStorage implements KeyValueStorage, Closeable {
   @Override
   public void remove(final BytesValue key) throws StorageException {
     throwIfClosed();
-    try {
-      db.delete(key.extractArray());
+    try (final TimingContext ignored = writeLatency.startTimer()) {
+      db.delete(columnFamily, key.extractArray());
     } catch (final RocksDBException e) {
       throw new StorageException(e);
     }
@@ -96,13 +153,21 @@ public class RocksDbKeyValueStorage implements KeyValueStorage, Closeable {
   public Transaction getStartTransaction() throws StorageException {
     throwIfClosed();
     final WriteOptions options = new WriteOptions();
-    return new RocksDbTransaction(db.beginTransaction(options), options);
+    return new RocksDbTransaction(
+        db.beginTransaction(options), columnFamily, options, commitLatency);
+  }
+
+  @Override
+  public Transaction getStartBatch() throws StorageException {
+    throwIfClosed();
+    final WriteOptions options = new WriteOptions().setDisableWAL(!writeAheadLogForBatches);
+    return new RocksDbWriteBatch(baseDb, columnFamily, options, commitLatency);
   }
 
   @Override
   public Stream<Entry> entries() {
     throwIfClosed();
-    final RocksIterator rocksIt = db.newIterator();
+    final RocksIterator rocksIt = db.newIterator(columnFamily);
     rocksIt.seekToFirst();
     return new RocksDbEntryIterator(rocksIt).toStream();
   }
@@ -110,9 +175,7 @@ public class RocksDbKeyValueStorage implements KeyValueStorage, Closeable {
   @Override
   public void close() {
     if (closed.compareAndSet(false, true)) {
-      txOptions.close();
-      options.close();
-      db.close();
+      closeAction.run();
     }
   }
 
@@ -180,17 +243,25 @@ public class RocksDbKeyValueStorage implements KeyValueStorage, Closeable {
 
   private static class RocksDbTransaction extends AbstractTransaction {
     private final org.rocksdb.Transaction innerTx;
+    private final ColumnFamilyHandle columnFamily;
     private final WriteOptions options;
+    private final OperationTimer commitLatency;
 
-    RocksDbTransaction(final org.rocksdb.Transaction innerTx, final WriteOptions options) {
+    RocksDbTransaction(
+        final org.rocksdb.Transaction innerTx,
+        final ColumnFamilyHandle columnFamily,
+        final WriteOptions options,
+        final OperationTimer commitLatency) {
       this.innerTx = innerTx;
+      this.columnFamily = columnFamily;
       this.options = options;
+      this.commitLatency = commitLatency;
     }
 
     @Override
     protected void doPut(final BytesValue key, final BytesValue value) {
       try {
-        innerTx.put(key.extractArray(), value.extractArray());
+        innerTx.put(columnFamily, key.extractArray(), value.extractArray());
       } catch (final RocksDBException e) {
         throw new StorageException(e);
       }
@@ -199,7 +270,7 @@ public class RocksDbKeyValueStorage implements KeyValueStorage, Closeable {
     @Override
     protected void doRemove(final BytesValue key) {
       try {
-        innerTx.delete(key.extractArray());
+        innerTx.delete(columnFamily, key.extractArray());
       } catch (final RocksDBException e) {
         throw new StorageException(e);
       }
@@ -207,7 +278,7 @@ public class RocksDbKeyValueStorage implements KeyValueStorage, Closeable {
 
     @Override
     protected void doCommit() throws StorageException {
-      try {
+      try (final TimingContext ignored = commitLatency.startTimer()) {
         innerTx.commit();
       } catch (final RocksDBException e) {
         throw new StorageException(e);
@@ -232,4 +303,62 @@ public class RocksDbKeyValueStorage implements KeyValueStorage, Closeable {
       options.close();
     }
   }
+
+  private static class RocksDbWriteBatch extends AbstractTransaction {
+    private final RocksDB db;
+    private final ColumnFamilyHandle columnFamily;
+    private final WriteOptions options;
+    private final OperationTimer commitLatency;
+    private final WriteBatch batch = new WriteBatch();
+
+    RocksDbWriteBatch(
+        final RocksDB db,
+        final ColumnFamilyHandle columnFamily,
+        final WriteOptions options,
+        final OperationTimer commitLatency) {
+      this.db = db;
+      this.columnFamily = columnFamily;
+      this.options = options;
+      this.commitLatency = commitLatency;
+    }
+
+    @Override
+    protected void doPut(final BytesValue key, final BytesValue value) {
+      try {
+        batch.put(columnFamily, key.extractArray(), value.extractArray());
+      } catch (final RocksDBException e) {
+        throw new StorageException(e);
+      }
+    }
+
+    @Override
+    protected void doRemove(final BytesValue key) {
+      try {
+        batch.delete(columnFamily, key.extractArray());
+      } catch (final RocksDBException e) {
+        throw new StorageException(e);
+      }
+    }
+
+    @Override
+    protected void doCommit() throws StorageException {
+      try (final TimingContext ignored = commitLatency.startTimer()) {
+        db.write(options, batch);
+      } catch (final RocksDBException e) {
+        throw new StorageException(e);
+      } finally {
+        close();
+      }
+    }
+
+    @Override
+    protected void doRollback() {
+      close();
+    }
+
+    private void close() {
+      batch.close();
+      options.close();
+    }
+  }
 }
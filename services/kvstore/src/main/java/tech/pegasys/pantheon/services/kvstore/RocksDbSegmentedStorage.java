@@ -0,0 +1,243 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.services.kvstore;
+
+import tech.pegasys.pantheon.metrics.MetricsSystem;
+import tech.pegasys.pantheon.metrics.noop.NoOpMetricsSystem;
+import tech.pegasys.pantheon.services.kvstore.KeyValueStorage.StorageException;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.rocksdb.BlockBasedTableConfig;
+import org.rocksdb.BloomFilter;
+import org.rocksdb.ColumnFamilyDescriptor;
+import org.rocksdb.ColumnFamilyHandle;
+import org.rocksdb.ColumnFamilyOptions;
+import org.rocksdb.CompactionStyle;
+import org.rocksdb.CompressionType;
+import org.rocksdb.DBOptions;
+import org.rocksdb.OptimisticTransactionDB;
+import org.rocksdb.Options;
+import org.rocksdb.RocksDB;
+import org.rocksdb.RocksDBException;
+
+/**
+ * A RocksDB database split into one column family per {@link Segment}.
+ *
+ * <p>Each segment is tuned independently with its own block cache, bloom filter, compaction style
+ * and compression, so that the random 32-byte keys of the world state do not churn compaction of
+ * the sequentially written blockchain data. Segments are exposed as regular {@link
+ * KeyValueStorage} instances and are closed together with the database.
+ */
+public class RocksDbSegmentedStorage implements Closeable {
+
+  private static final Logger LOG = LogManager.getLogger();
+
+  private static final long MB = 1024 * 1024;
+  private static final int BLOOM_FILTER_BITS_PER_KEY = 10;
+
+  public enum Segment {
+    BLOCKCHAIN("blockchain", 64 * MB, CompactionStyle.LEVEL, CompressionType.LZ4_COMPRESSION),
+    WORLD_STATE("world-state", 256 * MB, CompactionStyle.LEVEL, CompressionType.LZ4_COMPRESSION),
+    CODE("code", 32 * MB, CompactionStyle.UNIVERSAL, CompressionType.LZ4_COMPRESSION),
+    WORLD_STATE_SNAPSHOT(
+        "world-state-snapshot", 128 * MB, CompactionStyle.LEVEL, CompressionType.LZ4_COMPRESSION),
+    PRUNING_MARKS("pruning-marks", 16 * MB, CompactionStyle.LEVEL, CompressionType.NO_COMPRESSION),
+    BLOOM_BITS("bloom-bits", 16 * MB, CompactionStyle.LEVEL, CompressionType.LZ4_COMPRESSION),
+    FAST_SYNC("fast-sync", 16 * MB, CompactionStyle.LEVEL, CompressionType.NO_COMPRESSION);
+
+    private final String name;
+    private final byte[] columnFamilyName;
+    private final long blockCacheSize;
+    private final CompactionStyle compactionStyle;
+    private final CompressionType compressionType;
+
+    Segment(
+        final String name,
+        final long blockCacheSize,
+        final CompactionStyle compactionStyle,
+        final CompressionType compressionType) {
+      this.name = name;
+      this.columnFamilyName = name.getBytes(StandardCharsets.UTF_8);
+      this.blockCacheSize = blockCacheSize;
+      this.compactionStyle = compactionStyle;
+      this.compressionType = compressionType;
+    }
+
+    private ColumnFamilyOptions createOptions() {
+      final BlockBasedTableConfig tableConfig =
+          new BlockBasedTableConfig()
+              .setBlockCacheSize(blockCacheSize)
+              .setFilter(new BloomFilter(BLOOM_FILTER_BITS_PER_KEY, false))
+              .setCacheIndexAndFilterBlocks(true);
+      return new ColumnFamilyOptions()
+          .setCompactionStyle(compactionStyle)
+          .setCompressionType(compressionType)
+          .setLevelCompactionDynamicLevelBytes(compactionStyle == CompactionStyle.LEVEL)
+          .setTableFormatConfig(tableConfig);
+    }
+
+    /*
+     * Each column family is flushed on its own, so a segment written without the write-ahead log
+     * comes back from a crash with only its earlier writes, while the others keep all of theirs.
+     * That is only safe for the blockchain: the world state it refers to is then always present,
+     * and the chain head just falls back to an earlier imported block.
+     */
+    private boolean canSkipWriteAheadLog() {
+      return this == BLOCKCHAIN;
+    }
+  }
+
+  private final DBOptions options;
+  private final OptimisticTransactionDB db;
+  private final List<ColumnFamilyOptions> columnFamilyOptions;
+  private final ColumnFamilyHandle defaultColumnFamily;
+  private final Map<Segment, RocksDbKeyValueStorage> segments = new EnumMap<>(Segment.class);
+  private final AtomicBoolean closed = new AtomicBoolean(false);
+
+  static {
+    RocksDB.loadLibrary();
+  }
+
+  public static RocksDbSegmentedStorage create(final Path storageDirectory)
+      throws StorageException {
+    return create(storageDirectory, true, new NoOpMetricsSystem());
+  }
+
+  public static RocksDbSegmentedStorage create(
+      final Path storageDirectory, final MetricsSystem metricsSystem) throws StorageException {
+    return create(storageDirectory, true, metricsSystem);
+  }
+
+  /**
+   * Opens the segmented storage.
+   *
+   * @param storageDirectory The directory holding the database.
+   * @param writeAheadLogForBatches Whether write batches go through the write-ahead log. Disabling
+   *     it speeds up bulk imports, at the cost of losing the most recently imported blocks if the
+   *     process crashes before they are flushed. It only applies to the blockchain segment, so that
+   *     the other segments never lose data the blockchain refers to.
+   * @param metricsSystem Records the latencies of each segment, labelled with the segment name.
+   * @return The opened storage.
+   */
+  public static RocksDbSegmentedStorage create(
+      final Path storageDirectory,
+      final boolean writeAheadLogForBatches,
+      final MetricsSystem metricsSystem)
+      throws StorageException {
+    return new RocksDbSegmentedStorage(storageDirectory, writeAheadLogForBatches, metricsSystem);
+  }
+
+  private RocksDbSegmentedStorage(
+      final Path storageDirectory,
+      final boolean writeAheadLogForBatches,
+      final MetricsSystem metricsSystem) {
+    checkNotLegacyLayout(storageDirectory);
+
+    final List<ColumnFamilyDescriptor> descriptors = new ArrayList<>();
+    columnFamilyOptions = new ArrayList<>();
+    final ColumnFamilyOptions defaultOptions = new ColumnFamilyOptions();
+    columnFamilyOptions.add(defaultOptions);
+    descriptors.add(new ColumnFamilyDescriptor(RocksDB.DEFAULT_COLUMN_FAMILY, defaultOptions));
+    for (final Segment segment : Segment.values()) {
+      final ColumnFamilyOptions segmentOptions = segment.createOptions();
+      columnFamilyOptions.add(segmentOptions);
+      descriptors.add(new ColumnFamilyDescriptor(segment.columnFamilyName, segmentOptions));
+    }
+
+    try {
+      options = new DBOptions().setCreateIfMissing(true).setCreateMissingColumnFamilies(true);
+      final List<ColumnFamilyHandle> handles = new ArrayList<>(descriptors.size());
+      db = OptimisticTransactionDB.open(options, storageDirectory.toString(), descriptors, handles);
+      defaultColumnFamily = handles.get(0);
+      for (final Segment segment : Segment.values()) {
+        final ColumnFamilyHandle handle = handles.get(segment.ordinal() + 1);
+        segments.put(
+            segment,
+            new RocksDbKeyValueStorage(
+                db,
+                handle,
+                writeAheadLogForBatches || !segment.canSkipWriteAheadLog(),
+                metricsSystem,
+                segment.name,
+                handle::close));
+      }
+    } catch (final RocksDBException e) {
+      throw new StorageException(e);
+    }
+  }
+
+  /**
+   * Returns the storage backed by the column family of the given segment.
+   *
+   * @param segment The data domain to access.
+   * @return The key-value storage for the segment.
+   */
+  public KeyValueStorage getSegment(final Segment segment) {
+    if (closed.get()) {
+      throw new IllegalStateException("Storage has been closed");
+    }
+    return segments.get(segment);
+  }
+
+  @Override
+  public void close() {
+    if (closed.compareAndSet(false, true)) {
+      segments.values().forEach(RocksDbKeyValueStorage::close);
+      defaultColumnFamily.close();
+      db.close();
+      options.close();
+      columnFamilyOptions.forEach(ColumnFamilyOptions::close);
+    }
+  }
+
+  /**
+   * Databases written before the storage was segmented keep everything in the default column
+   * family. Opening them with segments would silently present an empty chain, so refuse instead.
+   */
+  private static void checkNotLegacyLayout(final Path storageDirectory) {
+    final List<byte[]> existingColumnFamilies;
+    try (final Options listOptions = new Options()) {
+      existingColumnFamilies = RocksDB.listColumnFamilies(listOptions, storageDirectory.toString());
+    } catch (final RocksDBException e) {
+      // No database exists yet.
+      return;
+    }
+    if (existingColumnFamilies.isEmpty()) {
+      return;
+    }
+    final boolean segmented =
+        existingColumnFamilies
+            .stream()
+            .anyMatch(name -> Arrays.equals(name, Segment.BLOCKCHAIN.columnFamilyName));
+    if (!segmented) {
+      LOG.error(
+          "Database at {} uses the unsegmented storage layout and must be resynchronised.",
+          storageDirectory);
+      throw new IllegalStateException(
+          "Unsupported database layout at "
+              + storageDirectory
+              + ". Remove the database directory and resynchronise.");
+    }
+  }
+}
@@ -193,6 +193,51 @@ public abstract class AbstractKeyValueStorageTest {
     assertEquals(store.get(BytesValue.of(4)), Optional.empty());
   }
 
+  @Test
+  public void batchCommit() throws Exception {
+    final KeyValueStorage store = createStore();
+    store.put(BytesValue.of(1), BytesValue.of(1));
+    store.put(BytesValue.of(2), BytesValue.of(2));
+
+    final Transaction batch = store.getStartBatch();
+    batch.put(BytesValue.of(1), BytesValue.of(3));
+    batch.remove(BytesValue.of(2));
+    batch.put(BytesValue.of(4), BytesValue.of(8));
+
+    // Check values before committing have not changed
+    assertEquals(store.get(BytesValue.of(1)).get(), BytesValue.of(1));
+    assertEquals(store.get(BytesValue.of(2)).get(), BytesValue.of(2));
+    assertEquals(store.get(BytesValue.of(4)), Optional.empty());
+
+    batch.commit();
+
+    assertEquals(store.get(BytesValue.of(1)).get(), BytesValue.of(3));
+    assertEquals(store.get(BytesValue.of(2)), Optional.empty());
+    assertEquals(store.get(BytesValue.of(4)).get(), BytesValue.of(8));
+  }
+
+  @Test
+  public void batchRollback() throws Exception {
+    final KeyValueStorage store = createStore();
+    store.put(BytesValue.of(1), BytesValue.of(1));
+
+    final Transaction batch = store.getStartBatch();
+    batch.put(BytesValue.of(1), BytesValue.of(3));
+    batch.put(BytesValue.of(4), BytesValue.of(8));
+    batch.rollback();
+
+    assertEquals(store.get(BytesValue.of(1)).get(), BytesValue.of(1));
+    assertEquals(store.get(BytesValue.of(4)), Optional.empty());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void batchPutAfterCommit() throws Exception {
+    final KeyValueStorage store = createStore();
+    final Transaction batch = store.getStartBatch();
+    batch.commit();
+    batch.put(BytesValue.of(1), BytesValue.of(1));
+  }
+
   @Test
   public void transactionCommitEmpty() throws Exception {
     final KeyValueStorage store = createStore();
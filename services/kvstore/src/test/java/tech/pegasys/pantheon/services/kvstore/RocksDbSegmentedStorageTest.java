@@ -0,0 +1,80 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.services.kvstore;
+
+import static org.junit.Assert.assertEquals;
+
+import tech.pegasys.pantheon.services.kvstore.RocksDbSegmentedStorage.Segment;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class RocksDbSegmentedStorageTest extends AbstractKeyValueStorageTest {
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  @Override
+  protected KeyValueStorage createStore() throws Exception {
+    return RocksDbSegmentedStorage.create(folder.newFolder().toPath())
+        .getSegment(Segment.WORLD_STATE);
+  }
+
+  @Test
+  public void segmentsAreIndependent() throws Exception {
+    final RocksDbSegmentedStorage storage =
+        RocksDbSegmentedStorage.create(folder.newFolder().toPath());
+    final KeyValueStorage blockchain = storage.getSegment(Segment.BLOCKCHAIN);
+    final KeyValueStorage worldState = storage.getSegment(Segment.WORLD_STATE);
+
+    final KeyValueStorage.Transaction tx = blockchain.getStartTransaction();
+    tx.put(BytesValue.fromHexString("0001"), BytesValue.fromHexString("0FFF"));
+    tx.commit();
+
+    assertEquals(
+        Optional.of(BytesValue.fromHexString("0FFF")),
+        blockchain.get(BytesValue.fromHexString("0001")));
+    assertEquals(Optional.empty(), worldState.get(BytesValue.fromHexString("0001")));
+    storage.close();
+  }
+
+  @Test
+  public void segmentDataSurvivesReopen() throws Exception {
+    final Path path = folder.newFolder().toPath();
+    final RocksDbSegmentedStorage storage = RocksDbSegmentedStorage.create(path);
+    storage
+        .getSegment(Segment.CODE)
+        .put(BytesValue.fromHexString("0F"), BytesValue.fromHexString("0ABC"));
+    storage.close();
+
+    final RocksDbSegmentedStorage reopened = RocksDbSegmentedStorage.create(path);
+    assertEquals(
+        Optional.of(BytesValue.fromHexString("0ABC")),
+        reopened.getSegment(Segment.CODE).get(BytesValue.fromHexString("0F")));
+    reopened.close();
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void refusesUnsegmentedDatabase() throws Exception {
+    final Path path = folder.newFolder().toPath();
+    final RocksDbKeyValueStorage legacy = RocksDbKeyValueStorage.create(path);
+    legacy.put(BytesValue.fromHexString("0F"), BytesValue.fromHexString("0ABC"));
+    legacy.close();
+
+    RocksDbSegmentedStorage.create(path);
+  }
+}
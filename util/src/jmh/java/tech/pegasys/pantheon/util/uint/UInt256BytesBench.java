@@ -0,0 +1,99 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.util.uint;
+
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.MutableBytes32;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class UInt256BytesBench {
+
+  // Significant bytes of the operands, contracts mostly work on small values
+  @Param({"8", "32"})
+  public int width;
+
+  volatile Bytes32 v1;
+  volatile Bytes32 v2;
+  volatile Bytes32 modulo;
+
+  // Reused like the EVM reuses its stack slots
+  private final MutableBytes32 result = MutableBytes32.create();
+
+  private static Bytes32 random(final Random random, final int width) {
+    final byte[] bytes = new byte[Bytes32.SIZE];
+    final byte[] value = new byte[width];
+    random.nextBytes(value);
+    value[0] |= 1;
+    System.arraycopy(value, 0, bytes, Bytes32.SIZE - width, width);
+    return Bytes32.wrap(bytes);
+  }
+
+  @Setup(Level.Trial)
+  public void prepare() {
+    final Random random = new Random(42);
+    v1 = random(random, width);
+    v2 = random(random, width / 2);
+    modulo = random(random, width / 2);
+  }
+
+  @Benchmark
+  public Bytes32 add() {
+    UInt256Bytes.add(v1, v2, result);
+    return result;
+  }
+
+  @Benchmark
+  public Bytes32 subtract() {
+    UInt256Bytes.subtract(v1, v2, result);
+    return result;
+  }
+
+  @Benchmark
+  public Bytes32 multiply() {
+    UInt256Bytes.multiply(v1, v2, result);
+    return result;
+  }
+
+  @Benchmark
+  public Bytes32 divide() {
+    UInt256Bytes.divide(v1, v2, result);
+    return result;
+  }
+
+  @Benchmark
+  public Bytes32 modulo() {
+    UInt256Bytes.modulo(v1, v2, result);
+    return result;
+  }
+
+  @Benchmark
+  public Bytes32 multiplyModulo() {
+    UInt256Bytes.multiplyModulo(v1, v2, modulo, result);
+    return result;
+  }
+
+  @Benchmark
+  public Bytes32 exponent() {
+    UInt256Bytes.exponent(v1, v2, result);
+    return result;
+  }
+}
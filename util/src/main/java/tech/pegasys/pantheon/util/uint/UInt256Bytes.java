@@ -21,7 +21,6 @@ import tech.pegasys.pantheon.util.bytes.BytesValues;
 import tech.pegasys.pantheon.util.bytes.MutableBytes32;
 
 import java.math.BigInteger;
-import java.util.function.BinaryOperator;
 
 import com.google.common.annotations.VisibleForTesting;
 
@@ -31,6 +30,9 @@ import com.google.common.annotations.VisibleForTesting;
  * <p>This class is the base of the operations on {@link UInt256} and {@link UInt256Value}, but can
  * also be used to work directly on bytes if necessary.
  *
+ * <p>Multiplications, divisions and exponentiation are done on four {@code long} limbs by {@link
+ * UInt256Limbs}, which avoids converting the operands to {@link BigInteger}.
+ *
  * <p>All operations that write a result are written assuming that the result may be the same object
  * than one or more of the operands.
  */
@@ -56,8 +58,6 @@ public abstract class UInt256Bytes {
 
   private static final int SIZE = Bytes32.SIZE;
 
-  private static final BigInteger P256 = BigInteger.valueOf(2).pow(8 * 32);
-
   /** The number of ints a word contains. */
   private static final int INT_SIZE = 32 / 4;
 
@@ -83,38 +83,6 @@ public abstract class UInt256Bytes {
     }
   }
 
-  private static void copy(final BigInteger result, final MutableBytes32 destination) {
-    copyPadded(BytesValue.wrap(result.toByteArray()), destination, ALL_ZERO_BYTE);
-  }
-
-  private interface TriOperator<T> {
-    T apply(T op1, T op2, T op3);
-  }
-
-  private static void doOnBigInteger(
-      final Bytes32 v1,
-      final Bytes32 v2,
-      final MutableBytes32 dest,
-      final BinaryOperator<BigInteger> operator) {
-    final BigInteger i1 = BytesValues.asUnsignedBigInteger(v1);
-    final BigInteger i2 = BytesValues.asUnsignedBigInteger(v2);
-    final BigInteger result = operator.apply(i1, i2);
-    copy(result, dest);
-  }
-
-  private static void doOnBigInteger(
-      final Bytes32 v1,
-      final Bytes32 v2,
-      final Bytes32 v3,
-      final MutableBytes32 dest,
-      final TriOperator<BigInteger> operator) {
-    final BigInteger i1 = BytesValues.asUnsignedBigInteger(v1);
-    final BigInteger i2 = BytesValues.asUnsignedBigInteger(v2);
-    final BigInteger i3 = BytesValues.asUnsignedBigInteger(v3);
-    final BigInteger result = operator.apply(i1, i2, i3);
-    copy(result, dest);
-  }
-
   public static void add(final Bytes32 v1, final Bytes32 v2, final MutableBytes32 result) {
     long carry = 0;
 
@@ -144,11 +112,7 @@ public abstract class UInt256Bytes {
 
   public static void addModulo(
       final Bytes32 v1, final Bytes32 v2, final Bytes32 modulo, final MutableBytes32 result) {
-    if (modulo.isZero()) {
-      result.clear();
-    } else {
-      doOnBigInteger(v1, v2, modulo, result, (op1, op2, mod) -> op1.add(op2).mod(mod));
-    }
+    UInt256Limbs.addModulo(v1, v2, modulo, result);
   }
 
   public static void subtract(final Bytes32 v1, final Bytes32 v2, final MutableBytes32 result) {
@@ -222,54 +186,21 @@ public abstract class UInt256Bytes {
     add(result, UInt256.ONE.getBytes(), result);
   }
 
-  private static boolean isPowerOf2(final long n) {
-    return (n ^ (n - 1)) == 0;
-  }
-
   public static void multiply(final Bytes32 v1, final Bytes32 v2, final MutableBytes32 result) {
-    doOnBigInteger(v1, v2, result, BigInteger::multiply);
+    UInt256Limbs.multiply(v1, v2, result);
   }
 
   public static void multiply(final Bytes32 v1, final long v2, final MutableBytes32 result) {
-    if (v2 == 0) {
-      result.clear();
-    } else if (v2 > 0 && isPowerOf2(v2)) {
-      final int shifts = log2(v2);
-      // We have to be careful with overflowing operation.
-      if (bitLength(v1) >= SIZE - 1 - shifts) {
-        doOnBigInteger(v1, of(v2), result, BigInteger::multiply);
-      } else {
-        shiftLeft(v1, shifts, result);
-      }
-    } else {
-      doOnBigInteger(v1, of(v2), result, BigInteger::multiply);
-    }
+    UInt256Limbs.multiply(v1, v2, result);
   }
 
   public static void multiplyModulo(
       final Bytes32 v1, final Bytes32 v2, final Bytes32 modulo, final MutableBytes32 result) {
-    if (modulo.isZero()) {
-      result.clear();
-    } else {
-      doOnBigInteger(v1, v2, modulo, result, (op1, op2, mod) -> op1.multiply(op2).mod(mod));
-    }
+    UInt256Limbs.multiplyModulo(v1, v2, modulo, result);
   }
 
   public static void divide(final Bytes32 v1, final Bytes32 v2, final MutableBytes32 result) {
-    if (v2.isZero()) {
-      result.clear();
-    } else {
-      doOnBigInteger(v1, v2, result, BigInteger::divide);
-    }
-  }
-
-  // Assumes v > 0
-  private static int log2(final long v) {
-    return 63 - Long.numberOfLeadingZeros(v);
-  }
-
-  private static int maskByteRightBits(final int bits) {
-    return ~(0xFFFFFFFF << bits);
+    UInt256Limbs.divide(v1, v2, result);
   }
 
   @VisibleForTesting
@@ -303,45 +234,19 @@ public abstract class UInt256Bytes {
   }
 
   public static void divide(final Bytes32 v1, final long v2, final MutableBytes32 result) {
-    if (v2 == 0) {
-      result.clear();
-    } else if (v2 > 0 && isPowerOf2(v2)) {
-      shiftRight(v1, log2(v2), result);
-    } else {
-      doOnBigInteger(v1, of(v2), result, BigInteger::divide);
-    }
+    UInt256Limbs.divide(v1, v2, result);
   }
 
   public static void exponent(final Bytes32 v1, final Bytes32 v2, final MutableBytes32 result) {
-    doOnBigInteger(v1, v2, result, (val, pow) -> val.modPow(pow, P256));
+    UInt256Limbs.exponent(v1, v2, result);
   }
 
   public static void modulo(final Bytes32 v1, final Bytes32 v2, final MutableBytes32 result) {
-    if (v2.isZero()) {
-      result.clear();
-    } else {
-      doOnBigInteger(v1, v2, result, BigInteger::mod);
-    }
+    UInt256Limbs.modulo(v1, v2, result);
   }
 
   public static void modulo(final Bytes32 v1, final long v2, final MutableBytes32 result) {
-    if (v2 == 0) {
-      result.clear();
-    } else if (v2 > 0 && isPowerOf2(v2)) {
-      final int log2 = log2(v2);
-      final int d = log2 / 8;
-      final int s = log2 % 8;
-      // Copy everything right of d
-      v1.slice(d + 1).copyTo(result, d + 1);
-      // Mask the byte at d to only include the s right-most bits ...
-      result.set(SIZE - 1 - d, (byte) (v1.get(SIZE - 1 - d) & maskByteRightBits(s)));
-      // and clear anything left of that d.
-      for (int i = d + 1; i < SIZE; i++) {
-        result.set(SIZE - 1 - i, (byte) 0);
-      }
-    } else {
-      doOnBigInteger(v1, of(v2), result, BigInteger::mod);
-    }
+    UInt256Limbs.modulo(v1, v2, result);
   }
 
   public static void signExtend(final Bytes32 v1, final Bytes32 v2, final MutableBytes32 result) {
@@ -0,0 +1,658 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.util.uint;
+
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.bytes.MutableBytes32;
+
+import java.math.BigInteger;
+
+/**
+ * Arithmetic on 256 bits integers held in four {@code long} limbs.
+ *
+ * <p>Operands are read from {@link Bytes32} into local variables, {@code x3} being the most
+ * significant limb and {@code x0} the least significant one, and results are written back to a
+ * {@link MutableBytes32}. No operation allocates, except {@link #multiplyModulo} when the product
+ * of the reduced operands does not fit 256 bits.
+ *
+ * <p>Every operation reads all its operands before writing the result, so the result may be the
+ * same object than one or more of the operands.
+ */
+abstract class UInt256Limbs {
+
+  private UInt256Limbs() {}
+
+  private static final long INT_MASK = 0xFFFFFFFFL;
+  private static final long INT_BASE = 1L << 32;
+
+  // Unsigned operations
+
+  static void multiply(final Bytes32 v1, final Bytes32 v2, final MutableBytes32 result) {
+    multiply(
+        v1.getLong(0),
+        v1.getLong(8),
+        v1.getLong(16),
+        v1.getLong(24),
+        v2.getLong(0),
+        v2.getLong(8),
+        v2.getLong(16),
+        v2.getLong(24),
+        result);
+  }
+
+  static void multiply(final Bytes32 v1, final long v2, final MutableBytes32 result) {
+    multiply(v1.getLong(0), v1.getLong(8), v1.getLong(16), v1.getLong(24), 0, 0, 0, v2, result);
+  }
+
+  static void divide(final Bytes32 v1, final Bytes32 v2, final MutableBytes32 result) {
+    divide(
+        v1.getLong(0),
+        v1.getLong(8),
+        v1.getLong(16),
+        v1.getLong(24),
+        v2.getLong(0),
+        v2.getLong(8),
+        v2.getLong(16),
+        v2.getLong(24),
+        false,
+        result);
+  }
+
+  static void divide(final Bytes32 v1, final long v2, final MutableBytes32 result) {
+    divide(
+        v1.getLong(0), v1.getLong(8), v1.getLong(16), v1.getLong(24), 0, 0, 0, v2, false, result);
+  }
+
+  static void modulo(final Bytes32 v1, final Bytes32 v2, final MutableBytes32 result) {
+    divide(
+        v1.getLong(0),
+        v1.getLong(8),
+        v1.getLong(16),
+        v1.getLong(24),
+        v2.getLong(0),
+        v2.getLong(8),
+        v2.getLong(16),
+        v2.getLong(24),
+        true,
+        result);
+  }
+
+  static void modulo(final Bytes32 v1, final long v2, final MutableBytes32 result) {
+    divide(
+        v1.getLong(0), v1.getLong(8), v1.getLong(16), v1.getLong(24), 0, 0, 0, v2, true, result);
+  }
+
+  static void addModulo(
+      final Bytes32 v1, final Bytes32 v2, final Bytes32 modulo, final MutableBytes32 result) {
+    final long a3 = v1.getLong(0);
+    final long a2 = v1.getLong(8);
+    final long a1 = v1.getLong(16);
+    final long a0 = v1.getLong(24);
+    final long b3 = v2.getLong(0);
+    final long b2 = v2.getLong(8);
+    final long b1 = v2.getLong(16);
+    final long b0 = v2.getLong(24);
+    final long m3 = modulo.getLong(0);
+    final long m2 = modulo.getLong(8);
+    final long m1 = modulo.getLong(16);
+    final long m0 = modulo.getLong(24);
+    if ((m3 | m2 | m1 | m0) == 0) {
+      result.clear();
+      return;
+    }
+
+    // Reduce both operands, so that their sum is less than twice the modulo.
+    divide(a3, a2, a1, a0, m3, m2, m1, m0, true, result);
+    final long x3 = result.getLong(0);
+    final long x2 = result.getLong(8);
+    final long x1 = result.getLong(16);
+    final long x0 = result.getLong(24);
+    divide(b3, b2, b1, b0, m3, m2, m1, m0, true, result);
+    final long y3 = result.getLong(0);
+    final long y2 = result.getLong(8);
+    final long y1 = result.getLong(16);
+    final long y0 = result.getLong(24);
+
+    long carry;
+    final long s0 = x0 + y0;
+    carry = carry(s0, x0);
+    long s1 = x1 + carry;
+    carry = carry(s1, carry);
+    s1 += y1;
+    carry += carry(s1, y1);
+    long s2 = x2 + carry;
+    carry = carry(s2, carry);
+    s2 += y2;
+    carry += carry(s2, y2);
+    long s3 = x3 + carry;
+    carry = carry(s3, carry);
+    s3 += y3;
+    carry += carry(s3, y3);
+
+    // The sum is at most 2 * (modulo - 1), so subtracting the modulo once is enough. When the sum
+    // overflowed, the subtraction wraps around to the right value.
+    if (carry != 0 || compare(s3, s2, s1, s0, m3, m2, m1, m0) >= 0) {
+      subtract(s3, s2, s1, s0, m3, m2, m1, m0, result);
+    } else {
+      set(result, s3, s2, s1, s0);
+    }
+  }
+
+  static void multiplyModulo(
+      final Bytes32 v1, final Bytes32 v2, final Bytes32 modulo, final MutableBytes32 result) {
+    final long a3 = v1.getLong(0);
+    final long a2 = v1.getLong(8);
+    final long a1 = v1.getLong(16);
+    final long a0 = v1.getLong(24);
+    final long b3 = v2.getLong(0);
+    final long b2 = v2.getLong(8);
+    final long b1 = v2.getLong(16);
+    final long b0 = v2.getLong(24);
+    final long m3 = modulo.getLong(0);
+    final long m2 = modulo.getLong(8);
+    final long m1 = modulo.getLong(16);
+    final long m0 = modulo.getLong(24);
+    if ((m3 | m2 | m1 | m0) == 0) {
+      result.clear();
+      return;
+    }
+
+    divide(a3, a2, a1, a0, m3, m2, m1, m0, true, result);
+    final long x3 = result.getLong(0);
+    final long x2 = result.getLong(8);
+    final long x1 = result.getLong(16);
+    final long x0 = result.getLong(24);
+    divide(b3, b2, b1, b0, m3, m2, m1, m0, true, result);
+    final long y3 = result.getLong(0);
+    final long y2 = result.getLong(8);
+    final long y1 = result.getLong(16);
+    final long y0 = result.getLong(24);
+
+    if (bitLength(x3, x2, x1, x0) + bitLength(y3, y2, y1, y0) <= 256) {
+      multiply(x3, x2, x1, x0, y3, y2, y1, y0, result);
+      divide(
+          result.getLong(0),
+          result.getLong(8),
+          result.getLong(16),
+          result.getLong(24),
+          m3,
+          m2,
+          m1,
+          m0,
+          true,
+          result);
+    } else {
+      // Reducing a 512 bits product is rare enough, it only happens with a modulo above 2^128.
+      final BigInteger product =
+          new BigInteger(1, longsToBytes(x3, x2, x1, x0))
+              .multiply(new BigInteger(1, longsToBytes(y3, y2, y1, y0)));
+      final BigInteger remainder = product.mod(new BigInteger(1, longsToBytes(m3, m2, m1, m0)));
+      UInt256Bytes.copyPadded(BytesValue.wrap(remainder.toByteArray()), result, (byte) 0);
+    }
+  }
+
+  static void exponent(final Bytes32 v1, final Bytes32 v2, final MutableBytes32 result) {
+    final long b3 = v1.getLong(0);
+    final long b2 = v1.getLong(8);
+    final long b1 = v1.getLong(16);
+    final long b0 = v1.getLong(24);
+    final long e3 = v2.getLong(0);
+    final long e2 = v2.getLong(8);
+    final long e1 = v2.getLong(16);
+    final long e0 = v2.getLong(24);
+
+    // Square and multiply, from the most significant bit of the exponent.
+    set(result, 0, 0, 0, 1);
+    for (int i = bitLength(e3, e2, e1, e0) - 1; i >= 0; i--) {
+      long r3 = result.getLong(0);
+      long r2 = result.getLong(8);
+      long r1 = result.getLong(16);
+      long r0 = result.getLong(24);
+      multiply(r3, r2, r1, r0, r3, r2, r1, r0, result);
+      if (((limb(e3, e2, e1, e0, i >>> 6) >>> (i & 63)) & 1) != 0) {
+        r3 = result.getLong(0);
+        r2 = result.getLong(8);
+        r1 = result.getLong(16);
+        r0 = result.getLong(24);
+        multiply(r3, r2, r1, r0, b3, b2, b1, b0, result);
+      }
+    }
+  }
+
+  // Signed operations, on two's complement values
+
+  static void signedDivide(final Bytes32 v1, final Bytes32 v2, final MutableBytes32 result) {
+    signedDivide(v1, v2, false, result);
+  }
+
+  static void signedModulo(final Bytes32 v1, final Bytes32 v2, final MutableBytes32 result) {
+    signedDivide(v1, v2, true, result);
+  }
+
+  private static void signedDivide(
+      final Bytes32 v1, final Bytes32 v2, final boolean remainder, final MutableBytes32 result) {
+    final long a3 = v1.getLong(0);
+    final long a2 = v1.getLong(8);
+    final long a1 = v1.getLong(16);
+    final long a0 = v1.getLong(24);
+    final long b3 = v2.getLong(0);
+    final long b2 = v2.getLong(8);
+    final long b1 = v2.getLong(16);
+    final long b0 = v2.getLong(24);
+    final boolean negativeDividend = a3 < 0;
+    final boolean negativeDivisor = b3 < 0;
+
+    // Divide the absolute values. The absolute value of -2^255 is 2^255, which is right once read
+    // as unsigned.
+    if (negativeDividend && negativeDivisor) {
+      divide(
+          negate3(a3, a2, a1, a0),
+          negate2(a2, a1, a0),
+          negate1(a1, a0),
+          -a0,
+          negate3(b3, b2, b1, b0),
+          negate2(b2, b1, b0),
+          negate1(b1, b0),
+          -b0,
+          remainder,
+          result);
+    } else if (negativeDividend) {
+      divide(
+          negate3(a3, a2, a1, a0),
+          negate2(a2, a1, a0),
+          negate1(a1, a0),
+          -a0,
+          b3,
+          b2,
+          b1,
+          b0,
+          remainder,
+          result);
+    } else if (negativeDivisor) {
+      divide(
+          a3,
+          a2,
+          a1,
+          a0,
+          negate3(b3, b2, b1, b0),
+          negate2(b2, b1, b0),
+          negate1(b1, b0),
+          -b0,
+          remainder,
+          result);
+    } else {
+      divide(a3, a2, a1, a0, b3, b2, b1, b0, remainder, result);
+    }
+
+    // The quotient is negative when the signs differ, the remainder has the sign of the dividend.
+    if (remainder ? negativeDividend : negativeDividend != negativeDivisor) {
+      final long r3 = result.getLong(0);
+      final long r2 = result.getLong(8);
+      final long r1 = result.getLong(16);
+      final long r0 = result.getLong(24);
+      set(result, negate3(r3, r2, r1, r0), negate2(r2, r1, r0), negate1(r1, r0), -r0);
+    }
+  }
+
+  // Limb arithmetic
+
+  private static void multiply(
+      final long a3,
+      final long a2,
+      final long a1,
+      final long a0,
+      final long b3,
+      final long b2,
+      final long b1,
+      final long b0,
+      final MutableBytes32 result) {
+    // Schoolbook multiplication, dropping everything above 256 bits. Each step computes a 128 bits
+    // (hi, lo) = x * y + the previous carry and partial result, which cannot overflow.
+    long lo;
+    long hi;
+
+    final long r0 = a0 * b0;
+    long c = multiplyHigh(a0, b0);
+    lo = a1 * b0;
+    hi = multiplyHigh(a1, b0);
+    long r1 = lo + c;
+    c = hi + carry(r1, lo);
+    lo = a2 * b0;
+    hi = multiplyHigh(a2, b0);
+    long r2 = lo + c;
+    c = hi + carry(r2, lo);
+    long r3 = a3 * b0 + c;
+
+    lo = a0 * b1;
+    hi = multiplyHigh(a0, b1);
+    lo += r1;
+    hi += carry(lo, r1);
+    r1 = lo;
+    c = hi;
+    lo = a1 * b1;
+    hi = multiplyHigh(a1, b1);
+    lo += c;
+    hi += carry(lo, c);
+    lo += r2;
+    hi += carry(lo, r2);
+    r2 = lo;
+    r3 += a2 * b1 + hi;
+
+    lo = a0 * b2;
+    hi = multiplyHigh(a0, b2);
+    lo += r2;
+    hi += carry(lo, r2);
+    r2 = lo;
+    r3 += a1 * b2 + hi;
+
+    r3 += a0 * b3;
+
+    set(result, r3, r2, r1, r0);
+  }
+
+  private static void divide(
+      final long a3,
+      final long a2,
+      final long a1,
+      final long a0,
+      final long b3,
+      final long b2,
+      final long b1,
+      final long b0,
+      final boolean remainder,
+      final MutableBytes32 result) {
+    if ((b3 | b2 | b1 | b0) == 0) {
+      result.clear();
+    } else if (compare(a3, a2, a1, a0, b3, b2, b1, b0) < 0) {
+      if (remainder) {
+        set(result, a3, a2, a1, a0);
+      } else {
+        result.clear();
+      }
+    } else if ((b3 | b2 | b1) == 0) {
+      divideByLong(a3, a2, a1, a0, b0, remainder, result);
+    } else {
+      divideBySubtraction(a3, a2, a1, a0, b3, b2, b1, b0, remainder, result);
+    }
+  }
+
+  private static void divideByLong(
+      final long a3,
+      final long a2,
+      final long a1,
+      final long a0,
+      final long d,
+      final boolean remainder,
+      final MutableBytes32 result) {
+    // Long division, one limb at a time. Each step divides a 128 bits value whose upper limb is
+    // the remainder of the previous step, so that the quotient fits a limb.
+    final long q3 = Long.divideUnsigned(a3, d);
+    long r = a3 - q3 * d;
+    final long q2 = divideUnsigned(r, a2, d);
+    r = a2 - q2 * d;
+    final long q1 = divideUnsigned(r, a1, d);
+    r = a1 - q1 * d;
+    final long q0 = divideUnsigned(r, a0, d);
+    r = a0 - q0 * d;
+    if (remainder) {
+      set(result, 0, 0, 0, r);
+    } else {
+      set(result, q3, q2, q1, q0);
+    }
+  }
+
+  private static void divideBySubtraction(
+      final long a3,
+      final long a2,
+      final long a1,
+      final long a0,
+      final long b3,
+      final long b2,
+      final long b1,
+      final long b0,
+      final boolean remainder,
+      final MutableBytes32 result) {
+    // The divisor is at least 2^64, so the quotient has at most 192 bits: shift the divisor to the
+    // left of the dividend and subtract it back, one quotient bit at a time.
+    final int shift = bitLength(a3, a2, a1, a0) - bitLength(b3, b2, b1, b0);
+    long d3 = shiftedLimb(b3, b2, b1, b0, shift, 3);
+    long d2 = shiftedLimb(b3, b2, b1, b0, shift, 2);
+    long d1 = shiftedLimb(b3, b2, b1, b0, shift, 1);
+    long d0 = shiftedLimb(b3, b2, b1, b0, shift, 0);
+    long r3 = a3;
+    long r2 = a2;
+    long r1 = a1;
+    long r0 = a0;
+    long q2 = 0;
+    long q1 = 0;
+    long q0 = 0;
+
+    for (int i = shift; i >= 0; i--) {
+      if (compare(r3, r2, r1, r0, d3, d2, d1, d0) >= 0) {
+        final long s0 = r0 - d0;
+        long borrow = borrow(r0, d0, 0);
+        final long s1 = r1 - d1 - borrow;
+        borrow = borrow(r1, d1, borrow);
+        final long s2 = r2 - d2 - borrow;
+        borrow = borrow(r2, d2, borrow);
+        r3 = r3 - d3 - borrow;
+        r2 = s2;
+        r1 = s1;
+        r0 = s0;
+
+        final long bit = 1L << (i & 63);
+        switch (i >>> 6) {
+          case 0:
+            q0 |= bit;
+            break;
+          case 1:
+            q1 |= bit;
+            break;
+          default:
+            q2 |= bit;
+            break;
+        }
+      }
+      d0 = (d0 >>> 1) | (d1 << 63);
+      d1 = (d1 >>> 1) | (d2 << 63);
+      d2 = (d2 >>> 1) | (d3 << 63);
+      d3 >>>= 1;
+    }
+
+    if (remainder) {
+      set(result, r3, r2, r1, r0);
+    } else {
+      set(result, 0, q2, q1, q0);
+    }
+  }
+
+  private static void subtract(
+      final long a3,
+      final long a2,
+      final long a1,
+      final long a0,
+      final long b3,
+      final long b2,
+      final long b1,
+      final long b0,
+      final MutableBytes32 result) {
+    long borrow = borrow(a0, b0, 0);
+    final long r0 = a0 - b0;
+    final long r1 = a1 - b1 - borrow;
+    borrow = borrow(a1, b1, borrow);
+    final long r2 = a2 - b2 - borrow;
+    borrow = borrow(a2, b2, borrow);
+    final long r3 = a3 - b3 - borrow;
+    set(result, r3, r2, r1, r0);
+  }
+
+  /**
+   * Divides the unsigned 128 bits value {@code (u1, u0)} by {@code v}, which must be greater than
+   * {@code u1} so that the quotient fits 64 bits. This is divlu from Hacker's Delight, dividing
+   * with 32 bits digits.
+   */
+  private static long divideUnsigned(final long u1, final long u0, final long v) {
+    if (u1 == 0) {
+      return Long.divideUnsigned(u0, v);
+    }
+    // Normalize the divisor, so that its most significant bit is set.
+    final int s = Long.numberOfLeadingZeros(v);
+    final long vn = v << s;
+    final long vn1 = vn >>> 32;
+    final long vn0 = vn & INT_MASK;
+    final long un32 = s == 0 ? u1 : (u1 << s) | (u0 >>> (64 - s));
+    final long un10 = u0 << s;
+    final long un1 = un10 >>> 32;
+    final long un0 = un10 & INT_MASK;
+
+    long q1 = Long.divideUnsigned(un32, vn1);
+    long rhat = Long.remainderUnsigned(un32, vn1);
+    while (Long.compareUnsigned(q1, INT_BASE) >= 0
+        || Long.compareUnsigned(q1 * vn0, (rhat << 32) + un1) > 0) {
+      q1--;
+      rhat += vn1;
+      if (Long.compareUnsigned(rhat, INT_BASE) >= 0) {
+        break;
+      }
+    }
+
+    final long un21 = (un32 << 32) + un1 - q1 * vn;
+    long q0 = Long.divideUnsigned(un21, vn1);
+    rhat = Long.remainderUnsigned(un21, vn1);
+    while (Long.compareUnsigned(q0, INT_BASE) >= 0
+        || Long.compareUnsigned(q0 * vn0, (rhat << 32) + un0) > 0) {
+      q0--;
+      rhat += vn1;
+      if (Long.compareUnsigned(rhat, INT_BASE) >= 0) {
+        break;
+      }
+    }
+
+    return (q1 << 32) | q0;
+  }
+
+  /** The upper 64 bits of the unsigned 128 bits product of {@code x} and {@code y}. */
+  private static long multiplyHigh(final long x, final long y) {
+    final long x0 = x & INT_MASK;
+    final long x1 = x >>> 32;
+    final long y0 = y & INT_MASK;
+    final long y1 = y >>> 32;
+    final long t = x1 * y0 + ((x0 * y0) >>> 32);
+    final long w1 = (t & INT_MASK) + x0 * y1;
+    return x1 * y1 + (t >>> 32) + (w1 >>> 32);
+  }
+
+  /** 1 if {@code sum}, the result of adding {@code addend} to some value, overflowed. */
+  private static long carry(final long sum, final long addend) {
+    return Long.compareUnsigned(sum, addend) < 0 ? 1 : 0;
+  }
+
+  /** 1 if subtracting {@code y} and {@code borrow} from {@code x} underflows. */
+  private static long borrow(final long x, final long y, final long borrow) {
+    final int cmp = Long.compareUnsigned(x, y);
+    return cmp < 0 || (cmp == 0 && borrow != 0) ? 1 : 0;
+  }
+
+  // The limbs of the two's complement negation of (x3, x2, x1, x0); the least significant is -x0.
+
+  private static long negate1(final long x1, final long x0) {
+    return x0 == 0 ? -x1 : ~x1;
+  }
+
+  private static long negate2(final long x2, final long x1, final long x0) {
+    return (x1 | x0) == 0 ? -x2 : ~x2;
+  }
+
+  private static long negate3(final long x3, final long x2, final long x1, final long x0) {
+    return (x2 | x1 | x0) == 0 ? -x3 : ~x3;
+  }
+
+  private static int compare(
+      final long a3,
+      final long a2,
+      final long a1,
+      final long a0,
+      final long b3,
+      final long b2,
+      final long b1,
+      final long b0) {
+    if (a3 != b3) {
+      return Long.compareUnsigned(a3, b3);
+    } else if (a2 != b2) {
+      return Long.compareUnsigned(a2, b2);
+    } else if (a1 != b1) {
+      return Long.compareUnsigned(a1, b1);
+    }
+    return Long.compareUnsigned(a0, b0);
+  }
+
+  private static int bitLength(final long x3, final long x2, final long x1, final long x0) {
+    if (x3 != 0) {
+      return 256 - Long.numberOfLeadingZeros(x3);
+    } else if (x2 != 0) {
+      return 192 - Long.numberOfLeadingZeros(x2);
+    } else if (x1 != 0) {
+      return 128 - Long.numberOfLeadingZeros(x1);
+    }
+    return 64 - Long.numberOfLeadingZeros(x0);
+  }
+
+  private static long limb(
+      final long x3, final long x2, final long x1, final long x0, final int index) {
+    switch (index) {
+      case 0:
+        return x0;
+      case 1:
+        return x1;
+      case 2:
+        return x2;
+      case 3:
+        return x3;
+      default:
+        return 0;
+    }
+  }
+
+  /** The limb at {@code index} of {@code (x3, x2, x1, x0) << shift}, for a shift below 256. */
+  private static long shiftedLimb(
+      final long x3,
+      final long x2,
+      final long x1,
+      final long x0,
+      final int shift,
+      final int index) {
+    final int limbShift = shift >>> 6;
+    final int bitShift = shift & 63;
+    final long high = limb(x3, x2, x1, x0, index - limbShift);
+    if (bitShift == 0) {
+      return high;
+    }
+    final long low = limb(x3, x2, x1, x0, index - limbShift - 1);
+    return (high << bitShift) | (low >>> (64 - bitShift));
+  }
+
+  private static void set(
+      final MutableBytes32 result, final long x3, final long x2, final long x1, final long x0) {
+    result.setLong(0, x3);
+    result.setLong(8, x2);
+    result.setLong(16, x1);
+    result.setLong(24, x0);
+  }
+
+  private static byte[] longsToBytes(final long x3, final long x2, final long x1, final long x0) {
+    final MutableBytes32 bytes = MutableBytes32.create();
+    set(bytes, x3, x2, x1, x0);
+    return bytes.extractArray();
+  }
+}
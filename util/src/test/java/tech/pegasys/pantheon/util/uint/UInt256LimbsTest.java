@@ -0,0 +1,182 @@
+/*
+ * Copyright 2018 ConsenSys AG.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License is distributed on
+ * an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations under the License.
+ */
+package tech.pegasys.pantheon.util.uint;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import tech.pegasys.pantheon.util.bytes.Bytes32;
+import tech.pegasys.pantheon.util.bytes.BytesValue;
+import tech.pegasys.pantheon.util.bytes.BytesValues;
+import tech.pegasys.pantheon.util.bytes.MutableBytes32;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BinaryOperator;
+
+import org.junit.Test;
+
+public class UInt256LimbsTest {
+
+  private static final BigInteger P256 = BigInteger.ONE.shiftLeft(256);
+  private static final BigInteger P255 = BigInteger.ONE.shiftLeft(255);
+
+  private final List<Bytes32> values = values();
+
+  // Edge values, and random values of every byte length so that all the division paths are used.
+  private static List<Bytes32> values() {
+    final List<Bytes32> values = new ArrayList<>();
+    values.add(Bytes32.ZERO);
+    values.add(UInt256.ONE.getBytes());
+    values.add(UInt256.of(2).getBytes());
+    values.add(unsigned(P256.subtract(BigInteger.ONE)));
+    values.add(unsigned(P255));
+    values.add(unsigned(P255.subtract(BigInteger.ONE)));
+    values.add(unsigned(BigInteger.ONE.shiftLeft(64)));
+    values.add(unsigned(BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE)));
+    values.add(unsigned(BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE)));
+    final Random random = new Random(42);
+    for (int size = 1; size <= Bytes32.SIZE; size++) {
+      for (int i = 0; i < 4; i++) {
+        final byte[] bytes = new byte[size];
+        random.nextBytes(bytes);
+        values.add(Bytes32.leftPad(BytesValue.wrap(bytes)));
+      }
+    }
+    return values;
+  }
+
+  private static Bytes32 unsigned(final BigInteger value) {
+    final BigInteger mod = value.mod(P256);
+    final MutableBytes32 result = MutableBytes32.create();
+    UInt256Bytes.copyPadded(BytesValue.wrap(mod.toByteArray()), result, (byte) 0);
+    return result;
+  }
+
+  private static BigInteger u(final Bytes32 v) {
+    return BytesValues.asUnsignedBigInteger(v);
+  }
+
+  private static BigInteger s(final Bytes32 v) {
+    return BytesValues.asSignedBigInteger(v);
+  }
+
+  private interface BinaryBytesOp {
+    void apply(Bytes32 v1, Bytes32 v2, MutableBytes32 result);
+  }
+
+  private void checkBinary(
+      final BinaryBytesOp op, final BinaryOperator<BigInteger> expected, final boolean signed) {
+    for (final Bytes32 v1 : values) {
+      for (final Bytes32 v2 : values) {
+        final MutableBytes32 result = MutableBytes32.create();
+        op.apply(v1, v2, result);
+        final BigInteger exp = signed ? expected.apply(s(v1), s(v2)) : expected.apply(u(v1), u(v2));
+        assertThat(result).describedAs("%s op %s", v1, v2).isEqualTo(unsigned(exp));
+
+        // The result may be one of the operands
+        final MutableBytes32 inPlace = v1.mutableCopy();
+        op.apply(inPlace, v2, inPlace);
+        assertThat(inPlace).describedAs("%s op %s in place", v1, v2).isEqualTo(unsigned(exp));
+      }
+    }
+  }
+
+  @Test
+  public void multiply() {
+    checkBinary(UInt256Limbs::multiply, BigInteger::multiply, false);
+  }
+
+  @Test
+  public void divide() {
+    checkBinary(
+        UInt256Limbs::divide, (a, b) -> b.signum() == 0 ? BigInteger.ZERO : a.divide(b), false);
+  }
+
+  @Test
+  public void modulo() {
+    checkBinary(
+        UInt256Limbs::modulo, (a, b) -> b.signum() == 0 ? BigInteger.ZERO : a.mod(b), false);
+  }
+
+  @Test
+  public void divideAndModuloByLong() {
+    for (final Bytes32 v1 : values) {
+      for (final Bytes32 v2 : values) {
+        final long divisor = v2.getLong(Bytes32.SIZE - 8) & Long.MAX_VALUE;
+        final BigInteger d = BigInteger.valueOf(divisor);
+        final MutableBytes32 result = MutableBytes32.create();
+        UInt256Limbs.divide(v1, divisor, result);
+        assertThat(result).isEqualTo(unsigned(divisor == 0 ? d : u(v1).divide(d)));
+        UInt256Limbs.modulo(v1, divisor, result);
+        assertThat(result).isEqualTo(unsigned(divisor == 0 ? d : u(v1).mod(d)));
+        UInt256Limbs.multiply(v1, divisor, result);
+        assertThat(result).isEqualTo(unsigned(u(v1).multiply(d)));
+      }
+    }
+  }
+
+  @Test
+  public void exponent() {
+    checkBinary(UInt256Limbs::exponent, (a, b) -> a.modPow(b, P256), false);
+  }
+
+  @Test
+  public void addAndMultiplyModulo() {
+    for (final Bytes32 v1 : values) {
+      for (final Bytes32 v2 : values) {
+        for (final Bytes32 m : values.subList(0, 40)) {
+          final BigInteger mod = u(m);
+          final MutableBytes32 result = MutableBytes32.create();
+          UInt256Limbs.addModulo(v1, v2, m, result);
+          assertThat(result)
+              .isEqualTo(unsigned(mod.signum() == 0 ? mod : u(v1).add(u(v2)).mod(mod)));
+          UInt256Limbs.multiplyModulo(v1, v2, m, result);
+          assertThat(result)
+              .isEqualTo(unsigned(mod.signum() == 0 ? mod : u(v1).multiply(u(v2)).mod(mod)));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void signedDivide() {
+    checkBinary(
+        UInt256Limbs::signedDivide,
+        (a, b) -> b.signum() == 0 ? BigInteger.ZERO : a.divide(b),
+        true);
+  }
+
+  @Test
+  public void signedModulo() {
+    checkBinary(
+        UInt256Limbs::signedModulo,
+        (a, b) -> {
+          if (b.signum() == 0) {
+            return BigInteger.ZERO;
+          }
+          final BigInteger absModulo = a.abs().mod(b.abs());
+          return a.signum() < 0 ? absModulo.negate() : absModulo;
+        },
+        true);
+  }
+
+  @Test
+  public void signedDivideOverflows() {
+    final Bytes32 minValue = unsigned(P255);
+    final MutableBytes32 result = MutableBytes32.create();
+    UInt256Limbs.signedDivide(minValue, Int256.MINUS_ONE.getBytes(), result);
+    assertThat(result).isEqualTo(minValue);
+  }
+}